@@ -0,0 +1,57 @@
+package org.basex.bench;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for reading compressed databases ({@link MainOptions#TABLECOMPRESS},
+ * {@link MainOptions#BLOCKCOMPRESS}). The sizes of the database files are output
+ * before each trial.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CompressBenchmark extends StorageBenchmark {
+  /** Compression of the node table. */
+  @Param({ "false", "true" })
+  public boolean tablecompress;
+  /** Compression of texts and attribute values. */
+  @Param({ "false", "true" })
+  public boolean blockcompress;
+
+  @Override
+  void options(final MainOptions options) {
+    options.set(MainOptions.TABLECOMPRESS, tablecompress);
+    options.set(MainOptions.BLOCKCOMPRESS, blockcompress);
+  }
+
+  @Override
+  void prepare() throws IOException {
+    super.prepare();
+    Util.outln();
+    Util.outln("Table: %, Texts: %, Attribute values: %", size(DataText.DATATBL),
+        size(DataText.DATATXT), size(DataText.DATAATV));
+  }
+
+  /**
+   * Returns the size of the database files with the specified prefix.
+   * @param prefix prefix of the file names
+   * @return size
+   */
+  private String size(final String prefix) {
+    long size = 0;
+    for(final IOFile file : context.soptions.dbPath(NAME).children()) {
+      if(file.name().startsWith(prefix)) size += file.length();
+    }
+    return Performance.format(size);
+  }
+}
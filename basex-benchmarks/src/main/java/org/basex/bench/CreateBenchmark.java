@@ -0,0 +1,60 @@
+package org.basex.bench;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for creating databases from directories ({@link MainOptions#PARALLELCREATE}).
+ * The generated document is split into several smaller documents.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class CreateBenchmark extends XMarkBenchmark {
+  /** Number of documents. */
+  private static final int DOCS = 64;
+
+  /** Number of threads for parsing documents (0: sequential parsing). */
+  @Param({ "0", "2", "4", "8" })
+  public int parallelcreate;
+
+  /** Directory with documents. */
+  private IOFile dir;
+
+  @Override
+  void prepare() throws IOException {
+    // documents are generated once and reused by subsequent trials
+    dir = new IOFile(file.parent(), "xmark-" + scale + '-' + DOCS);
+    if(!dir.exists()) {
+      for(int d = 0; d < DOCS; d++) {
+        new XMark(scale / DOCS).write(new IOFile(dir, "xmark-" + d + IO.XMLSUFFIX));
+      }
+    }
+    context.options.set(MainOptions.PARALLELCREATE, parallelcreate);
+  }
+
+  /**
+   * Creates a database from the directory.
+   * @return number of nodes
+   * @throws IOException I/O exception
+   */
+  @Benchmark
+  public int create() throws IOException {
+    new CreateDB(NAME, dir.path()).execute(context);
+    try {
+      return context.data().meta.size;
+    } finally {
+      new DropDB(NAME).execute(context);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package org.basex.bench;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+import org.basex.build.*;
+import org.basex.build.xml.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for parsing documents and building databases.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ImportBenchmark extends XMarkBenchmark {
+  @Override
+  void prepare() { }
+
+  /**
+   * Parses the document and builds a main-memory database.
+   * @return number of nodes
+   * @throws IOException I/O exception
+   */
+  @Benchmark
+  public int parse() throws IOException {
+    final Data data = MemBuilder.build(NAME, new XMLParser(file, context.options));
+    return data.meta.size;
+  }
+
+  /**
+   * Parses the document and builds a database on disk.
+   * @return number of nodes
+   * @throws IOException I/O exception
+   */
+  @Benchmark
+  public int build() throws IOException {
+    final Parser parser = new XMLParser(file, context.options);
+    final Data data = new DiskBuilder(NAME, parser, context.soptions, context.options).build();
+    try {
+      return data.meta.size;
+    } finally {
+      data.close();
+      DropDB.drop(NAME, context.soptions);
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package org.basex.bench;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.util.*;
+import org.basex.util.ft.*;
+import org.basex.util.list.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for index lookups.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IndexBenchmark extends XMarkBenchmark {
+  /** Number of search terms. */
+  private static final int TERMS = 1 << 12;
+
+  /** Database. */
+  private Data data;
+  /** Text terms. */
+  private byte[][] texts;
+  /** Attribute terms. */
+  private byte[][] attributes;
+  /** Tokens. */
+  private byte[][] tokens;
+  /** Full-text terms. */
+  private byte[][] words;
+  /** Full-text lexer. */
+  private FTLexer lexer;
+  /** Index of the next term. */
+  private int term;
+
+  @Override
+  void options(final MainOptions options) {
+    options.set(MainOptions.TOKENINDEX, true);
+    options.set(MainOptions.FTINDEX, true);
+  }
+
+  @Override
+  void prepare() throws IOException {
+    super.prepare();
+    data = context.data();
+    lexer = new FTLexer(new FTOpt().assign(data.meta));
+
+    // choose terms from random text and attribute nodes
+    final Random rnd = new Random(42);
+    final int size = data.meta.size, maxlen = data.meta.maxlen;
+    final TokenList txt = new TokenList(TERMS), att = new TokenList(TERMS);
+    final TokenList tok = new TokenList(TERMS), ft = new TokenList(TERMS);
+    while(txt.size() < TERMS || att.size() < TERMS) {
+      final int pre = rnd.nextInt(size), kind = data.kind(pre);
+      if(kind == Data.TEXT && txt.size() < TERMS) {
+        final byte[] text = data.text(pre, true);
+        if(text.length <= maxlen) txt.add(text);
+        for(lexer.init(text); lexer.hasNext() && ft.size() < TERMS;) ft.add(lexer.nextToken());
+      } else if(kind == Data.ATTR && att.size() < TERMS) {
+        final byte[] value = data.text(pre, false);
+        if(value.length <= maxlen) att.add(value);
+        for(final byte[] token : Token.distinctTokens(value)) {
+          if(tok.size() < TERMS) tok.add(token);
+        }
+      }
+    }
+    texts = txt.finish();
+    attributes = att.finish();
+    tokens = tok.finish();
+    words = ft.finish();
+  }
+
+  /**
+   * Looks up a text.
+   * @return checksum
+   */
+  @Benchmark
+  public long text() {
+    return lookup(new StringToken(IndexType.TEXT, texts[next()]));
+  }
+
+  /**
+   * Looks up an attribute value.
+   * @return checksum
+   */
+  @Benchmark
+  public long attribute() {
+    return lookup(new StringToken(IndexType.ATTRIBUTE, attributes[next()]));
+  }
+
+  /**
+   * Looks up a token of an attribute value.
+   * @return checksum
+   */
+  @Benchmark
+  public long token() {
+    return lookup(new StringToken(IndexType.TOKEN, tokens[next()]));
+  }
+
+  /**
+   * Looks up a full-text term.
+   * @return checksum
+   */
+  @Benchmark
+  public long fullText() {
+    lexer.init(words[next()]);
+    lexer.nextToken();
+    return lookup(lexer);
+  }
+
+  /**
+   * Returns the index of the next term.
+   * @return index
+   */
+  private int next() {
+    return term++ & TERMS - 1;
+  }
+
+  /**
+   * Looks up index entries.
+   * @param search index search
+   * @return checksum
+   */
+  private long lookup(final IndexSearch search) {
+    long sum = 0;
+    for(final IndexIterator iter = data.iter(search); iter.more();) sum += iter.pre();
+    return sum;
+  }
+}
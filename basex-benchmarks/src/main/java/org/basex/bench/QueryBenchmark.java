@@ -0,0 +1,76 @@
+package org.basex.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for XQuery path expressions and FLWOR expressions. The queries are based on
+ * the queries of the XMark benchmark. Each invocation parses, compiles and evaluates a query.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class QueryBenchmark extends XMarkBenchmark {
+  /** Queries. */
+  private static final Map<String, String> QUERIES = new HashMap<>();
+
+  static {
+    // exact match (attribute index)
+    QUERIES.put("Q1", "for $b in /site/people/person[@id = 'person0'] return $b/name/text()");
+    // positional access
+    QUERIES.put("Q2", "for $b in /site/open_auctions/open_auction " +
+        "return <increase>{ $b/bidder[1]/increase/text() }</increase>");
+    // numeric comparison, aggregation
+    QUERIES.put("Q5", "count(for $i in /site/closed_auctions/closed_auction " +
+        "where $i/price/text() >= 40 return $i/price)");
+    // descendant steps
+    QUERIES.put("Q7", "for $p in /site return count($p//description) + " +
+        "count($p//annotation) + count($p//emailaddress)");
+    // join
+    QUERIES.put("Q8", "for $p in /site/people/person " +
+        "let $a := for $t in /site/closed_auctions/closed_auction " +
+        "where $t/buyer/@person = $p/@id return $t " +
+        "return <item person='{ $p/name/text() }'>{ count($a) }</item>");
+    // string search
+    QUERIES.put("Q14", "for $i in /site//item " +
+        "where contains(string(exactly-one($i/description)), 'gold') return $i/name/text()");
+    // sorting
+    QUERIES.put("Q19", "for $b in /site/regions//item let $k := $b/name/text() " +
+        "order by zero-or-one($b/location) ascending empty greatest " +
+        "return <item name='{ $k }'>{ $b/location/text() }</item>");
+    // range predicates
+    QUERIES.put("Q20", "<result><preferred>{ " +
+        "count(/site/people/person/profile[@income >= 100000]) }</preferred><standard>{ " +
+        "count(/site/people/person/profile[@income < 100000 and @income >= 30000]) " +
+        "}</standard><challenge>{ count(/site/people/person/profile[@income < 30000]) " +
+        "}</challenge><na>{ count(for $p in /site/people/person " +
+        "where empty($p/profile/@income) return $p) }</na></result>");
+    // grouping
+    QUERIES.put("G1", "for $a in /site/closed_auctions/closed_auction " +
+        "group by $s := $a/seller/@person " +
+        "return <seller id='{ $s }' sum='{ sum($a/price) }'/>");
+  }
+
+  /** Query. */
+  @Param({ "Q1", "Q2", "Q5", "Q7", "Q8", "Q14", "Q19", "Q20", "G1" })
+  public String query;
+
+  /**
+   * Evaluates the query.
+   * @return result
+   * @throws QueryException query exception
+   */
+  @Benchmark
+  public Value evaluate() throws QueryException {
+    try(QueryProcessor qp = new QueryProcessor(QUERIES.get(query), context)) {
+      return qp.value();
+    }
+  }
+}
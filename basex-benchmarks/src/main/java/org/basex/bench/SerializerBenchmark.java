@@ -0,0 +1,83 @@
+package org.basex.bench;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+import org.basex.data.*;
+import org.basex.io.out.*;
+import org.basex.io.serial.*;
+import org.basex.query.value.node.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+import org.basex.util.options.Options.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for serializing database nodes.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SerializerBenchmark extends XMarkBenchmark {
+  /** Indent output. */
+  @Param({ "false", "true" })
+  public boolean indent;
+
+  /** Serialization parameters. */
+  private SerializerOptions sopts;
+  /** Database. */
+  private Data data;
+  /** Pre values of the item elements. */
+  private int[] items;
+
+  @Override
+  void prepare() throws IOException {
+    super.prepare();
+    data = context.data();
+    sopts = new SerializerOptions();
+    sopts.set(SerializerOptions.INDENT, indent ? YesNo.YES : YesNo.NO);
+
+    final int id = data.elemNames.id(Token.token("item")), size = data.meta.size;
+    final IntList list = new IntList();
+    for(int pre = 0; pre < size; pre++) {
+      if(data.kind(pre) == Data.ELEM && data.nameId(pre) == id) list.add(pre);
+    }
+    items = list.finish();
+  }
+
+  /**
+   * Serializes the document.
+   * @return number of written bytes
+   * @throws IOException I/O exception
+   */
+  @Benchmark
+  public long document() throws IOException {
+    final ArrayOutput ao = new ArrayOutput();
+    try(Serializer ser = Serializer.get(ao, sopts)) {
+      ser.serialize(new DBNode(data, 0));
+    }
+    return ao.size();
+  }
+
+  /**
+   * Serializes all items separately.
+   * @return number of written bytes
+   * @throws IOException I/O exception
+   */
+  @Benchmark
+  public long items() throws IOException {
+    final ArrayOutput ao = new ArrayOutput();
+    long size = 0;
+    for(final int pre : items) {
+      try(Serializer ser = Serializer.get(ao, sopts)) {
+        ser.serialize(new DBNode(data, pre));
+      }
+      size += ao.size();
+      ao.reset();
+    }
+    return size;
+  }
+}
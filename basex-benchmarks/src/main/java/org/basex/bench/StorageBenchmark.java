@@ -0,0 +1,113 @@
+package org.basex.bench;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.data.*;
+import org.basex.util.list.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks for reading the table and the texts of a database.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StorageBenchmark extends XMarkBenchmark {
+  /** Number of nodes that are accessed by a single invocation. */
+  private static final int NODES = 1 << 16;
+
+  /** Database. */
+  private Data data;
+  /** Random pre values. */
+  private int[] pres;
+  /** Pre values of random text nodes. */
+  private int[] texts;
+  /** Pre values of random attribute nodes. */
+  private int[] attributes;
+
+  @Override
+  void prepare() throws IOException {
+    super.prepare();
+    data = context.data();
+    final Random rnd = new Random(42);
+    final int size = data.meta.size;
+    final IntList txt = new IntList(), att = new IntList();
+    for(int pre = 0; pre < size; pre++) {
+      final int kind = data.kind(pre);
+      if(kind == Data.TEXT) txt.add(pre);
+      else if(kind == Data.ATTR) att.add(pre);
+    }
+    pres = new int[NODES];
+    for(int n = 0; n < NODES; n++) pres[n] = rnd.nextInt(size);
+    texts = sample(txt, rnd);
+    attributes = sample(att, rnd);
+  }
+
+  /**
+   * Scans the table sequentially.
+   * @return checksum
+   */
+  @Benchmark
+  public long scan() {
+    long sum = 0;
+    final int size = data.meta.size;
+    for(int pre = 0; pre < size; pre++) {
+      final int kind = data.kind(pre);
+      sum += data.parent(pre, kind) + data.size(pre, kind);
+    }
+    return sum;
+  }
+
+  /**
+   * Accesses the table at random positions.
+   * @return checksum
+   */
+  @Benchmark
+  public long random() {
+    long sum = 0;
+    for(final int pre : pres) {
+      final int kind = data.kind(pre);
+      sum += data.parent(pre, kind) + data.size(pre, kind) + data.nameId(pre);
+    }
+    return sum;
+  }
+
+  /**
+   * Reads random texts.
+   * @return checksum
+   */
+  @Benchmark
+  public long texts() {
+    long sum = 0;
+    for(final int pre : texts) sum += data.text(pre, true).length;
+    return sum;
+  }
+
+  /**
+   * Reads random attribute values.
+   * @return checksum
+   */
+  @Benchmark
+  public long attributes() {
+    long sum = 0;
+    for(final int pre : attributes) sum += data.text(pre, false).length;
+    return sum;
+  }
+
+  /**
+   * Returns random entries of the specified list.
+   * @param list list
+   * @param rnd random generator
+   * @return entries
+   */
+  private static int[] sample(final IntList list, final Random rnd) {
+    final int[] sample = new int[NODES];
+    for(int n = 0; n < NODES; n++) sample[n] = list.get(rnd.nextInt(list.size()));
+    return sample;
+  }
+}
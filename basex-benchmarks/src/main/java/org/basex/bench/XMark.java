@@ -0,0 +1,395 @@
+package org.basex.bench;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.io.out.*;
+
+/**
+ * Generator for XMark-style documents. The structure of the documents follows the
+ * XMark benchmark (auction site with regions, items, people and auctions). Contents are
+ * created with a fixed seed, so the same scale factor always yields the same document.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class XMark {
+  /** Regions. */
+  private static final String[] REGIONS = {
+    "africa", "asia", "australia", "europe", "namerica", "samerica"
+  };
+  /** Number of items per region (scale factor 1). */
+  private static final int[] ITEMS = { 550, 2000, 2200, 6000, 10000, 1000 };
+  /** Number of people (scale factor 1). */
+  private static final int PEOPLE = 25500;
+  /** Number of open auctions (scale factor 1). */
+  private static final int OPEN = 12000;
+  /** Number of closed auctions (scale factor 1). */
+  private static final int CLOSED = 9750;
+  /** Number of categories (scale factor 1). */
+  private static final int CATEGORIES = 1000;
+  /** Countries. */
+  private static final String[] COUNTRIES = {
+    "United States", "Germany", "France", "Japan", "Brazil", "Kenya", "Australia", "India"
+  };
+  /** Syllables for generating words. */
+  private static final String[] SYLLABLES = {
+    "ab", "al", "an", "ar", "be", "ce", "de", "di", "el", "en", "er", "fa", "ge", "ho", "in",
+    "is", "ka", "la", "li", "ma", "mo", "ne", "no", "or", "pa", "ra", "re", "ri", "sa", "se",
+    "ta", "te", "th", "to", "un", "ve", "wi", "yo"
+  };
+  /** Number of words. */
+  private static final int WORDS = 2000;
+
+  /** Scale factor. */
+  private final double scale;
+  /** Random generator. */
+  private final Random rnd = new Random(42);
+  /** Vocabulary. */
+  private final String[] words = new String[WORDS];
+  /** Output buffer. */
+  private final StringBuilder sb = new StringBuilder();
+  /** Output stream. */
+  private PrintOutput out;
+
+  /**
+   * Constructor.
+   * @param scale scale factor (1.0: approximately 50 MB)
+   */
+  public XMark(final double scale) {
+    this.scale = scale;
+    final HashSet<String> set = new HashSet<>();
+    set.add("gold");
+    while(set.size() < WORDS) {
+      final StringBuilder word = new StringBuilder();
+      final int sl = 1 + rnd.nextInt(4);
+      for(int s = 0; s < sl; s++) word.append(SYLLABLES[rnd.nextInt(SYLLABLES.length)]);
+      set.add(word.toString());
+    }
+    final ArrayList<String> list = new ArrayList<>(set);
+    Collections.sort(list);
+    Collections.shuffle(list, rnd);
+    list.toArray(words);
+  }
+
+  /**
+   * Writes a document to the specified file.
+   * @param file file
+   * @throws IOException I/O exception
+   */
+  public void write(final IOFile file) throws IOException {
+    file.parent().md();
+    try(PrintOutput po = new PrintOutput(file)) {
+      out = po;
+      final int people = count(PEOPLE), open = count(OPEN), closed = count(CLOSED);
+      final int categories = count(CATEGORIES);
+      int items = 0;
+      for(final int i : ITEMS) items += count(i);
+
+      sb.append("<?xml version=\"1.0\" standalone=\"yes\"?>\n<site>\n<regions>\n");
+      int id = 0;
+      for(int r = 0; r < REGIONS.length; r++) {
+        sb.append('<').append(REGIONS[r]).append(">\n");
+        for(int i = count(ITEMS[r]); i > 0; i--) item(id++, categories, people);
+        sb.append("</").append(REGIONS[r]).append(">\n");
+      }
+      sb.append("</regions>\n<categories>\n");
+      for(int c = 0; c < categories; c++) {
+        sb.append("<category id=\"category").append(c).append("\"><name>");
+        text(1, 3);
+        sb.append("</name><description>");
+        description();
+        sb.append("</description></category>\n");
+        flush();
+      }
+      sb.append("</categories>\n<catgraph>\n");
+      for(int c = 0; c < categories; c++) {
+        sb.append("<edge from=\"category").append(rnd.nextInt(categories));
+        sb.append("\" to=\"category").append(rnd.nextInt(categories)).append("\"/>\n");
+      }
+      sb.append("</catgraph>\n<people>\n");
+      for(int p = 0; p < people; p++) person(p, categories, open);
+      sb.append("</people>\n<open_auctions>\n");
+      for(int o = 0; o < open; o++) openAuction(o, items, people);
+      sb.append("</open_auctions>\n<closed_auctions>\n");
+      for(int c = 0; c < closed; c++) closedAuction(items, people);
+      sb.append("</closed_auctions>\n</site>\n");
+      flush();
+    } finally {
+      out = null;
+    }
+  }
+
+  /**
+   * Writes an item.
+   * @param id id
+   * @param categories number of categories
+   * @param people number of people
+   * @throws IOException I/O exception
+   */
+  private void item(final int id, final int categories, final int people) throws IOException {
+    sb.append("<item id=\"item").append(id).append('"');
+    if(rnd.nextInt(10) == 0) sb.append(" featured=\"yes\"");
+    sb.append("><location>").append(COUNTRIES[rnd.nextInt(COUNTRIES.length)]);
+    sb.append("</location><quantity>").append(1 + rnd.nextInt(5)).append("</quantity><name>");
+    text(1, 4);
+    sb.append("</name><payment>").append(rnd.nextBoolean() ? "Creditcard" : "Money order");
+    sb.append("</payment><description>");
+    description();
+    sb.append("</description><shipping>");
+    text(3, 8);
+    sb.append("</shipping>");
+    for(int c = rnd.nextInt(4) + 1; c > 0; c--) {
+      sb.append("<incategory category=\"category").append(rnd.nextInt(categories)).append("\"/>");
+    }
+    sb.append("<mailbox>");
+    for(int m = rnd.nextInt(3); m > 0; m--) {
+      sb.append("<mail><from>").append(name(rnd.nextInt(people))).append("</from><to>");
+      sb.append(name(rnd.nextInt(people))).append("</to><date>").append(date());
+      sb.append("</date><text>");
+      text(10, 40);
+      sb.append("</text></mail>");
+    }
+    sb.append("</mailbox></item>\n");
+    flush();
+  }
+
+  /**
+   * Writes a person.
+   * @param id id
+   * @param categories number of categories
+   * @param open number of open auctions
+   * @throws IOException I/O exception
+   */
+  private void person(final int id, final int categories, final int open) throws IOException {
+    final String name = name(id);
+    sb.append("<person id=\"person").append(id).append("\"><name>").append(name);
+    sb.append("</name><emailaddress>mailto:").append(name.replace(' ', '.'));
+    sb.append("@example.com</emailaddress>");
+    if(rnd.nextBoolean()) sb.append("<phone>+").append(rnd.nextInt(100000000)).append("</phone>");
+    if(rnd.nextBoolean()) {
+      sb.append("<address><street>").append(rnd.nextInt(100)).append(' ');
+      sb.append(word()).append(" St</street><city>").append(word()).append("</city><country>");
+      sb.append(COUNTRIES[rnd.nextInt(COUNTRIES.length)]).append("</country><zipcode>");
+      sb.append(rnd.nextInt(100000)).append("</zipcode></address>");
+    }
+    if(rnd.nextBoolean()) {
+      sb.append("<homepage>http://www.example.com/~").append(word()).append("</homepage>");
+    }
+    if(rnd.nextBoolean()) {
+      sb.append("<creditcard>").append(1000 + rnd.nextInt(9000)).append(' ');
+      sb.append(1000 + rnd.nextInt(9000)).append("</creditcard>");
+    }
+    if(rnd.nextBoolean()) {
+      sb.append("<profile");
+      if(rnd.nextInt(4) != 0) sb.append(" income=\"").append(money(5000, 150000)).append('"');
+      sb.append('>');
+      for(int i = rnd.nextInt(5); i > 0; i--) {
+        sb.append("<interest category=\"category").append(rnd.nextInt(categories)).append("\"/>");
+      }
+      if(rnd.nextBoolean()) sb.append("<education>").append(rnd.nextBoolean() ?
+          "College" : "Graduate School").append("</education>");
+      if(rnd.nextBoolean()) sb.append("<gender>").append(rnd.nextBoolean() ?
+          "male" : "female").append("</gender>");
+      sb.append("<business>").append(rnd.nextBoolean() ? "Yes" : "No").append("</business>");
+      if(rnd.nextBoolean()) sb.append("<age>").append(18 + rnd.nextInt(60)).append("</age>");
+      sb.append("</profile>");
+    }
+    sb.append("<watches>");
+    for(int w = rnd.nextInt(4); w > 0; w--) {
+      sb.append("<watch open_auction=\"open_auction").append(rnd.nextInt(open)).append("\"/>");
+    }
+    sb.append("</watches></person>\n");
+    flush();
+  }
+
+  /**
+   * Writes an open auction.
+   * @param id id
+   * @param items number of items
+   * @param people number of people
+   * @throws IOException I/O exception
+   */
+  private void openAuction(final int id, final int items, final int people) throws IOException {
+    final int initial = 1 + rnd.nextInt(200);
+    sb.append("<open_auction id=\"open_auction").append(id).append("\"><initial>");
+    sb.append(initial).append(".00</initial>");
+    if(rnd.nextBoolean()) sb.append("<reserve>").append(initial * 2).append(".00</reserve>");
+    int current = initial;
+    for(int b = rnd.nextInt(8); b > 0; b--) {
+      final int increase = 1 + rnd.nextInt(30);
+      current += increase;
+      sb.append("<bidder><date>").append(date()).append("</date><time>").append(time());
+      sb.append("</time><personref person=\"person").append(rnd.nextInt(people));
+      sb.append("\"/><increase>").append(increase).append(".00</increase></bidder>");
+    }
+    sb.append("<current>").append(current).append(".00</current><itemref item=\"item");
+    sb.append(rnd.nextInt(items)).append("\"/><seller person=\"person");
+    sb.append(rnd.nextInt(people)).append("\"/>");
+    annotation(people);
+    sb.append("<quantity>1</quantity><type>").append(rnd.nextBoolean() ? "Regular" : "Featured");
+    sb.append("</type><interval><start>").append(date()).append("</start><end>").append(date());
+    sb.append("</end></interval></open_auction>\n");
+    flush();
+  }
+
+  /**
+   * Writes a closed auction.
+   * @param items number of items
+   * @param people number of people
+   * @throws IOException I/O exception
+   */
+  private void closedAuction(final int items, final int people) throws IOException {
+    sb.append("<closed_auction><seller person=\"person").append(rnd.nextInt(people));
+    sb.append("\"/><buyer person=\"person").append(rnd.nextInt(people));
+    sb.append("\"/><itemref item=\"item").append(rnd.nextInt(items)).append("\"/><price>");
+    sb.append(money(1, 500)).append("</price><date>").append(date());
+    sb.append("</date><quantity>1</quantity><type>Regular</type>");
+    annotation(people);
+    sb.append("</closed_auction>\n");
+    flush();
+  }
+
+  /**
+   * Writes an annotation.
+   * @param people number of people
+   */
+  private void annotation(final int people) {
+    sb.append("<annotation><author person=\"person").append(rnd.nextInt(people));
+    sb.append("\"/><description>");
+    description();
+    sb.append("</description><happiness>").append(1 + rnd.nextInt(10));
+    sb.append("</happiness></annotation>");
+  }
+
+  /**
+   * Writes a description (either a text or a nested list of texts).
+   */
+  private void description() {
+    if(rnd.nextBoolean()) {
+      sb.append("<text>");
+      markup(10, 60);
+      sb.append("</text>");
+    } else {
+      sb.append("<parlist>");
+      for(int l = 1 + rnd.nextInt(3); l > 0; l--) {
+        sb.append("<listitem>");
+        if(rnd.nextInt(3) == 0) {
+          sb.append("<parlist><listitem><text>");
+          markup(5, 30);
+          sb.append("</text></listitem></parlist>");
+        } else {
+          sb.append("<text>");
+          markup(5, 30);
+          sb.append("</text>");
+        }
+        sb.append("</listitem>");
+      }
+      sb.append("</parlist>");
+    }
+  }
+
+  /**
+   * Writes a text with mixed content.
+   * @param min minimum number of words
+   * @param max maximum number of words
+   */
+  private void markup(final int min, final int max) {
+    text(min, max);
+    if(rnd.nextInt(3) == 0) {
+      sb.append(" <keyword>");
+      text(1, 3);
+      sb.append("</keyword> ");
+      text(1, 10);
+    }
+    if(rnd.nextInt(4) == 0) {
+      sb.append(" <emph><keyword>");
+      text(1, 2);
+      sb.append("</keyword></emph>");
+    }
+    if(rnd.nextInt(5) == 0) {
+      sb.append(" <bold>");
+      text(1, 3);
+      sb.append("</bold>");
+    }
+  }
+
+  /**
+   * Writes a text.
+   * @param min minimum number of words
+   * @param max maximum number of words
+   */
+  private void text(final int min, final int max) {
+    for(int w = min + rnd.nextInt(max - min + 1); w > 0; w--) {
+      sb.append(word());
+      if(w > 1) sb.append(' ');
+    }
+  }
+
+  /**
+   * Returns a random word. Frequent words are preferred.
+   * @return word
+   */
+  private String word() {
+    final double d = rnd.nextDouble();
+    return words[(int) (d * d * d * WORDS)];
+  }
+
+  /**
+   * Returns the name of a person.
+   * @param id id of the person
+   * @return name
+   */
+  private String name(final int id) {
+    final String first = words[id * 7 % 300], last = words[300 + id * 13 % 1000];
+    return Character.toUpperCase(first.charAt(0)) + first.substring(1) + ' ' +
+        Character.toUpperCase(last.charAt(0)) + last.substring(1);
+  }
+
+  /**
+   * Returns a random amount of money.
+   * @param min minimum value
+   * @param max maximum value
+   * @return money
+   */
+  private String money(final int min, final int max) {
+    final int cents = rnd.nextInt(100);
+    return (min + rnd.nextInt(max - min)) + (cents < 10 ? ".0" : ".") + cents;
+  }
+
+  /**
+   * Returns a random date.
+   * @return date
+   */
+  private String date() {
+    return String.format("%02d/%02d/%d", 1 + rnd.nextInt(12), 1 + rnd.nextInt(28),
+        1998 + rnd.nextInt(4));
+  }
+
+  /**
+   * Returns a random time.
+   * @return time
+   */
+  private String time() {
+    return String.format("%02d:%02d:%02d", rnd.nextInt(24), rnd.nextInt(60), rnd.nextInt(60));
+  }
+
+  /**
+   * Returns the scaled number of elements.
+   * @param count number of elements for scale factor 1
+   * @return scaled number (at least 1)
+   */
+  private int count(final int count) {
+    return Math.max(1, (int) (count * scale));
+  }
+
+  /**
+   * Writes the buffered output.
+   * @throws IOException I/O exception
+   */
+  private void flush() throws IOException {
+    out.print(sb.toString());
+    sb.setLength(0);
+  }
+}
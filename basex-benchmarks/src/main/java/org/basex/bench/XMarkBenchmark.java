@@ -0,0 +1,78 @@
+package org.basex.bench;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Abstract class for benchmarks on generated XMark documents.
+ * A new database context with a separate database directory is created for each trial.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public abstract class XMarkBenchmark {
+  /** Name of the database. */
+  static final String NAME = "xmark";
+  /** Directory for documents and databases. */
+  private static final IOFile DIR = new IOFile(Prop.TEMPDIR, "basex-benchmarks");
+
+  /** Scale factor of the document (1.0: approximately 50 MB). */
+  @Param("0.1")
+  public double scale;
+
+  /** Database context. */
+  Context context;
+  /** Document. */
+  IOFile file;
+
+  /**
+   * Generates the document, creates the database context and prepares the benchmark.
+   * @throws IOException I/O exception
+   */
+  @Setup(Level.Trial)
+  public void init() throws IOException {
+    // documents are generated once and reused by subsequent trials
+    file = new IOFile(DIR, "xmark-" + scale + IO.XMLSUFFIX);
+    if(!file.exists()) new XMark(scale).write(file);
+
+    context = new Context(false);
+    context.soptions.set(StaticOptions.DBPATH, new IOFile(DIR, "data").path());
+    prepare();
+  }
+
+  /**
+   * Drops the database and closes the database context.
+   * @throws IOException I/O exception
+   */
+  @TearDown(Level.Trial)
+  public void finish() throws IOException {
+    new Close().execute(context);
+    DropDB.drop(NAME, context.soptions);
+    context.close();
+  }
+
+  /**
+   * Prepares the benchmark. By default, creates a database for the document.
+   * @throws IOException I/O exception
+   */
+  void prepare() throws IOException {
+    options(context.options);
+    new CreateDB(NAME, file.path()).execute(context);
+  }
+
+  /**
+   * Assigns options for creating the database.
+   * @param options main options
+   */
+  @SuppressWarnings("unused")
+  void options(final MainOptions options) { }
+}
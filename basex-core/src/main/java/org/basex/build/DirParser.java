@@ -4,11 +4,13 @@ import static org.basex.core.Text.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.regex.*;
 import java.util.zip.*;
 
 import org.basex.core.*;
 import org.basex.core.MainOptions.MainParser;
+import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.io.in.*;
 import org.basex.util.*;
@@ -45,6 +47,10 @@ public final class DirParser extends Parser {
   private final boolean rawParser;
   /** Archive name. */
   private final boolean archiveName;
+  /** Number of threads for parsing files in parallel (0: sequential parsing). */
+  private final int threads;
+  /** Paths and pending results of parallel parsing ({@code null}: file was skipped). */
+  private final ArrayDeque<Pair<String, Future<MemData>>> pending = new ArrayDeque<>();
 
   /** Last source. */
   private IO lastSrc;
@@ -52,6 +58,8 @@ public final class DirParser extends Parser {
   private Parser parser;
   /** Resource counter. */
   private int resources;
+  /** Thread pool for parallel parsing (can be {@code null}). */
+  private ExecutorService pool;
 
   /**
    * Constructor.
@@ -75,6 +83,7 @@ public final class DirParser extends Parser {
     addRaw = options.get(MainOptions.ADDRAW);
     dtd = options.get(MainOptions.DTD);
     rawParser = options.get(MainOptions.PARSER) == MainParser.RAW;
+    threads = options.get(MainOptions.PARALLELCREATE);
     filter = !isDir && !source.isArchive() ? null :
       Pattern.compile(IOFile.regex(options.get(MainOptions.CREATEFILTER)));
   }
@@ -83,7 +92,20 @@ public final class DirParser extends Parser {
   public void parse(final Builder build) throws IOException {
     build.meta.inputsize = 0;
     build.meta.original = original;
-    parse(build, source);
+    if(threads < 2) {
+      parse(build, source);
+    } else {
+      // parse files in parallel, add results in the original order
+      pool = Executors.newFixedThreadPool(threads);
+      try {
+        parse(build, source);
+        while(!pending.isEmpty()) add(build);
+      } finally {
+        pool.shutdownNow();
+        pool = null;
+        pending.clear();
+      }
+    }
   }
 
   /**
@@ -179,6 +201,9 @@ public final class DirParser extends Parser {
     if(include ? rawParser : addRaw) {
       // store input in raw format if raw parser was chosen, or if file was included otherwise
       builder.binary(targ + name, source);
+    } else if(include && pool != null) {
+      // parse input in a separate thread
+      submit(builder, targ);
     } else if(include) {
       // store input as XML
       boolean ok = true;
@@ -216,6 +241,101 @@ public final class DirParser extends Parser {
     if(Prop.debug && (++resources & 0x3FF) == 0) Util.err(";");
   }
 
+  /**
+   * Parses the current source in a separate thread.
+   * @param builder builder instance
+   * @param targ target path
+   * @throws IOException I/O exception
+   */
+  private void submit(final Builder builder, final String targ) throws IOException {
+    // cache streamed contents, as the stream will be advanced by the next resource
+    IO input = source;
+    if(!(input instanceof IOFile || input instanceof IOContent)) {
+      input = new IOContent(source.read());
+      input.name(source.name());
+    }
+    final IO in = input;
+    pending.add(new Pair<>(source.path(), pool.submit(() -> {
+      try {
+        return MemBuilder.build("", Parser.singleParser(in, options, targ));
+      } catch(final IOException ex) {
+        if(!skipCorrupt) throw ex;
+        Util.debug(ex);
+        return null;
+      }
+    })));
+    // limit number of pending results
+    if(pending.size() > threads << 2) add(builder);
+  }
+
+  /**
+   * Adds the oldest result of parallel parsing to the database.
+   * @param builder builder instance
+   * @throws IOException I/O exception
+   */
+  private void add(final Builder builder) throws IOException {
+    final Pair<String, Future<MemData>> next = pending.poll();
+    final MemData data;
+    try {
+      data = next.value().get();
+    } catch(final InterruptedException ex) {
+      throw new IOException(ex);
+    } catch(final ExecutionException ex) {
+      final Throwable cause = ex.getCause();
+      if(cause instanceof IOException) throw (IOException) cause;
+      if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+      throw new IOException(cause);
+    }
+    if(data == null) {
+      skipped.add(next.name());
+    } else {
+      add(builder, data);
+    }
+  }
+
+  /**
+   * Adds the nodes of a single document to the database.
+   * @param builder builder instance
+   * @param data document
+   * @throws IOException I/O exception
+   */
+  private void add(final Builder builder, final Data data) throws IOException {
+    final IntList ends = new IntList();
+    final int size = data.meta.size;
+    builder.openDoc(data.text(0, true));
+    for(int pre = 1; pre < size;) {
+      while(!ends.isEmpty() && ends.peek() == pre) {
+        ends.pop();
+        builder.closeElem();
+      }
+      final int kind = data.kind(pre);
+      if(kind == Data.TEXT) {
+        builder.text(data.text(pre++, true));
+      } else if(kind == Data.COMM) {
+        builder.comment(data.text(pre++, true));
+      } else if(kind == Data.PI) {
+        builder.pi(data.text(pre++, true));
+      } else {
+        final int as = data.attSize(pre, kind), s = data.size(pre, kind);
+        atts.reset();
+        for(int a = pre + 1; a < pre + as; a++) {
+          atts.add(data.name(a, Data.ATTR), data.text(a, false));
+        }
+        final byte[] name = data.name(pre, kind);
+        final Atts ns = data.namespaces(pre);
+        if(s == as) {
+          builder.emptyElem(name, atts, ns);
+        } else {
+          builder.openElem(name, atts, ns);
+          ends.push(pre + s);
+        }
+        pre += as;
+      }
+    }
+    for(int e = ends.size(); e > 0; e--) builder.closeElem();
+    builder.closeDoc();
+  }
+
   @Override
   public String info() {
     final TokenBuilder tb = new TokenBuilder();
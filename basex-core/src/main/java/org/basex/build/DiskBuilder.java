@@ -81,18 +81,31 @@ public final class DiskBuilder extends Builder {
         if(sout != null) sout.close();
       }
 
-      // copy temporary values into database table
+      // copy temporary values into database table (table is compressed afterwards)
+      final boolean tablecompress = meta.tablecompress;
       final IOFile tmpFile = meta.dbFile(DATATMP);
       try(DataInput in = new DataInput(tmpFile)) {
+        meta.tablecompress = false;
         final TableAccess ta = new TableDiskAccess(meta, true);
         try {
           for(; spos < ssize; ++spos) ta.write4(in.readNum(), 8, in.readNum());
         } finally {
           ta.close();
         }
+      } finally {
+        meta.tablecompress = tablecompress;
       }
       tmpFile.delete();
 
+      // convert table to compressed pages
+      if(tablecompress) TableDiskAccess.compress(meta);
+
+      // convert texts and attribute values to compressed blocks
+      if(meta.blockcompress) {
+        DataAccess.compress(meta.dbFile(DATATXT));
+        DataAccess.compress(meta.dbFile(DATAATV));
+      }
+
       // return database instance. build will be finalized when this instance is closed
       meta.dirty = true;
       return new DiskData(meta, elemNames, attrNames, path, nspaces);
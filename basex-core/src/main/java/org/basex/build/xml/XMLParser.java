@@ -9,6 +9,7 @@ import org.basex.build.*;
 import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.io.*;
+import org.basex.util.*;
 import org.basex.util.list.*;
 
 /**
@@ -65,28 +66,42 @@ public class XMLParser extends SingleParser {
   @Override
   public final void parse() throws IOException {
     // loop until all tokens have been processed
-    scanner.more();
-    while(true) {
-      if(scanner.type == Type.TEXT) {
-        final byte[] text = scanner.token.toArray();
-        if(!elms.isEmpty() || fragment || !ws(text)) {
-          if(chops.peek()) scanner.token.trim();
-          builder.text(scanner.token.toArray());
-        }
-      } else if(scanner.type == Type.COMMENT) {
-        builder.comment(scanner.token.toArray());
-      } else if(scanner.type == Type.PI) {
-        builder.pi(scanner.token.toArray());
-      } else if(scanner.type == Type.EOF) {
-        break;
-      } else if(scanner.type != Type.DTD) {
-        // L_BR, L_BR_CLOSE
-        if(!fragment && closed) throw new BuildException(MOREROOTS, detailedInfo());
-        if(!parseElement()) break;
-        continue;
+    while(next());
+    finish();
+  }
+
+  /**
+   * Parses the next token(s). At most one event is sent to the builder.
+   * @return {@code false} if all tokens have been processed
+   * @throws IOException I/O exception
+   */
+  protected final boolean next() throws IOException {
+    final Type type = scanner.type;
+    if(type == Type.EOF) return false;
+    if(type == Type.TEXT) {
+      final byte[] text = scanner.token.toArray();
+      if(!elms.isEmpty() || fragment || !ws(text)) {
+        if(chops.peek()) scanner.token.trim();
+        text(scanner.token.toArray());
       }
-      if(!scanner.more()) break;
+    } else if(type == Type.COMMENT) {
+      comment(scanner.token.toArray());
+    } else if(type == Type.PI) {
+      pi(scanner.token.toArray());
+    } else if(type != null && type != Type.DTD) {
+      // L_BR, L_BR_CLOSE
+      if(!fragment && closed) throw new BuildException(MOREROOTS, detailedInfo());
+      return parseElement();
     }
+    // proceed with next token
+    return scanner.more();
+  }
+
+  /**
+   * Finishes parsing.
+   * @throws IOException I/O exception
+   */
+  protected final void finish() throws IOException {
     scanner.close();
     if(!elms.isEmpty()) throw new BuildException(DOCOPEN, detailedInfo(), elms.pop());
   }
@@ -116,7 +131,7 @@ public class XMLParser extends SingleParser {
       if(!eq(open, name)) throw new BuildException(CLOSINGELEM, detailedInfo(), name, open);
       chops.pop();
 
-      builder.closeElem();
+      closeElem();
       if(elms.isEmpty()) closed = true;
       return consume(Type.R_BR);
     }
@@ -162,13 +177,13 @@ public class XMLParser extends SingleParser {
 
     // send empty element to builder
     if(scanner.type == Type.CLOSE_R_BR) {
-      builder.emptyElem(en, atts, nsp);
+      emptyElem(en, atts, nsp);
       if(elms.isEmpty()) closed = true;
       return scanner.more();
     }
 
     // send start element
-    builder.openElem(en, atts, nsp);
+    openElem(en, atts, nsp);
     elms.push(en);
     boolean c = chops.peek();
     if(chop) {
@@ -183,6 +198,63 @@ public class XMLParser extends SingleParser {
     return consume(Type.R_BR);
   }
 
+  /**
+   * Opens an element.
+   * @param name element name
+   * @param att attributes
+   * @param ns namespaces
+   * @throws IOException I/O exception
+   */
+  protected void openElem(final byte[] name, final Atts att, final Atts ns) throws IOException {
+    builder.openElem(name, att, ns);
+  }
+
+  /**
+   * Adds an empty element.
+   * @param name element name
+   * @param att attributes
+   * @param ns namespaces
+   * @throws IOException I/O exception
+   */
+  protected void emptyElem(final byte[] name, final Atts att, final Atts ns) throws IOException {
+    builder.emptyElem(name, att, ns);
+  }
+
+  /**
+   * Closes an element.
+   * @throws IOException I/O exception
+   */
+  protected void closeElem() throws IOException {
+    builder.closeElem();
+  }
+
+  /**
+   * Adds a text node.
+   * @param value value
+   * @throws IOException I/O exception
+   */
+  protected void text(final byte[] value) throws IOException {
+    builder.text(value);
+  }
+
+  /**
+   * Adds a comment.
+   * @param value value
+   * @throws IOException I/O exception
+   */
+  protected void comment(final byte[] value) throws IOException {
+    builder.comment(value);
+  }
+
+  /**
+   * Adds a processing instruction.
+   * @param value value
+   * @throws IOException I/O exception
+   */
+  protected void pi(final byte[] value) throws IOException {
+    builder.pi(value);
+  }
+
   /**
    * Checks if the current token matches the specified type.
    * @param type token type to be checked
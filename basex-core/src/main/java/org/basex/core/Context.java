@@ -5,6 +5,7 @@ import org.basex.core.locks.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
 import org.basex.io.random.*;
+import org.basex.query.*;
 import org.basex.query.util.pkg.*;
 import org.basex.query.value.seq.*;
 import org.basex.server.*;
@@ -43,6 +44,10 @@ public final class Context {
   public final Log log;
   /** Locking. */
   public final Locking locking;
+  /** Parsed queries. */
+  public final QueryCache queries;
+  /** Worker pool for parallel query evaluation. */
+  public final WorkerPool workers;
 
   /** Client info. Set to {@code null} in standalone/server mode. */
   private final ClientInfo client;
@@ -107,6 +112,8 @@ public final class Context {
     repo = ctx.repo;
     log = ctx.log;
     jobs = ctx.jobs;
+    queries = ctx.queries;
+    workers = ctx.workers;
   }
 
   /**
@@ -126,6 +133,8 @@ public final class Context {
     log = new Log(soptions);
     user = users.get(UserText.ADMIN);
     jobs = new JobPool(soptions);
+    queries = new QueryCache(soptions.get(StaticOptions.QUERYCACHE));
+    workers = new WorkerPool(soptions);
     client = null;
   }
 
@@ -154,6 +163,7 @@ public final class Context {
     if(closed) return;
     closed = true;
     jobs.close();
+    workers.close();
     sessions.close();
     datas.close();
     log.close();
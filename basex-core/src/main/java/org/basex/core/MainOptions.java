@@ -7,6 +7,7 @@ import org.basex.build.html.*;
 import org.basex.build.json.*;
 import org.basex.build.text.*;
 import org.basex.io.serial.*;
+import org.basex.util.ft.*;
 import org.basex.util.options.*;
 
 /**
@@ -22,6 +23,12 @@ public final class MainOptions extends Options {
   public static final BooleanOption MAINMEM = new BooleanOption("MAINMEM", false);
   /** Flag for closing a database after creating it. */
   public static final BooleanOption CREATEONLY = new BooleanOption("CREATEONLY", false);
+  /** Flag for accessing the table of disk-based databases via memory mapping. */
+  public static final BooleanOption MAPTABLE = new BooleanOption("MAPTABLE", false);
+  /** Flag for storing texts and attribute values in compressed blocks. */
+  public static final BooleanOption BLOCKCOMPRESS = new BooleanOption("BLOCKCOMPRESS", false);
+  /** Flag for storing the table in compressed pages. */
+  public static final BooleanOption TABLECOMPRESS = new BooleanOption("TABLECOMPRESS", false);
 
   // Parsing
 
@@ -35,6 +42,8 @@ public final class MainOptions extends Options {
   public static final BooleanOption SKIPCORRUPT = new BooleanOption("SKIPCORRUPT", false);
   /** Flag for adding remaining files as raw files. */
   public static final BooleanOption ADDRAW = new BooleanOption("ADDRAW", false);
+  /** Number of threads for parsing files in parallel (0: sequential parsing). */
+  public static final NumberOption PARALLELCREATE = new NumberOption("PARALLELCREATE", 0);
   /** Define CSV parser options. */
   public static final OptionsOption<CsvParserOptions> CSVPARSER =
       new OptionsOption<>("CSVPARSER", new CsvParserOptions());
@@ -101,6 +110,10 @@ public final class MainOptions extends Options {
   public static final BooleanOption AUTOOPTIMIZE = new BooleanOption("AUTOOPTIMIZE", false);
   /** Index split size. */
   public static final NumberOption SPLITSIZE = new NumberOption("SPLITSIZE", 0);
+  /** Maximum number of cached entries per index (0: unlimited). */
+  public static final NumberOption INDEXCACHE = new NumberOption("INDEXCACHE", 1 << 16);
+  /** Number of threads for building index structures in parallel (0: sequential indexing). */
+  public static final NumberOption PARALLELINDEX = new NumberOption("PARALLELINDEX", 0);
 
   // Full-Text
 
@@ -114,6 +127,9 @@ public final class MainOptions extends Options {
   public static final StringOption LANGUAGE = new StringOption("LANGUAGE", "en");
   /** Path to full-text stopword list. */
   public static final StringOption STOPWORDS = new StringOption("STOPWORDS", "");
+  /** Scoring model for index-based full-text queries. */
+  public static final EnumOption<FTScoring> SCORING =
+      new EnumOption<>("SCORING", FTScoring.DEFAULT);
 
   // Query Options
 
@@ -127,6 +143,16 @@ public final class MainOptions extends Options {
   public static final NumberOption INLINELIMIT = new NumberOption("INLINELIMIT", 100);
   /** Flag for tail-call optimization. */
   public static final NumberOption TAILCALLS = new NumberOption("TAILCALLS", 256);
+  /** Number of threads for evaluating for clauses in parallel (0: sequential evaluation). */
+  public static final NumberOption PARALLELFOR = new NumberOption("PARALLELFOR", 0);
+  /** Maximum number of tuples sorted in main memory (0: no limit). */
+  public static final NumberOption SORTLIMIT = new NumberOption("SORTLIMIT", 0);
+  /** Minimum number of items for sorting in parallel (0: sequential sorting). */
+  public static final NumberOption PARALLELSORT = new NumberOption("PARALLELSORT", 0);
+  /** Maximum number of groups kept in main memory (0: no limit). */
+  public static final NumberOption GROUPLIMIT = new NumberOption("GROUPLIMIT", 0);
+  /** Flag for evaluating forward paths on documents while they are parsed. */
+  public static final BooleanOption STREAM = new BooleanOption("STREAM", false);
   /** Look up documents in databases. */
   public static final BooleanOption WITHDB = new BooleanOption("WITHDB", true);
   /** Favor global database when opening resources. */
@@ -3,6 +3,7 @@ package org.basex.core;
 import java.util.*;
 
 import org.basex.io.*;
+import org.basex.io.random.*;
 import org.basex.util.*;
 import org.basex.util.options.*;
 
@@ -33,6 +34,10 @@ public final class StaticOptions extends Options {
   public static final BooleanOption FAIRLOCK = new BooleanOption("FAIRLOCK", false);
   /** Timeout (seconds) for remembering result of asynchronous queries. */
   public static final NumberOption CACHETIMEOUT = new NumberOption("CACHETIMEOUT", 3600);
+  /** Size (MB) of the buffer pool shared by all database files; deactivated if set to 0. */
+  public static final NumberOption BUFFERPOOL = new NumberOption("BUFFERPOOL", 0);
+  /** Maximum number of parsed queries that are cached; deactivated if set to 0. */
+  public static final NumberOption QUERYCACHE = new NumberOption("QUERYCACHE", 1000);
 
   /** Comment: written to options file. */
   public static final Comment C_CLIENT = new Comment("Client/Server Architecture");
@@ -66,6 +71,10 @@ public final class StaticOptions extends Options {
   public static final NumberOption KEEPALIVE = new NumberOption("KEEPALIVE", 600);
   /** Defines the number of parallel readers. */
   public static final NumberOption PARALLEL = new NumberOption("PARALLEL", 8);
+  /** Number of worker threads for evaluating queries in parallel (0: number of processors). */
+  public static final NumberOption WORKERS = new NumberOption("WORKERS", 0);
+  /** Maximum number of worker tasks per query (0: number of worker threads). */
+  public static final NumberOption WORKERLIMIT = new NumberOption("WORKERLIMIT", 0);
   /** Logging flag. */
   public static final BooleanOption LOG = new BooleanOption("LOG", true);
   /** Log message cut-off. */
@@ -127,6 +136,7 @@ public final class StaticOptions extends Options {
     Prop.language = get(LANG);
     Prop.langkeys = get(LANGKEYS);
     Prop.debug = get(DEBUG);
+    BufferPool.shared(get(BUFFERPOOL));
     final String ph = get(PROXYHOST);
     if(!ph.isEmpty()) {
       Prop.setSystem("http.proxyHost", ph);
@@ -177,6 +177,39 @@ public interface Text {
   String LI_SIZE = LI + "Size: ";
   /** Index info. */
   String LI_ENTRIES = LI + "Entries: ";
+  /** Index info. */
+  String LI_CACHE = LI + "Cache: ";
+
+  /** Buffer pool info. */
+  String BUFFER_POOL = "Buffer Pool";
+  /** Buffer pool info. */
+  String CAPACITY = "Capacity";
+  /** Buffer pool info. */
+  String BUFFERS = "Buffers";
+  /** Buffer pool info. */
+  String HITS = "Hits";
+  /** Buffer pool info. */
+  String MISSES = "Misses";
+  /** Buffer pool info. */
+  String EVICTIONS = "Evictions";
+
+  /** Worker pool info. */
+  String WORKER_POOL = "Worker Pool";
+  /** Worker pool info. */
+  String WORKERS = "Workers";
+  /** Worker pool info. */
+  String TASK_LIMIT = "Task Limit";
+  /** Worker pool info. */
+  String ACTIVE_THREADS = "Active Threads";
+  /** Worker pool info. */
+  String QUEUED_TASKS = "Queued Tasks";
+  /** Worker pool info. */
+  String RUNNING_TASKS = "Running Tasks";
+  /** Worker pool info. */
+  String COMPLETED_TASKS = "Completed Tasks";
+
+  /** Lock info. */
+  String LOCK_STATISTICS = "Lock Statistics";
 
   /** Index info. */
   String HASH = "Hash";
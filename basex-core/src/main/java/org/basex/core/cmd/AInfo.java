@@ -2,9 +2,14 @@ package org.basex.core.cmd;
 
 import static org.basex.core.Text.*;
 
+import java.util.*;
+
 import org.basex.core.*;
+import org.basex.core.jobs.*;
+import org.basex.core.locks.*;
 import org.basex.core.users.*;
 import org.basex.data.*;
+import org.basex.io.random.*;
 import org.basex.util.*;
 
 /**
@@ -42,4 +47,44 @@ abstract class AInfo extends Command {
   static void info(final TokenBuilder tb, final MetaProp prop, final MetaData meta) {
     info(tb, prop.name(), prop.value(meta));
   }
+
+  /**
+   * Adds statistics on the shared buffer pool.
+   * @param tb token builder
+   */
+  static void bufferPool(final TokenBuilder tb) {
+    final BufferPool pool = BufferPool.shared();
+    if(pool == null) return;
+    tb.add(NL + BUFFER_POOL + COL + NL);
+    info(tb, CAPACITY, pool.capacity());
+    info(tb, BUFFERS, pool.size());
+    info(tb, HITS, pool.hits());
+    info(tb, MISSES, pool.misses());
+    info(tb, EVICTIONS, pool.evictions());
+  }
+
+  /**
+   * Adds statistics on the worker pool.
+   * @param tb token builder
+   * @param pool worker pool
+   */
+  static void workerPool(final TokenBuilder tb, final WorkerPool pool) {
+    tb.add(NL + WORKER_POOL + COL + NL);
+    info(tb, WORKERS, pool.size());
+    info(tb, TASK_LIMIT, pool.limit());
+    info(tb, ACTIVE_THREADS, pool.threads());
+    info(tb, QUEUED_TASKS, pool.queued());
+    info(tb, RUNNING_TASKS, pool.running());
+    info(tb, COMPLETED_TASKS, pool.completed());
+  }
+
+  /**
+   * Adds contention statistics on the lock strings.
+   * @param tb token builder
+   * @param locking locking
+   */
+  static void locks(final TokenBuilder tb, final Locking locking) {
+    tb.add(NL + LOCK_STATISTICS + COL + NL);
+    new TreeMap<>(locking.stats()).forEach((string, stats) -> info(tb, string, stats));
+  }
 }
@@ -60,6 +60,7 @@ public final class CreateIndex extends ACreate {
     }
     data.meta.names(type, options);
     data.meta.splitsize = options.get(MainOptions.SPLITSIZE);
+    data.meta.parallelindex = options.get(MainOptions.PARALLELINDEX);
 
     return update(data, new Code() {
       @Override
@@ -100,4 +101,19 @@ public final class CreateIndex extends ACreate {
     data.createIndex(type, cmd);
     data.meta.index(type, true);
   }
+
+  /**
+   * Updates the specified index incrementally if it has been invalidated by updates.
+   * @param type index to be updated
+   * @param data data reference
+   * @param cmd calling command
+   * @return {@code true} if the index was updated
+   * @throws IOException I/O exception
+   */
+  static boolean update(final IndexType type, final Data data, final ACreate cmd)
+      throws IOException {
+    if(!data.updateIndex(type, cmd)) return false;
+    data.meta.index(type, true);
+    return true;
+  }
 }
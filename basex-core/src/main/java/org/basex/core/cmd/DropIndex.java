@@ -71,6 +71,7 @@ public final class DropIndex extends ACreate {
   static void drop(final IndexType type, final Data data) throws IOException {
     data.meta.dirty = true;
     data.meta.index(type, false);
+    if(data.ranges != null) data.ranges.discard(type);
     data.dropIndex(type);
   }
 }
@@ -46,8 +46,11 @@ public final class Info extends AInfo {
 
     final User user = context.user();
     info(tb, USED_MEM, Performance.getMemory());
+    bufferPool(tb);
+    workerPool(tb, context.workers);
 
     if(user.has(Perm.ADMIN)) {
+      locks(tb, context.locking);
       final StaticOptions sopts = context.soptions;
       tb.add(NL + GLOBAL_OPTIONS + COL + NL);
       for(final Option<?> o : sopts) info(tb, o.name(), sopts.get(o));
@@ -8,6 +8,7 @@ import org.basex.core.locks.*;
 import org.basex.core.parse.*;
 import org.basex.core.parse.Commands.*;
 import org.basex.data.*;
+import org.basex.util.*;
 
 /**
  * Evaluates the 'info storage' command and returns the table representation
@@ -39,6 +40,10 @@ public final class InfoStorage extends AInfo {
     }
     dp.add(start, end);
     out.print(dp.finish());
+
+    final TokenBuilder tb = new TokenBuilder();
+    bufferPool(tb);
+    out.print(tb.finish());
     return true;
   }
 
@@ -47,6 +47,7 @@ public final class Optimize extends ACreate {
           data.meta.autooptimize = autooptimize;
           data.meta.dirty = true;
         }
+        data.meta.parallelindex = options.get(MainOptions.PARALLELINDEX);
         optimize(data, Optimize.this);
         return info(DB_OPTIMIZED_X, meta.name, jc().performance);
       }
@@ -161,6 +162,8 @@ public final class Optimize extends ACreate {
     optimize(IndexType.ATTRIBUTE, data, meta.createattr, enforceAttr, cmd);
     optimize(IndexType.TOKEN, data, meta.createtoken, enforceToken, cmd);
     optimize(IndexType.FULLTEXT, data, meta.createft, enforceFt, cmd);
+    // start recording changes from scratch
+    if(data.ranges != null) data.ranges = new DirtyRanges(meta.size);
   }
 
   /**
@@ -177,9 +180,9 @@ public final class Optimize extends ACreate {
 
     // check if flags have changed
     if(create == data.meta.index(type) && !enforce) return;
-    // create or drop index
-    if(create) CreateIndex.create(type, data, cmd);
-    else DropIndex.drop(type, data);
+    // create or drop index; update outdated index incrementally if possible
+    if(!create) DropIndex.drop(type, data);
+    else if(enforce || !CreateIndex.update(type, data, cmd)) CreateIndex.create(type, data, cmd);
   }
 
   /**
@@ -108,6 +108,9 @@ public final class OptimizeAll extends ACreate {
     // adopt original index options
     options.set(MainOptions.MAXLEN, ometa.maxlen);
     options.set(MainOptions.MAXCATS, ometa.maxcats);
+    // adopt original storage options
+    options.set(MainOptions.BLOCKCOMPRESS, ometa.blockcompress);
+    options.set(MainOptions.TABLECOMPRESS, ometa.tablecompress);
 
     // build database and index structures
     final StaticOptions sopts = context.soptions;
@@ -0,0 +1,286 @@
+package org.basex.core.jobs;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.core.*;
+import org.basex.util.*;
+
+/**
+ * Server-wide pool of worker threads, which is used to evaluate parallel tasks of queries
+ * (e.g. {@code xquery:fork-join} and parallel {@code for} clauses).
+ *
+ * The number of threads is bounded, and threads are only created on demand. The number of
+ * tasks of a single query that are passed on to the pool at the same time is limited
+ * (see {@link #permits()}). The remaining tasks are queued by the caller and submitted as soon
+ * as earlier tasks have been completed, or they are evaluated by the calling thread if no permit
+ * is available when they are due. The first task of an invocation is evaluated by the
+ * calling thread.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class WorkerPool {
+  /** Number of worker threads. */
+  private final int size;
+  /** Maximum number of pool tasks per query. */
+  private final int limit;
+  /** Number of queued tasks. */
+  private final AtomicInteger queued = new AtomicInteger();
+  /** Number of running tasks. */
+  private final AtomicInteger running = new AtomicInteger();
+  /** Number of completed tasks. */
+  private final AtomicLong completed = new AtomicLong();
+  /** Thread pool (created on demand). */
+  private ForkJoinPool pool;
+
+  /**
+   * Constructor.
+   * @param sopts static options
+   */
+  public WorkerPool(final StaticOptions sopts) {
+    final int sz = sopts.get(StaticOptions.WORKERS);
+    size = sz > 0 ? sz : Runtime.getRuntime().availableProcessors();
+    final int lmt = sopts.get(StaticOptions.WORKERLIMIT);
+    limit = lmt > 0 ? lmt : size;
+  }
+
+  /**
+   * Evaluates tasks in parallel and returns their results in the order of the tasks.
+   * The number of tasks that are passed on to the pool at the same time is limited by
+   * a new set of permits.
+   * @param <T> result type
+   * @param <E> exception type
+   * @param tasks tasks to evaluate
+   * @return results
+   * @throws E exception
+   * @see #invoke(List, Semaphore)
+   */
+  public <T, E extends Exception> ArrayList<T> invoke(
+      final List<? extends WorkerTask<T, E>> tasks) throws E {
+    return invoke(tasks, permits());
+  }
+
+  /**
+   * Evaluates tasks in parallel and returns their results in the order of the tasks.
+   * A task is only passed on to the pool if a permit is available. The permit is released
+   * when the task has been evaluated. Tasks for which no permit is available are evaluated by the
+   * calling thread. If a task fails, all other running tasks are stopped, and the exception is
+   * raised after all running tasks have been finished.
+   * @param <T> result type
+   * @param <E> exception type
+   * @param tasks tasks to evaluate
+   * @param permits permits for pool tasks (shared by all invocations of a query)
+   * @return results
+   * @throws E exception
+   */
+  public <T, E extends Exception> ArrayList<T> invoke(
+      final List<? extends WorkerTask<T, E>> tasks, final Semaphore permits) throws E {
+
+    final int tl = tasks.size();
+    final ArrayList<T> results = new ArrayList<>(tl);
+    if(tl == 1) {
+      results.add(tasks.get(0).run());
+      return results;
+    }
+
+    final ArrayList<Task<T, E>> list = new ArrayList<>(tl);
+    for(final WorkerTask<T, E> task : tasks) list.add(new Task<>(task, permits));
+    // tasks are forked if the current thread belongs to this pool, or submitted otherwise
+    final ForkJoinPool pl = pool(), fjp = ForkJoinTask.getPool() == pl ? null : pl;
+    // index of the next task to be started (the first task is evaluated by the calling thread)
+    int next = 1;
+    try {
+      next = submit(list, next, fjp);
+      for(int t = 0; t < tl; t++) {
+        final Task<T, E> task = list.get(t);
+        if(task.forked) {
+          task.join();
+        } else {
+          // no permit was available: evaluate task in the calling thread
+          if(t == next) next++;
+          queued.incrementAndGet();
+          task.invoke();
+        }
+        task.check();
+        results.add(task.result);
+        next = submit(list, next, fjp);
+      }
+      return results;
+    } catch(final Throwable th) {
+      // stop forked tasks and wait until they have been finished
+      for(int t = 1; t < next; t++) {
+        if(list.get(t).forked) list.get(t).task.stop();
+      }
+      for(int t = 1; t < next; t++) {
+        if(list.get(t).forked) list.get(t).quietlyJoin();
+      }
+      throw th;
+    }
+  }
+
+  /**
+   * Returns a new set of permits for the tasks of a query that may be passed on to the pool
+   * at the same time.
+   * @return permits
+   */
+  public Semaphore permits() {
+    return new Semaphore(limit);
+  }
+
+  /**
+   * Returns the maximum number of worker threads.
+   * @return number of threads
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the maximum number of pool tasks per query.
+   * @return limit
+   */
+  public int limit() {
+    return limit;
+  }
+
+  /**
+   * Returns the number of worker threads that are currently alive.
+   * @return number of threads
+   */
+  public synchronized int threads() {
+    return pool != null ? pool.getPoolSize() : 0;
+  }
+
+  /**
+   * Returns the number of tasks that have been submitted, but not started yet.
+   * @return number of tasks
+   */
+  public int queued() {
+    return queued.get();
+  }
+
+  /**
+   * Returns the number of tasks that are currently running.
+   * @return number of tasks
+   */
+  public int running() {
+    return running.get();
+  }
+
+  /**
+   * Returns the number of completed tasks.
+   * @return number of tasks
+   */
+  public long completed() {
+    return completed.get();
+  }
+
+  /**
+   * Shuts down the pool.
+   */
+  public synchronized void close() {
+    if(pool != null) pool.shutdownNow();
+  }
+
+  /**
+   * Returns the thread pool, or creates a new one.
+   * @return pool
+   */
+  private synchronized ForkJoinPool pool() {
+    if(pool == null) pool = new ForkJoinPool(size);
+    return pool;
+  }
+
+  /**
+   * Submits tasks as long as permits are available.
+   * @param <T> result type
+   * @param <E> exception type
+   * @param list tasks
+   * @param next index of the next task to be submitted
+   * @param fjp pool, or {@code null} if the task will be forked into the pool of the current thread
+   * @return index of the next task that has not been submitted
+   */
+  private <T, E extends Exception> int submit(final ArrayList<Task<T, E>> list, final int next,
+      final ForkJoinPool fjp) {
+    int n = next;
+    for(final int tl = list.size(); n < tl && list.get(n).permits.tryAcquire(); n++) {
+      final Task<T, E> task = list.get(n);
+      task.forked = true;
+      queued.incrementAndGet();
+      if(fjp != null) fjp.execute(task);
+      else task.fork();
+    }
+    return n;
+  }
+
+  /**
+   * Wrapper for worker tasks.
+   * @param <T> result type
+   * @param <E> exception type
+   */
+  private final class Task<T, E extends Exception> extends ForkJoinTask<Void> {
+    /** Task. */
+    private final WorkerTask<T, E> task;
+    /** Permits for pool tasks. */
+    private final Semaphore permits;
+    /** Indicates if the task has been passed on to the pool. */
+    private boolean forked;
+    /** Result. */
+    private T result;
+    /** Exception (can be {@code null}). */
+    private Exception error;
+
+    /**
+     * Constructor.
+     * @param task task
+     * @param permits permits for pool tasks
+     */
+    private Task(final WorkerTask<T, E> task, final Semaphore permits) {
+      this.task = task;
+      this.permits = permits;
+    }
+
+    /**
+     * Raises the exception of the task, if one was caught.
+     * @throws E exception
+     */
+    @SuppressWarnings("unchecked")
+    private void check() throws E {
+      if(error instanceof RuntimeException) throw (RuntimeException) error;
+      if(error != null) throw (E) error;
+    }
+
+    @Override
+    protected boolean exec() {
+      queued.decrementAndGet();
+      running.incrementAndGet();
+      try {
+        result = task.run();
+      } catch(final Exception ex) {
+        error = ex;
+      } finally {
+        running.decrementAndGet();
+        completed.incrementAndGet();
+        if(forked) permits.release();
+      }
+      return true;
+    }
+
+    @Override
+    public Void getRawResult() {
+      return null;
+    }
+
+    @Override
+    protected void setRawResult(final Void value) { }
+  }
+
+  @Override
+  public String toString() {
+    return new StringBuilder(Util.className(this)).append("[size: ").append(size).
+      append(", queued: ").append(queued()).append(", running: ").append(running()).
+      append(", completed: ").append(completed()).append(']').toString();
+  }
+}
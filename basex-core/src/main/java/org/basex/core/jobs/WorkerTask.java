@@ -0,0 +1,23 @@
+package org.basex.core.jobs;
+
+/**
+ * Task that is evaluated by the {@link WorkerPool}.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ * @param <T> result type
+ * @param <E> exception type
+ */
+public interface WorkerTask<T, E extends Exception> {
+  /**
+   * Evaluates the task.
+   * @return result
+   * @throws E exception
+   */
+  T run() throws E;
+
+  /**
+   * Stops the evaluation of the task. Called if another task of the same invocation has failed.
+   */
+  void stop();
+}
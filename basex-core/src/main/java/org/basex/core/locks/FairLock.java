@@ -0,0 +1,45 @@
+package org.basex.core.locks;
+
+import java.util.concurrent.locks.*;
+
+/**
+ * Fair read/write lock. Threads are granted access in the order in which they arrived.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class FairLock extends StringLock {
+  /** Lock. */
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
+
+  /**
+   * Constructor.
+   * @param stats contention statistics
+   */
+  FairLock(final LockStats stats) {
+    super(stats);
+  }
+
+  @Override
+  void lock(final boolean write) {
+    // the check is not atomic; it is only used for gathering statistics
+    if(lock.hasQueuedThreads() || lock.isWriteLocked() || write && lock.getReadLockCount() > 0) {
+      final long time = System.nanoTime();
+      (write ? lock.writeLock() : lock.readLock()).lock();
+      stats.add(System.nanoTime() - time);
+    } else {
+      (write ? lock.writeLock() : lock.readLock()).lock();
+      stats.add();
+    }
+  }
+
+  @Override
+  void unlock(final boolean write) {
+    (write ? lock.writeLock() : lock.readLock()).unlock();
+  }
+
+  @Override
+  public String toString() {
+    return lock + ", " + super.toString();
+  }
+}
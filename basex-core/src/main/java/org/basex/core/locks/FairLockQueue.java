@@ -24,8 +24,9 @@ public final class FairLockQueue extends LockQueue {
   public synchronized void acquire(final Long id, final boolean read, final boolean write)
       throws InterruptedException {
 
-    // add job id to queue and wait
-    if(jobs >= parallel) {
+    // add job id to queue and wait (register job first to avoid lost notifications)
+    queued++;
+    if(jobs.get() >= parallel) {
       queue.add(id);
 
       // loop until job is placed first
@@ -36,7 +37,8 @@ public final class FairLockQueue extends LockQueue {
       // remove job from queue
       queue.remove(id);
     }
-    jobs++;
+    queued--;
+    jobs.incrementAndGet();
   }
 
   @Override
@@ -1,5 +1,7 @@
 package org.basex.core.locks;
 
+import java.util.concurrent.atomic.*;
+
 /**
  * Lock queue.
  *
@@ -10,7 +12,9 @@ public abstract class LockQueue {
   /** Maximum number of parallel jobs. */
   protected final int parallel;
   /** Number of currently running jobs. */
-  protected int jobs;
+  protected final AtomicInteger jobs = new AtomicInteger();
+  /** Number of queued jobs (only updated while the queue is locked). */
+  protected volatile int queued;
 
   /**
    * Constructor.
@@ -31,9 +35,17 @@ public abstract class LockQueue {
 
   /**
    * Notifies other jobs that a job has been completed.
+   * The queue will only be locked if jobs are waiting.
+   */
+  public void release() {
+    jobs.decrementAndGet();
+    if(queued > 0) notifyQueued();
+  }
+
+  /**
+   * Notifies queued jobs.
    */
-  public synchronized void release() {
+  protected synchronized void notifyQueued() {
     notifyAll();
-    jobs--;
   }
 }
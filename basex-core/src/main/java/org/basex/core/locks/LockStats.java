@@ -0,0 +1,67 @@
+package org.basex.core.locks;
+
+import java.util.concurrent.atomic.*;
+
+import org.basex.util.*;
+
+/**
+ * Contention statistics of a lock string.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class LockStats {
+  /** Number of acquired locks. */
+  private final LongAdder acquired = new LongAdder();
+  /** Number of locks that were only acquired after waiting for other jobs. */
+  private final LongAdder contended = new LongAdder();
+  /** Total time spent for waiting (nanoseconds). */
+  private final LongAdder waited = new LongAdder();
+
+  /**
+   * Registers a lock that was acquired without waiting.
+   */
+  void add() {
+    acquired.increment();
+  }
+
+  /**
+   * Registers a lock that was acquired after waiting for other jobs.
+   * @param time waiting time (nanoseconds)
+   */
+  void add(final long time) {
+    acquired.increment();
+    contended.increment();
+    waited.add(time);
+  }
+
+  /**
+   * Returns the number of acquired locks.
+   * @return number of locks
+   */
+  public long acquired() {
+    return acquired.sum();
+  }
+
+  /**
+   * Returns the number of locks that were only acquired after waiting for other jobs.
+   * @return number of locks
+   */
+  public long contended() {
+    return contended.sum();
+  }
+
+  /**
+   * Returns the total time spent for waiting.
+   * @return time (nanoseconds)
+   */
+  public long waited() {
+    return waited.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "Acquired: " + acquired() + ", contended: " + contended() + ", waited: " +
+        Performance.getTime(waited(), 1);
+  }
+}
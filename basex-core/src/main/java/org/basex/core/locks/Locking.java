@@ -5,7 +5,6 @@ import static org.basex.util.Token.*;
 
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.locks.*;
 
 import org.basex.core.*;
 import org.basex.core.jobs.*;
@@ -21,6 +20,11 @@ import org.basex.util.list.*;
  *
  * This class prevents locking deadlocks by sorting all strings.
  *
+ * With non-fair locking, shared locks are acquired without blocking other readers
+ * (see {@link StripedLock}), and jobs are only synchronized with each other if they need to wait.
+ * Contention statistics are recorded for each lock string (see {@link #stats()}). If too many
+ * statistics are registered, the statistics of discarded locks will be removed.
+ *
  * Locks can only be released by the same thread which acquired it.
  *
  * Locking methods are not synchronized to each other. The user must make sure not to call them in
@@ -46,6 +50,10 @@ public final class Locking {
   public static final String BACKUP = INTERNAL_PREFIX + "backup";
   /** Special lock identifier for repository commands. */
   public static final String REPO = INTERNAL_PREFIX + "repo";
+  /** Identifier for the statistics of the global lock. */
+  public static final String GLOBAL = INTERNAL_PREFIX + "global";
+  /** Number of statistics of discarded locks that will be kept. */
+  static final int MAXSTATS = 1 << 10;
 
   /** Fair ordering policy; prevents starvation, but reduces parallelism. */
   private final boolean fair;
@@ -56,9 +64,11 @@ public final class Locking {
   private final LockQueue queue;
 
   /** Global lock: exclusive lock for global writes, shared lock otherwise. */
-  private final ReentrantReadWriteLock globalLocks;
+  private final StringLock globalLocks;
   /** Stores one lock for each lock string. */
-  private final Map<String, LocalReadWriteLock> localLocks = new HashMap<>();
+  private final ConcurrentMap<String, StringLock> localLocks = new ConcurrentHashMap<>();
+  /** Contention statistics for each lock string. */
+  private final ConcurrentMap<String, LockStats> stats = new ConcurrentHashMap<>();
   /** Lock object for queuing local writes and global reads. */
   private final Object globalLock = new Object();
 
@@ -73,7 +83,7 @@ public final class Locking {
    */
   public Locking(final StaticOptions soptions) {
     fair = soptions.get(StaticOptions.FAIRLOCK);
-    globalLocks = new ReentrantReadWriteLock(fair);
+    globalLocks = StringLock.get(fair, stats(GLOBAL));
     final int parallel = Math.max(soptions.get(StaticOptions.PARALLEL), 1);
     queue = fair ? new FairLockQueue(parallel) : new NonfairLockQueue(parallel);
   }
@@ -115,18 +125,21 @@ public final class Locking {
     queue.acquire(id, read, write);
 
     // apply exclusive lock (global write), or shared lock otherwise
-    if(lock) (writes.global() ? globalLocks.writeLock() : globalLocks.readLock()).lock();
+    if(lock) globalLocks.lock(writes.global());
 
-    synchronized(globalLock) {
-      // local write locks: wait for completion of global readers
-      if(writes.local()) {
-        while(globalReaders > 0) globalLock.wait();
-        localWriters++;
-      }
-      // global read lock: wait for completion of local writers (excluding the current job)
-      if(reads.global()) {
-        while(localWriters > 1 || localWriters == 1 && !writes.local()) globalLock.wait();
-        globalReaders++;
+    // local writes, global reads: synchronize with each other
+    if(writes.local() || reads.global()) {
+      synchronized(globalLock) {
+        // local write locks: wait for completion of global readers
+        if(writes.local()) {
+          while(globalReaders > 0) globalLock.wait();
+          localWriters++;
+        }
+        // global read lock: wait for completion of local writers (excluding the current job)
+        if(reads.global()) {
+          while(localWriters > 1 || localWriters == 1 && !writes.local()) globalLock.wait();
+          globalReaders++;
+        }
       }
     }
 
@@ -135,9 +148,9 @@ public final class Locking {
     final int rs = reads.size(), ws = writes.size();
     while(r < rs || w < ws) {
       if(w < ws && (r == rs || writes.get(w).compareTo(reads.get(r)) <= 0)) {
-        pin(writes.get(w++)).writeLock().lock();
+        pin(writes.get(w++)).lock(true);
       } else {
-        pin(reads.get(r++)).readLock().lock();
+        pin(reads.get(r++)).lock(false);
       }
     }
   }
@@ -152,27 +165,20 @@ public final class Locking {
     final boolean lock = reads.locking() || writes.locking();
 
     // release all local locks
-    for(final String string : reads) unpin(string).readLock().unlock();
-    for(final String string : writes) unpin(string).writeLock().unlock();
-
-    // allow next global reader to resume
-    synchronized(globalLock) {
-      if(reads.global()) {
-        globalReaders--;
-        globalLock.notifyAll();
-      }
-    }
+    for(final String string : reads) unpin(string, false);
+    for(final String string : writes) unpin(string, true);
 
-    // allow next local writer to resume
-    synchronized(globalLock) {
-      if(writes.local()) {
-        localWriters--;
+    // allow next global reader or local writer to resume
+    if(writes.local() || reads.global()) {
+      synchronized(globalLock) {
+        if(reads.global()) globalReaders--;
+        if(writes.local()) localWriters--;
         globalLock.notifyAll();
       }
     }
 
     // release exclusive lock (global write), or shared lock otherwise
-    if(lock) (writes.global() ? globalLocks.writeLock() : globalLocks.readLock()).unlock();
+    if(lock) globalLocks.unlock(writes.global());
 
     // allow next queued job to resume
     queue.release();
@@ -183,28 +189,53 @@ public final class Locking {
    * @param string lock string
    * @return lock
    */
-  private LocalReadWriteLock pin(final String string) {
-    synchronized(localLocks) {
-      final LocalReadWriteLock lock = localLocks.computeIfAbsent(string,
-          k -> new LocalReadWriteLock(fair));
-      lock.pin();
-      return lock;
-    }
+  private StringLock pin(final String string) {
+    // fast path: pin existing lock
+    final StringLock lock = localLocks.get(string);
+    if(lock != null && lock.pin()) return lock;
+
+    return localLocks.compute(string, (k, v) -> {
+      final StringLock lck = v != null ? v : StringLock.get(fair, stats(k));
+      lck.pinAlways();
+      return lck;
+    });
   }
 
   /**
-   * Unpins a lock string. Removes a lock if pin count is zero.
+   * Releases and unpins a lock string. Removes a lock if pin count is zero.
    * @param string lock string
-   * @return lock
+   * @param write write lock
    */
-  private LocalReadWriteLock unpin(final String string) {
-    synchronized(localLocks) {
-      final LocalReadWriteLock lock = localLocks.get(string);
-      if(lock.unpin()) localLocks.remove(string);
-      return lock;
+  private void unpin(final String string, final boolean write) {
+    final StringLock lock = localLocks.get(string);
+    lock.unlock(write);
+    if(lock.unpin()) {
+      localLocks.computeIfPresent(string, (k, v) -> {
+        if(v.pinned()) return v;
+        if(stats.size() > MAXSTATS) stats.remove(k);
+        return null;
+      });
     }
   }
 
+  /**
+   * Returns the contention statistics for a lock string.
+   * @param string lock string
+   * @return statistics
+   */
+  private LockStats stats(final String string) {
+    return stats.computeIfAbsent(string, k -> new LockStats());
+  }
+
+  /**
+   * Returns the contention statistics of the lock strings that have been locked so far.
+   * The statistics of the global lock are bound to {@link #GLOBAL}.
+   * @return statistics
+   */
+  public Map<String, LockStats> stats() {
+    return Collections.unmodifiableMap(stats);
+  }
+
   /**
    * Returns query lock keys.
    * @param string string with lock keys
@@ -225,10 +256,9 @@ public final class Locking {
     final String in = "| ";
     sb.append(in).append(queue).append(NL);
     sb.append(in).append("Held locks by object:").append(NL);
-    synchronized(localLocks) {
-      localLocks.forEach((key, value) ->
-        sb.append(in).append(in).append(key).append(" -> ").append(value).append(NL));
-    }
+    sb.append(in).append(in).append("global -> ").append(globalLocks).append(NL);
+    localLocks.forEach((key, value) ->
+      sb.append(in).append(in).append(key).append(" -> ").append(value).append(NL));
     sb.append(in).append("Held locks by job:").append(NL);
     locked.forEach((key, value) ->
       sb.append(in).append(in).append(key).append(" -> ").append(value).append(NL));
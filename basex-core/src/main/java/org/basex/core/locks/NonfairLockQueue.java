@@ -23,24 +23,50 @@ public final class NonfairLockQueue extends LockQueue {
   }
 
   @Override
-  public synchronized void acquire(final Long id, final boolean read, final boolean write)
+  public void acquire(final Long id, final boolean read, final boolean write)
       throws InterruptedException {
 
-    // only wait if job is locking
-    if(jobs >= parallel && (read || write)) {
-      // add job id to queue and wait
-      final Queue<Long> queue = write ? writers : readers;
-      queue.add(id);
+    // fast path: start non-locking jobs, or start job if no other jobs are queued
+    if(!(read || write)) {
+      jobs.incrementAndGet();
+    } else if(queued > 0 || !start()) {
+      enqueue(id, write);
+    }
+  }
 
-      // loop until job is placed first (prefer readers)
-      do {
-        wait();
-      } while(jobs >= parallel || write && !readers.isEmpty() || !id.equals(queue.peek()));
+  /**
+   * Queues the job until it can be started.
+   * @param id job id
+   * @param write write flag
+   * @throws InterruptedException interrupted exception
+   */
+  private synchronized void enqueue(final Long id, final boolean write)
+      throws InterruptedException {
 
-      // remove job from queue
+    // add job id to queue (register job first to avoid lost notifications)
+    final Queue<Long> queue = write ? writers : readers;
+    queue.add(id);
+    queued++;
+    try {
+      // loop until job is placed first (prefer readers) and can be started
+      while(write && !readers.isEmpty() || !id.equals(queue.peek()) || !start()) wait();
+    } finally {
+      // remove job from queue, notify next job
       queue.remove(id);
+      queued--;
+      notifyAll();
+    }
+  }
+
+  /**
+   * Tries to start a job.
+   * @return success flag
+   */
+  private boolean start() {
+    for(int j; (j = jobs.get()) < parallel;) {
+      if(jobs.compareAndSet(j, j + 1)) return true;
     }
-    jobs++;
+    return false;
   }
 
   @Override
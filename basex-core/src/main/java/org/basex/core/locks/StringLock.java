@@ -0,0 +1,85 @@
+package org.basex.core.locks;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Read/write lock on a lock string, or on all databases (global lock).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+abstract class StringLock {
+  /** Contention statistics. */
+  final LockStats stats;
+  /** Pins. */
+  private final AtomicInteger pins = new AtomicInteger();
+
+  /**
+   * Constructor.
+   * @param stats contention statistics
+   */
+  StringLock(final LockStats stats) {
+    this.stats = stats;
+  }
+
+  /**
+   * Returns a new lock instance.
+   * @param fair fair locking
+   * @param stats contention statistics
+   * @return lock
+   */
+  static StringLock get(final boolean fair, final LockStats stats) {
+    return fair ? new FairLock(stats) : new StripedLock(stats);
+  }
+
+  /**
+   * Acquires the lock. The current thread is blocked until the lock is available.
+   * @param write exclusive (write) or shared (read) lock
+   */
+  abstract void lock(boolean write);
+
+  /**
+   * Releases the lock. Must be called by the thread that acquired the lock.
+   * @param write exclusive (write) or shared (read) lock
+   */
+  abstract void unlock(boolean write);
+
+  /**
+   * Pins a lock that is already pinned by another job.
+   * @return success flag (if {@code false}, the lock is about to be discarded)
+   */
+  boolean pin() {
+    for(int p; (p = pins.get()) > 0;) {
+      if(pins.compareAndSet(p, p + 1)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Pins a lock. Must be called while the lock cannot be discarded.
+   */
+  void pinAlways() {
+    pins.incrementAndGet();
+  }
+
+  /**
+   * Unpins a lock.
+   * @return if no pins are left
+   */
+  boolean unpin() {
+    return pins.decrementAndGet() == 0;
+  }
+
+  /**
+   * Indicates if the lock is pinned.
+   * @return result of check
+   */
+  boolean pinned() {
+    return pins.get() > 0;
+  }
+
+  @Override
+  public String toString() {
+    return "Pins: " + pins.get() + ", " + stats;
+  }
+}
@@ -0,0 +1,150 @@
+package org.basex.core.locks;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Non-fair read/write lock with a lock-free fast path for readers.
+ *
+ * Readers increment a counter that is chosen by the id of the current thread. Concurrent
+ * readers will update different counters, and the lock state will not be shared between
+ * processor caches as long as no writer appears. Writers announce themselves via a flag and
+ * wait until all counters are zero. Readers that find the flag set will back off and wait
+ * until the writer has released the lock. Writers are preferred, so they cannot be starved
+ * by a continuous stream of readers.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class StripedLock extends StringLock {
+  /** Number of stripes (power of two). */
+  private static final int STRIPES = Integer.highestOneBit(
+      Math.min(Math.max(Runtime.getRuntime().availableProcessors(), 1), 32) * 2 - 1);
+  /** Distance between two counters (one cache line). */
+  private static final int PAD = 16;
+
+  /** Reader counters. */
+  private final AtomicIntegerArray readers = new AtomicIntegerArray(STRIPES * PAD);
+  /** Writer flag (indicates that a writer holds the lock or is waiting for readers). */
+  private volatile boolean writer;
+
+  /**
+   * Constructor.
+   * @param stats contention statistics
+   */
+  StripedLock(final LockStats stats) {
+    super(stats);
+  }
+
+  @Override
+  void lock(final boolean write) {
+    if(write) {
+      lockWrite();
+    } else {
+      lockRead();
+    }
+  }
+
+  @Override
+  void unlock(final boolean write) {
+    if(write) {
+      synchronized(this) {
+        writer = false;
+        notifyAll();
+      }
+    } else {
+      readers.decrementAndGet(stripe());
+      // wake up writer that waits for the completion of readers
+      if(writer) wakeUp();
+    }
+  }
+
+  /**
+   * Acquires a shared lock.
+   */
+  private void lockRead() {
+    // fast path: no writer
+    final int s = stripe();
+    readers.incrementAndGet(s);
+    if(!writer) {
+      stats.add();
+      return;
+    }
+    readers.decrementAndGet(s);
+    wakeUp();
+
+    final long time = System.nanoTime();
+    boolean interrupted = false;
+    synchronized(this) {
+      while(writer) interrupted |= await();
+      readers.incrementAndGet(s);
+    }
+    stats.add(System.nanoTime() - time);
+    if(interrupted) Thread.currentThread().interrupt();
+  }
+
+  /**
+   * Acquires an exclusive lock.
+   */
+  private void lockWrite() {
+    long time = 0;
+    boolean interrupted = false;
+    synchronized(this) {
+      while(writer) {
+        if(time == 0) time = System.nanoTime();
+        interrupted |= await();
+      }
+      // announce writer and wait for the completion of readers
+      writer = true;
+      while(readers() > 0) {
+        if(time == 0) time = System.nanoTime();
+        interrupted |= await();
+      }
+    }
+    if(time == 0) stats.add();
+    else stats.add(System.nanoTime() - time);
+    if(interrupted) Thread.currentThread().interrupt();
+  }
+
+  /**
+   * Wakes up waiting threads.
+   */
+  private synchronized void wakeUp() {
+    notifyAll();
+  }
+
+  /**
+   * Waits until this lock is notified. Interruptions will be postponed.
+   * @return {@code true} if the thread was interrupted
+   */
+  private boolean await() {
+    try {
+      wait();
+      return false;
+    } catch(final InterruptedException ex) {
+      return true;
+    }
+  }
+
+  /**
+   * Returns the number of readers.
+   * @return number of readers
+   */
+  private int readers() {
+    int count = 0;
+    for(int s = 0; s < STRIPES; s++) count += readers.get(s * PAD);
+    return count;
+  }
+
+  /**
+   * Returns the counter index for the current thread.
+   * @return index
+   */
+  private static int stripe() {
+    return ((int) Thread.currentThread().getId() & STRIPES - 1) * PAD;
+  }
+
+  @Override
+  public String toString() {
+    return "Readers: " + readers() + ", writer: " + writer + ", " + super.toString();
+  }
+}
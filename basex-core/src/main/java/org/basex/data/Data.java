@@ -112,6 +112,8 @@ public abstract class Data {
   public boolean updateDists = true;
   /** ID-PRE mapping. */
   public IdPreMap idmap;
+  /** Dirty ranges (only assigned for databases on disk). */
+  public DirtyRanges ranges;
 
   /** Table access file. */
   protected TableAccess table;
@@ -149,6 +151,15 @@ public abstract class Data {
    */
   public abstract void createIndex(IndexType type, Command cmd) throws IOException;
 
+  /**
+   * Updates the specified index incrementally if it has been invalidated by updates.
+   * @param type index to be updated
+   * @param cmd calling command
+   * @return {@code true} if the index was updated
+   * @throws IOException I/O exception
+   */
+  public abstract boolean updateIndex(IndexType type, Command cmd) throws IOException;
+
   /**
    * Drops the specified index.
    * @param type index to be dropped
@@ -511,7 +522,7 @@ public abstract class Data {
    * @param uri namespace uri
    */
   public final void update(final int pre, final int kind, final byte[] name, final byte[] uri) {
-    meta.update();
+    invalidate();
 
     if(kind == PI) {
       updateText(pre, trim(concat(name, SPACE, atom(pre))), PI);
@@ -535,6 +546,7 @@ public abstract class Data {
         table.write1(pre, 11, uriId);
         table.write2(pre, 1, attrNames.put(name));
         if(nsFlag) table.write2(nsPre, 1, 1 << 15 | nameId(nsPre));
+        if(ranges != null) ranges.update(pre, 1);
         // add new values to attribute indexes
         if(meta.updindex) {
           if(meta.attrindex) attrIndex.add(new ValueCache(pre, IndexType.ATTRIBUTE, this));
@@ -555,6 +567,8 @@ public abstract class Data {
         table.write1(pre, 3, uriId);
         final int nameId = elemNames.put(name);
         table.write2(nsPre, 1, (nsFlag || nsFlag(nsPre) ? 1 << 15 : 0) | nameId);
+        // included names may depend on the element name
+        if(ranges != null) ranges.update(pre, size);
         if(!pres.isEmpty()) textIndex.add(new ValueCache(pres, IndexType.TEXT, this));
       }
     }
@@ -570,7 +584,7 @@ public abstract class Data {
     final byte[] val = kind == PI ? trim(concat(name(pre, kind), SPACE, value)) : value;
     if(eq(val, text(pre, kind != ATTR))) return;
 
-    meta.update();
+    invalidate();
     updateText(pre, val, kind);
     if(kind == DOC) resources.rename(pre, value);
   }
@@ -581,7 +595,7 @@ public abstract class Data {
    * @param source clip with source data
    */
   public final void replace(final int pre, final DataClip source) {
-    meta.update();
+    invalidate();
 
     final int sCount = source.size();
     final int tKind = kind(pre);
@@ -673,7 +687,7 @@ public abstract class Data {
    * @param pre pre value of the node to be deleted
    */
   public final void delete(final int pre) {
-    meta.update();
+    invalidate();
 
     // delete references in document index
     int kind = kind(pre);
@@ -743,7 +757,7 @@ public abstract class Data {
     final int sCount = source.size();
     if(sCount == 0) return;
 
-    meta.update();
+    invalidate();
     resources.docs();
 
     // resize buffer to cache more entries
@@ -1068,6 +1082,14 @@ public abstract class Data {
    */
   protected abstract long textRef(byte[] value, boolean text);
 
+  /**
+   * Notifies the meta data and the dirty ranges of an update.
+   */
+  private void invalidate() {
+    if(ranges != null) ranges.invalidate(meta);
+    meta.update();
+  }
+
   /**
    * Deletes entries from the index structures.
    * @param pre first pre value of the nodes to delete
@@ -1076,6 +1098,7 @@ public abstract class Data {
    */
   protected final void indexDelete(final int pre, final int id, final int size) {
     if(id != -1) resources.delete(pre, size);
+    if(ranges != null) ranges.delete(pre, size);
     if(meta.updindex) {
       if(meta.textindex) textIndex.delete(new ValueCache(pre, size, IndexType.TEXT, this));
       if(meta.attrindex) attrIndex.delete(new ValueCache(pre, size, IndexType.ATTRIBUTE, this));
@@ -1093,6 +1116,7 @@ public abstract class Data {
    */
   protected final void indexAdd(final int pre, final int id, final int size, final DataClip clip) {
     if(id != -1) resources.insert(pre, clip);
+    if(ranges != null) ranges.insert(pre, size);
     if(meta.updindex) {
       if(id != -1) idmap.insert(pre, id, size);
       if(meta.textindex) textIndex.add(new ValueCache(pre, size, IndexType.TEXT, this));
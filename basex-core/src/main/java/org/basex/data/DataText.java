@@ -34,6 +34,10 @@ public interface DataText {
   String DBUPDIDX = "UPDINDEX";
   /** Automatic optimization. */
   String DBAUTOOPT = "AUTOOPT";
+  /** Compressed blocks. */
+  String DBBLOCKS = "BLOCKCOMP";
+  /** Compressed table. */
+  String DBTBLCOMP = "TBLCOMP";
   /** Text index. */
   String DBTXTIDX = "TXTINDEX";
   /** Attribute index. */
@@ -50,6 +54,8 @@ public interface DataText {
   String DBTOKINC = "TOKINC";
   /** Full-text index: names. */
   String DBFTXINC = "FTXINC";
+  /** Full-text index: postings in blocks. */
+  String DBFTXBLK = "FTXBLOCKS";
   /** Full-text stemming. */
   String DBFTST = "FTSTEM";
   /** Full-text language. */
@@ -114,6 +120,8 @@ public interface DataText {
   String DATAPTH = "pth";
   /** Database - ID-PRE mapping. */
   String DATAIDP = "idp";
+  /** Database - Dirty ranges. */
+  String DATADRT = "drt";
 
   // XML SERIALIZATION ============================================================================
 
@@ -82,6 +82,8 @@ public final class DiskData extends Data {
 
     // open data and indexes
     init();
+    final IOFile drt = meta.dbFile(DATADRT);
+    ranges = drt.exists() ? new DirtyRanges(drt) : new DirtyRanges(meta.size);
     if(meta.updindex) {
       idmap = new IdPreMap(meta.dbFile(DATAIDP));
       if(meta.textindex) textIndex = new UpdatableDiskValues(this, IndexType.TEXT);
@@ -114,6 +116,7 @@ public final class DiskData extends Data {
     this.nspaces = nspaces;
     paths.data(this);
     if(meta.updindex) idmap = new IdPreMap(meta.lastid);
+    ranges = new DirtyRanges(meta.size);
     init();
   }
 
@@ -122,9 +125,11 @@ public final class DiskData extends Data {
    * @throws IOException I/O exception
    */
   private void init() throws IOException {
-    table = new TableDiskAccess(meta, false);
-    texts = new DataAccess(meta.dbFile(DATATXT));
-    values = new DataAccess(meta.dbFile(DATAATV));
+    // compressed tables cannot be mapped
+    table = meta.maptable && !meta.tablecompress ? new TableMappedAccess(meta, false) :
+      new TableDiskAccess(meta, false);
+    texts = new DataAccess(meta.dbFile(DATATXT), meta.blockcompress);
+    values = new DataAccess(meta.dbFile(DATAATV), meta.blockcompress);
   }
 
   /**
@@ -149,6 +154,7 @@ public final class DiskData extends Data {
       out.write(0);
     }
     if(meta.updindex) idmap.write(meta.dbFile(DATAIDP));
+    ranges.write(meta.dbFile(DATADRT));
     meta.dirty = false;
   }
 
@@ -187,12 +193,7 @@ public final class DiskData extends Data {
   public void createIndex(final IndexType type, final Command cmd) throws IOException {
     // close existing index
     close(type);
-    final IndexBuilder ib;
-    switch(type) {
-      case TEXT: case ATTRIBUTE: case TOKEN: ib = new DiskValuesBuilder(this, type); break;
-      case FULLTEXT: ib = new FTBuilder(this); break;
-      default: throw Util.notExpected();
-    }
+    final IndexBuilder ib = builder(type);
     try {
       if(cmd != null) cmd.pushJob(ib);
       set(type, ib.build());
@@ -201,6 +202,36 @@ public final class DiskData extends Data {
     }
   }
 
+  @Override
+  public boolean updateIndex(final IndexType type, final Command cmd) throws IOException {
+    if(!ranges.incremental(type, meta)) return false;
+
+    // close outdated index
+    close(type);
+    final IndexBuilder ib = builder(type);
+    try {
+      if(cmd != null) cmd.pushJob(ib);
+      set(type, ib.update(ranges));
+    } finally {
+      if(cmd != null) cmd.popJob();
+    }
+    return true;
+  }
+
+  /**
+   * Returns a builder for the specified index.
+   * @param type index type
+   * @return builder
+   * @throws IOException I/O exception
+   */
+  private IndexBuilder builder(final IndexType type) throws IOException {
+    switch(type) {
+      case TEXT: case ATTRIBUTE: case TOKEN: return new DiskValuesBuilder(this, type);
+      case FULLTEXT: return new FTBuilder(this);
+      default: throw Util.notExpected();
+    }
+  }
+
   @Override
   public void dropIndex(final IndexType type) throws BaseXException {
     close(type);
@@ -290,10 +321,9 @@ public final class DiskData extends Data {
     final long value = textRef(pre);
     if(Inline.inlined(value)) return Inline.unpackLength(value);
 
-    final DataAccess da = text ? texts : values;
-    final int l = da.readNum(value & Compress.COMPRESS - 1);
     // if text is compressed, read number of compressed bytes
-    return Compress.compressed(value) ? da.readNum() : l;
+    return (text ? texts : values).readNumConcurrent(value & Compress.COMPRESS - 1,
+        Compress.compressed(value) ? 1 : 0);
   }
 
   /**
@@ -303,7 +333,8 @@ public final class DiskData extends Data {
    * @return text
    */
   private byte[] txt(final long offset, final boolean text) {
-    final byte[] txt = (text ? texts : values).readToken(offset & Compress.COMPRESS - 1);
+    final byte[] txt = (text ? texts : values).readTokenConcurrent(
+        offset & Compress.COMPRESS - 1);
     return Compress.compressed(offset) ? Compress.unpack(txt) : txt;
   }
 
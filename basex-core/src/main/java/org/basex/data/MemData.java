@@ -89,6 +89,11 @@ public final class MemData extends Data {
     }
   }
 
+  @Override
+  public boolean updateIndex(final IndexType type, final Command cmd) {
+    return false;
+  }
+
   @Override
   public void dropIndex(final IndexType type) throws BaseXException {
     switch(type) {
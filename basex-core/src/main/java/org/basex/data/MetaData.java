@@ -39,6 +39,17 @@ public final class MetaData {
   /** Number of stored XML documents. */
   public int ndocs;
 
+  /** Flag for storing texts and attribute values in compressed blocks. */
+  public boolean blockcompress;
+  /** Flag for storing the table in compressed pages. */
+  public boolean tablecompress;
+  /** Flag for memory-mapped table access (not stored on disk). */
+  public boolean maptable;
+  /** Maximum number of cached entries per index (not stored on disk). */
+  public int indexcache;
+  /** Number of threads for building index structures (not stored on disk). */
+  public int parallelindex;
+
   /** Indicates if a text index exists. */
   public boolean textindex;
   /** Indicates if an attribute index exists. */
@@ -47,6 +58,8 @@ public final class MetaData {
   public boolean tokenindex;
   /** Indicates if a full-text index exists. */
   public boolean ftindex;
+  /** Indicates if the postings of the full-text index are stored in blocks. */
+  public boolean ftblocks;
 
   /** Flag for activated automatic index update. */
   public boolean updindex;
@@ -140,6 +153,11 @@ public final class MetaData {
     casesens = options.get(MainOptions.CASESENS);
     updindex = options.get(MainOptions.UPDINDEX);
     autooptimize = options.get(MainOptions.AUTOOPTIMIZE);
+    blockcompress = options.get(MainOptions.BLOCKCOMPRESS);
+    tablecompress = options.get(MainOptions.TABLECOMPRESS);
+    maptable = options.get(MainOptions.MAPTABLE);
+    indexcache = options.get(MainOptions.INDEXCACHE);
+    parallelindex = options.get(MainOptions.PARALLELINDEX);
     maxlen = options.get(MainOptions.MAXLEN);
     maxcats = options.get(MainOptions.MAXCATS);
     stopwords = options.get(MainOptions.STOPWORDS);
@@ -383,6 +401,10 @@ public final class MetaData {
    */
   void read(final DataInput in) throws IOException {
     String storage = "", istorage = "";
+    // flags are not stored by older versions
+    blockcompress = false;
+    tablecompress = false;
+    ftblocks = false;
     while(true) {
       final String k = Token.string(in.readToken());
       if(k.isEmpty()) break;
@@ -403,6 +425,8 @@ public final class MetaData {
         case DBFTDC:     diacritics = toBoolean(v); break;
         case DBUPDIDX:   updindex = toBoolean(v); break;
         case DBAUTOOPT:  autooptimize = toBoolean(v); break;
+        case DBBLOCKS:   blockcompress = toBoolean(v); break;
+        case DBTBLCOMP:  tablecompress = toBoolean(v); break;
         case DBTXTIDX:   textindex = toBoolean(v); break;
         case DBATVIDX:   attrindex = toBoolean(v); break;
         case DBTOKIDX:   tokenindex = toBoolean(v); break;
@@ -411,6 +435,7 @@ public final class MetaData {
         case DBATVINC:   attrinclude = v; break;
         case DBTOKINC:   tokeninclude = v; break;
         case DBFTXINC:   ftinclude = v; break;
+        case DBFTXBLK:   ftblocks = toBoolean(v); break;
         case DBSPLITS:   splitsize = toInt(v); break;
         case DBCRTTXT:   createtext = toBoolean(v); break;
         case DBCRTATV:   createattr = toBoolean(v); break;
@@ -446,6 +471,8 @@ public final class MetaData {
     writeInfo(out, DBSIZE,     size);
     writeInfo(out, DBUPDIDX,   updindex);
     writeInfo(out, DBAUTOOPT,  autooptimize);
+    writeInfo(out, DBBLOCKS,   blockcompress);
+    writeInfo(out, DBTBLCOMP,  tablecompress);
     writeInfo(out, DBTXTIDX,   textindex);
     writeInfo(out, DBATVIDX,   attrindex);
     writeInfo(out, DBTOKIDX,   tokenindex);
@@ -454,6 +481,7 @@ public final class MetaData {
     writeInfo(out, DBATVINC,   attrinclude);
     writeInfo(out, DBTOKINC,   tokeninclude);
     writeInfo(out, DBFTXINC,   ftinclude);
+    writeInfo(out, DBFTXBLK,   ftblocks);
     writeInfo(out, DBSPLITS,   splitsize);
     writeInfo(out, DBCRTTXT,   createtext);
     writeInfo(out, DBCRTATV,   createattr);
@@ -0,0 +1,327 @@
+package org.basex.index;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Dirty ranges of a database. If value and full-text index structures are invalidated by
+ * updates, the ranges are used to update these structures incrementally when the database
+ * is optimized (see {@link IndexBuilder#update(DirtyRanges)}).
+ *
+ * The table is partitioned into ranges:
+ * <ul>
+ *   <li> A clean range references a contiguous sequence of nodes that have not been changed
+ *        since the index structures were built. Its original pre value is stored.</li>
+ *   <li> A dirty range contains inserted or updated nodes, which need to be indexed again.
+ *        For dirty ranges, the original position of the range is stored as negative number
+ *        ({@code -pre - 1}).</li>
+ * </ul>
+ *
+ * The original pre values are sorted, which allows the old pre values that are referenced by
+ * existing index structures to be mapped to their current pre values via binary search.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class DirtyRanges {
+  /** Index types whose structures can be updated incrementally. */
+  private int types;
+  /** Current number of nodes. */
+  private int size;
+  /** Pre values of the ranges. */
+  private int[] pres;
+  /** Original pre values of the ranges (negative for dirty ranges). */
+  private int[] olds;
+  /** Number of ranges. */
+  private int ranges;
+  /** Indicates if changes have been recorded. */
+  private boolean changed;
+
+  /**
+   * Constructor.
+   * @param size number of nodes
+   */
+  public DirtyRanges(final int size) {
+    this.size = size;
+    pres = new int[Array.INITIAL_CAPACITY];
+    olds = new int[Array.INITIAL_CAPACITY];
+    if(size > 0) ranges = 1;
+  }
+
+  /**
+   * Constructs dirty ranges by reading them from a file.
+   * @param file file to read from
+   * @throws IOException I/O error while reading from the file
+   */
+  public DirtyRanges(final IOFile file) throws IOException {
+    try(DataInput in = new DataInput(file)) {
+      types = in.readNum();
+      size = in.readNum();
+      pres = in.readNums();
+      olds = in.readNums();
+    }
+    ranges = pres.length;
+    changed = true;
+  }
+
+  /**
+   * Writes the ranges to the specified file, or deletes the file if no changes were recorded.
+   * @param file file to write to
+   * @throws IOException I/O error while writing to the file
+   */
+  public void write(final IOFile file) throws IOException {
+    if(!changed) {
+      if(file.exists()) file.delete();
+      return;
+    }
+    try(DataOutput out = new DataOutput(file)) {
+      out.writeNum(types);
+      out.writeNum(size);
+      out.writeNums(Arrays.copyOf(pres, ranges));
+      out.writeNums(Arrays.copyOf(olds, ranges));
+    }
+  }
+
+  /**
+   * Notifies the ranges of an update. If this is the first update since the index structures
+   * were built, all index structures that will be invalidated can be updated incrementally.
+   * Must be called before {@link MetaData#update()}.
+   * @param meta meta data
+   */
+  public void invalidate(final MetaData meta) {
+    if(changed) return;
+    if(!meta.updindex) {
+      for(final IndexType type : new IndexType[] {
+        IndexType.TEXT, IndexType.ATTRIBUTE, IndexType.TOKEN }) {
+        if(meta.index(type)) types |= 1 << type.ordinal();
+      }
+    }
+    if(meta.ftindex) types |= 1 << IndexType.FULLTEXT.ordinal();
+  }
+
+  /**
+   * Indicates that the structures of the specified index can no longer be updated incrementally.
+   * @param type index type
+   */
+  public void discard(final IndexType type) {
+    types &= ~(1 << type.ordinal());
+  }
+
+  /**
+   * Checks if the structures of the specified index can be updated incrementally.
+   * @param type index type
+   * @param meta meta data
+   * @return result of check
+   */
+  public boolean incremental(final IndexType type, final MetaData meta) {
+    // value indexes with ids are updatable
+    if((types & 1 << type.ordinal()) == 0 || type != IndexType.FULLTEXT && meta.updindex) {
+      return false;
+    }
+    // rebuild index if more than half of the nodes are dirty
+    long dirty = 0;
+    for(int r = 0; r < ranges; r++) {
+      if(olds[r] < 0) dirty += end(r) - pres[r];
+    }
+    return dirty <= size / 2;
+  }
+
+  /**
+   * Records inserted nodes.
+   * @param pre pre value of the first inserted node
+   * @param count number of inserted nodes
+   */
+  public void insert(final int pre, final int count) {
+    if(count == 0) return;
+    changed = true;
+
+    final int r = split(pre), orig = r > 0 ? origEnd(r - 1) : 0;
+    shift(r, count);
+    size += count;
+    if(r > 0 && olds[r - 1] < 0) return;
+    if(r < ranges && olds[r] < 0) {
+      // extend subsequent dirty range
+      pres[r] = pre;
+    } else {
+      add(r, pre, -orig - 1);
+    }
+  }
+
+  /**
+   * Records deleted nodes.
+   * @param pre pre value of the first deleted node
+   * @param count number of deleted nodes
+   */
+  public void delete(final int pre, final int count) {
+    if(count == 0) return;
+    changed = true;
+
+    final int end = pre + count, s = split(pre), e = split(end);
+    // keep dirty range that starts within the deleted nodes and ends after them
+    final boolean keep = e > s && end(e - 1) > end;
+    if(keep) pres[e - 1] = pre;
+    final int n = keep ? s + 1 : s;
+    remove(s, keep ? e - 1 : e);
+    shift(n, -count);
+    size -= count;
+    if(keep) join(s + 1);
+    join(s);
+  }
+
+  /**
+   * Records updated nodes.
+   * @param pre pre value of the first updated node
+   * @param count number of updated nodes
+   */
+  public void update(final int pre, final int count) {
+    delete(pre, count);
+    insert(pre, count);
+  }
+
+  /**
+   * Returns the current pre value of a node that was referenced by the index structures.
+   * @param old original pre value
+   * @return pre value, or {@code -1} if the node has been deleted or updated
+   */
+  public int pre(final int old) {
+    int l = 0, h = ranges - 1;
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      if(orig(m) <= old) l = m + 1;
+      else h = m - 1;
+    }
+    final int r = l - 1;
+    return r >= 0 && olds[r] >= 0 && old < olds[r] + end(r) - pres[r] ?
+      pres[r] + old - olds[r] : -1;
+  }
+
+  /**
+   * Returns the dirty ranges.
+   * @return list with the first pre value and the pre value after the last node of all ranges
+   */
+  public IntList dirty() {
+    final IntList list = new IntList();
+    for(int r = 0; r < ranges; r++) {
+      if(olds[r] < 0) list.add(pres[r]).add(end(r));
+    }
+    return list;
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Splits the clean range that contains the specified pre value.
+   * @param pre pre value
+   * @return index of the first range that starts at or after the specified pre value
+   */
+  private int split(final int pre) {
+    int l = 0, h = ranges - 1;
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      if(pres[m] <= pre) l = m + 1;
+      else h = m - 1;
+    }
+    final int r = l - 1;
+    if(r < 0 || pres[r] == pre) return Math.max(r, 0);
+    if(olds[r] >= 0 && pre < end(r)) add(r + 1, pre, olds[r] + pre - pres[r]);
+    return r + 1;
+  }
+
+  /**
+   * Joins the specified range with its predecessor if both are dirty, or if both are clean and
+   * contiguous.
+   * @param r index of the range
+   */
+  private void join(final int r) {
+    if(r <= 0 || r >= ranges) return;
+    final int o1 = olds[r - 1], o2 = olds[r];
+    if(o1 < 0 && o2 < 0 || o1 >= 0 && o1 + pres[r] - pres[r - 1] == o2) remove(r, r + 1);
+  }
+
+  /**
+   * Returns the pre value after the last node of the specified range.
+   * @param r index of the range
+   * @return pre value
+   */
+  private int end(final int r) {
+    return r + 1 < ranges ? pres[r + 1] : size;
+  }
+
+  /**
+   * Returns the original pre value of the specified range.
+   * @param r index of the range
+   * @return pre value
+   */
+  private int orig(final int r) {
+    final int o = olds[r];
+    return o >= 0 ? o : -o - 1;
+  }
+
+  /**
+   * Returns the original pre value after the last node of the specified range.
+   * @param r index of the range
+   * @return pre value
+   */
+  private int origEnd(final int r) {
+    final int o = olds[r];
+    return o >= 0 ? o + end(r) - pres[r] : -o - 1;
+  }
+
+  /**
+   * Shifts the pre values of all ranges, starting from the specified index.
+   * @param r index of the first range
+   * @param count number of nodes to add (negative: subtract)
+   */
+  private void shift(final int r, final int count) {
+    for(int i = r; i < ranges; i++) pres[i] += count;
+  }
+
+  /**
+   * Adds a range.
+   * @param r index of the range
+   * @param pre pre value
+   * @param old original pre value
+   */
+  private void add(final int r, final int pre, final int old) {
+    if(ranges == pres.length) {
+      final int s = Array.newCapacity(ranges);
+      pres = Arrays.copyOf(pres, s);
+      olds = Arrays.copyOf(olds, s);
+    }
+    Array.insert(pres, r, 1, ranges, null);
+    Array.insert(olds, r, 1, ranges, null);
+    pres[r] = pre;
+    olds[r] = old;
+    ranges++;
+  }
+
+  /**
+   * Removes ranges.
+   * @param s index of the first range
+   * @param e index after the last range
+   */
+  private void remove(final int s, final int e) {
+    if(s >= e) return;
+    Array.copy(pres, e, ranges - e, pres, s);
+    Array.copy(olds, e, ranges - e, olds, s);
+    ranges -= e - s;
+  }
+
+  @Override
+  public String toString() {
+    final TokenBuilder tb = new TokenBuilder();
+    for(int r = 0; r < ranges; r++) {
+      tb.add(olds[r] < 0 ? "dirty " : "clean ").addInt(pres[r]).add('-').addInt(end(r));
+      if(olds[r] >= 0) tb.add(" (").addInt(olds[r]).add(')');
+      tb.add('\n');
+    }
+    return tb.toString();
+  }
+}
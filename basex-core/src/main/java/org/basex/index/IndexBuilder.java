@@ -3,12 +3,16 @@ package org.basex.index;
 import static org.basex.core.Text.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.core.*;
 import org.basex.core.jobs.*;
 import org.basex.data.*;
 import org.basex.index.value.*;
 import org.basex.util.*;
+import org.basex.util.list.*;
 
 /**
  * This interface defines the functions which are needed for building
@@ -18,6 +22,9 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public abstract class IndexBuilder extends Job {
+  /** Minimum number of nodes per partition. */
+  private static final int PARTITION = 1 << 16;
+
   /** Performance. */
   private final Performance perf = new Performance();
 
@@ -31,13 +38,20 @@ public abstract class IndexBuilder extends Job {
   protected final boolean text;
 
   /** Number of index operations to perform before writing a partial index to disk. */
-  private final int splitSize;
+  private int splitSize;
   /** Maximum memory to consume. */
   private final long maxMem = (long) (Runtime.getRuntime().maxMemory() * 0.8);
 
   /** Names and namespace uri of element or attributes to include. */
   private final IndexNames includeNames;
 
+  /** File ids of the partial index structures, ordered by their pre values. */
+  protected final IntList partials = new IntList();
+  /** First pre value to be indexed. */
+  protected int first;
+  /** Pre value after the last value to be indexed. */
+  protected int last;
+
   /** Current pre value. */
   protected int pre;
   /** Total number of index operations (may get pretty large). */
@@ -47,6 +61,13 @@ public abstract class IndexBuilder extends Job {
   /** Threshold for freeing memory when estimating main memory consumption. */
   private int gcCount;
 
+  /** Counter for file ids of partial index structures (shared by all partitions). */
+  private AtomicInteger ids = new AtomicInteger();
+  /** Main builder (assigned if this builder indexes a partition). */
+  private IndexBuilder main;
+  /** Builders of the partitions (assigned if the index is built in parallel). */
+  private IndexBuilder[] partitions;
+
   /**
    * Constructor.
    * @param data reference
@@ -57,6 +78,7 @@ public abstract class IndexBuilder extends Job {
     this.type = type;
     splitSize = (int) Math.min(Integer.MAX_VALUE, (long) data.meta.splitsize * splitFactor());
     size = data.meta.size;
+    last = size;
     includeNames = new IndexNames(type, data);
     text = type == IndexType.TEXT || type == IndexType.FULLTEXT;
 
@@ -71,6 +93,114 @@ public abstract class IndexBuilder extends Job {
    */
   public abstract ValueIndex build() throws IOException;
 
+  /**
+   * Updates an outdated index structure and returns an index instance. The entries of unchanged
+   * nodes are adopted from the existing structure, and only the dirty ranges are indexed.
+   * By default, the index structure is built from scratch.
+   * @param ranges dirty ranges
+   * @return index instance
+   * @throws IOException I/O Exception
+   */
+  @SuppressWarnings("unused")
+  public ValueIndex update(final DirtyRanges ranges) throws IOException {
+    return build();
+  }
+
+  /**
+   * Indexes the entries from {@link #first} to {@link #last}.
+   * @param partial enforce partial index structures
+   * @throws IOException I/O Exception
+   */
+  protected abstract void index(boolean partial) throws IOException;
+
+  /**
+   * Creates a builder for indexing a partition of the database.
+   * @return builder, or {@code null} if the index cannot be built in parallel
+   * @throws IOException I/O Exception
+   */
+  @SuppressWarnings("unused")
+  protected IndexBuilder partition() throws IOException {
+    return null;
+  }
+
+  /**
+   * Indexes all entries. If multiple threads are available, and if the database is large enough,
+   * the database is split into partitions, which are indexed in parallel. In this case, the
+   * results are always written as partial index structures, which need to be merged afterwards.
+   * @throws IOException I/O Exception
+   */
+  protected final void index() throws IOException {
+    final int ps = Math.min(data.meta.parallelindex, size / PARTITION);
+    final IndexBuilder builder = ps > 1 ? partition() : null;
+    if(builder == null) {
+      index(false);
+      return;
+    }
+
+    final IndexBuilder[] builders = new IndexBuilder[ps];
+    for(int p = 0; p < ps; p++) {
+      final IndexBuilder ib = p == 0 ? builder : partition();
+      ib.main = this;
+      ib.ids = ids;
+      ib.first = (int) ((long) size * p / ps);
+      ib.last = (int) ((long) size * (p + 1) / ps);
+      ib.pre = ib.first;
+      if(splitSize > 0) ib.splitSize = Math.max(1, splitSize / ps);
+      builders[p] = ib;
+    }
+    partitions = builders;
+
+    final ExecutorService pool = Executors.newFixedThreadPool(ps);
+    try {
+      final ArrayList<Future<?>> futures = new ArrayList<>(ps);
+      for(final IndexBuilder ib : builders) {
+        futures.add(pool.submit(() -> {
+          ib.index(true);
+          return null;
+        }));
+      }
+      // wait for all partitions; stop remaining partitions if an error occurs
+      Throwable error = null;
+      for(final Future<?> future : futures) {
+        try {
+          future.get();
+        } catch(final ExecutionException ex) {
+          if(error == null) {
+            error = ex.getCause();
+            for(final IndexBuilder ib : builders) ib.stop();
+          }
+        } catch(final InterruptedException ex) {
+          if(error == null) error = ex;
+        }
+      }
+      if(error instanceof IOException) throw (IOException) error;
+      if(error instanceof RuntimeException) throw (RuntimeException) error;
+      if(error instanceof Error) throw (Error) error;
+      if(error != null) throw new IOException(error);
+    } finally {
+      pool.shutdownNow();
+    }
+
+    // collect partial index structures in the order of the partitions
+    for(final IndexBuilder ib : builders) {
+      partials.add(ib.partials.finish());
+      count += ib.count;
+    }
+    splits = partials.size();
+    partitions = null;
+    pre = size;
+  }
+
+  /**
+   * Returns the file id for the next partial index structure.
+   * @return file id
+   */
+  protected final int partial() {
+    final int id = ids.getAndIncrement();
+    partials.add(id);
+    return id;
+  }
+
   /**
    * Checks if the command was interrupted, and prints some debug output.
    * @throws IOException I/O Exception
@@ -78,6 +208,7 @@ public abstract class IndexBuilder extends Job {
   @SuppressWarnings("unused")
   protected void check() throws IOException {
     checkStop();
+    if(main != null) main.checkStop();
     if(Prop.debug && (pre & 0x1FFFFF) == 0) Util.err(".");
   }
 
@@ -160,7 +291,13 @@ public abstract class IndexBuilder extends Job {
 
   @Override
   public final double progressInfo() {
-    return pre / (size + (splits > 0 ? size / 50.0d : 0.0d));
+    final IndexBuilder[] builders = partitions;
+    double p = pre;
+    if(builders != null) {
+      p = 0;
+      for(final IndexBuilder ib : builders) p += ib.pre - ib.first;
+    }
+    return p / (size + (splits > 0 ? size / 50.0d : 0.0d));
   }
 
   @Override
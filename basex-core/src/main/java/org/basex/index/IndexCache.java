@@ -1,27 +1,44 @@
 package org.basex.index;
 
+import static org.basex.core.Text.*;
 import static org.basex.util.Token.*;
 
-import java.lang.ref.*;
-import java.util.concurrent.locks.*;
-
 import org.basex.util.*;
 
 /**
  * This class caches sizes and offsets from index results.
  *
+ * The cache is split into stripes, each guarded by its own monitor. The number of entries
+ * is bounded: if a stripe is full, its least recently used entry will be evicted.
+ *
  * @author BaseX Team 2005-20, BSD License
  * @author Dimitar Popov
  */
 public final class IndexCache {
-  /** Queue used to collect unused keys. */
-  private final ReferenceQueue<IndexEntry> queue = new ReferenceQueue<>();
-  /** Read-write lock. */
-  private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock(true);
-  /** Hash table buckets. */
-  private BucketEntry[] buckets = new BucketEntry[Array.INITIAL_CAPACITY];
-  /** Number of entries in the cache. */
-  private int size;
+  /** Number of stripes (must be 1 << n). */
+  private static final int STRIPES = 1 << 4;
+
+  /** Stripes. */
+  private final Stripe[] stripes = new Stripe[STRIPES];
+  /** Maximum number of entries ({@code 0}: unlimited). */
+  private final int capacity;
+
+  /**
+   * Constructor for an unlimited cache.
+   */
+  public IndexCache() {
+    this(0);
+  }
+
+  /**
+   * Constructor.
+   * @param capacity maximum number of entries ({@code 0}: unlimited)
+   */
+  public IndexCache(final int capacity) {
+    this.capacity = Math.max(0, capacity);
+    final int max = capacity > 0 ? Math.max(1, capacity / STRIPES) : Integer.MAX_VALUE;
+    for(int s = 0; s < STRIPES; s++) stripes[s] = new Stripe(max);
+  }
 
   /**
    * Gets cached entry for the specified key.
@@ -30,20 +47,7 @@ public final class IndexCache {
    */
   public IndexEntry get(final byte[] key) {
     final int hash = hash(key);
-    rwl.readLock().lock();
-
-    try {
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry e = buckets[i];
-      while(e != null) {
-        final IndexEntry entry = e.get();
-        if(entry != null && e.hash == hash && eq(entry.key, key)) return entry;
-        e = e.next;
-      }
-    } finally {
-      rwl.readLock().unlock();
-    }
-    return null;
+    return stripe(hash).get(key, hash);
   }
 
   /**
@@ -56,31 +60,7 @@ public final class IndexCache {
    */
   public IndexEntry add(final byte[] key, final int count, final long offset) {
     final int hash = hash(key);
-    rwl.writeLock().lock();
-
-    try {
-      purge();
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry current = buckets[i], prev = current;
-      while(current != null) {
-        final BucketEntry next = current.next;
-        final IndexEntry entry = current.get();
-        if(entry == null) {
-          delete(i, current, prev, next);
-        } else if(current.hash == hash && eq(entry.key, key)) {
-          update(entry, count, offset);
-          return entry;
-        }
-        prev = current;
-        current = next;
-      }
-
-      final IndexEntry entry = new IndexEntry(key, count, offset);
-      add(i, hash, entry);
-      return entry;
-    } finally {
-      rwl.writeLock().unlock();
-    }
+    return stripe(hash).add(key, hash, count, offset);
   }
 
   /**
@@ -89,142 +69,251 @@ public final class IndexCache {
    */
   public void delete(final byte[] key) {
     final int hash = hash(key);
-    rwl.writeLock().lock();
-
-    try {
-      purge();
-      final int i = indexFor(hash, buckets.length);
-      BucketEntry e = buckets[i], prev = e;
-      while(e != null) {
-        final BucketEntry next = e.next;
-        final IndexEntry entry = e.get();
-        if(entry == null) {
-          delete(i, e, prev, next);
-        } else if(e.hash == hash && eq(entry.key, key)) {
-          delete(i, e, prev, next);
-          break;
-        }
-        prev = e;
-        e = next;
-      }
-    } finally {
-      rwl.writeLock().unlock();
-    }
+    stripe(hash).delete(key, hash);
   }
 
   /**
-   * Purges stale entries from the cache.
+   * Returns the maximum number of entries.
+   * @return capacity ({@code 0}: unlimited)
    */
-  private void purge() {
-    for(Object x; (x = queue.poll()) != null;) {
-      final BucketEntry e = (BucketEntry) x;
-      final int i = indexFor(e.hash, buckets.length);
-      BucketEntry prev = buckets[i], p = prev;
-      while(p != null) {
-        final BucketEntry next = p.next;
-        if(p == e) {
-          delete(i, e, prev, next);
-          break;
-        }
-        prev = p;
-        p = next;
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the number of cached entries.
+   * @return number of entries
+   */
+  public int size() {
+    int size = 0;
+    for(final Stripe stripe : stripes) {
+      synchronized(stripe) {
+        size += stripe.size;
       }
     }
+    return size;
   }
 
   /**
-   * Add a new index entry to the bucket with the specified index.
-   * @param i bucket index
-   * @param hash hash of the new index key
-   * @param entry index entry
+   * Returns the cache statistics.
+   * @return hits, misses, and evictions
    */
-  private void add(final int i, final int hash, final IndexEntry entry) {
-    buckets[i] = new BucketEntry(hash, buckets[i], entry, queue);
-    if(++size == buckets.length) rehash();
+  public long[] stats() {
+    final long[] stats = new long[3];
+    for(final Stripe stripe : stripes) {
+      synchronized(stripe) {
+        stats[0] += stripe.hits;
+        stats[1] += stripe.misses;
+        stats[2] += stripe.evictions;
+      }
+    }
+    return stats;
   }
 
   /**
-   * Update an existing index entry.
-   * @param entry index entry to update
-   * @param size new size
-   * @param offset new offset
+   * Adds information on the cache.
+   * @param tb token builder
    */
-  private static void update(final IndexEntry entry, final int size, final long offset) {
-    entry.size = size;
-    entry.offset = offset;
+  public void info(final TokenBuilder tb) {
+    final long[] stats = stats();
+    final long hits = stats[0], total = hits + stats[1];
+    tb.add(LI_CACHE).addInt(size());
+    if(capacity > 0) tb.add('/').addInt(capacity);
+    tb.add(" entries, ").addLong(hits).add(" hits");
+    if(total > 0) tb.add(" (").addLong(hits * 100 / total).add("%)");
+    tb.add(", ").addLong(stats[1]).add(" misses, ").addLong(stats[2]).add(" evictions").add(NL);
   }
 
   /**
-   * Deletes a cached entry from the buckets with the specified index.
-   * @param i buckets index
-   * @param e cached entry to delete
-   * @param p previous cache entry
-   * @param n next cache entry
+   * Returns the stripe for the specified hash code.
+   * @param hash hash code
+   * @return stripe
    */
-  private void delete(final int i, final BucketEntry e, final BucketEntry p, final BucketEntry n) {
-    if(p == e) buckets[i] = n;
-    else p.next = n;
-    e.next = null;
-    --size;
+  private Stripe stripe(final int hash) {
+    return stripes[(hash ^ hash >>> 16) * 0x9E3779B9 >>> 28 & STRIPES - 1];
   }
 
   /**
-   * Resizes the hash table.
+   * Stripe of the cache: a hash table with a linked list of entries in the order of their
+   * last access. All methods are synchronized.
    */
-  private void rehash() {
-    purge();
-
-    final int newSize = size << 1;
-    final BucketEntry[] tmp = new BucketEntry[newSize];
-
-    final int l = buckets.length;
-    for(int i = 0; i < l; ++i) {
-      BucketEntry e = buckets[i];
-      buckets[i] = null;
-      while(e != null) {
-        final BucketEntry next = e.next;
-        final int p = indexFor(e.hash, tmp.length);
-        e.next = tmp[p];
-        tmp[p] = e;
-        e = next;
+  private static final class Stripe {
+    /** Maximum number of entries. */
+    private final int capacity;
+    /** List head (sentinel; most recently used entry is next, least recently used is prev). */
+    private final Node list = new Node(null, 0);
+    /** Hash table buckets. */
+    private Node[] buckets = new Node[Array.INITIAL_CAPACITY];
+    /** Number of entries. */
+    private int size;
+    /** Number of cache hits. */
+    private long hits;
+    /** Number of cache misses. */
+    private long misses;
+    /** Number of evicted entries. */
+    private long evictions;
+
+    /**
+     * Constructor.
+     * @param capacity maximum number of entries
+     */
+    Stripe(final int capacity) {
+      this.capacity = capacity;
+      list.prev = list;
+      list.next = list;
+    }
+
+    /**
+     * Returns the entry for the specified key.
+     * @param key key
+     * @param hash hash code
+     * @return entry or {@code null}
+     */
+    synchronized IndexEntry get(final byte[] key, final int hash) {
+      final Node node = node(key, hash);
+      if(node == null) {
+        misses++;
+        return null;
       }
+      hits++;
+      unlink(node);
+      link(node);
+      return node.entry;
     }
-    buckets = tmp;
-  }
 
-  /**
-   * Returns buckets index for a hash code.
-   * @param h hash code
-   * @param n number of available buckets
-   * @return index of a buckets
-   */
-  private static int indexFor(final int h, final int n) {
-    return h & n - 1;
+    /**
+     * Adds or updates an entry.
+     * @param key key
+     * @param hash hash code
+     * @param count number of index hits
+     * @param offset offset to id list
+     * @return entry
+     */
+    synchronized IndexEntry add(final byte[] key, final int hash, final int count,
+        final long offset) {
+      Node node = node(key, hash);
+      if(node != null) {
+        node.entry.size = count;
+        node.entry.offset = offset;
+        unlink(node);
+      } else {
+        if(size == capacity) {
+          remove(list.prev);
+          evictions++;
+        }
+        node = new Node(new IndexEntry(key, count, offset), hash);
+        final int i = hash & buckets.length - 1;
+        node.chain = buckets[i];
+        buckets[i] = node;
+        if(++size == buckets.length) rehash();
+      }
+      link(node);
+      return node.entry;
+    }
+
+    /**
+     * Deletes an entry.
+     * @param key key
+     * @param hash hash code
+     */
+    synchronized void delete(final byte[] key, final int hash) {
+      final Node node = node(key, hash);
+      if(node != null) remove(node);
+    }
+
+    /**
+     * Returns the node for the specified key.
+     * @param key key
+     * @param hash hash code
+     * @return node or {@code null}
+     */
+    private Node node(final byte[] key, final int hash) {
+      for(Node n = buckets[hash & buckets.length - 1]; n != null; n = n.chain) {
+        if(n.hash == hash && eq(n.entry.key, key)) return n;
+      }
+      return null;
+    }
+
+    /**
+     * Removes a node from the hash table and the list.
+     * @param node node
+     */
+    private void remove(final Node node) {
+      final int i = node.hash & buckets.length - 1;
+      Node prev = null;
+      for(Node n = buckets[i]; n != null; prev = n, n = n.chain) {
+        if(n == node) {
+          if(prev == null) buckets[i] = n.chain;
+          else prev.chain = n.chain;
+          break;
+        }
+      }
+      unlink(node);
+      size--;
+    }
+
+    /**
+     * Adds a node to the head of the list.
+     * @param node node
+     */
+    private void link(final Node node) {
+      node.prev = list;
+      node.next = list.next;
+      list.next.prev = node;
+      list.next = node;
+    }
+
+    /**
+     * Removes a node from the list.
+     * @param node node
+     */
+    private static void unlink(final Node node) {
+      node.prev.next = node.next;
+      node.next.prev = node.prev;
+    }
+
+    /**
+     * Doubles the number of hash buckets.
+     */
+    private void rehash() {
+      final Node[] tmp = new Node[buckets.length << 1];
+      for(final Node bucket : buckets) {
+        Node n = bucket;
+        while(n != null) {
+          final Node next = n.chain;
+          final int i = n.hash & tmp.length - 1;
+          n.chain = tmp[i];
+          tmp[i] = n;
+          n = next;
+        }
+      }
+      buckets = tmp;
+    }
   }
 
   /**
-   * Cache buckets entry. Used to implement a linked list of cache entries for
-   * each buckets. It also stores the hash of the current entry for better
-   * performance.
+   * Node of a stripe, linking a cache entry with the hash table and the access list.
    */
-  private static class BucketEntry extends SoftReference<IndexEntry> {
-    /** Hash code of the stored cache entry key. */
+  private static final class Node {
+    /** Cache entry ({@code null} for the list sentinel). */
+    final IndexEntry entry;
+    /** Hash code of the entry key. */
     final int hash;
-    /** Next buckets entry or {@code null} if the last one for this buckets. */
-    BucketEntry next;
+    /** Next node in the same bucket. */
+    Node chain;
+    /** Previous node in the access list. */
+    Node prev;
+    /** Next node in the access list. */
+    Node next;
 
     /**
      * Constructor.
-     * @param h hash code of the cache entry key
-     * @param n next buckets entry or {@code null} if the last one
-     * @param v stored cache entry
-     * @param rq reference queue
+     * @param entry cache entry
+     * @param hash hash code of the entry key
      */
-    BucketEntry(final int h, final BucketEntry n, final IndexEntry v,
-        final ReferenceQueue<IndexEntry> rq) {
-      super(v, rq);
-      hash = h;
-      next = n;
+    Node(final IndexEntry entry, final int hash) {
+      this.entry = entry;
+      this.hash = hash;
     }
   }
 }
@@ -12,6 +12,7 @@ import org.basex.index.*;
 import org.basex.io.out.DataOutput;
 import org.basex.util.*;
 import org.basex.util.ft.*;
+import org.basex.util.hash.*;
 import org.basex.util.list.*;
 
 /**
@@ -27,6 +28,10 @@ public final class FTBuilder extends IndexBuilder {
   private final FTLexer lexer;
   /** Number of indexed tokens. */
   private long ntok;
+  /** Quantized token lengths of the indexed texts (can be {@code null}). */
+  private byte[] lengths;
+  /** Exact lengths of long texts (shared by all partitions). */
+  private IntMap exact = new IntMap();
 
   /**
    * Constructor.
@@ -58,32 +63,39 @@ public final class FTBuilder extends IndexBuilder {
     Util.debug(detailedInfo());
 
     try {
-      for(pre = 0; pre < size; ++pre) {
-        if((pre & 0x0FFF) == 0) check();
-        if(!indexEntry()) continue;
-
-        // current lexer position
-        final StopWords sw = lexer.ftOpt().sw;
-        lexer.init(data.text(pre, true));
-        int pos = -1;
-        while(lexer.hasNext()) {
-          final byte[] token = lexer.nextToken();
-          ++pos;
-          // skip too long and stopword tokens
-          if(token.length <= data.meta.maxlen && !sw.contains(token)) {
-            // check if main memory is exhausted
-            if((ntok++ & 0xFFFF) == 0 && splitRequired()) {
-              writeIndex(true);
-              clean();
-            }
-            tree.index(token, pre, pos, splits);
-            count++;
-          }
-        }
-      }
+      lengths = new byte[size];
+      index();
+      // merge partial index structures
+      if(splits > 1) merge();
+      FTDictionary.write(data);
+      FTLengths.write(data, lengths, exact);
+      data.meta.ftblocks = true;
+
+      finishIndex();
+      return new FTIndex(data);
 
-      // finalize partial or all index structures
-      write(splits > 0);
+    } catch(final Throwable th) {
+      // drop index files
+      data.meta.drop(DATAFTX + ".*");
+      throw th;
+    }
+  }
+
+  @Override
+  public FTIndex update(final DirtyRanges ranges) throws IOException {
+    Util.debug(detailedInfo());
+
+    try {
+      lengths = FTLengths.adopt(data, ranges, exact);
+      adopt(ranges);
+      final IntList dirty = ranges.dirty();
+      final int ds = dirty.size();
+      for(int d = 0; d < ds; d += 2) index(dirty.get(d), dirty.get(d + 1));
+      writeIndex(true);
+      merge();
+      FTDictionary.write(data);
+      FTLengths.write(data, lengths, exact);
+      data.meta.ftblocks = true;
 
       finishIndex();
       return new FTIndex(data);
@@ -95,15 +107,112 @@ public final class FTBuilder extends IndexBuilder {
     }
   }
 
+  @Override
+  protected void index(final boolean partial) throws IOException {
+    index(first, last);
+    writeIndex(partial || splits > 0);
+  }
+
   /**
-   * Writes the index data to disk.
-   * @param partial write partial index
+   * Indexes the entries in the specified range.
+   * @param from first pre value
+   * @param to pre value after the last value
    * @throws IOException I/O exception
    */
-  private void write(final boolean partial) throws IOException {
-    writeIndex(partial);
-    if(!partial) return;
+  private void index(final int from, final int to) throws IOException {
+    for(pre = from; pre < to; ++pre) {
+      if((pre & 0x0FFF) == 0) check();
+      if(!indexEntry()) continue;
+
+      // current lexer position
+      final StopWords sw = lexer.ftOpt().sw;
+      lexer.init(data.text(pre, true));
+      int pos = -1;
+      while(lexer.hasNext()) {
+        final byte[] token = lexer.nextToken();
+        ++pos;
+        // skip too long and stopword tokens
+        if(token.length <= data.meta.maxlen && !sw.contains(token)) {
+          // check if main memory is exhausted
+          if((ntok++ & 0xFFFF) == 0 && splitRequired()) {
+            writeIndex(true);
+            clean();
+          }
+          tree.index(token, pre, pos, splits);
+          count++;
+        }
+      }
+      if(lengths != null) {
+        lengths[pre] = FTLengths.quantize(pos + 1);
+        if(FTLengths.exact(pos + 1)) {
+          synchronized(exact) {
+            exact.put(pre, pos + 1);
+          }
+        }
+      }
+    }
+  }
 
+  @Override
+  protected FTBuilder partition() throws IOException {
+    // the lengths are shared, as the partitions index disjoint ranges
+    final FTBuilder builder = new FTBuilder(data);
+    builder.lengths = lengths;
+    builder.exact = exact;
+    return builder;
+  }
+
+  /**
+   * Converts the outdated index structure to a partial structure. The entries of deleted and
+   * dirty nodes are skipped, and the pre values of all other entries are updated.
+   * @param ranges dirty ranges
+   * @throws IOException I/O exception
+   */
+  private void adopt(final DirtyRanges ranges) throws IOException {
+    final String name = DATAFTX + partial();
+    try(DataOutput outX = new DataOutput(data.meta.dbFile(name + 'x'));
+        DataOutput outY = new DataOutput(data.meta.dbFile(name + 'y'));
+        DataOutput outZ = new DataOutput(data.meta.dbFile(name + 'z'))) {
+
+      // the files of the outdated index will be deleted after they have been parsed
+      final FTList list = new FTList(data, DATAFTX, data.meta.ftblocks);
+      final IntList ind = new IntList();
+      int j = 0, t = 0;
+      for(; list.token.length > 0; list.next()) {
+        if((t++ & 0x0FFF) == 0) checkStop();
+        final byte[] token = list.token;
+        final int[] prv = list.prv, pov = list.pov;
+        final int ps = prv.length;
+        final long dr = outZ.size();
+        int np = 0;
+        for(int p = 0; p < ps; p++) {
+          final int pr = ranges.pre(prv[p]);
+          if(pr == -1) continue;
+          outZ.writeNum(pr);
+          outZ.writeNum(pov[p]);
+          np++;
+        }
+        if(np == 0) continue;
+
+        if(j < token.length) {
+          j = token.length;
+          ind.add(j);
+          ind.add((int) outY.size());
+        }
+        outY.writeBytes(token);
+        outY.write5(dr);
+        outY.write4(np);
+      }
+      writeInd(outX, ind, ++j, (int) outY.size());
+    }
+    splits++;
+  }
+
+  /**
+   * Merges partial index structures.
+   * @throws IOException I/O exception
+   */
+  private void merge() throws IOException {
     // merges temporary index files
     try(DataOutput outX = new DataOutput(data.meta.dbFile(DATAFTX + 'x'));
         DataOutput outY = new DataOutput(data.meta.dbFile(DATAFTX + 'y'));
@@ -113,7 +222,7 @@ public final class FTBuilder extends IndexBuilder {
 
       // open all temporary sorted lists
       final FTList[] v = new FTList[splits];
-      for(int b = 0; b < splits; ++b) v[b] = new FTList(data, b);
+      for(int b = 0; b < splits; ++b) v[b] = new FTList(data, DATAFTX + partials.get(b), false);
 
       final IntList il = new IntList();
       while(check(v)) {
@@ -146,7 +255,7 @@ public final class FTBuilder extends IndexBuilder {
         // merge and write data size
         outY.write4(merge(outZ, il, v));
       }
-      writeInd(outX, ind, ind.get(ind.size() - 2) + 1, (int) outY.size());
+      writeInd(outX, ind, ind.isEmpty() ? 1 : ind.get(ind.size() - 2) + 1, (int) outY.size());
     }
   }
 
@@ -177,7 +286,7 @@ public final class FTBuilder extends IndexBuilder {
    * @throws IOException I/O exception
    */
   private void writeIndex(final boolean partial) throws IOException {
-    final String name = DATAFTX + (partial ? splits : "");
+    final String name = DATAFTX + (partial ? partial() : "");
     try(DataOutput outX = new DataOutput(data.meta.dbFile(name + 'x'));
         DataOutput outY = new DataOutput(data.meta.dbFile(name + 'y'));
         DataOutput outZ = new DataOutput(data.meta.dbFile(name + 'z'))) {
@@ -203,7 +312,7 @@ public final class FTBuilder extends IndexBuilder {
         // write full-text data size (number of pre values)
         outY.write4(t.nextNumPre());
         // write compressed pre and pos arrays
-        writeFTData(outZ, t.nextPres(), t.nextPoss());
+        writeFTData(outZ, t.nextPres(), t.nextPoss(), !partial);
 
         dr = outZ.size();
         tr = (int) outY.size();
@@ -228,16 +337,31 @@ public final class FTBuilder extends IndexBuilder {
       throws IOException {
 
     final ByteList tbp = new ByteList().add(new byte[4]), tbo = new ByteList().add(new byte[4]);
-    // merge full-text data of all sorted lists with the same token
+    // merge full-text data of all sorted lists with the same token, ordered by pre values
+    // (the lists may overlap if an outdated index has been adopted)
     int s = 0;
     final int is = il.size();
-    for(int j = 0; j < is; ++j) {
-      final int m = il.get(j);
-      for(final int p : list[m].prv) tbp.add(Num.num(p));
-      for(final int p : list[m].pov) tbo.add(Num.num(p));
-      s += list[m].size;
-      list[m].next();
+    final int[] ps = new int[is];
+    while(true) {
+      int m = -1;
+      for(int j = 0; j < is; ++j) {
+        final FTList l = list[il.get(j)];
+        if(ps[j] < l.size && (m == -1 || l.prv[ps[j]] < list[il.get(m)].prv[ps[m]])) m = j;
+      }
+      if(m == -1) break;
+
+      // add all entries of the current pre value
+      final FTList l = list[il.get(m)];
+      final int pr = l.prv[ps[m]];
+      int p = ps[m];
+      do {
+        tbp.add(Num.num(pr));
+        tbo.add(Num.num(l.pov[p]));
+        s++;
+      } while(++p < l.size && l.prv[p] == pr);
+      ps[m] = p;
     }
+    for(int j = 0; j < is; ++j) list[il.get(j)].next();
     // write compressed pre and pos arrays
     final byte[] pr = tbp.finish();
     Num.size(pr, pr.length);
@@ -245,7 +369,7 @@ public final class FTBuilder extends IndexBuilder {
     Num.size(po, po.length);
 
     // write full-text data
-    writeFTData(out, pr, po);
+    writeFTData(out, pr, po, true);
     return s;
   }
 
@@ -255,13 +379,23 @@ public final class FTBuilder extends IndexBuilder {
    * @param out DataOutput for disk access
    * @param vpre compressed pre values
    * @param vpos compressed pos values
+   * @param blocks write postings in blocks (see {@link FTPostings})
    * @throws IOException IOException
    */
-  private static void writeFTData(final DataOutput out, final byte[] vpre, final byte[] vpos)
-      throws IOException {
+  private static void writeFTData(final DataOutput out, final byte[] vpre, final byte[] vpos,
+      final boolean blocks) throws IOException {
 
     int np = 4, pp = 4;
     final int ns = Num.size(vpre);
+    if(blocks) {
+      final IntList pr = new IntList(), ps = new IntList();
+      for(; np < ns; np += Num.length(vpre, np), pp += Num.length(vpos, pp)) {
+        pr.add(Num.get(vpre, np));
+        ps.add(Num.get(vpos, pp));
+      }
+      FTPostings.write(out, pr, ps);
+      return;
+    }
     while(np < ns) {
       // full-text data is stored here, with -scoreU, pre1, pos1, ...,
       // -scoreU, preU, posU
@@ -0,0 +1,437 @@
+package org.basex.index.ft;
+
+import static org.basex.data.DataText.*;
+import static org.basex.util.FTToken.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+import org.basex.util.similarity.*;
+
+/**
+ * <p>Dictionary of the tokens of a full-text index. The tokens are stored in a trie, which
+ * allows fuzzy and wildcard lookups to visit only those tokens that can match the query.
+ * The labels of the trie are code points. The index file has the prefix {@link DataText#DATAFTX}
+ * and the suffix {@code t}. Its nodes are written in post order:</p>
+ *
+ * <ul>
+ * <li>Node: {@code [v, n, (c, o) ...]}.
+ * {@code v} is the offset of the token in the <b>y</b> file plus one, or {@code 0} if the node
+ * does not terminate a token [{@link Num}].
+ * {@code n} is the number of children [{@link Num}].
+ * {@code c} is the code point of a child [{@link Num}],
+ * {@code o} the offset of the child node [long].</li>
+ * <li>The file ends with the offset of the root node [long] and the length of the <b>y</b> file
+ * [long], which is compared with the actual file length when the dictionary is opened.</li>
+ * </ul>
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class FTDictionary implements Closeable {
+  /** Size of the fixed entries at the end of the file. */
+  private static final int FOOTER = 10;
+  /** Minimum fixed size for each token entry in the y file. */
+  private static final int ENTRY = 9;
+  /** Number of bytes that are initially read for a node. */
+  private static final int CHUNK = 1 << 6;
+
+  /** Dictionary file. */
+  private final DataAccess da;
+  /** Offset of the root node. */
+  private final long root;
+
+  /**
+   * Constructor.
+   * @param da dictionary file
+   */
+  private FTDictionary(final DataAccess da) {
+    this.da = da;
+    root = da.read5(da.length() - FOOTER);
+  }
+
+  /**
+   * Opens the dictionary of the specified database.
+   * @param data data reference
+   * @param length length of the y file
+   * @return dictionary, or {@code null} if it does not exist or is outdated
+   * @throws IOException I/O exception
+   */
+  static FTDictionary open(final Data data, final long length) throws IOException {
+    final IOFile file = data.meta.dbFile(DATAFTX + 't');
+    if(!file.exists()) return null;
+
+    final DataAccess da = new DataAccess(file);
+    if(da.length() >= FOOTER && da.read5(da.length() - 5) == length) return new FTDictionary(da);
+    da.close();
+    return null;
+  }
+
+  /**
+   * Writes the dictionary for the index files of the specified database.
+   * @param data data reference
+   * @throws IOException I/O exception
+   */
+  static void write(final Data data) throws IOException {
+    try(DataAccess dataX = new DataAccess(data.meta.dbFile(DATAFTX + 'x'));
+        DataAccess dataY = new DataAccess(data.meta.dbFile(DATAFTX + 'y'));
+        DataOutput out = new DataOutput(data.meta.dbFile(DATAFTX + 't'))) {
+
+      // the tokens in the y file are sorted by their length, and then lexicographically
+      final int[] positions = new int[data.meta.maxlen + 3];
+      final int pl = positions.length;
+      Arrays.fill(positions, -1);
+      for(int is = dataX.readNum(); --is >= 0;) {
+        final int p = dataX.readNum();
+        positions[p] = dataX.read4();
+      }
+      positions[pl - 1] = (int) dataY.length();
+
+      // merge the groups of all lengths
+      final IntList lengths = new IntList(), starts = new IntList(), ends = new IntList();
+      for(int p = 0; p < pl - 1; p++) {
+        if(positions[p] == -1) continue;
+        int c = p + 1, end = -1;
+        while(end == -1) end = positions[c++];
+        if(positions[p] == end) continue;
+        lengths.add(p);
+        starts.add(positions[p]);
+        ends.add(end);
+      }
+      final int gs = lengths.size();
+      final byte[][] tokens = new byte[gs][];
+      final PriorityQueue<Integer> queue = new PriorityQueue<>(Math.max(1, gs),
+          (g1, g2) -> diff(tokens[g1], tokens[g2]));
+      for(int g = 0; g < gs; g++) {
+        tokens[g] = dataY.readBytes(starts.get(g), lengths.get(g));
+        queue.add(g);
+      }
+
+      // build the trie: all tokens with the same prefix are adjacent
+      final Trie trie = new Trie(out);
+      while(!queue.isEmpty()) {
+        final int g = queue.poll(), start = starts.get(g);
+        trie.add(cps(tokens[g]), start + 1);
+        final int next = start + lengths.get(g) + ENTRY;
+        if(next < ends.get(g)) {
+          starts.set(g, next);
+          tokens[g] = dataY.readBytes(next, lengths.get(g));
+          queue.add(g);
+        }
+      }
+      out.write5(trie.finish());
+      out.write5(dataY.length());
+    }
+  }
+
+  /**
+   * Visits the candidates of a fuzzy search. The pruning reproduces the algorithm of
+   * {@link Levenshtein#similar(byte[], byte[], int)}: The rows of the distance matrix are
+   * computed for the characters of the trie path, and a subtree is skipped if all values of a
+   * row exceed the number of allowed errors. The candidates must still be checked by the caller.
+   * @param token token to look for
+   * @param err number of allowed errors; dynamic calculation if value is 0
+   * @param visitor visitor
+   */
+  void fuzzy(final byte[] token, final int err, final Visitor visitor) {
+    final int[] query = cps(token);
+    final int sl = query.length;
+    // the rows only comply with the original algorithm if all previous characters are ASCII
+    boolean ascii = true;
+    for(final byte b : token) ascii &= b >= 0;
+    for(int s = 0; s < sl; s++) query[s] = noDiacritics(lc(query[s]));
+
+    final int tl = token.length;
+    final Fuzzy fuzzy = new Fuzzy();
+    fuzzy.query = query;
+    fuzzy.k = err == 0 ? Math.max(1, sl >> 2) : err;
+    fuzzy.exact = err == 0 && sl < 4 || sl > Levenshtein.MAX;
+    fuzzy.min = Math.max(1, tl - err);
+    fuzzy.max = tl + err;
+    fuzzy.rows = new int[fuzzy.exact ? sl + 1 : Levenshtein.MAX + 1][sl + 1];
+    fuzzy.chars = new int[fuzzy.rows.length];
+    for(int s = 0; s <= sl; s++) fuzzy.rows[0][s] = s;
+    fuzzy.visit(root, 0, ascii && !fuzzy.exact, new TokenBuilder(), visitor);
+  }
+
+  /**
+   * Visits all tokens that start with the specified prefix.
+   * @param prefix prefix
+   * @param max maximum length of the tokens
+   * @param visitor visitor
+   */
+  void prefix(final byte[] prefix, final int max, final Visitor visitor) {
+    long node = root;
+    for(final int cp : cps(prefix)) {
+      node = child(node, cp);
+      if(node == -1) return;
+    }
+    visit(node, new TokenBuilder(prefix), max, visitor);
+  }
+
+  /**
+   * Recursively visits all tokens of a subtree.
+   * @param node offset of the node
+   * @param tb token of the node
+   * @param max maximum length of the tokens
+   * @param visitor visitor
+   */
+  private void visit(final long offset, final TokenBuilder tb, final int max,
+      final Visitor visitor) {
+    final Node node = node(offset);
+    if(node.value != 0) visitor.visit(node.value - 1, tb.toArray());
+
+    final int size = tb.size(), n = node.cps.length;
+    for(int c = 0; c < n; c++) {
+      if(size + cpLength(node.cps[c]) > max) continue;
+      visit(node.nodes[c], tb.add(node.cps[c]), max, visitor);
+      tb.size(size);
+    }
+  }
+
+  /**
+   * Returns the child of a node with the specified code point.
+   * @param offset offset of the node
+   * @param cp code point
+   * @return offset of the child node, or {@code -1}
+   */
+  private long child(final long offset, final int cp) {
+    final Node node = node(offset);
+    final int n = node.cps.length;
+    for(int c = 0; c < n; c++) {
+      if(node.cps[c] == cp) return node.nodes[c];
+    }
+    return -1;
+  }
+
+  /**
+   * Reads a node. Can be called by concurrent readers.
+   * @param offset offset of the node
+   * @return node
+   */
+  private Node node(final long offset) {
+    byte[] bytes = da.readBytesConcurrent(offset, CHUNK);
+    int p = Num.length(bytes, 0);
+    final int n = Num.get(bytes, p);
+    p += Num.length(bytes, p);
+    // children: compressed code point and 5-byte offset
+    final int size = p + n * 10;
+    if(bytes.length < size) bytes = da.readBytesConcurrent(offset, size);
+
+    final Node node = new Node(Num.get(bytes, 0), n);
+    for(int c = 0; c < n; c++) {
+      node.cps[c] = Num.get(bytes, p);
+      p += Num.length(bytes, p);
+      node.nodes[c] = (long) (bytes[p] & 0xFF) << 32 | (long) (bytes[p + 1] & 0xFF) << 24 |
+        (bytes[p + 2] & 0xFF) << 16 | (bytes[p + 3] & 0xFF) << 8 | bytes[p + 4] & 0xFF;
+      p += 5;
+    }
+    return node;
+  }
+
+  @Override
+  public void close() {
+    da.close();
+  }
+
+  /** Visitor for the tokens of the dictionary. */
+  interface Visitor {
+    /**
+     * Visits a token.
+     * @param offset offset of the token in the y file
+     * @param token token
+     */
+    void visit(int offset, byte[] token);
+  }
+
+  /** Node of the trie. */
+  private static final class Node {
+    /** Value ({@code 0}: no token). */
+    private final int value;
+    /** Code points of the children. */
+    private final int[] cps;
+    /** Offsets of the children. */
+    private final long[] nodes;
+
+    /**
+     * Constructor.
+     * @param value value
+     * @param n number of children
+     */
+    private Node(final int value, final int n) {
+      this.value = value;
+      cps = new int[n];
+      nodes = new long[n];
+    }
+  }
+
+  /** State of a fuzzy search. */
+  private final class Fuzzy {
+    /** Normalized code points of the query. */
+    private int[] query;
+    /** Rows of the distance matrix. */
+    private int[][] rows;
+    /** Normalized code points of the current path. */
+    private int[] chars;
+    /** Number of allowed errors. */
+    private int k;
+    /** Exact comparison. */
+    private boolean exact;
+    /** Minimum and maximum token length. */
+    private int min, max;
+
+    /**
+     * Recursively visits the candidates of a subtree.
+     * @param node offset of the node
+     * @param depth number of code points of the current path
+     * @param prune prune subtrees with too many errors
+     * @param tb token of the node
+     * @param visitor visitor
+     */
+    private void visit(final long offset, final int depth, final boolean prune,
+        final TokenBuilder tb, final Visitor visitor) {
+      final Node node = node(offset);
+      if(node.value != 0 && tb.size() >= min) visitor.visit(node.value - 1, tb.toArray());
+      // longer tokens are compared exactly
+      if(depth + 1 == rows.length) return;
+
+      final int size = tb.size(), n = node.cps.length;
+      for(int c = 0; c < n; c++) {
+        final int cp = node.cps[c];
+        if(size + cpLength(cp) > max) continue;
+        final boolean prn = prune && cp <= 0x7F;
+        if(prn && row(depth, noDiacritics(lc(cp))) > k) continue;
+        visit(node.nodes[c], depth + 1, prn, tb.add(cp), visitor);
+        tb.size(size);
+      }
+    }
+
+    /**
+     * Computes the next row of the distance matrix.
+     * @param t index of the current row
+     * @param e normalized code point of the next character
+     * @return minimum value of the new row
+     */
+    private int row(final int t, final int e) {
+      chars[t] = e;
+      final int sl = query.length, e2 = t == 0 ? -1 : chars[t - 1];
+      final int[] prev = rows[t], row = rows[t + 1];
+      row[0] = t + 1;
+      int d = Integer.MAX_VALUE, f2 = t == 0 || sl == 0 ? -1 : query[sl - 1];
+      for(int s = 0; s < sl; s++) {
+        final int f = query[s];
+        int c = Math.min(Math.min(prev[s + 1] + 1, row[s] + 1), prev[s] + (e == f ? 0 : 1));
+        if(e == f2 && f == e2) c = prev[s];
+        row[s + 1] = c;
+        d = Math.min(d, c);
+        f2 = f;
+      }
+      return d;
+    }
+  }
+
+  /** Builder for the trie. */
+  private static final class Trie {
+    /** Output. */
+    private final DataOutput out;
+    /** Code points of the current path. */
+    private final IntList path = new IntList();
+    /** Values of the open nodes. */
+    private final IntList values = new IntList();
+    /** Code points of the children of the open nodes. */
+    private final ArrayList<IntList> cps = new ArrayList<>();
+    /** Offsets of the children of the open nodes. */
+    private final ArrayList<LongList> nodes = new ArrayList<>();
+
+    /**
+     * Constructor.
+     * @param out output
+     */
+    private Trie(final DataOutput out) {
+      this.out = out;
+      open();
+    }
+
+    /**
+     * Adds a token. The tokens must be added in lexicographical order.
+     * @param token code points of the token
+     * @param value value of the token
+     * @throws IOException I/O exception
+     */
+    private void add(final int[] token, final int value) throws IOException {
+      final int tl = token.length;
+      int c = 0;
+      while(c < tl && c < path.size() && path.get(c) == token[c]) c++;
+      while(path.size() > c) close();
+      for(int t = c; t < tl; t++) {
+        path.add(token[t]);
+        open();
+      }
+      values.set(tl, value);
+    }
+
+    /**
+     * Writes all open nodes.
+     * @return offset of the root node
+     * @throws IOException I/O exception
+     */
+    private long finish() throws IOException {
+      while(!path.isEmpty()) close();
+      return write(0);
+    }
+
+    /**
+     * Opens a node.
+     */
+    private void open() {
+      final int depth = path.size();
+      values.set(depth, 0);
+      if(cps.size() == depth) {
+        cps.add(new IntList());
+        nodes.add(new LongList());
+      } else {
+        cps.get(depth).reset();
+        nodes.get(depth).reset();
+      }
+    }
+
+    /**
+     * Writes the deepest node and adds it to its parent.
+     * @throws IOException I/O exception
+     */
+    private void close() throws IOException {
+      final int depth = path.size();
+      final long offset = write(depth);
+      final int cp = path.pop();
+      cps.get(depth - 1).add(cp);
+      nodes.get(depth - 1).add(offset);
+    }
+
+    /**
+     * Writes a node.
+     * @param depth depth of the node
+     * @return offset of the node
+     * @throws IOException I/O exception
+     */
+    private long write(final int depth) throws IOException {
+      final long offset = out.size();
+      final IntList cs = cps.get(depth);
+      final LongList ns = nodes.get(depth);
+      final int n = cs.size();
+      out.writeNum(values.get(depth));
+      out.writeNum(n);
+      for(int c = 0; c < n; c++) {
+        out.writeNum(cs.get(c));
+        out.write5(ns.get(c));
+      }
+      return offset;
+    }
+  }
+}
@@ -27,7 +27,7 @@ import org.basex.util.similarity.*;
  * <p>This class provides access to a fuzzy full-text index structure
  * stored on disk. Each token has an entry in sizes, saving its length and a
  * pointer on ftdata, where to find the token and its ftdata.
- * The three database index files start with the prefix
+ * The database index files start with the prefix
  * {@link DataText#DATAFTX} and have the following format:</p>
  *
  * <ul>
@@ -43,10 +43,21 @@ import org.basex.util.similarity.*;
  * {@code s} is the number of pre values, saved in data [int]
  * </li>
  * <li>File <b>z</b> contains the {@code id/pos} references.
- *   The values are ordered, but not distinct:
+ *   The values are ordered, but not distinct. They are stored in blocks with skip tables
+ *   (see {@link FTPostings}). Indexes of older versions store plain values:
  *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}]</li>
+ * <li>File <b>t</b> contains a dictionary of all tokens, which is used for fuzzy and
+ *   wildcard searches (see {@link FTDictionary}). Indexes of older versions may lack this
+ *   file; in this case, all tokens with a suitable length will be scanned.</li>
+ * <li>File <b>l</b> contains the lengths of all texts, which are required for computing
+ *   BM25 scores and for checking if matches are found at the end of a text
+ *   (see {@link FTLengths}). If this file is missing, the default scoring model will be
+ *   applied, and the texts will be parsed.</li>
  * </ul>
  *
+ * <p>Lookups can be performed by concurrent readers: the index files are accessed via
+ * positional reads, and the returned iterators are confined to the calling thread.</p>
+ *
  * @author BaseX Team 2005-20, BSD License
  * @author Christian Gruen
  */
@@ -56,8 +67,6 @@ public final class FTIndex extends ValueIndex {
 
   /** Cached texts. Increases used memory, but speeds up repeated queries. */
   private final IntObjMap<byte[]> ctext = new IntObjMap<>();
-  /** Levenshtein reference. */
-  private final Levenshtein ls = new Levenshtein();
 
   /** Index storing each unique token length and pointer
    * on the first token with this length. */
@@ -66,9 +75,15 @@ public final class FTIndex extends ValueIndex {
   private final DataAccess dataY;
   /** Storing pre and pos values for each token. */
   private final DataAccess dataZ;
+  /** Dictionary of all tokens (can be {@code null}). */
+  private final FTDictionary dictionary;
+  /** Text lengths for computing BM25 scores and checking text ends (can be {@code null}). */
+  private final FTLengths lengths;
+  /** Indicates if the postings are stored in blocks. */
+  private final boolean blocks;
 
   /** Cache for number of hits and data reference per token. */
-  private final IndexCache cache = new IndexCache();
+  private final IndexCache cache;
   /** Token positions. */
   private final int[] positions;
 
@@ -79,6 +94,7 @@ public final class FTIndex extends ValueIndex {
    */
   public FTIndex(final Data data) throws IOException {
     super(data, IndexType.FULLTEXT);
+    cache = new IndexCache(data.meta.indexcache);
     // cache token length index
     dataX = new DataAccess(data.meta.dbFile(DATAFTX + 'x'));
     dataY = new DataAccess(data.meta.dbFile(DATAFTX + 'y'));
@@ -91,10 +107,13 @@ public final class FTIndex extends ValueIndex {
       positions[p] = dataX.read4();
     }
     positions[pl - 1] = (int) dataY.length();
+    dictionary = FTDictionary.open(data, dataY.length());
+    lengths = FTLengths.open(data);
+    blocks = data.meta.ftblocks;
   }
 
   @Override
-  public synchronized IndexCosts costs(final IndexSearch search) {
+  public IndexCosts costs(final IndexSearch search) {
     final byte[] token = search.token();
     if(token.length > data.meta.maxlen) return null;
 
@@ -105,7 +124,7 @@ public final class FTIndex extends ValueIndex {
   }
 
   @Override
-  public synchronized IndexIterator iter(final IndexSearch search) {
+  public IndexIterator iter(final IndexSearch search) {
     // current search token
     final FTLexer lexer = (FTLexer) search;
     final FTOpt opt = lexer.ftOpt();
@@ -126,7 +145,7 @@ public final class FTIndex extends ValueIndex {
     // return cached or new result
     final IndexEntry entry = entry(token);
     if(entry.size > 0) {
-      return iter(entry.offset, entry.size, dataZ, token);
+      return iter(entry.offset, entry.size, token);
     }
 
     // no results
@@ -156,35 +175,33 @@ public final class FTIndex extends ValueIndex {
 
       @Override
       public byte[] next() {
-        synchronized(FTIndex.this) {
-          if(inner && start < end) {
-            // loop through all entries with the same character length
-            final byte[] entry = dataY.readBytes(start, p);
-            if(startsWith(entry, token)) {
-              final long poi = dataY.read5();
-              nr = dataY.read4();
-              if(token.length != 0) cache.add(entry, nr, poi);
-              start += p + ENTRY;
-              return entry;
-            }
-          }
-          // find next available entry group
-          final int pl = positions.length;
-          while(++p < pl - 1) {
-            start = positions[p];
-            if(start == -1) continue;
-            int c = p + 1;
-            do end = positions[c++]; while(end == -1);
-            nr = 0;
-            inner = true;
-            start = find(token, start, end, p);
-            // jump to inner loop
-            final byte[] n = next();
-            if(n != null) return n;
+        if(inner && start < end) {
+          // loop through all entries with the same character length
+          final byte[] entry = dataY.readBytesConcurrent(start, p);
+          if(startsWith(entry, token)) {
+            final long poi = pointer(start, p);
+            nr = size(start, p);
+            if(token.length != 0) cache.add(entry, nr, poi);
+            start += p + ENTRY;
+            return entry;
           }
-          // all entries processed: return null
-          return null;
         }
+        // find next available entry group
+        final int pl = positions.length;
+        while(++p < pl - 1) {
+          start = positions[p];
+          if(start == -1) continue;
+          int c = p + 1;
+          do end = positions[c++]; while(end == -1);
+          nr = 0;
+          inner = true;
+          start = find(token, start, end, p);
+          // jump to inner loop
+          final byte[] n = next();
+          if(n != null) return n;
+        }
+        // all entries processed: return null
+        return null;
       }
       @Override
       public int count() {
@@ -221,24 +238,30 @@ public final class FTIndex extends ValueIndex {
    */
   private byte[] cache(final int pos, final int ti) {
     // do not cache texts if the fulltext index contains unusually long tokens
-    if(ti >= 128) return dataY.readBytes(pos, ti);
+    if(ti >= 128) return dataY.readBytesConcurrent(pos, ti);
 
     // try to find cached text (requested length may vary in full-text requests)
     final int key = (ti << 24) + pos;
-    byte[] text = ctext.get(key);
+    byte[] text;
+    synchronized(ctext) {
+      text = ctext.get(key);
+    }
     if(text == null) {
-      text = dataY.readBytes(pos, ti);
-      ctext.put(key, text);
+      text = dataY.readBytesConcurrent(pos, ti);
+      synchronized(ctext) {
+        ctext.put(key, text);
+      }
     }
     return text;
   }
 
   @Override
-  public synchronized byte[] info(final MainOptions options) {
+  public byte[] info(final MainOptions options) {
     final TokenBuilder tb = new TokenBuilder();
     final long l = dataX.length() + dataY.length() + dataZ.length();
     tb.add(LI_NAMES).add(data.meta.ftinclude).add(NL);
     tb.add(LI_SIZE).add(Performance.format(l)).add(NL);
+    cache.info(tb);
 
     final IndexStats stats = new IndexStats(options.get(MainOptions.MAXSTAT));
     addOccs(stats);
@@ -246,6 +269,15 @@ public final class FTIndex extends ValueIndex {
     return tb.finish();
   }
 
+  /**
+   * Returns the number of tokens of an indexed text.
+   * @param pre pre value of the text
+   * @return number of tokens, or {@code -1} if the number is unknown
+   */
+  public int tokens(final int pre) {
+    return lengths != null ? lengths.tokens(pre) : -1;
+  }
+
   @Override
   public boolean drop() {
     return data.meta.drop(DATAFTX + '.');
@@ -256,6 +288,8 @@ public final class FTIndex extends ValueIndex {
     dataX.close();
     dataY.close();
     dataZ.close();
+    if(dictionary != null) dictionary.close();
+    if(lengths != null) lengths.close();
   }
 
   @Override
@@ -290,13 +324,13 @@ public final class FTIndex extends ValueIndex {
     // binary search
     final int o = tl + ENTRY;
     while(s < e) {
-      final int m = s + (e - s >> 1) / o * o, d = diff(dataY.readBytes(m, tl), token);
+      final int m = s + (e - s >> 1) / o * o, d = diff(dataY.readBytesConcurrent(m, tl), token);
       if(d == 0) return m;
       if(d < 0) s = m + o;
       else e = m - o;
     }
     // accept entry if pointer is inside relevant tokens
-    return e != x && s == e && eq(dataY.readBytes(s, tl), token) ? s : -1;
+    return e != x && s == e && eq(dataY.readBytesConcurrent(s, tl), token) ? s : -1;
   }
 
   /**
@@ -329,7 +363,7 @@ public final class FTIndex extends ValueIndex {
    * @return int pointer on ftdata
    */
   private long pointer(final long pt, final int lt) {
-    return dataY.read5(pt + lt);
+    return dataY.read5Concurrent(pt + lt);
   }
 
   /**
@@ -339,7 +373,7 @@ public final class FTIndex extends ValueIndex {
    * @return size of the ftdata
    */
   private int size(final long pt, final int lt) {
-    return dataY.read4(pt + lt + 5);
+    return dataY.read4Concurrent(pt + lt + 5);
   }
 
   /**
@@ -350,6 +384,23 @@ public final class FTIndex extends ValueIndex {
    */
   private IndexIterator fuzzy(final byte[] token, final int k) {
     FTIndexIterator iter = FTIndexIterator.FTEMPTY;
+    final Levenshtein ls = new Levenshtein();
+    if(dictionary != null) {
+      final IntList pts = new IntList(), lts = new IntList();
+      dictionary.fuzzy(token, k, (pt, tok) -> {
+        if(ls.similar(tok, token, k)) {
+          pts.add(pt);
+          lts.add(tok.length);
+        }
+      });
+      final int ps = pts.size();
+      for(int p = 0; p < ps; p++) {
+        final int pt = pts.get(p), lt = lts.get(p);
+        iter = FTIndexIterator.union(iter(pointer(pt, lt), size(pt, lt), token), iter);
+      }
+      return iter;
+    }
+
     final int tokl = token.length, pl = positions.length, e = Math.min(pl - 1, tokl + k);
     int s = Math.max(1, tokl - k) - 1;
     while(++s <= e) {
@@ -358,8 +409,8 @@ public final class FTIndex extends ValueIndex {
       int t = s + 1, r = -1;
       while(t < pl && r == -1) r = positions[t++];
       while(p < r) {
-        if(ls.similar(dataY.readBytes(p, s), token, k)) {
-          iter = FTIndexIterator.union(iter(pointer(p, s), size(p, s), dataZ, token), iter);
+        if(ls.similar(dataY.readBytesConcurrent(p, s), token, k)) {
+          iter = FTIndexIterator.union(iter(pointer(p, s), size(p, s), token), iter);
         }
         p += s + ENTRY;
       }
@@ -378,6 +429,13 @@ public final class FTIndex extends ValueIndex {
     final IntList pr = new IntList(), ps = new IntList();
     final byte[] prefix = wc.prefix();
     final int pl = positions.length, l = Math.min(pl - 1, wc.max(full));
+    if(dictionary != null) {
+      dictionary.prefix(prefix, l, (pt, tok) -> {
+        if(wc.match(tok)) add(pt, tok.length, pr, ps);
+      });
+      return iter(new FTCache(pr, ps), token);
+    }
+
     for(int p = prefix.length; p <= l; p++) {
       int start = positions[p];
       if(start == -1) continue;
@@ -386,53 +444,76 @@ public final class FTIndex extends ValueIndex {
       start = find(prefix, start, end, p);
 
       while(start < end) {
-        final byte[] t = dataY.readBytes(start, p);
+        final byte[] t = dataY.readBytesConcurrent(start, p);
         if(!startsWith(t, prefix)) break;
-        if(wc.match(t)) {
-          dataZ.cursor(pointer(start, p));
-          final int s = size(start, p);
-          for(int d = 0; d < s; d++) {
-            pr.add(dataZ.readNum());
-            ps.add(dataZ.readNum());
-          }
-        }
+        if(wc.match(t)) add(start, p, pr, ps);
         start += p + ENTRY;
       }
     }
     return iter(new FTCache(pr, ps), token);
   }
 
+  /**
+   * Adds the pre and pos values of a token.
+   * @param pt pointer on token
+   * @param lt length of the token
+   * @param pr pre values
+   * @param ps pos values
+   */
+  private void add(final int pt, final int lt, final IntList pr, final IntList ps) {
+    read(pointer(pt, lt), size(pt, lt), pr, ps);
+  }
+
   /**
    * Returns an iterator for an index entry.
    * @param off offset on entries
    * @param size number of id/pos entries
-   * @param da data source
    * @param token index token
    * @return iterator
    */
-  private static FTIndexIterator iter(final long off, final int size, final DataAccess da,
-      final byte[] token) {
-    da.cursor(off);
+  private FTIndexIterator iter(final long off, final int size, final byte[] token) {
+    if(blocks) return FTPostings.iter(dataZ, off, size, token, lengths);
+
     final IntList pr = new IntList(size), ps = new IntList(size);
-    for(int c = 0; c < size; c++) {
-      pr.add(da.readNum());
-      ps.add(da.readNum());
-    }
+    read(off, size, pr, ps);
     return iter(new FTCache(pr, ps), token);
   }
 
+  /**
+   * Reads the pre and pos values of an index entry.
+   * @param off offset on entries
+   * @param size number of id/pos entries
+   * @param pr pre values
+   * @param ps pos values
+   */
+  private void read(final long off, final int size, final IntList pr, final IntList ps) {
+    if(blocks) {
+      FTPostings.read(dataZ, off, size, pr, ps);
+      return;
+    }
+    // read compressed values at once
+    final byte[] nums = dataZ.readBytesConcurrent(off, (int) Math.min(Integer.MAX_VALUE - 8,
+        size * 10L));
+    for(int c = 0, p = 0; c < size; c++) {
+      pr.add(Num.get(nums, p));
+      p += Num.length(nums, p);
+      ps.add(Num.get(nums, p));
+      p += Num.length(nums, p);
+    }
+  }
+
   /**
    * Returns an iterator for an index entry.
    * @param ftc id cache
    * @param token index token
    * @return iterator
    */
-  private static FTIndexIterator iter(final FTCache ftc, final byte[] token) {
+  private FTIndexIterator iter(final FTCache ftc, final byte[] token) {
     final int size = ftc.pre.size();
 
     return new FTIndexIterator() {
       final FTMatches all = new FTMatches();
-      int pos, pre, c;
+      int pos, pre, freq, c;
 
       @Override
       public boolean more() {
@@ -440,12 +521,27 @@ public final class FTIndex extends ValueIndex {
         all.reset(pos);
         pre = ftc.pre.get(ftc.order[c]);
         all.or(ftc.pos.get(ftc.order[c++]));
+        freq = 1;
         while(c < size && pre == ftc.pre.get(ftc.order[c])) {
           all.or(ftc.pos.get(ftc.order[c++]));
+          freq++;
         }
         return true;
       }
 
+      @Override
+      public boolean skip(final int p) {
+        // binary search for the first entry with a pre value equal to or greater than p
+        int l = c, h = size;
+        while(l < h) {
+          final int m = l + h >>> 1;
+          if(ftc.pre.get(ftc.order[m]) < p) l = m + 1;
+          else h = m;
+        }
+        c = l;
+        return more();
+      }
+
       @Override
       public FTMatches matches() {
         return all;
@@ -466,6 +562,26 @@ public final class FTIndex extends ValueIndex {
         return size;
       }
 
+      @Override
+      public int texts() {
+        return ftc.texts;
+      }
+
+      @Override
+      public double score() {
+        return lengths != null ? lengths.score(pre, freq, ftc.texts) : -1;
+      }
+
+      @Override
+      public double maxScore() {
+        return lengths != null ? lengths.max(ftc.texts) : Double.POSITIVE_INFINITY;
+      }
+
+      @Override
+      public void minScore(final double min) {
+        if(maxScore() < min) c = size;
+      }
+
       @Override
       public String toString() {
         return Strings.concat(token, '(', size, "x)");
@@ -483,6 +599,8 @@ public final class FTIndex extends ValueIndex {
     private final IntList pre;
     /** Pos values. */
     private final IntList pos;
+    /** Number of distinct pre values. */
+    private final int texts;
 
     /**
      * Constructor.
@@ -496,6 +614,11 @@ public final class FTIndex extends ValueIndex {
       order = Array.createOrder(v, true);
       pre = pr;
       pos = ps;
+      int t = 0;
+      for(int i = 0; i < s; i++) {
+        if(i == 0 || pr.get(order[i]) != pr.get(order[i - 1])) t++;
+      }
+      texts = t;
     }
   }
 
@@ -0,0 +1,292 @@
+package org.basex.index.ft;
+
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.util.*;
+import org.basex.util.ft.*;
+import org.basex.util.hash.*;
+
+/**
+ * This class provides the text lengths and statistics that are required for computing
+ * BM25 scores and for evaluating full-text filters without parsing the texts. The lengths
+ * of all texts are stored in a file with the suffix <b>l</b>, which has the following format:
+ *
+ * <ul>
+ * <li>The header contains statistics on the texts of all fields. A field is defined by the
+ *   name of the parent element. Structure: {@code f, [n, t, s] ...}.
+ *   {@code f} is the number of fields [{@link Num}].
+ *   {@code n} is the name id of the parent element ({@code 0}: no element) [{@link Num}].
+ *   {@code t} is the number of texts [{@link Num}].
+ *   {@code s} is the total number of tokens [long, 5 bytes].</li>
+ * <li>The lengths of the texts are stored for all pre values.
+ *   Structure: {@code s, [l] ...}.
+ *   {@code s} is the number of pre values [{@link Num}].
+ *   {@code l} is the quantized number of tokens ({@code 0}: no indexed text) [byte].
+ *   Values smaller than {@code 128} are exact.</li>
+ * <li>The exact lengths of all texts with {@code 128} or more tokens are stored in ascending
+ *   order of their pre values. Structure: {@code e, [p, l] ...}.
+ *   {@code e} is the number of entries [{@link Num}].
+ *   {@code p} is the pre value [int].
+ *   {@code l} is the number of tokens [int].</li>
+ * </ul>
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class FTLengths {
+  /** Growth factor of quantized lengths that exceed the range of exact values. */
+  private static final double GROWTH = 1.06;
+  /** Minimum length that is not represented exactly by the quantized lengths. */
+  private static final int EXACT = 128;
+  /** Decoded lengths. */
+  private static final double[] LENGTHS = new double[256];
+
+  static {
+    for(int l = 0; l < EXACT; l++) LENGTHS[l] = l;
+    for(int l = EXACT; l < 256; l++) LENGTHS[l] = Math.round(EXACT * Math.pow(GROWTH, l - EXACT));
+  }
+
+  /** Data reference. */
+  private final Data data;
+  /** Lengths. */
+  private final DataAccess da;
+  /** Offset of the first length. */
+  private final long offset;
+  /** Offset of the first exact length. */
+  private final long exact;
+  /** Number of exact lengths. */
+  private final int exacts;
+  /** Number of pre values. */
+  private final int size;
+  /** Average lengths of the fields, indexed by name ids. */
+  private final double[] averages;
+  /** Total number of texts. */
+  private final long count;
+
+  /**
+   * Constructor.
+   * @param data data reference
+   * @param da data access
+   */
+  private FTLengths(final Data data, final DataAccess da) {
+    this.data = data;
+    this.da = da;
+
+    final int fields = da.readNum();
+    final int[] names = new int[fields], texts = new int[fields];
+    final long[] tokens = new long[fields];
+    int max = 0;
+    long c = 0;
+    for(int f = 0; f < fields; f++) {
+      names[f] = da.readNum();
+      texts[f] = da.readNum();
+      tokens[f] = da.read5();
+      max = Math.max(max, names[f]);
+      c += texts[f];
+    }
+    averages = new double[max + 1];
+    for(int f = 0; f < fields; f++) averages[names[f]] = (double) tokens[f] / texts[f];
+    count = c;
+    size = da.readNum();
+    offset = da.cursor();
+    da.cursor(offset + size);
+    exacts = da.readNum();
+    exact = da.cursor();
+  }
+
+  /**
+   * Opens the lengths of the specified database.
+   * @param data data reference
+   * @return lengths, or {@code null} if the lengths are missing or outdated
+   * @throws IOException I/O Exception
+   */
+  static FTLengths open(final Data data) throws IOException {
+    final IOFile file = data.meta.dbFile(DATAFTX + 'l');
+    if(!file.exists()) return null;
+
+    final DataAccess da = new DataAccess(file);
+    final FTLengths lengths = new FTLengths(data, da);
+    if(lengths.size == data.meta.size && da.length() == lengths.exact + 8L * lengths.exacts) {
+      return lengths;
+    }
+    da.close();
+    return null;
+  }
+
+  /**
+   * Writes the lengths of the specified database, or deletes outdated lengths.
+   * @param data data reference
+   * @param lengths quantized lengths, indexed by pre values (can be {@code null})
+   * @param exact exact lengths of long texts, indexed by pre values
+   * @throws IOException I/O Exception
+   */
+  static void write(final Data data, final byte[] lengths, final IntMap exact)
+      throws IOException {
+    final IOFile file = data.meta.dbFile(DATAFTX + 'l');
+    if(lengths == null) {
+      file.delete();
+      return;
+    }
+
+    // collect statistics
+    final int fields = data.elemNames.size() + 1;
+    final int[] texts = new int[fields];
+    final long[] tokens = new long[fields];
+    final int size = lengths.length;
+    for(int pre = 0; pre < size; pre++) {
+      final int l = lengths[pre] & 0xFF;
+      if(l == 0) continue;
+      final int name = field(data, pre);
+      texts[name]++;
+      tokens[name] += (long) LENGTHS[l];
+    }
+
+    try(DataOutput out = new DataOutput(file)) {
+      int fs = 0;
+      for(final int t : texts) if(t > 0) fs++;
+      out.writeNum(fs);
+      for(int f = 0; f < fields; f++) {
+        if(texts[f] == 0) continue;
+        out.writeNum(f);
+        out.writeNum(texts[f]);
+        out.write5(tokens[f]);
+      }
+      out.writeNum(size);
+      out.writeBytes(lengths);
+
+      final int[] pres = exact.toArray();
+      Arrays.sort(pres);
+      out.writeNum(pres.length);
+      for(final int pre : pres) {
+        out.write4(pre);
+        out.write4(exact.get(pre));
+      }
+    }
+  }
+
+  /**
+   * Reads the lengths of an outdated index structure and updates their pre values.
+   * @param data data reference
+   * @param ranges dirty ranges
+   * @param exact map for the exact lengths of long texts
+   * @return lengths, or {@code null} if the outdated index structure has no lengths
+   * @throws IOException I/O Exception
+   */
+  static byte[] adopt(final Data data, final DirtyRanges ranges, final IntMap exact)
+      throws IOException {
+    final IOFile file = data.meta.dbFile(DATAFTX + 'l');
+    if(!file.exists()) return null;
+
+    final byte[] lengths = new byte[data.meta.size];
+    try(DataAccess da = new DataAccess(file)) {
+      // skip statistics
+      for(int f = da.readNum(); --f >= 0;) {
+        da.readNum();
+        da.readNum();
+        da.read5();
+      }
+      final byte[] old = da.readBytes(da.readNum());
+      final int os = old.length;
+      for(int o = 0; o < os; o++) {
+        if(old[o] == 0) continue;
+        final int pre = ranges.pre(o);
+        if(pre != -1) lengths[pre] = old[o];
+      }
+      for(int e = da.readNum(); --e >= 0;) {
+        final int pre = ranges.pre(da.read4()), length = da.read4();
+        if(pre != -1) exact.put(pre, length);
+      }
+    }
+    return lengths;
+  }
+
+  /**
+   * Returns the quantized representation of a text length.
+   * @param length number of tokens
+   * @return quantized length
+   */
+  static byte quantize(final int length) {
+    return (byte) (length < EXACT ? length : Math.min(255, EXACT +
+        (int) Math.round(Math.log((double) length / EXACT) / Math.log(GROWTH))));
+  }
+
+  /**
+   * Indicates if the exact length of a text needs to be stored separately.
+   * @param length number of tokens
+   * @return result of check
+   */
+  static boolean exact(final int length) {
+    return length >= EXACT;
+  }
+
+  /**
+   * Returns the number of tokens of a text.
+   * @param pre pre value of the text
+   * @return number of tokens, or {@code -1} if the length is unknown
+   */
+  int tokens(final int pre) {
+    final int l = da.readBytesConcurrent(offset + pre, 1)[0] & 0xFF;
+    if(l < EXACT) return l;
+
+    // binary search in the exact lengths of long texts
+    int lo = 0, hi = exacts - 1;
+    while(lo <= hi) {
+      final int m = lo + hi >>> 1;
+      final long pos = exact + 8L * m;
+      final int p = da.read4Concurrent(pos);
+      if(p < pre) lo = m + 1;
+      else if(p > pre) hi = m - 1;
+      else return da.read4Concurrent(pos + 4);
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the upper bound for the scores of a token.
+   * @param texts number of texts containing the token
+   * @return upper bound
+   */
+  double max(final int texts) {
+    return Scoring.idf(texts, count);
+  }
+
+  /**
+   * Returns the score of a token in a text.
+   * @param pre pre value of the text
+   * @param freq number of occurrences of the token in the text
+   * @param texts number of texts containing the token
+   * @return score
+   */
+  double score(final int pre, final int freq, final int texts) {
+    final double length = LENGTHS[da.readBytesConcurrent(offset + pre, 1)[0] & 0xFF];
+    final int name = field(data, pre);
+    final double avg = name < averages.length && averages[name] > 0 ? averages[name] : length;
+    return Scoring.bm25(freq, texts, count, length, avg);
+  }
+
+  /**
+   * Closes the file.
+   */
+  void close() {
+    da.close();
+  }
+
+  /**
+   * Returns the field of a text.
+   * @param data data reference
+   * @param pre pre value
+   * @return name id of the parent element, or {@code 0}
+   */
+  private static int field(final Data data, final int pre) {
+    final int par = data.parent(pre, data.kind(pre));
+    return par != -1 && data.kind(par) == Data.ELEM ? data.nameId(par) : 0;
+  }
+}
@@ -1,6 +1,5 @@
 package org.basex.index.ft;
 
-import static org.basex.data.DataText.*;
 import static org.basex.util.Token.*;
 
 import java.io.*;
@@ -27,6 +26,8 @@ final class FTList {
   private final IOFile filed;
   /** Wasted flag. */
   private boolean wasted;
+  /** Indicates if the postings are stored in blocks. */
+  private final boolean blocks;
 
   /** Size file. */
   private final IOFile sizes;
@@ -54,18 +55,20 @@ final class FTList {
   /**
    * Constructor, initializing the index structure.
    * @param data data
-   * @param prefix prefix
+   * @param name name of the index files (without suffix)
+   * @param blocks indicates if the postings are stored in blocks (see {@link FTPostings})
    * @throws IOException I/O exception
    */
-  FTList(final Data data, final int prefix) throws IOException {
-    files = data.meta.dbFile(DATAFTX + prefix + 'y');
-    filed = data.meta.dbFile(DATAFTX + prefix + 'z');
+  FTList(final Data data, final String name, final boolean blocks) throws IOException {
+    this.blocks = blocks;
+    files = data.meta.dbFile(name + 'y');
+    filed = data.meta.dbFile(name + 'z');
     str = new DataAccess(files);
     dat = new DataAccess(filed);
     tp = new int[data.meta.maxlen + 3];
     final int tl = tp.length;
     for(int t = 0; t < tl; t++) tp[t] = -1;
-    sizes = data.meta.dbFile(DATAFTX + prefix + 'x');
+    sizes = data.meta.dbFile(name + 'x');
     try(DataAccess li = new DataAccess(sizes)) {
       int is = li.readNum();
       while(--is >= 0) {
@@ -92,9 +95,21 @@ final class FTList {
     } else {
       prv = new int[size];
       pov = new int[size];
-      for(int j = 0; j < size; ++j) {
-        prv[j] = dat.readNum();
-        pov[j] = dat.readNum();
+      if(blocks) {
+        // number of texts, skip table and delta-encoded pre values
+        dat.readNum();
+        final int bl = FTPostings.blocks(size);
+        if(bl > 1) for(int b = 0; b < bl << 1; b++) dat.readNum();
+        for(int j = 0, pre = 0; j < size; ++j) {
+          pre += dat.readNum();
+          prv[j] = pre;
+          pov[j] = dat.readNum();
+        }
+      } else {
+        for(int j = 0; j < size; ++j) {
+          prv[j] = dat.readNum();
+          pov[j] = dat.readNum();
+        }
       }
     }
   }
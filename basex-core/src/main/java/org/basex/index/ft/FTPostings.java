@@ -0,0 +1,349 @@
+package org.basex.index.ft;
+
+import java.io.*;
+
+import org.basex.index.query.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.query.util.ft.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * This class reads and writes the postings of a full-text token, which are stored in blocks
+ * with a maximum of {@link #BLOCK} {@code pre/pos} entries. The entries of a token have the
+ * following format:
+ *
+ * <ul>
+ * <li>The entry starts with the number of distinct pre values, which is required for
+ *   computing scores [{@link Num}].</li>
+ * <li>If there is more than one block, a skip table follows.
+ *   Structure: {@code [p, l] ...}.
+ *   {@code p} is the last pre value of a block [{@link Num}].
+ *   {@code l} is the byte length of a block [{@link Num}].</li>
+ * <li>The blocks contain the {@code pre/pos} references, which are ordered by pre values.
+ *   Structure: {@code [d, p] ...}.
+ *   {@code d} is the difference to the previous pre value [{@link Num}].
+ *   {@code p} is the position of the token [{@link Num}].</li>
+ * </ul>
+ *
+ * <p>As the pre values are delta-encoded across the block boundaries, all entries can be
+ * read sequentially. The skip table allows iterators to skip blocks that contain no
+ * relevant pre values.</p>
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class FTPostings {
+  /** Maximum number of entries per block. */
+  static final int BLOCK = 128;
+
+  /** Private constructor. */
+  private FTPostings() { }
+
+  /**
+   * Writes the postings of a token.
+   * @param out output stream
+   * @param pr pre values
+   * @param ps pos values
+   * @throws IOException I/O exception
+   */
+  static void write(final DataOutput out, final IntList pr, final IntList ps)
+      throws IOException {
+
+    final int size = pr.size();
+    // sort entries if pre values are not ordered
+    int[] order = null;
+    for(int s = 1; s < size && order == null; s++) {
+      if(pr.get(s) < pr.get(s - 1)) {
+        final long[] v = new long[size];
+        for(int i = 0; i < size; i++) v[i] = (long) pr.get(i) << 32 | ps.get(i);
+        order = Array.createOrder(v, true);
+      }
+    }
+
+    // encode blocks
+    final int blocks = blocks(size);
+    final ByteList entries = new ByteList();
+    final IntList lasts = new IntList(blocks), lengths = new IntList(blocks);
+    int texts = 0;
+    for(int s = 0, last = 0, start = 0; s < size; s++) {
+      final int o = order == null ? s : order[s], pre = pr.get(o);
+      if(s == 0 || pre != last) texts++;
+      entries.add(Num.num(pre - last));
+      entries.add(Num.num(ps.get(o)));
+      last = pre;
+      if(s % BLOCK == BLOCK - 1 || s == size - 1) {
+        lasts.add(pre);
+        lengths.add(entries.size() - start);
+        start = entries.size();
+      }
+    }
+
+    // write number of texts, skip table and blocks
+    out.writeNum(texts);
+    if(blocks > 1) {
+      for(int b = 0; b < blocks; b++) {
+        out.writeNum(lasts.get(b));
+        out.writeNum(lengths.get(b));
+      }
+    }
+    out.writeBytes(entries.finish());
+  }
+
+  /**
+   * Reads the pre and pos values of a token.
+   * @param da data access
+   * @param off offset of the entry
+   * @param size number of pre/pos entries
+   * @param pr pre values
+   * @param ps pos values
+   */
+  static void read(final DataAccess da, final long off, final int size, final IntList pr,
+      final IntList ps) {
+
+    final int blocks = blocks(size);
+    final byte[] table = da.readBytesConcurrent(off, 5 + (blocks > 1 ? blocks * 10 : 0));
+    int p = Num.length(table, 0);
+    long len = size * 10L;
+    if(blocks > 1) {
+      // skip table: compute exact length of all blocks
+      len = 0;
+      for(int b = 0; b < blocks; b++) {
+        p += Num.length(table, p);
+        len += Num.get(table, p);
+        p += Num.length(table, p);
+      }
+    }
+    final long o = off + p;
+    final byte[] nums = da.readBytesConcurrent(o, (int) Math.min(Integer.MAX_VALUE - 8, len));
+    p = 0;
+    for(int c = 0, pre = 0; c < size; c++) {
+      pre += Num.get(nums, p);
+      p += Num.length(nums, p);
+      pr.add(pre);
+      ps.add(Num.get(nums, p));
+      p += Num.length(nums, p);
+    }
+  }
+
+  /**
+   * Returns the number of blocks.
+   * @param size number of pre/pos entries
+   * @return number of blocks
+   */
+  static int blocks(final int size) {
+    return (size + BLOCK - 1) / BLOCK;
+  }
+
+  /**
+   * Returns an iterator for the postings of a token. Blocks are decoded on demand.
+   * @param da data access
+   * @param off offset of the entry
+   * @param size number of pre/pos entries
+   * @param token index token
+   * @param lengths text lengths (can be {@code null})
+   * @return iterator
+   */
+  static FTIndexIterator iter(final DataAccess da, final long off, final int size,
+      final byte[] token, final FTLengths lengths) {
+    return new Iter(da, off, size, token, lengths);
+  }
+
+  /**
+   * Iterator for the postings of a token.
+   */
+  private static final class Iter extends FTIndexIterator {
+    /** Matches. */
+    private final FTMatches all = new FTMatches();
+    /** Data access. */
+    private final DataAccess da;
+    /** Number of pre/pos entries. */
+    private final int size;
+    /** Index token. */
+    private final byte[] token;
+    /** Text lengths (can be {@code null}). */
+    private final FTLengths lengths;
+    /** Number of distinct pre values. */
+    private final int texts;
+    /** Last pre values of the blocks. */
+    private final int[] lasts;
+    /** Offsets of the blocks (the last entry points to the end of the last block). */
+    private final long[] offsets;
+    /** Pre values of the current block. */
+    private final int[] pres = new int[BLOCK];
+    /** Pos values of the current block. */
+    private final int[] poss = new int[BLOCK];
+
+    /** Current block. */
+    private int block = -1;
+    /** Number of entries in the current block. */
+    private int bs;
+    /** Current entry in the block. */
+    private int c;
+    /** Current pre value. */
+    private int pre;
+    /** Number of entries with the current pre value. */
+    private int freq;
+    /** Query position. */
+    private int pos;
+
+    /**
+     * Constructor.
+     * @param da data access
+     * @param off offset of the entry
+     * @param size number of pre/pos entries
+     * @param token index token
+     * @param lengths text lengths (can be {@code null})
+     */
+    private Iter(final DataAccess da, final long off, final int size, final byte[] token,
+        final FTLengths lengths) {
+      this.da = da;
+      this.size = size;
+      this.token = token;
+      this.lengths = lengths;
+
+      final int blocks = blocks(size);
+      final byte[] table = da.readBytesConcurrent(off, 5 + (blocks > 1 ? blocks * 10 : 0));
+      texts = Num.get(table, 0);
+      int p = Num.length(table, 0);
+      lasts = new int[blocks];
+      offsets = new long[blocks + 1];
+      if(blocks == 1) {
+        lasts[0] = Integer.MAX_VALUE;
+        offsets[0] = off + p;
+        offsets[1] = offsets[0] + size * 10L;
+      } else {
+        final int[] sizes = new int[blocks];
+        for(int b = 0; b < blocks; b++) {
+          lasts[b] = Num.get(table, p);
+          p += Num.length(table, p);
+          sizes[b] = Num.get(table, p);
+          p += Num.length(table, p);
+        }
+        offsets[0] = off + p;
+        for(int b = 0; b < blocks; b++) offsets[b + 1] = offsets[b] + sizes[b];
+      }
+    }
+
+    @Override
+    public boolean more() {
+      return (c < bs || load(block + 1)) && group();
+    }
+
+    @Override
+    public boolean skip(final int p) {
+      if(c == bs || pres[bs - 1] < p) {
+        // find first block with a last pre value that is equal to or greater than the target
+        int l = block + 1, h = lasts.length;
+        while(l < h) {
+          final int m = l + h >>> 1;
+          if(lasts[m] < p) l = m + 1;
+          else h = m;
+        }
+        if(!load(l)) return false;
+      }
+      // find first entry with a pre value that is equal to or greater than the target
+      int l = c, h = bs;
+      while(l < h) {
+        final int m = l + h >>> 1;
+        if(pres[m] < p) l = m + 1;
+        else h = m;
+      }
+      c = l;
+      return group();
+    }
+
+    /**
+     * Adds the positions of all entries with the current pre value.
+     * @return {@code true}
+     */
+    private boolean group() {
+      all.reset(pos);
+      pre = pres[c];
+      all.or(poss[c++]);
+      freq = 1;
+      while((c < bs || load(block + 1)) && pres[c] == pre) {
+        all.or(poss[c++]);
+        freq++;
+      }
+      return true;
+    }
+
+    /**
+     * Decodes the specified block.
+     * @param b block
+     * @return {@code false} if all blocks have been processed
+     */
+    private boolean load(final int b) {
+      final int blocks = lasts.length;
+      if(b >= blocks) {
+        // invalidate block
+        block = blocks;
+        bs = 0;
+        c = 0;
+        return false;
+      }
+      final long off = offsets[b];
+      final byte[] nums = da.readBytesConcurrent(off, (int) (offsets[b + 1] - off));
+      final int n = Math.min(BLOCK, size - b * BLOCK);
+      for(int e = 0, p = 0, pr = b == 0 ? 0 : lasts[b - 1]; e < n; e++) {
+        pr += Num.get(nums, p);
+        p += Num.length(nums, p);
+        pres[e] = pr;
+        poss[e] = Num.get(nums, p);
+        p += Num.length(nums, p);
+      }
+      block = b;
+      bs = n;
+      c = 0;
+      return true;
+    }
+
+    @Override
+    public FTMatches matches() {
+      return all;
+    }
+
+    @Override
+    public int pre() {
+      return pre;
+    }
+
+    @Override
+    public void pos(final int p) {
+      pos = p;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public int texts() {
+      return texts;
+    }
+
+    @Override
+    public double score() {
+      return lengths != null ? lengths.score(pre, freq, texts) : -1;
+    }
+
+    @Override
+    public double maxScore() {
+      return lengths != null ? lengths.max(texts) : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public void minScore(final double min) {
+      // skip all remaining entries if their scores are too small
+      if(maxScore() < min) load(lasts.length);
+    }
+
+    @Override
+    public String toString() {
+      return Strings.concat(token, '(', size, "x)");
+    }
+  }
+}
@@ -35,6 +35,52 @@ public abstract class FTIndexIterator implements IndexIterator {
    */
   public abstract void pos(int p);
 
+  /**
+   * Skips all entries with pre values smaller than the specified value and returns the next
+   * match. This function is called to align iterators when results are intersected. It can be
+   * overwritten by iterators that can skip entries without evaluating them.
+   * @param pre minimum pre value
+   * @return {@code true} if a match was found
+   */
+  public boolean skip(final int pre) {
+    while(more()) {
+      if(pre() >= pre) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the number of distinct pre values, or an estimate.
+   * @return number of pre values
+   */
+  public int texts() {
+    return size();
+  }
+
+  /**
+   * Returns the BM25 score of the current match.
+   * @return score, or {@code -1} if no statistics are available
+   */
+  public double score() {
+    return -1;
+  }
+
+  /**
+   * Returns an upper bound for the scores of all matches.
+   * @return upper bound, or {@link Double#POSITIVE_INFINITY} if no statistics are available
+   */
+  public double maxScore() {
+    return Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Assigns a minimum score. Subsequent matches with smaller scores may be skipped.
+   * This function is called by queries that only request the matches with the highest scores.
+   * @param min minimum score
+   */
+  @SuppressWarnings("unused")
+  public void minScore(final double min) { }
+
   /**
    * Merges two index array iterators.
    * @param i1 first index array iterator to merge
@@ -44,12 +90,47 @@ public abstract class FTIndexIterator implements IndexIterator {
   public static FTIndexIterator union(final FTIndexIterator i1, final FTIndexIterator i2) {
     return new FTIndexIterator() {
       FTIndexIterator ii1, ii2, next;
+      double min;
       int diff;
 
       @Override
       public boolean more() {
         if(diff <= 0) ii1 = i1.more() ? i1 : null;
         if(diff >= 0) ii2 = i2.more() ? i2 : null;
+        return next();
+      }
+
+      @Override
+      public boolean skip(final int pre) {
+        // skip returned entries and entries with smaller pre values
+        if(diff <= 0 || ii1 != null && ii1.pre() < pre) ii1 = i1.skip(pre) ? i1 : null;
+        if(diff >= 0 || ii2 != null && ii2.pre() < pre) ii2 = i2.skip(pre) ? i2 : null;
+        return next();
+      }
+
+      /**
+       * Chooses the iterator with the smaller pre value. If a minimum score has been assigned,
+       * and if the scores of one iterator are too small, the other iterator is required to
+       * return a match.
+       * @return {@code true} if a match was found
+       */
+      private boolean next() {
+        if(min > 0) {
+          final boolean req1 = i2.maxScore() < min, req2 = i1.maxScore() < min;
+          while(true) {
+            if(req1 && ii1 == null || req2 && ii2 == null) {
+              ii1 = null;
+              ii2 = null;
+            } else if(req2 && ii1 != null && ii1.pre() < ii2.pre()) {
+              ii1 = i1.skip(ii2.pre()) ? i1 : null;
+              continue;
+            } else if(req1 && ii2 != null && ii2.pre() < ii1.pre()) {
+              ii2 = i2.skip(ii1.pre()) ? i2 : null;
+              continue;
+            }
+            break;
+          }
+        }
         diff = ii1 != null ? ii2 != null ? ii1.pre() - ii2.pre() : -1 : 1;
         next = diff <= 0 ? ii1 : ii2;
         return next != null;
@@ -79,6 +160,28 @@ public abstract class FTIndexIterator implements IndexIterator {
         return i1.size() + i2.size();
       }
 
+      @Override
+      public int texts() {
+        return i1.texts() + i2.texts();
+      }
+
+      @Override
+      public double score() {
+        return diff == 0 ? add(ii1.score(), ii2.score()) : next.score();
+      }
+
+      @Override
+      public double maxScore() {
+        return i1.maxScore() + i2.maxScore();
+      }
+
+      @Override
+      public void minScore(final double mn) {
+        min = mn;
+        i1.minScore(mn - i2.maxScore());
+        i2.minScore(mn - i1.maxScore());
+      }
+
       @Override
       public String toString() {
         return "(" + i1 + " | " + i2 + ')';
@@ -97,20 +200,36 @@ public abstract class FTIndexIterator implements IndexIterator {
       final int dis) {
 
     return new FTIndexIterator() {
-      private FTIndexIterator ii1, ii2;
       private FTMatches all;
 
       @Override
       public boolean more() {
-        int d = 0;
+        return i1.more() && i2.more() && next();
+      }
+
+      @Override
+      public boolean skip(final int pre) {
+        return i1.skip(pre) && i2.skip(pre) && next();
+      }
+
+      /**
+       * Returns the next match. The iterator with the smaller pre value is advanced to the
+       * pre value of the other iterator until both iterators point to the same entry.
+       * @return {@code true} if a match was found
+       */
+      private boolean next() {
         while(true) {
-          if(d <= 0) ii1 = i1.more() ? i1 : null;
-          if(d >= 0) ii2 = i2.more() ? i2 : null;
-          if(ii1 == null || ii2 == null) return false;
-          d = ii1.pre() - ii2.pre();
-          if(d != 0) continue;
-          all = ii1.matches();
-          final FTMatches all2 = ii2.matches();
+          final int p1 = i1.pre(), p2 = i2.pre();
+          if(p1 < p2) {
+            if(!i1.skip(p2)) return false;
+            continue;
+          }
+          if(p1 > p2) {
+            if(!i2.skip(p1)) return false;
+            continue;
+          }
+          all = i1.matches();
+          final FTMatches all2 = i2.matches();
           if(dis == 0) {
             for(final FTMatch m1 : all) {
               for(final FTMatch m2 : all2) m1.add(m2);
@@ -119,6 +238,7 @@ public abstract class FTIndexIterator implements IndexIterator {
           } else if(all.phrase(all2, dis)) {
             return true;
           }
+          if(!i1.more() || !i2.more()) return false;
         }
       }
 
@@ -129,7 +249,7 @@ public abstract class FTIndexIterator implements IndexIterator {
 
       @Override
       public int pre() {
-        return ii1.pre();
+        return i1.pre();
       }
 
       @Override
@@ -143,10 +263,41 @@ public abstract class FTIndexIterator implements IndexIterator {
         return Math.min(i1.size(), i2.size());
       }
 
+      @Override
+      public int texts() {
+        return Math.min(i1.texts(), i2.texts());
+      }
+
+      @Override
+      public double score() {
+        return add(i1.score(), i2.score());
+      }
+
+      @Override
+      public double maxScore() {
+        return i1.maxScore() + i2.maxScore();
+      }
+
+      @Override
+      public void minScore(final double min) {
+        i1.minScore(min - i2.maxScore());
+        i2.minScore(min - i1.maxScore());
+      }
+
       @Override
       public String toString() {
         return "(" + i1 + " & " + i2 + ')';
       }
     };
   }
+
+  /**
+   * Adds two scores.
+   * @param s1 first score
+   * @param s2 second score
+   * @return sum, or {@code -1} if one of the scores is unknown
+   */
+  private static double add(final double s1, final double s2) {
+    return s1 < 0 || s2 < 0 ? -1 : s1 + s2;
+  }
 }
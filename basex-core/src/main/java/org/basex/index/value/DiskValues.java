@@ -21,6 +21,8 @@ import org.basex.util.list.*;
 /**
  * This class provides access to attribute values and text contents stored on disk.
  * The data structure is described in the {@link DiskValuesBuilder} class.
+ * Lookups can be performed by concurrent readers: the index files are accessed via positional
+ * reads, and the returned iterators are confined to the calling thread.
  *
  * @author BaseX Team 2005-20, BSD License
  * @author Christian Gruen
@@ -31,15 +33,13 @@ public class DiskValues extends ValueIndex {
   /** ID lists. */
   final DataAccess idxl;
   /** Cached index entries: mapping between keys and index entries. */
-  final IndexCache cache = new IndexCache();
-  /** Cached texts: mapping between key positions in the reference file, and the indexed texts. */
+  final IndexCache cache;
+  /** Cached texts: mapping between key positions in the reference file, and the indexed texts.
+   * Accesses by readers must be synchronized. */
   final IntObjMap<byte[]> ctext = new IntObjMap<>();
   /** Number of current index entries. */
   final AtomicInteger size = new AtomicInteger();
 
-  /** Synchronization object. */
-  private final Object monitor = new Object();
-
   /**
    * Constructor, initializing the index structure.
    * @param data data reference
@@ -60,6 +60,7 @@ public class DiskValues extends ValueIndex {
    */
   DiskValues(final Data data, final IndexType type, final String pref) throws IOException {
     super(data, type);
+    cache = new IndexCache(data.meta.indexcache);
     idxl = new DataAccess(data.meta.dbFile(pref + 'l'));
     idxr = new DataAccess(data.meta.dbFile(pref + 'r'));
     size.set(idxl.read4());
@@ -72,9 +73,10 @@ public class DiskValues extends ValueIndex {
     tb.add(LI_NAMES).add(data.meta.names(type)).add(NL);
 
     final IndexStats stats = new IndexStats(options.get(MainOptions.MAXSTAT));
-    synchronized(monitor) {
+    synchronized(idxl) {
       final long l = idxl.length() + idxr.length();
       tb.add(LI_SIZE).add(Performance.format(l)).add(NL);
+      cache.info(tb);
       final int entries = size();
       for(int index = 0; index < entries; index++) {
         final long pos = idxr.read5(index * 5L);
@@ -130,10 +132,8 @@ public class DiskValues extends ValueIndex {
 
   @Override
   public final void close() {
-    synchronized(monitor) {
-      idxl.close();
-      idxr.close();
-    }
+    idxl.close();
+    idxr.close();
   }
 
   @Override
@@ -189,15 +189,13 @@ public class DiskValues extends ValueIndex {
    */
   protected final int get(final byte[] key, final int first, final int last) {
     int l = first, h = last - 1;
-    synchronized(monitor) {
-      while(l <= h) {
-        final int m = l + h >>> 1;
-        final byte[] txt = indexEntry(m).key;
-        final int d = diff(txt, key);
-        if(d == 0) return m;
-        if(d < 0) l = m + 1;
-        else h = m - 1;
-      }
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      final byte[] txt = indexEntry(m).key;
+      final int d = diff(txt, key);
+      if(d == 0) return m;
+      if(d < 0) l = m + 1;
+      else h = m - 1;
     }
     return -(l + 1);
   }
@@ -217,17 +215,10 @@ public class DiskValues extends ValueIndex {
     final long index = get(token);
     if(index < 0) return new IndexEntry(token, 0, 0);
 
-    final int count;
-    final long offset;
-
-    synchronized(monitor) {
-      // get position in heap file
-      final long pos = idxr.read5(index * 5L);
-      count = idxl.readNum(pos);
-      offset = idxl.cursor();
-    }
-
-    return cache.add(token, count, offset);
+    // get position in heap file
+    final long pos = idxr.read5Concurrent(index * 5L);
+    final int count = Num.get(idxl.readBytesConcurrent(pos, 5), 0);
+    return cache.add(token, count, pos + Num.length(count));
   }
 
   /**
@@ -268,12 +259,10 @@ public class DiskValues extends ValueIndex {
       @Override
       public byte[] next() {
         if(++ix < s) {
-          synchronized(monitor) {
-            final IndexEntry entry = indexEntry(ix);
-            if(startsWith(entry.key, prefix)) {
-              count = entry.size;
-              return entry.key;
-            }
+          final IndexEntry entry = indexEntry(ix);
+          if(startsWith(entry.key, prefix)) {
+            count = entry.size;
+            return entry.key;
           }
         }
         count = -1;
@@ -301,11 +290,9 @@ public class DiskValues extends ValueIndex {
       @Override
       public byte[] next() {
         if(++ix <= last) {
-          synchronized(monitor) {
-            final IndexEntry entry = indexEntry(ix);
-            count = entry.size;
-            return entry.key;
-          }
+          final IndexEntry entry = indexEntry(ix);
+          count = entry.size;
+          return entry.key;
         }
         count = -1;
         return null;
@@ -332,11 +319,9 @@ public class DiskValues extends ValueIndex {
       @Override
       public byte[] next() {
         if(--ix >= first) {
-          synchronized(monitor) {
-            final IndexEntry entry = indexEntry(ix);
-            count = entry.size;
-            return entry.key;
-          }
+          final IndexEntry entry = indexEntry(ix);
+          count = entry.size;
+          return entry.key;
         }
         count = -1;
         return null;
@@ -351,26 +336,32 @@ public class DiskValues extends ValueIndex {
 
   /**
    * Read a key at the given position.
-   * <p><em>Important:</em> This method is NOT thread-safe, since it is used in loops.</p>
+   * <p><em>Important:</em> This method is thread-safe.</p>
    * @param index key position
    * @return index entry
    */
   private IndexEntry indexEntry(final int index) {
     // try the cache first
-    byte[] key = ctext.get(index);
+    byte[] key;
+    synchronized(ctext) {
+      key = ctext.get(index);
+    }
     if(key != null) {
       final IndexEntry entry = cache.get(key);
       if(entry != null) return entry;
     }
 
-    // read text and cache result
-    final long pos = idxr.read5(index * 5L);
-    final int count = idxl.readNum(pos);
+    // read text and cache result: count, first id, and (token index) position
+    final long pos = idxr.read5Concurrent(index * 5L);
+    final byte[] nums = idxl.readBytesConcurrent(pos, 15);
+    final int count = Num.get(nums, 0), cl = Num.length(count);
     if(key == null) {
-      key = key(idxl.readNum());
-      ctext.put(index, key);
+      key = key(nums, cl);
+      synchronized(ctext) {
+        ctext.put(index, key);
+      }
     }
-    return cache.add(key, count, pos + Num.length(count));
+    return cache.add(key, count, pos + cl);
   }
 
   /**
@@ -382,14 +373,16 @@ public class DiskValues extends ValueIndex {
    */
   protected IntList pres(final int sz, final long offset) {
     final IntList pres = new IntList(sz);
-    synchronized(monitor) {
-      idxl.cursor(offset);
-      for(int i = 0, id = 0; i < sz; i++) {
-        id += idxl.readNum();
-        // token index: skip position
-        if(type == IndexType.TOKEN) idxl.readNum();
-        pres.add(pre(id));
-      }
+    // read compressed ids (and positions) at once
+    final boolean token = type == IndexType.TOKEN;
+    final byte[] nums = idxl.readBytesConcurrent(offset, (int) Math.min(Integer.MAX_VALUE - 8,
+        (token ? 10L : 5L) * sz));
+    for(int i = 0, id = 0, p = 0; i < sz; i++) {
+      id += Num.get(nums, p);
+      p += Num.length(nums, p);
+      // token index: skip position
+      if(token) p += Num.length(nums, p);
+      pres.add(pre(id));
     }
     return pres;
   }
@@ -403,21 +396,17 @@ public class DiskValues extends ValueIndex {
   private IntList idRange(final StringRange tok) {
     // check if min and max are positive integers with the same number of digits
     final IntList pres = new IntList();
-    synchronized(monitor) {
-      final int i = get(tok.min);
-      final int entries = size();
-      for(int index = i < 0 ? -i - 1 : tok.mni ? i : i + 1; index < entries; index++) {
-        final int count = idxl.readNum(idxr.read5(index * 5L));
-        int id = idxl.readNum();
-        // skip traversal if value is too large
-        final int diff = diff(key(id), tok.max);
-        if(diff > 0 || !tok.mxi && diff == 0) break;
-        // add pre values
-        for(int c = 0; c < count; c++) {
-          pres.add(pre(id));
-          id += idxl.readNum();
-        }
-      }
+    final int i = get(tok.min);
+    final int entries = size();
+    for(int index = i < 0 ? -i - 1 : tok.mni ? i : i + 1; index < entries; index++) {
+      final long pos = idxr.read5Concurrent(index * 5L);
+      final byte[] nums = idxl.readBytesConcurrent(pos, 15);
+      final int count = Num.get(nums, 0), cl = Num.length(count);
+      // skip traversal if value is too large
+      final int diff = diff(key(nums, cl), tok.max);
+      if(diff > 0 || !tok.mxi && diff == 0) break;
+      // add pre values
+      pres.add(pres(count, pos + cl).finish());
     }
     return pres.sort();
   }
@@ -435,27 +424,23 @@ public class DiskValues extends ValueIndex {
     final boolean simple = len != 0 && min > 0 && (long) min == min && token(min).length == len;
 
     final IntList pres = new IntList();
-    synchronized(monitor) {
-      final int entries = size();
-      final boolean text = type == IndexType.TEXT;
-      for(int index = 0; index < entries; ++index) {
-        final int count = idxl.readNum(idxr.read5(index * 5L));
-        int id = idxl.readNum();
-        final int pre = pre(id);
-
-        final double v = data.textDbl(pre, text);
-        if(v >= min && v <= max) {
-          // value is in range
-          for(int c = 0; c < count; c++) {
-            pres.add(pre(id));
-            id += idxl.readNum();
-          }
-        } else if(simple && v > max && data.textLen(pre, text) == len) {
-          // if limits are integers, if min, max and current value have the same
-          // string length, and if current value is larger than max, test can be
-          // skipped, as all remaining values will be bigger
-          break;
-        }
+    final int entries = size();
+    final boolean text = type == IndexType.TEXT;
+    for(int index = 0; index < entries; ++index) {
+      final long pos = idxr.read5Concurrent(index * 5L);
+      final byte[] nums = idxl.readBytesConcurrent(pos, 10);
+      final int count = Num.get(nums, 0), cl = Num.length(count);
+      final int pre = pre(Num.get(nums, cl));
+
+      final double v = data.textDbl(pre, text);
+      if(v >= min && v <= max) {
+        // value is in range
+        pres.add(pres(count, pos + cl).finish());
+      } else if(simple && v > max && data.textLen(pre, text) == len) {
+        // if limits are integers, if min, max and current value have the same
+        // string length, and if current value is larger than max, test can be
+        // skipped, as all remaining values will be bigger
+        break;
       }
     }
     return pres.sort();
@@ -463,12 +448,34 @@ public class DiskValues extends ValueIndex {
 
   /**
    * Returns the specified key, considering tokenization.
+   * The position of a token index key will be read from the current file position.
    * @param id id of key
    * @return key token
    */
   private byte[] key(final int id) {
+    return key(id, type == IndexType.TOKEN ? idxl.readNum() : 0);
+  }
+
+  /**
+   * Returns the key of an index entry, considering tokenization.
+   * @param nums compressed values
+   * @param p position of the first id and (token index) the token position
+   * @return key token
+   */
+  private byte[] key(final byte[] nums, final int p) {
+    final int id = Num.get(nums, p);
+    return key(id, type == IndexType.TOKEN ? Num.get(nums, p + Num.length(nums, p)) : 0);
+  }
+
+  /**
+   * Returns the specified key, considering tokenization.
+   * @param id id of key
+   * @param pos position of the token (token index)
+   * @return key token
+   */
+  private byte[] key(final int id, final int pos) {
     final byte[] text = data.text(pre(id), type == IndexType.TEXT);
-    return type == IndexType.TOKEN ? distinctTokens(text)[idxl.readNum()] : text;
+    return type == IndexType.TOKEN ? distinctTokens(text)[pos] : text;
   }
 
   /**
@@ -481,23 +488,25 @@ public class DiskValues extends ValueIndex {
     final TokenBuilder tb = new TokenBuilder();
     tb.add(type).add(" INDEX, '").add(data.meta.name).add("':\n");
     final int entries = size();
-    for(int index = 0; index < entries; index++) {
-      final long pos = idxr.read5(index * 5L);
-      final int count = idxl.readNum(pos);
-      int id = idxl.readNum();
-      tb.add("  ").addInt(index).add(". offset: ").addLong(pos);
-      if(all) {
-        tb.add(", key: \"").add(key(id)).add('"');
-        tb.add(", ids").add("/pres").add(": ").addInt(id).add('/').addInt(pre(id));
-      } else {
-        tb.add(", ids").add(": ").addInt(id);
-      }
-      for(int c = 1; c < count; c++) {
-        id += idxl.readNum();
-        tb.add(",").addInt(id);
-        if(all) tb.add('/').addInt(pre(id));
+    synchronized(idxl) {
+      for(int index = 0; index < entries; index++) {
+        final long pos = idxr.read5(index * 5L);
+        final int count = idxl.readNum(pos);
+        int id = idxl.readNum();
+        tb.add("  ").addInt(index).add(". offset: ").addLong(pos);
+        if(all) {
+          tb.add(", key: \"").add(key(id)).add('"');
+          tb.add(", ids").add("/pres").add(": ").addInt(id).add('/').addInt(pre(id));
+        } else {
+          tb.add(", ids").add(": ").addInt(id);
+        }
+        for(int c = 1; c < count; c++) {
+          id += idxl.readNum();
+          tb.add(",").addInt(id);
+          if(all) tb.add('/').addInt(pre(id));
+        }
+        tb.add("\n");
       }
-      tb.add("\n");
     }
     return tb.toString();
   }
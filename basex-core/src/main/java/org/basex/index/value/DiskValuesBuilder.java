@@ -6,6 +6,7 @@ import java.io.*;
 
 import org.basex.data.*;
 import org.basex.index.*;
+import org.basex.io.*;
 import org.basex.io.out.DataOutput;
 import org.basex.io.random.*;
 import org.basex.util.*;
@@ -50,25 +51,7 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     Util.debug(detailedInfo());
 
     try {
-      final boolean updindex = data.meta.updindex;
-      for(pre = 0; pre < size; ++pre) {
-        if((pre & 0x0FFF) == 0) check();
-        if(indexEntry()) {
-          final int id = updindex ? data.id(pre) : pre;
-          if(tokenize) {
-            int pos = 0;
-            for(final byte[] token : distinctTokens(data.text(pre, text))) {
-              index.add(token, id, pos++);
-              count++;
-            }
-          } else if(data.textLen(pre, text) <= data.meta.maxlen) {
-            index.add(data.text(pre, text), id, 0);
-            count++;
-          }
-        }
-      }
-
-      writeIndex(splits > 0);
+      index();
       if(splits > 1) {
         index = null;
         clean();
@@ -76,7 +59,7 @@ public final class DiskValuesBuilder extends ValuesBuilder {
       }
 
       finishIndex();
-      return updindex ? new UpdatableDiskValues(data, type) : new DiskValues(data, type);
+      return data.meta.updindex ? new UpdatableDiskValues(data, type) : new DiskValues(data, type);
 
     } catch(final Throwable th) {
       // drop index files
@@ -85,6 +68,67 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     }
   }
 
+  @Override
+  public DiskValues update(final DirtyRanges ranges) throws IOException {
+    Util.debug(detailedInfo());
+
+    try {
+      adopt(ranges);
+      final IntList dirty = ranges.dirty();
+      final int ds = dirty.size();
+      for(int d = 0; d < ds; d += 2) index(dirty.get(d), dirty.get(d + 1));
+      writeIndex(true);
+      index = null;
+      clean();
+      merge();
+
+      finishIndex();
+      return new DiskValues(data, type);
+
+    } catch(final Throwable th) {
+      // drop index files
+      data.meta.drop(DiskValues.fileSuffix(type) + ".+");
+      throw th;
+    }
+  }
+
+  @Override
+  protected void index(final boolean partial) throws IOException {
+    index(first, last);
+    writeIndex(partial || splits > 0);
+  }
+
+  /**
+   * Indexes the entries in the specified range.
+   * @param from first pre value
+   * @param to pre value after the last value
+   * @throws IOException I/O exception
+   */
+  private void index(final int from, final int to) throws IOException {
+    final boolean updindex = data.meta.updindex;
+    for(pre = from; pre < to; ++pre) {
+      if((pre & 0x0FFF) == 0) check();
+      if(indexEntry()) {
+        final int id = updindex ? data.id(pre) : pre;
+        if(tokenize) {
+          int pos = 0;
+          for(final byte[] token : distinctTokens(data.text(pre, text))) {
+            index.add(token, id, pos++);
+            count++;
+          }
+        } else if(data.textLen(pre, text) <= data.meta.maxlen) {
+          index.add(data.text(pre, text), id, 0);
+          count++;
+        }
+      }
+    }
+  }
+
+  @Override
+  protected DiskValuesBuilder partition() {
+    return new DiskValuesBuilder(data, type);
+  }
+
   @Override
   protected void check() throws IOException {
     super.check();
@@ -96,6 +140,64 @@ public final class DiskValuesBuilder extends ValuesBuilder {
     }
   }
 
+  /**
+   * Converts the outdated index structure to a partial structure. The entries of deleted and
+   * dirty nodes are skipped, and the pre values of all other entries are updated.
+   * @param ranges dirty ranges
+   * @throws IOException I/O exception
+   */
+  private void adopt(final DirtyRanges ranges) throws IOException {
+    final String f = DiskValues.fileSuffix(type), name = f + partial();
+    final IOFile fileL = data.meta.dbFile(f + 'l'), fileR = data.meta.dbFile(f + 'r');
+    int entries = 0;
+    try(DataAccess inL = new DataAccess(fileL); DataAccess inR = new DataAccess(fileR);
+        DataOutput outL = new DataOutput(data.meta.dbFile(name + 'l'));
+        DataOutput outR = new DataOutput(data.meta.dbFile(name + 'r'));
+        DataOutput outT = new DataOutput(data.meta.dbFile(name + 't'))) {
+      outL.write4(0);
+
+      final ByteList values = new ByteList();
+      final int size = inL.read4();
+      for(int i = 0; i < size; i++) {
+        if((i & 0x0FFF) == 0) checkStop();
+        final int count = inL.readNum(inR.read5(i * 5L));
+        values.reset();
+        values.add(new byte[4]);
+        byte[] key = null;
+        for(int c = 0, id = 0; c < count; c++) {
+          id += inL.readNum();
+          final int pos = tokenize ? inL.readNum() : 0;
+          final int p = ranges.pre(id);
+          if(p == -1) continue;
+
+          values.add(Num.num(p));
+          if(tokenize) values.add(Num.num(pos));
+          if(key == null) {
+            // retrieve key from the first unchanged node
+            final byte[] txt = data.text(p, text);
+            key = tokenize ? distinctTokens(txt)[pos] : txt;
+          }
+        }
+        if(key == null) continue;
+
+        final byte[] vs = values.next();
+        Num.size(vs, vs.length);
+        outR.write5(outL.size());
+        outL.write(vs);
+        outT.writeToken(key);
+        entries++;
+      }
+    }
+    fileL.delete();
+    fileR.delete();
+
+    // write number of entries to first position
+    try(DataAccess da = new DataAccess(data.meta.dbFile(name + 'l'))) {
+      da.write4(entries);
+    }
+    splits++;
+  }
+
   /**
    * Merges cached index files.
    * @throws IOException I/O exception
@@ -111,7 +213,7 @@ public final class DiskValuesBuilder extends ValuesBuilder {
       final IntList ml = new IntList();
       final IntList id = new IntList(), pos = tokenize ? new IntList() : null;
       final DiskValuesMerger[] vm = new DiskValuesMerger[splits];
-      for(int i = 0; i < splits; ++i) vm[i] = new DiskValuesMerger(data, type, i);
+      for(int i = 0; i < splits; ++i) vm[i] = new DiskValuesMerger(data, type, partials.get(i));
 
       // parse through all values
       while(true) {
@@ -169,7 +271,7 @@ public final class DiskValuesBuilder extends ValuesBuilder {
    */
   private void writeIndex(final boolean partial) throws IOException {
     // write id arrays and references
-    final String name = DiskValues.fileSuffix(type) + (partial ? splits : "");
+    final String name = DiskValues.fileSuffix(type) + (partial ? partial() : "");
     try(DataOutput outL = new DataOutput(data.meta.dbFile(name + 'l'));
         DataOutput outR = new DataOutput(data.meta.dbFile(name + 'r'))) {
       outL.write4(index.size());
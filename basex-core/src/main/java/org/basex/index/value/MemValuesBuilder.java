@@ -15,6 +15,9 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public class MemValuesBuilder extends ValuesBuilder {
+  /** Index instance. */
+  private final MemValues index;
+
   /**
    * Constructor.
    * @param data data reference
@@ -22,15 +25,23 @@ public class MemValuesBuilder extends ValuesBuilder {
    */
   public MemValuesBuilder(final Data data, final IndexType type) {
     super(data, type);
+    index = new MemValues(data, type);
   }
 
   @Override
   public MemValues build() throws IOException {
     Util.debug(detailedInfo());
 
-    final MemValues index = new MemValues(data, type);
+    index();
+    index.finish();
+    finishIndex();
+    return index;
+  }
+
+  @Override
+  protected void index(final boolean partial) throws IOException {
     final boolean updindex = data.meta.updindex;
-    for(pre = 0; pre < size; pre++) {
+    for(pre = first; pre < last; pre++) {
       if((pre & 0x0FFF) == 0) check();
       if(indexEntry()) {
         if(tokenize) {
@@ -44,8 +55,5 @@ public class MemValuesBuilder extends ValuesBuilder {
         }
       }
     }
-    index.finish();
-    finishIndex();
-    return index;
   }
 }
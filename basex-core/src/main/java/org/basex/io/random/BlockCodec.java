@@ -0,0 +1,175 @@
+package org.basex.io.random;
+
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * Codecs for compressed blocks (see {@link CompressedBlocks}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+enum BlockCodec {
+  /** LZ4 compression of 64 KB blocks (texts and attribute values). */
+  TEXTS(1 << 16) {
+    @Override
+    int maxLength() {
+      return LZ4.maxLength(size);
+    }
+
+    @Override
+    int compress(final byte[] block, final byte[] target) {
+      return LZ4.compress(block, size, target);
+    }
+
+    @Override
+    void decompress(final byte[] source, final int length, final byte[] block) {
+      LZ4.decompress(source, 0, length, block);
+    }
+  },
+
+  /**
+   * Columnar compression of table pages. The 16 bytes of a table entry are split into four
+   * 4-byte columns. The values of each column are stored as variable-length numbers, either
+   * as they are or as differences to the value of the preceding entry, whatever is shorter.
+   * As a result, regular values (ids, names, small distances and sizes) take only a few bits.
+   */
+  NODES(IO.BLOCKSIZE) {
+    @Override
+    int maxLength() {
+      // flag for each column, up to five bytes for each value
+      return COLUMNS + IO.ENTRIES * COLUMNS * 5;
+    }
+
+    @Override
+    int compress(final byte[] block, final byte[] target) {
+      int t = 0;
+      for(int c = 0; c < COLUMNS; c++) {
+        // choose shorter encoding
+        int plain = 0, delta = 0;
+        for(int e = 0, prev = 0; e < IO.ENTRIES; e++) {
+          final int v = value(block, e, c);
+          plain += length(zigzag(v));
+          delta += length(zigzag(v - prev));
+          prev = v;
+        }
+        final boolean diff = delta < plain;
+        target[t++] = (byte) (diff ? 1 : 0);
+        for(int e = 0, prev = 0; e < IO.ENTRIES; e++) {
+          final int v = value(block, e, c);
+          t = write(zigzag(diff ? v - prev : v), target, t);
+          prev = v;
+        }
+      }
+      return t;
+    }
+
+    @Override
+    void decompress(final byte[] source, final int length, final byte[] block) {
+      int s = 0;
+      for(int c = 0; c < COLUMNS; c++) {
+        final boolean diff = source[s++] == 1;
+        for(int e = 0, prev = 0; e < IO.ENTRIES; e++) {
+          int z = 0;
+          for(int shift = 0;; shift += 7) {
+            final int b = source[s++];
+            z |= (b & 0x7F) << shift;
+            if(b >= 0) break;
+          }
+          final int d = z >>> 1 ^ -(z & 1), v = diff ? prev + d : d;
+          final int o = (e << IO.NODEPOWER) + (c << 2);
+          block[o] = (byte) (v >>> 24);
+          block[o + 1] = (byte) (v >>> 16);
+          block[o + 2] = (byte) (v >>> 8);
+          block[o + 3] = (byte) v;
+          prev = v;
+        }
+      }
+    }
+  };
+
+  /** Number of columns of a table entry. */
+  private static final int COLUMNS = 1 << IO.NODEPOWER - 2;
+
+  /** Power of block size. */
+  final int power;
+  /** Logical block size. */
+  final int size;
+
+  /**
+   * Constructor.
+   * @param size logical block size (must be 1 << n)
+   */
+  BlockCodec(final int size) {
+    this.size = size;
+    power = Integer.numberOfTrailingZeros(size);
+  }
+
+  /**
+   * Returns the maximum size of a compressed block.
+   * @return maximum size
+   */
+  abstract int maxLength();
+
+  /**
+   * Compresses a block.
+   * @param block block contents
+   * @param target target array (must provide at least {@link #maxLength()} bytes)
+   * @return length of the compressed bytes
+   */
+  abstract int compress(byte[] block, byte[] target);
+
+  /**
+   * Decompresses a block.
+   * @param source compressed bytes
+   * @param length number of compressed bytes
+   * @param block target array for the block contents
+   */
+  abstract void decompress(byte[] source, int length, byte[] block);
+
+  /**
+   * Returns an integer from the specified entry and column of a table page.
+   * @param block block
+   * @param entry entry
+   * @param column column
+   * @return value
+   */
+  static int value(final byte[] block, final int entry, final int column) {
+    final int o = (entry << IO.NODEPOWER) + (column << 2);
+    return (block[o] & 0xFF) << 24 | (block[o + 1] & 0xFF) << 16 |
+        (block[o + 2] & 0xFF) << 8 | block[o + 3] & 0xFF;
+  }
+
+  /**
+   * Maps signed to unsigned values (small negative values yield small positive values).
+   * @param value value
+   * @return zigzag-encoded value
+   */
+  static int zigzag(final int value) {
+    return value << 1 ^ value >> 31;
+  }
+
+  /**
+   * Returns the number of bytes required for a variable-length number.
+   * @param value value
+   * @return number of bytes
+   */
+  static int length(final int value) {
+    return value >>> 7 == 0 ? 1 : value >>> 14 == 0 ? 2 : value >>> 21 == 0 ? 3 :
+      value >>> 28 == 0 ? 4 : 5;
+  }
+
+  /**
+   * Writes a variable-length number.
+   * @param value value
+   * @param target target array
+   * @param offset offset
+   * @return new offset
+   */
+  static int write(final int value, final byte[] target, final int offset) {
+    int t = offset, v = value;
+    for(; v >>> 7 != 0; v >>>= 7) target[t++] = (byte) (v | 0x80);
+    target[t++] = (byte) v;
+    return t;
+  }
+}
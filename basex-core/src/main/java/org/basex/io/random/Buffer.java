@@ -10,9 +10,37 @@ import org.basex.io.*;
  */
 final class Buffer {
   /** Buffer data. */
-  final byte[] data = new byte[IO.BLOCKSIZE];
+  final byte[] data;
   /** Disk offset, or block position. */
   long pos = -1;
   /** Dirty flag. */
   boolean dirty;
+
+  /** Owner of the buffer ({@code null} if the buffer is unassigned). */
+  Buffers owner;
+  /** Position under which the buffer is registered by its owner. */
+  long key = -1;
+  /** Next buffer with the same hash value. */
+  Buffer chain;
+  /** Previous buffer in the replacement queue. */
+  Buffer prev;
+  /** Next buffer in the replacement queue. */
+  Buffer next;
+  /** Indicates if the buffer has been accessed more than once (queue membership). */
+  boolean hot;
+
+  /**
+   * Constructor.
+   */
+  Buffer() {
+    this(IO.BLOCKSIZE);
+  }
+
+  /**
+   * Constructor.
+   * @param size size of the buffer
+   */
+  Buffer(final int size) {
+    data = new byte[size];
+  }
 }
@@ -0,0 +1,286 @@
+package org.basex.io.random;
+
+import java.util.*;
+
+import org.basex.io.*;
+
+/**
+ * This class manages the buffers for disk blocks. A pool is either assigned to a single file,
+ * or it is shared by all database files that are opened after it has been created.
+ *
+ * Buffers are replaced according to the simplified 2Q strategy: Buffers that have been
+ * accessed once are kept in a FIFO queue. If they are accessed again, they are moved to an
+ * LRU queue. Victims are chosen from the FIFO queue as long as it exceeds a quarter of the
+ * pool capacity. This way, sequential scans will not replace frequently accessed buffers.
+ *
+ * The current buffer of a file is never replaced. Buffers of other files will only be
+ * replaced if they are not dirty. If no buffer can be replaced, the capacity will temporarily
+ * be exceeded.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class BufferPool {
+  /** Capacity of a file-specific pool. */
+  private static final int BUFFERS = 1 << 4;
+  /** Shared pool ({@code null} if every file has its own pool). */
+  private static volatile BufferPool shared;
+
+  /** Maximum number of buffers. */
+  private final int capacity;
+  /** Indicates if the pool is shared by several files. */
+  final boolean global;
+  /** FIFO queue (sentinel). */
+  private final Buffer fifo = queue();
+  /** LRU queue (sentinel). */
+  private final Buffer lru = queue();
+  /** Unassigned buffers. */
+  private Buffer free;
+  /** Number of allocated buffers. */
+  private int size;
+  /** Number of buffers in the FIFO queue. */
+  private int fifoSize;
+
+  /** Number of buffer hits. */
+  private long hits;
+  /** Number of buffer misses. */
+  private long misses;
+  /** Number of replaced buffers. */
+  private long evictions;
+
+  /**
+   * Constructor.
+   * @param capacity maximum number of buffers
+   * @param global indicates if the pool is shared by several files
+   */
+  private BufferPool(final int capacity, final boolean global) {
+    this.capacity = capacity;
+    this.global = global;
+  }
+
+  /**
+   * Assigns the size of the shared pool. The pool will be used by all files that are opened
+   * after this function has been called. Buffers of an existing pool will be kept if its size
+   * has not changed.
+   * @param mb size in megabytes ({@code 0}: use file-specific pools)
+   */
+  public static synchronized void shared(final int mb) {
+    final int cap = (int) Math.min(Integer.MAX_VALUE, ((long) mb << 20) / IO.BLOCKSIZE);
+    final BufferPool pool = shared;
+    if(cap == 0) shared = null;
+    else if(pool == null || pool.capacity != cap) shared = new BufferPool(cap, true);
+  }
+
+  /**
+   * Returns the shared pool.
+   * @return shared pool, or {@code null} if every file has its own pool
+   */
+  public static BufferPool shared() {
+    return shared;
+  }
+
+  /**
+   * Returns a buffer pool for a new file.
+   * @return shared pool, or new file-specific pool
+   */
+  static BufferPool get() {
+    final BufferPool pool = shared;
+    return pool != null ? pool : new BufferPool(BUFFERS, false);
+  }
+
+  /**
+   * Returns the maximum number of buffers.
+   * @return capacity
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the number of allocated buffers.
+   * @return number of buffers
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of buffer hits.
+   * @return hits
+   */
+  public synchronized long hits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of buffer misses.
+   * @return misses
+   */
+  public synchronized long misses() {
+    return misses;
+  }
+
+  /**
+   * Returns the number of replaced buffers.
+   * @return evictions
+   */
+  public synchronized long evictions() {
+    return evictions;
+  }
+
+  // FILE OPERATIONS ==============================================================================
+
+  /**
+   * Assigns the buffer for the specified position as current buffer of a file.
+   * @param owner buffers of the file
+   * @param pos buffer position
+   * @return {@code true} if a new buffer has been assigned
+   */
+  synchronized boolean cursor(final Buffers owner, final long pos) {
+    Buffer buffer = owner.get(pos);
+    if(buffer != null) {
+      hits++;
+      // move buffer to head of LRU queue
+      unlink(buffer);
+      link(buffer, true);
+      owner.current = buffer;
+      return false;
+    }
+
+    misses++;
+    buffer = victim(owner);
+    if(buffer.owner != null) {
+      buffer.owner.remove(buffer);
+      unlink(buffer);
+      evictions++;
+    }
+    buffer.owner = owner;
+    buffer.key = pos;
+    owner.add(buffer);
+    link(buffer, false);
+    owner.current = buffer;
+    return true;
+  }
+
+  /**
+   * Releases all buffers of a file. Dirty buffers will be discarded.
+   * @param owner buffers of the file
+   */
+  synchronized void release(final Buffers owner) {
+    for(final Buffer buffer : owner.all()) {
+      owner.remove(buffer);
+      unlink(buffer);
+      buffer.owner = null;
+      buffer.key = -1;
+      buffer.pos = -1;
+      buffer.dirty = false;
+      if(size > capacity) {
+        size--;
+      } else {
+        buffer.next = free;
+        free = buffer;
+      }
+    }
+    owner.current = null;
+  }
+
+  /**
+   * Returns the dirty buffers of a file.
+   * @param owner buffers of the file
+   * @return dirty buffers
+   */
+  synchronized Buffer[] dirty(final Buffers owner) {
+    final Buffer[] all = owner.all();
+    int d = 0;
+    for(final Buffer buffer : all) {
+      if(buffer.dirty) all[d++] = buffer;
+    }
+    return Arrays.copyOf(all, d);
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "BufferPool[capacity: " + capacity + ", size: " + size + ", hits: " + hits +
+        ", misses: " + misses + ", evictions: " + evictions + ']';
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Returns a buffer that can be assigned to the specified file.
+   * @param owner buffers of the file
+   * @return buffer
+   */
+  private Buffer victim(final Buffers owner) {
+    Buffer buffer = free;
+    if(buffer != null) {
+      free = buffer.next;
+      buffer.next = null;
+      return buffer;
+    }
+    if(size < capacity) {
+      size++;
+      return new Buffer();
+    }
+    if(fifoSize > capacity >>> 2) buffer = victim(fifo, owner);
+    if(buffer == null) buffer = victim(lru, owner);
+    if(buffer == null) buffer = victim(fifo, owner);
+    if(buffer == null) {
+      size++;
+      buffer = new Buffer();
+    }
+    return buffer;
+  }
+
+  /**
+   * Returns the least recently queued buffer that can be replaced.
+   * @param queue queue
+   * @param owner buffers of the file that requests a buffer
+   * @return buffer or {@code null}
+   */
+  private static Buffer victim(final Buffer queue, final Buffers owner) {
+    for(Buffer b = queue.prev; b != queue; b = b.prev) {
+      if(b != b.owner.current && (b.owner == owner || !b.dirty)) return b;
+    }
+    return null;
+  }
+
+  /**
+   * Adds a buffer to the head of a queue.
+   * @param buffer buffer
+   * @param hot add to LRU queue (otherwise, add to FIFO queue)
+   */
+  private void link(final Buffer buffer, final boolean hot) {
+    final Buffer queue = hot ? lru : fifo;
+    buffer.hot = hot;
+    buffer.prev = queue;
+    buffer.next = queue.next;
+    queue.next.prev = buffer;
+    queue.next = buffer;
+    if(!hot) fifoSize++;
+  }
+
+  /**
+   * Removes a buffer from its queue.
+   * @param buffer buffer
+   */
+  private void unlink(final Buffer buffer) {
+    if(buffer.prev == null) return;
+    buffer.prev.next = buffer.next;
+    buffer.next.prev = buffer.prev;
+    buffer.prev = null;
+    buffer.next = null;
+    if(!buffer.hot) fifoSize--;
+  }
+
+  /**
+   * Creates an empty queue.
+   * @return sentinel
+   */
+  private static Buffer queue() {
+    final Buffer queue = new Buffer(0);
+    queue.prev = queue;
+    queue.next = queue;
+    return queue;
+  }
+}
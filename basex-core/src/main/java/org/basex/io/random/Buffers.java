@@ -1,41 +1,55 @@
 package org.basex.io.random;
 
 /**
- * This class provides a simple, clock-based buffer management.
+ * This class organizes the buffers of a single file. Buffers are requested from a
+ * {@link BufferPool}, which can be file-specific or shared by all files, and registered
+ * in a hash table. All methods of this class, except for {@link #current()} and the check
+ * for the current buffer in {@link #cursor(long)}, are called by the pool.
  *
  * @author BaseX Team 2005-20, BSD License
  * @author Christian Gruen
  */
 final class Buffers {
-  /** Number of buffers (must be 1 << n). */
-  private static final int BUFFERS = 1 << 4;
-  /** Buffers. */
-  private final Buffer[] buffer = new Buffer[BUFFERS];
-  /** Current buffer offset. */
-  private int offset;
+  /** Initial number of hash buckets (must be 1 << n). */
+  private static final int CAPACITY = 1 << 4;
+
+  /** Buffer pool. */
+  private final BufferPool pool;
+  /** Hash buckets. */
+  private Buffer[] buckets = new Buffer[CAPACITY];
+  /** Number of registered buffers. */
+  private int size;
+  /** Current buffer (pinned; {@code null} if no buffer has been requested yet). */
+  Buffer current;
 
   /**
    * Constructor.
    */
   Buffers() {
-    init();
+    pool = BufferPool.get();
   }
 
   /**
-   * Initializes the buffers.
+   * Initializes the buffers. Discards all registered buffers.
    */
   void init() {
-    for(int b = 0; b < BUFFERS; ++b) {
-      buffer[b] = new Buffer();
-    }
+    pool.release(this);
   }
 
   /**
-   * Returns all buffers.
-   * @return buffers
+   * Releases all buffers if the pool is shared. Must be called if the file is closed.
+   * Buffers of file-specific pools are kept, and they will be garbage collected.
    */
-  Buffer[] all() {
-    return buffer;
+  void close() {
+    if(pool.global) pool.release(this);
+  }
+
+  /**
+   * Returns all dirty buffers.
+   * @return dirty buffers
+   */
+  Buffer[] dirty() {
+    return pool.dirty(this);
   }
 
   /**
@@ -43,22 +57,103 @@ final class Buffers {
    * @return current buffer
    */
   Buffer current() {
-    return buffer[offset];
+    return current;
   }
 
   /**
-   * Chooses a buffer and sets the offset.
+   * Chooses a buffer for the specified position. If a new buffer is returned, its old
+   * contents must be written to disk if it is dirty, and the new position must be assigned
+   * before the buffer is filled.
    * @param pos buffer position
    * @return true if cursor has changed
    */
   boolean cursor(final long pos) {
-    final int o = offset;
-    do {
-      if(buffer[offset].pos == pos) return false;
-      offset = offset + 1 & BUFFERS - 1;
-    } while(offset != o);
+    final Buffer buffer = current;
+    return (buffer == null || buffer.key != pos) && pool.cursor(this, pos);
+  }
+
+  // POOL OPERATIONS ==============================================================================
+
+  /**
+   * Returns the buffer registered for the specified position.
+   * @param key position
+   * @return buffer or {@code null}
+   */
+  Buffer get(final long key) {
+    for(Buffer b = buckets[hash(key)]; b != null; b = b.chain) {
+      if(b.key == key) return b;
+    }
+    return null;
+  }
+
+  /**
+   * Registers a buffer.
+   * @param buffer buffer
+   */
+  void add(final Buffer buffer) {
+    if(size == buckets.length) rehash();
+    final int h = hash(buffer.key);
+    buffer.chain = buckets[h];
+    buckets[h] = buffer;
+    size++;
+  }
 
-    offset = o + 1 & BUFFERS - 1;
-    return true;
+  /**
+   * Unregisters a buffer.
+   * @param buffer buffer
+   */
+  void remove(final Buffer buffer) {
+    final int h = hash(buffer.key);
+    Buffer prev = null;
+    for(Buffer b = buckets[h]; b != null; prev = b, b = b.chain) {
+      if(b == buffer) {
+        if(prev == null) buckets[h] = b.chain;
+        else prev.chain = b.chain;
+        b.chain = null;
+        size--;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns all registered buffers.
+   * @return buffers
+   */
+  Buffer[] all() {
+    final Buffer[] all = new Buffer[size];
+    int a = 0;
+    for(final Buffer bucket : buckets) {
+      for(Buffer b = bucket; b != null; b = b.chain) all[a++] = b;
+    }
+    return all;
+  }
+
+  /**
+   * Returns the hash bucket for the specified position.
+   * Positions are usually page numbers or multiples of the block size.
+   * @param key position
+   * @return bucket index
+   */
+  private int hash(final long key) {
+    return (int) (key * 0x9E3779B97F4A7C15L >>> 32) & buckets.length - 1;
+  }
+
+  /**
+   * Doubles the number of hash buckets.
+   */
+  private void rehash() {
+    final Buffer[] old = buckets;
+    buckets = new Buffer[old.length << 1];
+    for(final Buffer bucket : old) {
+      Buffer b = bucket;
+      while(b != null) {
+        final Buffer next = b.chain;
+        final int h = hash(b.key);
+        b.chain = buckets[h];
+        buckets[h] = b;
+        b = next;
+      }
+    }
   }
 }
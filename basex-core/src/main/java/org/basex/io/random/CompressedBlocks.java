@@ -0,0 +1,371 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+import org.basex.util.*;
+
+/**
+ * This class provides positional access to a file that is stored in compressed blocks.
+ * The logical file is split into blocks of a fixed size, which are compressed with a
+ * {@link BlockCodec} and stored one after another. The block index is appended to the blocks:
+ *
+ * <pre>
+ * - blocks
+ * - block index: logical file length (8 bytes), number of blocks (4 bytes),
+ *   and, for each block, its file offset (8 bytes) and stored size (4 bytes;
+ *   negative if the block is stored uncompressed, 0 if it only contains zero bytes)
+ * - file offset of the block index (8 bytes)
+ * </pre>
+ *
+ * Decompressed blocks are cached. Updated blocks are compressed when they are evicted from the
+ * cache or when the file is flushed, and they are appended to the existing blocks. The space
+ * of outdated blocks is reclaimed if it exceeds the size of the blocks in use.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class CompressedBlocks {
+  /** Number of cached blocks. */
+  private static final int CACHE = 1 << 3;
+
+  /** Reference to the file. */
+  private final RandomAccessFile raf;
+  /** Codec. */
+  private final BlockCodec codec;
+  /** Cached blocks. */
+  private final Block[] cache = new Block[CACHE];
+  /** Buffer for compressed data. */
+  private final byte[] packed;
+
+  /** File offsets of the blocks. */
+  private long[] offsets;
+  /** Stored sizes of the blocks. */
+  private int[] sizes;
+  /** Number of blocks. */
+  private int blocks;
+  /** Logical file length. */
+  private long length;
+  /** End of the stored blocks. */
+  private long end;
+  /** Size of outdated blocks. */
+  private long wasted;
+  /** Indicates if the block index has been changed. */
+  private boolean changed;
+  /** Access counter. */
+  private long accesses;
+
+  /**
+   * Constructor.
+   * @param raf file reference
+   * @param codec codec
+   * @throws IOException I/O exception
+   */
+  CompressedBlocks(final RandomAccessFile raf, final BlockCodec codec) throws IOException {
+    this.raf = raf;
+    this.codec = codec;
+    packed = new byte[Math.max(codec.size, codec.maxLength())];
+    final long size = raf.length();
+    if(size == 0) {
+      offsets = new long[Array.INITIAL_CAPACITY];
+      sizes = new int[Array.INITIAL_CAPACITY];
+      return;
+    }
+
+    raf.seek(size - 8);
+    end = raf.readLong();
+    raf.seek(end);
+    length = raf.readLong();
+    blocks = raf.readInt();
+    final int capacity = Math.max(Array.INITIAL_CAPACITY, blocks);
+    offsets = new long[capacity];
+    sizes = new int[capacity];
+    final ByteBuffer bb = ByteBuffer.allocate(blocks * 12);
+    raf.readFully(bb.array());
+    long used = 0;
+    for(int b = 0; b < blocks; b++) {
+      offsets[b] = bb.getLong();
+      sizes[b] = bb.getInt();
+      used += Math.abs(sizes[b]);
+    }
+    wasted = end - used;
+  }
+
+  /**
+   * Converts an uncompressed file to the compressed format.
+   * @param file file to be converted
+   * @param codec codec
+   * @throws IOException I/O exception
+   */
+  static void compress(final File file, final BlockCodec codec) throws IOException {
+    final File tmp = new File(file.getPath() + ".tmp");
+    try(RandomAccessFile in = new RandomAccessFile(file, "r");
+        RandomAccessFile out = new RandomAccessFile(tmp, "rw")) {
+      final CompressedBlocks cb = new CompressedBlocks(out, codec);
+      final int bs = codec.size;
+      final byte[] buffer = new byte[bs];
+      final long size = in.length();
+      for(long pos = 0; pos < size; pos += bs) {
+        final int len = (int) Math.min(bs, size - pos);
+        in.readFully(buffer, 0, len);
+        cb.write(pos, buffer, 0, len);
+      }
+      cb.flush();
+    }
+    if(!file.delete() || !tmp.renameTo(file)) throw new IOException("Could not replace " + file);
+  }
+
+  /**
+   * Returns the logical file length.
+   * @return length
+   */
+  synchronized long length() {
+    return length;
+  }
+
+  /**
+   * Reads bytes from the specified position.
+   * @param pos file position
+   * @param data target array
+   * @param offset array offset
+   * @param len maximum number of bytes to read
+   * @return number of read bytes (smaller than the requested number if the end of file is reached)
+   * @throws IOException I/O exception
+   */
+  synchronized int read(final long pos, final byte[] data, final int offset, final int len)
+      throws IOException {
+
+    final int size = (int) Math.max(0, Math.min(len, length - pos));
+    for(int o = 0; o < size;) {
+      final long p = pos + o;
+      final int bo = (int) (p & codec.size - 1), l = Math.min(size - o, codec.size - bo);
+      Array.copy(block(p >>> codec.power).data, bo, l, data, offset + o);
+      o += l;
+    }
+    return size;
+  }
+
+  /**
+   * Writes bytes to the specified position.
+   * @param pos file position
+   * @param data bytes to write
+   * @param offset array offset
+   * @param len number of bytes
+   * @throws IOException I/O exception
+   */
+  synchronized void write(final long pos, final byte[] data, final int offset, final int len)
+      throws IOException {
+
+    for(int o = 0; o < len;) {
+      final long p = pos + o;
+      final int bo = (int) (p & codec.size - 1), l = Math.min(len - o, codec.size - bo);
+      final Block block = block(p >>> codec.power);
+      Array.copy(data, offset + o, l, block.data, bo);
+      block.dirty = true;
+      o += l;
+    }
+    length = Math.max(length, pos + len);
+    changed = true;
+  }
+
+  /**
+   * Assigns a new logical file length.
+   * @param len file length
+   */
+  synchronized void length(final long len) {
+    if(len < length) {
+      // discard blocks beyond the new length, clear bytes of the last block
+      final long count = len + codec.size - 1 >>> codec.power;
+      for(int b = (int) count; b < blocks; b++) {
+        wasted += Math.abs(sizes[b]);
+        sizes[b] = 0;
+      }
+      blocks = (int) Math.min(blocks, count);
+      for(int c = 0; c < CACHE; c++) {
+        final Block block = cache[c];
+        if(block == null) continue;
+        if(block.index >= count) cache[c] = null;
+        else clear(block, len);
+      }
+    }
+    length = len;
+    changed = true;
+  }
+
+  /**
+   * Writes all changes to disk.
+   * @throws IOException I/O exception
+   */
+  synchronized void flush() throws IOException {
+    final Block[] dirty = cache.clone();
+    Arrays.sort(dirty, (b1, b2) -> b1 == null ? b2 == null ? 0 : 1 : b2 == null ? -1 :
+      Long.compare(b1.index, b2.index));
+    for(final Block block : dirty) {
+      if(block != null && block.dirty) store(block);
+    }
+    if(!changed) return;
+
+    if(wasted > end - wasted) compact();
+    final ByteBuffer bb = ByteBuffer.allocate(12 + blocks * 12 + 8);
+    bb.putLong(length).putInt(blocks);
+    for(int b = 0; b < blocks; b++) bb.putLong(offsets[b]).putInt(sizes[b]);
+    bb.putLong(end);
+    raf.seek(end);
+    raf.write(bb.array());
+    raf.setLength(end + bb.capacity());
+    changed = false;
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Returns the cached block with the specified index.
+   * @param index block index
+   * @return block
+   * @throws IOException I/O exception
+   */
+  private Block block(final long index) throws IOException {
+    int v = 0;
+    for(int c = 0; c < CACHE; c++) {
+      final Block block = cache[c];
+      if(block == null) {
+        v = c;
+      } else if(block.index == index) {
+        block.used = ++accesses;
+        return block;
+      } else if(cache[v] != null && block.used < cache[v].used) {
+        v = c;
+      }
+    }
+
+    // replace least recently used block
+    Block block = cache[v];
+    if(block == null) {
+      block = new Block(codec.size);
+      cache[v] = block;
+    } else if(block.dirty) {
+      store(block);
+    }
+    block.index = index;
+    block.used = ++accesses;
+    load(block);
+    return block;
+  }
+
+  /**
+   * Loads the contents of a block.
+   * @param block block
+   * @throws IOException I/O exception
+   */
+  private void load(final Block block) throws IOException {
+    final int b = (int) block.index, size = b < blocks ? sizes[b] : 0;
+    if(size == 0) {
+      Arrays.fill(block.data, (byte) 0);
+    } else {
+      raf.seek(offsets[b]);
+      if(size < 0) {
+        raf.readFully(block.data, 0, -size);
+      } else {
+        raf.readFully(packed, 0, size);
+        codec.decompress(packed, size, block.data);
+      }
+    }
+    clear(block, length);
+  }
+
+  /**
+   * Compresses a block and appends it to the stored blocks.
+   * @param block block
+   * @throws IOException I/O exception
+   */
+  private void store(final Block block) throws IOException {
+    block.dirty = false;
+    final int b = (int) block.index;
+    if(block.index << codec.power >= length) return;
+
+    if(b >= offsets.length) {
+      final int capacity = Array.newCapacity(b + 1);
+      offsets = Arrays.copyOf(offsets, capacity);
+      sizes = Arrays.copyOf(sizes, capacity);
+    }
+    if(b < blocks) {
+      wasted += Math.abs(sizes[b]);
+    } else {
+      // blocks without stored contents only contain zero bytes
+      Arrays.fill(sizes, blocks, b, 0);
+      blocks = b + 1;
+    }
+
+    final int size = codec.compress(block.data, packed);
+    raf.seek(end);
+    if(size < codec.size) {
+      raf.write(packed, 0, size);
+      sizes[b] = size;
+    } else {
+      raf.write(block.data);
+      sizes[b] = -codec.size;
+    }
+    offsets[b] = end;
+    end += Math.abs(sizes[b]);
+    changed = true;
+  }
+
+  /**
+   * Moves all blocks in use to the beginning of the file.
+   * @throws IOException I/O exception
+   */
+  private void compact() throws IOException {
+    final Integer[] order = new Integer[blocks];
+    for(int b = 0; b < blocks; b++) order[b] = b;
+    Arrays.sort(order, (b1, b2) -> Long.compare(offsets[b1], offsets[b2]));
+
+    long pos = 0;
+    for(final int b : order) {
+      final int size = Math.abs(sizes[b]);
+      if(size == 0) continue;
+      if(offsets[b] != pos) {
+        raf.seek(offsets[b]);
+        raf.readFully(packed, 0, size);
+        raf.seek(pos);
+        raf.write(packed, 0, size);
+        offsets[b] = pos;
+      }
+      pos += size;
+    }
+    end = pos;
+    wasted = 0;
+  }
+
+  /**
+   * Clears the bytes of a block that are located after the end of the file.
+   * @param block block
+   * @param len file length
+   */
+  private void clear(final Block block, final long len) {
+    final long start = block.index << codec.power;
+    if(start + codec.size > len) {
+      Arrays.fill(block.data, (int) Math.max(0, len - start), codec.size, (byte) 0);
+    }
+  }
+
+  /** Decompressed block. */
+  private static final class Block {
+    /** Block contents. */
+    final byte[] data;
+    /** Block index. */
+    long index = -1;
+    /** Last access. */
+    long used;
+    /** Dirty flag. */
+    boolean dirty;
+
+    /**
+     * Constructor.
+     * @param size block size
+     */
+    Block(final int size) {
+      data = new byte[size];
+    }
+  }
+}
@@ -1,21 +1,38 @@
 package org.basex.io.random;
 
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.io.*;
 import org.basex.util.*;
 
 /**
  * This class allows positional read and write access to a database file.
+ * Files can be stored uncompressed, or in compressed blocks (see {@link CompressedBlocks}).
+ *
+ * Most methods share the cursor and the buffers of the file and are synchronized.
+ * The methods with the suffix {@code Concurrent} can be called by parallel readers:
+ * If other threads are reading at the same time, and if all changes have been written to disk,
+ * the data will be read from a separate file channel, and neither the cursor nor the buffers
+ * will be touched.
  *
  * @author BaseX Team 2005-20, BSD License
  * @author Christian Gruen
  */
 public final class DataAccess implements Closeable {
+  /** Number of bytes that are initially fetched by positional reads. */
+  private static final int CHUNK = 1 << 6;
+
   /** Buffer manager. */
   private final Buffers buffers = new Buffers();
   /** Reference to the data input stream. */
   private final RandomAccessFile raf;
+  /** Compressed blocks ({@code null} if the file is not compressed). */
+  private final CompressedBlocks blocks;
   /** File size. */
   private long length;
   /** Changed flag. */
@@ -23,16 +40,37 @@ public final class DataAccess implements Closeable {
   /** Offset. */
   private int off;
 
+  /** File reference. */
+  private final IOFile file;
+  /** Number of threads that are currently performing concurrent reads. */
+  private final AtomicInteger readers = new AtomicInteger();
+  /** Indicates if positional reads are possible (file is open, all changes have been flushed). */
+  private volatile boolean positional = true;
+  /** Channel for positional reads (opened on demand). */
+  private volatile FileChannel channel;
+
   /**
    * Constructor, initializing the file reader.
    * @param file the file to be read
    * @throws IOException I/O Exception
    */
   public DataAccess(final IOFile file) throws IOException {
+    this(file, false);
+  }
+
+  /**
+   * Constructor, initializing the file reader.
+   * @param file the file to be read
+   * @param compressed indicates if the file is stored in compressed blocks
+   * @throws IOException I/O Exception
+   */
+  public DataAccess(final IOFile file, final boolean compressed) throws IOException {
+    this.file = file;
     RandomAccessFile f = null;
     try {
       f = new RandomAccessFile(file.file(), "rw");
-      length = f.length();
+      blocks = compressed ? new CompressedBlocks(f, BlockCodec.TEXTS) : null;
+      length = compressed ? blocks.length() : f.length();
       raf = f;
       cursor(0);
     } catch(final IOException ex) {
@@ -46,13 +84,14 @@ public final class DataAccess implements Closeable {
    */
   public synchronized void flush() {
     try {
-      for(final Buffer buffer : buffers.all()) {
-        if(buffer.dirty) writeBlock(buffer);
-      }
+      for(final Buffer buffer : buffers.dirty()) writeBlock(buffer);
       if(changed) {
-        raf.setLength(length);
+        if(blocks != null) blocks.length(length);
+        else raf.setLength(length);
         changed = false;
       }
+      if(blocks != null) blocks.flush();
+      positional = true;
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -61,13 +100,26 @@ public final class DataAccess implements Closeable {
   @Override
   public synchronized void close() {
     flush();
+    buffers.close();
+    positional = false;
     try {
+      final FileChannel fc = channel;
+      if(fc != null) fc.close();
       raf.close();
     } catch(final IOException ex) {
       Util.stack(ex);
     }
   }
 
+  /**
+   * Converts an uncompressed file to the format that is used for compressed files.
+   * @param file file to be converted
+   * @throws IOException I/O Exception
+   */
+  public static void compress(final IOFile file) throws IOException {
+    CompressedBlocks.compress(file.file(), BlockCodec.TEXTS);
+  }
+
   /**
    * Returns the current file position.
    * @return position in the file
@@ -175,6 +227,112 @@ public final class DataAccess implements Closeable {
     return readBytes(l);
   }
 
+  /**
+   * Reads a token from disk. Can be called by concurrent readers.
+   * @param pos text position
+   * @return text as byte array
+   */
+  public byte[] readTokenConcurrent(final long pos) {
+    final boolean concurrent = readers.getAndIncrement() != 0;
+    try {
+      if(concurrent && positional) {
+        try {
+          final byte[] chunk = read(pos, CHUNK);
+          final int nl = Num.length(chunk, 0), l = Num.get(chunk, 0), cl = chunk.length - nl;
+          if(l <= cl) return Arrays.copyOfRange(chunk, nl, nl + l);
+          final ByteBuffer bb = ByteBuffer.allocate(l);
+          bb.put(chunk, nl, cl);
+          read(bb, pos + nl + cl);
+          if(bb.hasRemaining()) throw new EOFException();
+          return bb.array();
+        } catch(final IOException ex) {
+          // channel was closed by an interrupt, or file was truncated: use shared buffers
+          Util.debug(ex);
+        }
+      }
+      return readToken(pos);
+    } finally {
+      readers.decrementAndGet();
+    }
+  }
+
+  /**
+   * Reads a {@link Num} value from a sequence of values. Can be called by concurrent readers.
+   * @param pos position of the first value
+   * @param index index of the value to be returned
+   * @return read num
+   */
+  public int readNumConcurrent(final long pos, final int index) {
+    final boolean concurrent = readers.getAndIncrement() != 0;
+    try {
+      if(concurrent && positional) {
+        try {
+          final byte[] chunk = read(pos, (index + 1) * 5);
+          int p = 0;
+          for(int i = 0; i < index; i++) p += Num.length(chunk, p);
+          return Num.get(chunk, p);
+        } catch(final IOException ex) {
+          Util.debug(ex);
+        }
+      }
+      synchronized(this) {
+        int num = readNum(pos);
+        for(int i = 0; i < index; i++) num = readNum();
+        return num;
+      }
+    } finally {
+      readers.decrementAndGet();
+    }
+  }
+
+  /**
+   * Reads up to the specified number of bytes from the specified offset.
+   * Can be called by concurrent readers.
+   * @param pos position
+   * @param len maximum number of bytes (fewer bytes are returned if the end of the file is
+   *   reached)
+   * @return byte array
+   */
+  public byte[] readBytesConcurrent(final long pos, final int len) {
+    final boolean concurrent = readers.getAndIncrement() != 0;
+    try {
+      if(concurrent && positional) {
+        try {
+          return read(pos, len);
+        } catch(final IOException ex) {
+          Util.debug(ex);
+        }
+      }
+      synchronized(this) {
+        return readBytes(pos, (int) Math.max(0, Math.min(len, length - pos)));
+      }
+    } finally {
+      readers.decrementAndGet();
+    }
+  }
+
+  /**
+   * Reads an integer value from the specified position. Can be called by concurrent readers.
+   * @param pos position
+   * @return integer value
+   */
+  public int read4Concurrent(final long pos) {
+    final byte[] bytes = readBytesConcurrent(pos, 4);
+    return (bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8 |
+      bytes[3] & 0xFF;
+  }
+
+  /**
+   * Reads a 5-byte value from the specified file offset. Can be called by concurrent readers.
+   * @param pos position
+   * @return long value
+   */
+  public long read5Concurrent(final long pos) {
+    final byte[] bytes = readBytesConcurrent(pos, 5);
+    return (long) (bytes[0] & 0xFF) << 32 | (long) (bytes[1] & 0xFF) << 24 |
+      (bytes[2] & 0xFF) << 16 | (bytes[3] & 0xFF) << 8 | bytes[4] & 0xFF;
+  }
+
   /**
    * Reads a number of bytes from the specified offset.
    * @param pos position
@@ -221,9 +379,13 @@ public final class DataAccess implements Closeable {
     try {
       if(buffer.dirty) writeBlock(buffer);
       buffer.pos = b;
-      raf.seek(buffer.pos);
-      if(buffer.pos < raf.length())
-        raf.readFully(buffer.data, 0, (int) Math.min(length - buffer.pos, IO.BLOCKSIZE));
+      if(blocks != null) {
+        blocks.read(b, buffer.data, 0, IO.BLOCKSIZE);
+      } else {
+        raf.seek(b);
+        if(b < raf.length())
+          raf.readFully(buffer.data, 0, (int) Math.min(length - b, IO.BLOCKSIZE));
+      }
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -313,7 +475,7 @@ public final class DataAccess implements Closeable {
       final Buffer buffer = buffer();
       final int l = Math.min(last - o, IO.BLOCKSIZE - off);
       Array.copy(data, o, l, buffer.data, off);
-      buffer.dirty = true;
+      dirty(buffer);
       off += l;
       o += l;
       // adjust file size
@@ -378,7 +540,10 @@ public final class DataAccess implements Closeable {
    */
   private synchronized void length(final long len) {
     if(len != length) {
-      changed = true;
+      if(!changed) {
+        changed = true;
+        positional = false;
+      }
       length = len;
     }
   }
@@ -400,12 +565,78 @@ public final class DataAccess implements Closeable {
    */
   private void write(final int value) {
     final Buffer buffer = buffer();
-    buffer.dirty = true;
+    dirty(buffer);
     buffer.data[off++] = (byte) value;
     final long nl = buffer.pos + off;
     if(nl > length) length(nl);
   }
 
+  /**
+   * Marks a buffer as dirty and disables positional reads.
+   * @param buffer buffer
+   */
+  private void dirty(final Buffer buffer) {
+    if(!buffer.dirty) {
+      buffer.dirty = true;
+      positional = false;
+    }
+  }
+
+  /**
+   * Reads up to the specified number of bytes from disk.
+   * @param pos file position
+   * @param len maximum number of bytes
+   * @return bytes (fewer bytes are returned if the end of the file is reached)
+   * @throws IOException I/O exception
+   */
+  private byte[] read(final long pos, final int len) throws IOException {
+    final ByteBuffer bb = ByteBuffer.allocate(len);
+    read(bb, pos);
+    final int size = bb.position();
+    if(size == 0) throw new EOFException();
+    return size == len ? bb.array() : Arrays.copyOf(bb.array(), size);
+  }
+
+  /**
+   * Fills the specified byte buffer with bytes from disk.
+   * Stops if the end of the file is reached.
+   * @param bb byte buffer
+   * @param pos file position
+   * @throws IOException I/O exception
+   */
+  private void read(final ByteBuffer bb, final long pos) throws IOException {
+    if(blocks != null) {
+      bb.position(bb.position() + blocks.read(pos, bb.array(), bb.position(), bb.remaining()));
+      return;
+    }
+    final FileChannel fc = channel();
+    final int start = bb.position();
+    while(bb.hasRemaining()) {
+      if(fc.read(bb, pos + bb.position() - start) == -1) break;
+    }
+  }
+
+  /**
+   * Returns a channel for positional reads. The channel will be (re)opened if required.
+   * A separate channel is used, as channels are closed if a reading thread is interrupted.
+   * @return channel
+   * @throws IOException I/O exception
+   */
+  private FileChannel channel() throws IOException {
+    FileChannel fc = channel;
+    if(fc == null || !fc.isOpen()) {
+      synchronized(this) {
+        if(!positional) throw new IOException("File is closed or has been changed.");
+        fc = channel;
+        if(fc == null || !fc.isOpen()) {
+          fc = FileChannel.open(file.file().toPath(), StandardOpenOption.READ);
+          channel = fc;
+        }
+      }
+    }
+    return fc;
+  }
+
   /**
    * Writes the specified block to disk.
    * @param buffer buffer to write
@@ -413,8 +644,12 @@ public final class DataAccess implements Closeable {
    */
   private void writeBlock(final Buffer buffer) throws IOException {
     final long pos = buffer.pos, len = Math.min(IO.BLOCKSIZE, length - pos);
-    raf.seek(pos);
-    raf.write(buffer.data, 0, (int) len);
+    if(blocks != null) {
+      blocks.write(pos, buffer.data, 0, (int) len);
+    } else {
+      raf.seek(pos);
+      raf.write(buffer.data, 0, (int) len);
+    }
     buffer.dirty = false;
   }
 
@@ -25,6 +25,8 @@ public final class TableDiskAccess extends TableAccess {
   private final Buffers buffers = new Buffers();
   /** File storing all pages. */
   private final RandomAccessFile file;
+  /** Compressed pages ({@code null} if the table is not compressed). */
+  private final CompressedBlocks blocks;
   /** Bitmap storing free (=0) and used (=1) pages. */
   private BitArray usedPages;
   /** File lock. */
@@ -76,9 +78,19 @@ public final class TableDiskAccess extends TableAccess {
 
     // initialize data file
     file = new RandomAccessFile(meta.dbFile(DATATBL).file(), "rw");
+    blocks = meta.tablecompress ? new CompressedBlocks(file, BlockCodec.NODES) : null;
     if(!lock(write)) throw new BaseXException(Text.DB_PINNED_X, meta.name);
   }
 
+  /**
+   * Converts the uncompressed table of a new database to compressed pages.
+   * @param meta meta data
+   * @throws IOException I/O exception
+   */
+  public static void compress(final MetaData meta) throws IOException {
+    CompressedBlocks.compress(meta.dbFile(DATATBL).file(), BlockCodec.NODES);
+  }
+
   /**
    * Checks if the table of the specified database is locked.
    * @param db name of database
@@ -99,9 +111,10 @@ public final class TableDiskAccess extends TableAccess {
 
   @Override
   public synchronized void flush(final boolean all) throws IOException {
-    for(final Buffer buffer : buffers.all()) {
+    for(final Buffer buffer : buffers.dirty()) {
       write(buffer);
     }
+    if(blocks != null) blocks.flush();
     if(!dirty || !all) return;
 
     try(DataOutput out = new DataOutput(meta.dbFile(DATATBL + 'i'))) {
@@ -136,6 +149,7 @@ public final class TableDiskAccess extends TableAccess {
   @Override
   public synchronized void close() throws IOException {
     flush(true);
+    buffers.close();
     file.close();
   }
 
@@ -524,6 +538,8 @@ public final class TableDiskAccess extends TableAccess {
       buffer.pos = pre;
       if(pre >= pages) {
         pages = pre + 1;
+      } else if(blocks != null) {
+        blocks.read((long) pre * IO.BLOCKSIZE, buffer.data, 0, IO.BLOCKSIZE);
       } else {
         file.seek(buffer.pos * IO.BLOCKSIZE);
         file.readFully(buffer.data);
@@ -541,8 +557,12 @@ public final class TableDiskAccess extends TableAccess {
   private void write(final Buffer buffer) throws IOException {
     if(!buffer.dirty) return;
 
-    file.seek(buffer.pos * IO.BLOCKSIZE);
-    file.write(buffer.data);
+    if(blocks != null) {
+      blocks.write(buffer.pos * IO.BLOCKSIZE, buffer.data, 0, IO.BLOCKSIZE);
+    } else {
+      file.seek(buffer.pos * IO.BLOCKSIZE);
+      file.write(buffer.data);
+    }
     buffer.dirty = false;
   }
 
@@ -0,0 +1,565 @@
+package org.basex.io.random;
+
+import static org.basex.data.DataText.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.*;
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+
+/**
+ * This class stores the table on disk and accesses it via memory-mapped file segments.
+ * The disk layout is identical to the one of {@link TableDiskAccess}.
+ *
+ * In contrast to {@link TableDiskAccess}, no cursor state is shared between read operations:
+ * the page of a pre value is determined by a binary search in the page index, and values are
+ * read via absolute offsets. Read operations are thus not synchronized and can be performed
+ * concurrently. Updates must be performed exclusively (which is ensured by the database locks).
+ *
+ * Mapped segments are only released by the garbage collector. On some operating systems,
+ * the table file may remain locked for a while after the table has been closed.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class TableMappedAccess extends TableAccess {
+  /** Power of the segment size (must be larger than or equal to the block power). */
+  private static final int SEGMENTPOWER = 30;
+  /** Maximum size of a mapped segment. */
+  private static final long SEGMENTSIZE = 1L << SEGMENTPOWER;
+  /** Minimum number of pages that are added to the mapping if the table grows. */
+  private static final int GROW = 1 << 8;
+
+  /** File storing all pages. */
+  private final RandomAccessFile file;
+  /** Mapped segments. */
+  private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+  /** Number of mapped bytes. */
+  private long mapped;
+  /** File lock. */
+  private FileLock lock;
+
+  /** Bitmap storing free (=0) and used (=1) pages. */
+  private BitArray usedPages;
+  /** First pre values (ascending order); will be initialized with the first update. */
+  private int[] fPreIndex;
+  /** Page index; will be initialized with the first update. */
+  private int[] pageIndex;
+  /** Total number of pages. */
+  private int pages;
+  /** Number of used pages. */
+  private int used;
+
+  /**
+   * Constructor.
+   * @param meta meta data
+   * @param write write lock
+   * @throws IOException I/O exception
+   */
+  public TableMappedAccess(final MetaData meta, final boolean write) throws IOException {
+    super(meta);
+
+    // read meta and index data
+    try(DataInput in = new DataInput(meta.dbFile(DATATBL + 'i'))) {
+      // total number of pages
+      pages = in.readNum();
+      // number of used pages (0: empty table; MAX: no mapping)
+      used = in.readNum();
+      if(used == Integer.MAX_VALUE) {
+        // no mapping: total and used number of pages is identical
+        used = pages;
+      } else if(used != 0) {
+        // read page index and first pre values from disk
+        fPreIndex = in.readNums();
+        pageIndex = in.readNums();
+        // read block bitmap
+        final int s = in.readNum();
+        usedPages = new BitArray(in.readLongs(s), used);
+      }
+    }
+
+    // initialize data file
+    file = new RandomAccessFile(meta.dbFile(DATATBL).file(), "rw");
+    if(!lock(write)) {
+      file.close();
+      throw new BaseXException(Text.DB_PINNED_X, meta.name);
+    }
+    map((long) pages * IO.BLOCKSIZE);
+  }
+
+  @Override
+  public synchronized void flush(final boolean all) throws IOException {
+    if(!dirty || !all) return;
+
+    try(DataOutput out = new DataOutput(meta.dbFile(DATATBL + 'i'))) {
+      final int p = pages;
+      boolean regular = true;
+
+      // check if page mapping is regular (are all pages used and in ascending order?)
+      if(fPreIndex != null) {
+        regular = p == used;
+        for(int i = 0; i < p && regular; i++) regular = fPreIndex[i] == i * IO.ENTRIES;
+        for(int i = 0; i < p && regular; i++) regular = pageIndex[i] == i;
+        if(regular) removeMapping();
+      }
+
+      if(regular) {
+        // no mapping available or required (0: empty table; MAX: no mapping, see TableOutput#close)
+        out.writeNum(p);
+        out.writeNum(used == 0 ? 0 : Integer.MAX_VALUE);
+      } else {
+        out.writeNum(p);
+        out.writeNum(used);
+        out.writeNum(p);
+        for(int s = 0; s < p; s++) out.writeNum(fPreIndex[s]);
+        out.writeNum(p);
+        for(int s = 0; s < p; s++) out.writeNum(pageIndex[s]);
+        out.writeLongs(usedPages.toArray());
+      }
+    }
+    dirty = false;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    flush(true);
+    for(final MappedByteBuffer segment : segments) segment.force();
+    segments = new MappedByteBuffer[0];
+    mapped = 0;
+    file.close();
+  }
+
+  @Override
+  public boolean lock(final boolean write) {
+    try {
+      if(lock != null) {
+        if(write != lock.isShared()) return true;
+        lock.release();
+      }
+      lock = file.getChannel().tryLock(0, Long.MAX_VALUE, !write);
+      return lock != null;
+    } catch(final IOException ex) {
+      throw Util.notExpected(ex);
+    }
+  }
+
+  @Override
+  public int read1(final int pre, final int offset) {
+    final long pos = position(pre, offset);
+    return segment(pos).get(index(pos)) & 0xFF;
+  }
+
+  @Override
+  public int read2(final int pre, final int offset) {
+    final long pos = position(pre, offset);
+    return segment(pos).getShort(index(pos)) & 0xFFFF;
+  }
+
+  @Override
+  public int read4(final int pre, final int offset) {
+    final long pos = position(pre, offset);
+    return segment(pos).getInt(index(pos));
+  }
+
+  @Override
+  public long read5(final int pre, final int offset) {
+    final long pos = position(pre, offset);
+    final MappedByteBuffer segment = segment(pos);
+    final int i = index(pos);
+    return (long) (segment.get(i) & 0xFF) << 32 | segment.getInt(i + 1) & 0xFFFFFFFFL;
+  }
+
+  @Override
+  public void write1(final int pre, final int offset, final int value) {
+    final long pos = position(pre, offset);
+    segment(pos).put(index(pos), (byte) value);
+  }
+
+  @Override
+  public void write2(final int pre, final int offset, final int value) {
+    final long pos = position(pre, offset);
+    segment(pos).putShort(index(pos), (short) value);
+  }
+
+  @Override
+  public void write4(final int pre, final int offset, final int value) {
+    final long pos = position(pre, offset);
+    segment(pos).putInt(index(pos), value);
+  }
+
+  @Override
+  public void write5(final int pre, final int offset, final long value) {
+    final long pos = position(pre, offset);
+    final MappedByteBuffer segment = segment(pos);
+    final int i = index(pos);
+    segment.put(i, (byte) (value >>> 32));
+    segment.putInt(i + 1, (int) value);
+  }
+
+  @Override
+  protected void copy(final byte[] entries, final int pre, final int last) {
+    for(int o = 0, i = pre; i < last; ++i, o += IO.NODESIZE) {
+      put(position(i, 0), entries, o, IO.NODESIZE);
+    }
+  }
+
+  @Override
+  public void delete(final int pre, final int count) {
+    if(count == 0) return;
+    dirty();
+
+    final int last = pre + count, page = page(pre), from = pre - fPreIndex[page];
+    final int next = nextPre(page);
+    if(last <= next) {
+      // all entries are located in a single page: move remaining entries to the deleted range
+      final long start = offset(page);
+      move(start + (last - fPreIndex[page] << IO.NODEPOWER), start + (from << IO.NODEPOWER),
+          next - last << IO.NODEPOWER);
+      if(from == 0 && last == next) {
+        // page is empty: remove it from the index
+        usedPages.clear(pageIndex[page]);
+        deletePages(page, 1);
+        decreasePre(page, count);
+      } else {
+        decreasePre(page + 1, count);
+      }
+    } else {
+      // keep first page if its first entries will not be deleted
+      final int first = from == 0 ? page : page + 1;
+      // skip pages whose entries are to be deleted entirely
+      int p = page + 1;
+      while(p < used && nextPre(p) <= last) ++p;
+      if(p < used) {
+        // delete entries at beginning of last page
+        final long start = offset(p);
+        move(start + (last - fPreIndex[p] << IO.NODEPOWER), start,
+            nextPre(p) - last << IO.NODEPOWER);
+        fPreIndex[p] = pre;
+      }
+      // mark the pages as empty and remove them from the index; range clear cannot be used
+      // because the pages may not be consecutive
+      for(int i = first; i < p; i++) usedPages.clear(pageIndex[i]);
+      deletePages(first, p - first);
+      decreasePre(first + 1, count);
+    }
+    meta.size -= count;
+
+    if(used == 0) {
+      removeMapping();
+      pages = 1;
+    }
+  }
+
+  @Override
+  public void insert(final int pre, final byte[] entries) {
+    final int nnew = entries.length;
+    if(nnew == 0) return;
+    dirty();
+
+    // number of entries to be inserted
+    final int nr = nnew >>> IO.NODEPOWER;
+
+    int page = 0, split = 0;
+    if(used == 0) {
+      // special case: insert new data into first page if database is empty
+      capacity(1);
+      usedPages.set(0);
+      fPreIndex[0] = 0;
+      pageIndex[0] = 0;
+      pages = Math.max(pages, 1);
+      used = 1;
+      map(IO.BLOCKSIZE);
+    } else if(pre > 0) {
+      // find the offset within the page where the new records will be inserted
+      page = page(pre - 1);
+      split = pre - fPreIndex[page] << IO.NODEPOWER;
+    }
+
+    // number of bytes occupied by old records in the current page
+    final long start = offset(page);
+    final int nold = nextPre(page) - fPreIndex[page] << IO.NODEPOWER;
+    final byte[] data = new byte[IO.BLOCKSIZE];
+    get(start, data, 0, nold);
+
+    // special case: all entries fit in the current page
+    if(nold + nnew <= IO.BLOCKSIZE) {
+      Array.insert(data, split, nnew, nold, entries);
+      put(start, data, 0, nold + nnew);
+      // increment first pre-values of pages after the modified page
+      for(int i = page + 1; i < used; ++i) fPreIndex[i] += nr;
+      meta.size += nr;
+      return;
+    }
+
+    // append old entries at the end of the new entries
+    final int moved = nold - split;
+    final byte[] all = new byte[nnew + moved];
+    Array.copy(entries, nnew, all);
+    Array.copy(data, split, moved, all, nnew);
+
+    // fill in the current page with new entries
+    int nrem = IO.BLOCKSIZE - split;
+    put(start + split, all, 0, nrem);
+
+    // number of new required pages and remaining bytes
+    final int req = all.length - nrem;
+    int needed = req / IO.BLOCKSIZE;
+    final int remain = req % IO.BLOCKSIZE;
+
+    if(remain > 0) {
+      // check if the last entries can fit in the page after the current one
+      final int o = page + 1 < used ? nextPre(page + 1) - fPreIndex[page + 1] << IO.NODEPOWER :
+        IO.BLOCKSIZE;
+      if(remain <= IO.BLOCKSIZE - o) {
+        // move existing records and copy the last records to the beginning of the page
+        final long next = offset(page + 1);
+        get(next, data, remain, o);
+        Array.copyToStart(all, all.length - remain, remain, data);
+        put(next, data, 0, remain + o);
+        // reduce the pre value, since it will be later incremented with nr
+        fPreIndex[page + 1] -= remain >>> IO.NODEPOWER;
+      } else {
+        // there is not enough space in the page - allocate a new one
+        ++needed;
+      }
+    }
+
+    // make place for the pages where the new entries will be written
+    capacity(used + needed);
+    Array.insert(fPreIndex, page + 1, needed, used, null);
+    Array.insert(pageIndex, page + 1, needed, used, null);
+
+    // write all remaining entries
+    while(needed-- > 0) {
+      final int p = usedPages.nextFree();
+      usedPages.set(p);
+      if(p >= pages) {
+        pages = p + 1;
+        map(Math.max(pages, mapped / IO.BLOCKSIZE + GROW) * IO.BLOCKSIZE);
+      }
+      ++used;
+      ++page;
+      final int len = Math.min(IO.BLOCKSIZE, all.length - nrem);
+      put((long) p * IO.BLOCKSIZE, all, nrem, len);
+      nrem += len;
+      fPreIndex[page] = fPreIndex[page - 1] + IO.ENTRIES;
+      pageIndex[page] = p;
+    }
+
+    // increment all fpre values after the last modified page
+    for(int i = page + 1; i < used; ++i) fPreIndex[i] += nr;
+    meta.size += nr;
+  }
+
+  @Override
+  protected void dirty() {
+    // initialize data structures required for performing updates
+    if(fPreIndex == null) {
+      fPreIndex = new int[pages];
+      for(int i = 0; i < pages; i++) fPreIndex[i] = i * IO.ENTRIES;
+      pageIndex = new int[pages];
+      for(int i = 0; i < pages; i++) pageIndex[i] = i;
+      usedPages = new BitArray(used, true);
+    }
+    dirty = true;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append(Util.className(this)).append(" (").append("pages: ").append(pages);
+    sb.append(", used: ").append(used).append(", mapped: ").append(mapped).append(")");
+    if(fPreIndex != null) sb.append("\n- FPres: ").append(Arrays.toString(fPreIndex));
+    if(pageIndex != null) sb.append("\n- Pages: ").append(Arrays.toString(pageIndex));
+    if(usedPages != null) sb.append("\n- Used Pages: ").append(usedPages);
+    return sb.toString();
+  }
+
+  // PRIVATE METHODS ==============================================================================
+
+  /**
+   * Returns the absolute file position of the specified entry.
+   * @param pre pre value
+   * @param offset offset within the entry
+   * @return file position
+   */
+  private long position(final int pre, final int offset) {
+    if(fPreIndex == null) return ((long) pre << IO.NODEPOWER) + offset;
+    final int page = page(pre);
+    return offset(page) + (pre - fPreIndex[page] << IO.NODEPOWER) + offset;
+  }
+
+  /**
+   * Returns the index of the page containing the specified pre value.
+   * Must only be called if the page index exists.
+   * @param pre pre value
+   * @return page index
+   */
+  private int page(final int pre) {
+    final int[] fpres = fPreIndex;
+    int l = 0, h = used - 1;
+    while(l <= h) {
+      final int m = l + h >>> 1;
+      if(pre < fpres[m]) h = m - 1;
+      else if(pre >= nextPre(m)) l = m + 1;
+      else return m;
+    }
+    throw Util.notExpected(
+        "Data Access out of bounds:" +
+        "\n- pre value: " + pre +
+        "\n- table size: " + meta.size +
+        "\n- #total/used pages: " + pages + '/' + used);
+  }
+
+  /**
+   * Returns the first pre value of the page following the specified page.
+   * @param page page index
+   * @return pre value
+   */
+  private int nextPre(final int page) {
+    return page + 1 < used ? fPreIndex[page + 1] : meta.size;
+  }
+
+  /**
+   * Returns the file offset of the specified page.
+   * @param page page index
+   * @return file offset
+   */
+  private long offset(final int page) {
+    return (long) (pageIndex == null ? page : pageIndex[page]) * IO.BLOCKSIZE;
+  }
+
+  /**
+   * Returns the segment for the specified file position.
+   * @param pos file position
+   * @return segment
+   */
+  private MappedByteBuffer segment(final long pos) {
+    return segments[(int) (pos >>> SEGMENTPOWER)];
+  }
+
+  /**
+   * Returns the index of the specified file position within its segment.
+   * @param pos file position
+   * @return index
+   */
+  private static int index(final long pos) {
+    return (int) (pos & SEGMENTSIZE - 1);
+  }
+
+  /**
+   * Reads bytes from the mapped file. The bytes must be located in a single page.
+   * @param pos file position
+   * @param data target array
+   * @param offset array offset
+   * @param length number of bytes to read
+   */
+  private void get(final long pos, final byte[] data, final int offset, final int length) {
+    final ByteBuffer bb = segment(pos).duplicate();
+    bb.position(index(pos));
+    bb.get(data, offset, length);
+  }
+
+  /**
+   * Writes bytes to the mapped file. The bytes must be located in a single page.
+   * @param pos file position
+   * @param data source array
+   * @param offset array offset
+   * @param length number of bytes to write
+   */
+  private void put(final long pos, final byte[] data, final int offset, final int length) {
+    final ByteBuffer bb = segment(pos).duplicate();
+    bb.position(index(pos));
+    bb.put(data, offset, length);
+  }
+
+  /**
+   * Moves bytes within the mapped file. The bytes must be located in a single page.
+   * @param source source position
+   * @param target target position
+   * @param length number of bytes to move
+   */
+  private void move(final long source, final long target, final int length) {
+    if(length == 0 || source == target) return;
+    final byte[] data = new byte[length];
+    get(source, data, 0, length);
+    put(target, data, 0, length);
+  }
+
+  /**
+   * Maps the specified number of bytes. Existing segments will be reused if their size
+   * has not changed. The file will be extended if it is smaller than the requested size.
+   * @param size number of bytes to map
+   */
+  private void map(final long size) {
+    if(size <= mapped) return;
+
+    final MappedByteBuffer[] old = segments;
+    final int ns = (int) (size + SEGMENTSIZE - 1 >>> SEGMENTPOWER);
+    final MappedByteBuffer[] segs = Arrays.copyOf(old, ns);
+    try {
+      final FileChannel fc = file.getChannel();
+      for(int s = 0; s < ns; s++) {
+        final long pos = (long) s << SEGMENTPOWER, length = Math.min(SEGMENTSIZE, size - pos);
+        if(segs[s] == null || segs[s].capacity() != length) {
+          segs[s] = fc.map(MapMode.READ_WRITE, pos, length);
+        }
+      }
+    } catch(final IOException ex) {
+      throw Util.notExpected(ex);
+    }
+    segments = segs;
+    mapped = size;
+  }
+
+  /**
+   * Ensures that the page index can store the specified number of pages.
+   * @param size number of pages
+   */
+  private void capacity(final int size) {
+    if(size > fPreIndex.length) {
+      // resize directory arrays if existing ones are too small
+      final int ns = Math.max(fPreIndex.length << 1, size);
+      fPreIndex = Arrays.copyOf(fPreIndex, ns);
+      pageIndex = Arrays.copyOf(pageIndex, ns);
+    }
+  }
+
+  /**
+   * Deletes pages in the page mapping.
+   * @param page index of first page to delete
+   * @param count number of pages to delete
+   */
+  private void deletePages(final int page, final int count) {
+    if(count == 0) return;
+    Array.remove(fPreIndex, page, count, used);
+    Array.remove(pageIndex, page, count, used);
+    used -= count;
+  }
+
+  /**
+   * Decreases the first pre values of the specified and all following pages.
+   * @param page index of first page
+   * @param count number of deleted entries
+   */
+  private void decreasePre(final int page, final int count) {
+    for(int i = page; i < used; ++i) fPreIndex[i] -= count;
+  }
+
+  /**
+   * Removes the page index.
+   */
+  private void removeMapping() {
+    fPreIndex = null;
+    pageIndex = null;
+    usedPages = null;
+  }
+}
@@ -44,6 +44,13 @@ public final class CompileContext {
   /** Query focus list. */
   private final ArrayDeque<QueryFocus> focuses = new ArrayDeque<>();
 
+  /** Static context of copied expressions (can be {@code null}). */
+  private StaticContext source;
+  /** Static context to be assigned to copied expressions (can be {@code null}). */
+  private StaticContext target;
+  /** Static variables to be referenced by copied expressions (can be {@code null}). */
+  private Variables vars;
+
   /**
    * Constructor.
    * @param qc query context
@@ -197,6 +204,37 @@ public final class CompileContext {
     return vr;
   }
 
+  /**
+   * Prepares the copying of expressions to another query.
+   * @param src static context of the copied expressions
+   * @param trg static context to be assigned to the copies
+   * @param vrs static variables to be referenced by the copies
+   */
+  public void copy(final StaticContext src, final StaticContext trg, final Variables vrs) {
+    source = src;
+    target = trg;
+    vars = vrs;
+  }
+
+  /**
+   * Returns the static context to be assigned to a copied expression.
+   * @param sc static context of the original expression
+   * @return static context
+   */
+  public StaticContext copy(final StaticContext sc) {
+    return sc == source ? target : sc;
+  }
+
+  /**
+   * Returns the static variable to be referenced by a copied expression.
+   * @param var static variable of the original expression
+   * @return static variable
+   */
+  public StaticVar copy(final StaticVar var) {
+    final StaticVar sv = vars != null ? vars.get(var.name) : null;
+    return sv != null ? sv : var;
+  }
+
   /**
    * Pre-evaluates the specified expression.
    * @param expr expression
@@ -0,0 +1,146 @@
+package org.basex.query;
+
+import java.util.*;
+
+import org.basex.query.scope.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+
+/**
+ * Cache for parsed queries. If a query string is evaluated repeatedly, its main module will be
+ * copied from the cache instead of being parsed again.
+ *
+ * Only queries with simple prologs will be cached (see {@link QueryContext#copyable()}).
+ * Parsed queries do not depend on databases, and the options that affect parsing are part of the
+ * cache keys. Compilation is still performed for each query, as external bindings and the
+ * context value are inlined by the optimizer.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryCache {
+  /** Maximum number of cached queries. */
+  private final int max;
+  /** Cached queries, ordered by their last access. */
+  private final LinkedHashMap<String, CachedQuery> queries;
+
+  /**
+   * Constructor.
+   * @param max maximum number of cached queries (deactivated if set to 0)
+   */
+  public QueryCache(final int max) {
+    this.max = Math.max(0, max);
+    queries = new LinkedHashMap<String, CachedQuery>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, CachedQuery> eldest) {
+        return size() > QueryCache.this.max;
+      }
+    };
+  }
+
+  /**
+   * Parses a main module, or copies a cached module.
+   * @param query query string
+   * @param sc static context
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  void parse(final String query, final StaticContext sc, final QueryContext qc)
+      throws QueryException {
+
+    // skip cache if it is disabled, or if the static context has been modified
+    if(max == 0 || !sc.initial()) {
+      qc.parseMain(query, null, sc);
+      return;
+    }
+
+    final String key = key(query, sc);
+    final CachedQuery cached;
+    synchronized(queries) {
+      cached = queries.get(key);
+    }
+    if(cached != null) {
+      cached.copy(query, sc, qc);
+    } else {
+      qc.parseMain(query, null, sc);
+      if(qc.copyable()) {
+        final CachedQuery cq = new CachedQuery(sc, qc);
+        synchronized(queries) {
+          queries.put(key, cq);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the number of cached queries.
+   * @return number of queries
+   */
+  public int size() {
+    synchronized(queries) {
+      return queries.size();
+    }
+  }
+
+  /**
+   * Removes all cached queries.
+   */
+  public void clear() {
+    synchronized(queries) {
+      queries.clear();
+    }
+  }
+
+  /**
+   * Returns the cache key for a query.
+   * @param query query string
+   * @param sc static context
+   * @return key
+   */
+  private static String key(final String query, final StaticContext sc) {
+    return new StringBuilder().append(Token.string(sc.baseURI().string())).append('\n').
+      append(sc.mixUpdates).append(sc.withdb).append('\n').append(query).toString();
+  }
+
+  /** Parsed query. Cached instances will only be read, and are never compiled. */
+  private static final class CachedQuery {
+    /** Static context. */
+    private final StaticContext sc;
+    /** Static variables. */
+    private final Variables vars = new Variables();
+    /** Main module. */
+    private final MainModule root;
+    /** Updating flag. */
+    private final boolean updating;
+
+    /**
+     * Constructor.
+     * @param sctx static context of the parsed query
+     * @param qc query context of the parsed query
+     * @throws QueryException query exception
+     */
+    private CachedQuery(final StaticContext sctx, final QueryContext qc) throws QueryException {
+      sc = new StaticContext(qc);
+      sc.assign(sctx);
+      vars.copy(qc.vars, sc, qc);
+      root = qc.root.copy(sc, vars, qc);
+      updating = qc.updating;
+    }
+
+    /**
+     * Assigns a copy of the parsed query to the specified contexts.
+     * @param query query string
+     * @param sctx static context
+     * @param qc query context
+     * @throws QueryException query exception
+     */
+    private void copy(final String query, final StaticContext sctx, final QueryContext qc)
+        throws QueryException {
+      qc.info.query = query;
+      sctx.assign(sc);
+      qc.vars.copy(vars, sctx, qc);
+      qc.root = root.copy(sctx, qc.vars, qc);
+      qc.updating = updating;
+    }
+  }
+}
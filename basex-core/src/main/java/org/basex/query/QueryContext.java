@@ -7,6 +7,7 @@ import static org.basex.util.Token.*;
 import java.io.*;
 import java.util.*;
 import java.util.Map.*;
+import java.util.concurrent.*;
 
 import org.basex.build.json.*;
 import org.basex.build.json.JsonOptions.*;
@@ -75,6 +76,8 @@ public final class QueryContext extends Job implements Closeable {
 
   /** Query threads. */
   public final QueryThreads threads = new QueryThreads();
+  /** Permits for tasks that are evaluated by the worker pool (shared with child contexts). */
+  public final Semaphore workers;
   /** Current context value. */
   public QueryFocus focus = new QueryFocus();
   /** Current date/time values. */
@@ -90,6 +93,8 @@ public final class QueryContext extends Job implements Closeable {
   public int ftPos;
   /** Scoring flag. */
   public boolean scoring;
+  /** Minimum score of full-text results (assigned if only the best results are requested). */
+  public double minScore;
 
   /** Available collations. */
   public TokenObjMap<Collation> collations;
@@ -164,6 +169,7 @@ public final class QueryContext extends Job implements Closeable {
     this.parent = parent;
     this.info = info != null ? info : new QueryInfo(this);
     this.props = props;
+    workers = parent != null ? parent.workers : context.workers.permits();
   }
 
   /**
@@ -237,6 +243,22 @@ public final class QueryContext extends Job implements Closeable {
     }
   }
 
+  /**
+   * Indicates if the parsed main module can be copied to other queries. This is the case if the
+   * prolog contains no declarations of modules, functions, options and the context value, and if
+   * all static variables are external and have no default values other than values.
+   * @return result of check
+   */
+  boolean copyable() {
+    if(root == null || ctxItem != null || serParams != null || ftOpt != null ||
+      !options.isEmpty() || locks.locking() || !modParsed.isEmpty() ||
+      !root.imports().isEmpty() || funcs.funcs().length != 0) return false;
+    for(final StaticVar sv : vars) {
+      if(!sv.external || sv.expr != null && !(sv.expr instanceof Value)) return false;
+    }
+    return true;
+  }
+
   /**
    * Sets the main module (root expression).
    * @param rt main module
@@ -723,6 +723,7 @@ public class QueryParser extends InputParser {
       // no paths specified: skip statically available modules
       if(Functions.staticURI(uri)) return;
       // try to resolve module uri
+      imports.put(uri);
       if(qc.resources.modules().addImport(string(uri), this, mi.info)) return;
       // module not found
       throw WHICHMOD_X.get(mi.info, uri);
@@ -63,7 +63,7 @@ public final class QueryProcessor extends Job implements Closeable {
   public void parse() throws QueryException {
     if(parsed) return;
     try {
-      qc.parseMain(query, null, sc);
+      qc.context.queries.parse(query, sc, qc);
     } finally {
       parsed = true;
       updating = qc.updating;
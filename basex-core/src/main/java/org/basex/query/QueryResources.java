@@ -52,7 +52,7 @@ public final class QueryResources {
   /** External resources. */
   private final Map<Class<? extends QueryResource>, QueryResource> external = new HashMap<>();
   /** Input references. */
-  private final ArrayList<InputStream> inputs = new ArrayList<>(1);
+  private final ArrayList<Closeable> inputs = new ArrayList<>(1);
 
   /**
    * Constructor.
@@ -98,9 +98,9 @@ public final class QueryResources {
     for(final QueryResource c : external.values()) c.close();
     external.clear();
     // close external resources
-    for(final InputStream is : inputs) {
+    for(final Closeable input : inputs) {
       try {
-        is.close();
+        input.close();
       } catch(final IOException ex) {
         Util.debug(ex);
       }
@@ -137,19 +137,19 @@ public final class QueryResources {
   }
 
   /**
-   * Adds an input stream reference.
-   * @param input input stream
+   * Adds an input reference.
+   * @param input input stream or parser
    */
-  public synchronized void add(final InputStream input) {
+  public synchronized void add(final Closeable input) {
     inputs.add(input);
   }
 
   /**
-   * Closes and removes an input stream reference.
-   * @param input input stream
+   * Closes and removes an input reference.
+   * @param input input stream or parser
    * @throws IOException I/O exception
    */
-  public synchronized void remove(final InputStream input) throws IOException {
+  public synchronized void remove(final Closeable input) throws IOException {
     inputs.remove(input);
     input.close();
   }
@@ -182,6 +182,19 @@ public final class QueryResources {
     }
   }
 
+  /**
+   * Checks if a database has been opened or created for the specified input.
+   * @param io input
+   * @return result of check
+   */
+  public synchronized boolean opened(final IO io) {
+    for(final Data data : datas) {
+      final String orig = data.meta.original;
+      if(!orig.isEmpty() && IO.get(orig).eq(io)) return true;
+    }
+    return false;
+  }
+
   /**
    * Evaluates {@code fn:doc()}: opens an existing database document, or creates a new
    * database and node.
@@ -0,0 +1,52 @@
+package org.basex.query;
+
+import java.util.*;
+import java.util.List;
+
+import org.basex.core.jobs.*;
+import org.basex.query.expr.*;
+import org.basex.query.value.*;
+
+/**
+ * Task for evaluating parts of a query in parallel (see {@link WorkerPool}).
+ * Each task has its own query context, which is created by the thread that invokes the tasks.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public abstract class QueryTask implements WorkerTask<Value, QueryException> {
+  /** Query context of the task. */
+  protected final QueryContext qc;
+
+  /**
+   * Constructor.
+   * @param parent parent query context
+   */
+  protected QueryTask(final QueryContext parent) {
+    qc = new QueryContext(parent);
+  }
+
+  @Override
+  public final void stop() {
+    qc.stop();
+  }
+
+  /**
+   * Evaluates tasks in parallel and returns the concatenated results.
+   * @param tasks tasks
+   * @param qc query context
+   * @param expr expression (can be {@code null})
+   * @return result
+   * @throws QueryException query exception
+   */
+  public static Value invoke(final List<? extends QueryTask> tasks, final QueryContext qc,
+      final Expr expr) throws QueryException {
+    try {
+      final ValueBuilder vb = new ValueBuilder(qc);
+      for(final Value value : qc.context.workers.invoke(tasks, qc.workers)) vb.add(value);
+      return vb.value(expr);
+    } finally {
+      for(int t = tasks.size() - 1; t >= 0; t--) tasks.get(t).qc.close();
+    }
+  }
+}
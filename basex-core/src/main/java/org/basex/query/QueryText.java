@@ -396,6 +396,9 @@ public interface QueryText {
   /** Query Info. */ String DATABASE = "database";
   /** Query Info. */ String ITERATIVE = "iterative";
   /** Query Info. */ String SINGLE = "single";
+  /** Query Info. */ String PARALLEL = "parallel";
+  /** Query Info. */ String AGGREGATE = "aggregate";
+  /** Query Info. */ String LIMIT = "limit";
   /** Query Info. */ String LINE = "line";
   /** Query Info. */ String COLUMN = "column";
   /** Query Info. */ String PATH = "path";
@@ -429,6 +432,11 @@ public interface QueryText {
   /** Optimization info. */ String OPTNORESULTS_X = "no index results: %";
   /** Optimization info. */ String OPTCHILD_X = "convert to child steps: %";
   /** Optimization info. */ String OPTUNROLL_X = "unroll: %";
+  /** Optimization info. */ String OPTPARALLEL_X = "evaluate % in parallel";
+  /** Optimization info. */ String OPTHASHJOIN_X = "rewrite to hash join: %";
+  /** Optimization info. */ String OPTAGGREGATE_X = "aggregate while grouping: %";
+  /** Optimization info. */ String OPTLIMIT_X_X = "limit sorted tuples to %: %";
+  /** Optimization info. */ String OPTSTREAM_X = "stream document: %";
   /** Optimization info. */ String OPTOPEN_X = "open database \"%\"";
 
   // MISCELLANEOUS ================================================================================
@@ -19,6 +19,9 @@ public final class QueryThreads {
   /** Comparison caches. */
   private final IdentityHashMap<CmpHashG, ThreadLocal<CmpCache>> cmpCache =
       new IdentityHashMap<>();
+  /** Join caches. */
+  private final IdentityHashMap<HashFilter, ThreadLocal<JoinCache>> joinCache =
+      new IdentityHashMap<>();
   /** Full-text tokenizers. */
   private final IdentityHashMap<FTWords, ThreadLocal<FTTokenizer>> ftCache =
       new IdentityHashMap<>();
@@ -41,6 +44,15 @@ public final class QueryThreads {
     return cmpCache.computeIfAbsent(expr, p -> ThreadLocal.withInitial(CmpCache::new));
   }
 
+  /**
+   * Returns local thread for the given expression.
+   * @param expr expression
+   * @return cache
+   */
+  public ThreadLocal<JoinCache> get(final HashFilter expr) {
+    return joinCache.computeIfAbsent(expr, p -> ThreadLocal.withInitial(JoinCache::new));
+  }
+
   /**
    * Returns local thread for the given expression.
    * @param expr expression
@@ -56,6 +68,7 @@ public final class QueryThreads {
   void close() {
     for(final ThreadLocal<PathCache> cache : pathCache.values()) cache.remove();
     for(final ThreadLocal<CmpCache> cache : cmpCache.values()) cache.remove();
+    for(final ThreadLocal<JoinCache> cache : joinCache.values()) cache.remove();
     for(final ThreadLocal<FTTokenizer> cache : ftCache.values()) cache.remove();
   }
 }
@@ -68,6 +68,39 @@ public final class StaticContext {
     withdb = qc.context.options.get(MainOptions.WITHDB);
   }
 
+  /**
+   * Indicates if no declarations have been assigned to this context (apart from the base URI).
+   * @return result of check
+   */
+  boolean initial() {
+    return decFormats.isEmpty() && ns.list.isEmpty() && collation == null && elemNS == null &&
+      eq(funcNS, FN_URI) && module == null && !strip && ordered && !orderGreatest && !spaces &&
+      preserveNS && inheritNS && contextType == null;
+  }
+
+  /**
+   * Assigns the declarations of the specified static context.
+   * @param sc static context
+   */
+  void assign(final StaticContext sc) {
+    for(final byte[] id : sc.decFormats) decFormats.put(id, sc.decFormats.get(id));
+    final Atts list = sc.ns.list;
+    final int size = list.size();
+    for(int l = 0; l < size; l++) ns.list.add(list.name(l), list.value(l));
+    collation = sc.collation;
+    elemNS = sc.elemNS;
+    funcNS = sc.funcNS;
+    module = sc.module;
+    strip = sc.strip;
+    ordered = sc.ordered;
+    orderGreatest = sc.orderGreatest;
+    spaces = sc.spaces;
+    preserveNS = sc.preserveNS;
+    inheritNS = sc.inheritNS;
+    contextType = sc.contextType;
+    baseURI = sc.baseURI;
+  }
+
   /**
    * Declares a namespace.
    * A namespace is undeclared if the specified URI is an empty string.
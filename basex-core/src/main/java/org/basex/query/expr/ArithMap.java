@@ -0,0 +1,365 @@
+package org.basex.query.expr;
+
+import java.util.*;
+
+import org.basex.query.*;
+import org.basex.query.iter.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+
+/**
+ * Simple map operator with arithmetic expressions on the context value.
+ * If the input is a range or a native sequence of integers or doubles, the expressions are
+ * evaluated on blocks of primitive values.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class ArithMap extends SimpleMap {
+  /** Maximum number of values that are evaluated at once. */
+  private static final int BLOCK = 1 << 10;
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param exprs expressions
+   */
+  ArithMap(final InputInfo info, final Expr... exprs) {
+    super(info, exprs);
+  }
+
+  /**
+   * Checks if the specified expressions can be evaluated as arithmetic map.
+   * @param exprs expressions
+   * @return result of check
+   */
+  static boolean arith(final Expr... exprs) {
+    final Type type = exprs[0].seqType().type;
+    if(!type.instanceOf(AtomType.ITR) && type != AtomType.DBL) return false;
+    final int el = exprs.length;
+    for(int e = 1; e < el; e++) {
+      if(!(exprs[e] instanceof Arith) || !operand(exprs[e])) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the specified expression is a context value, a number or an arithmetic expression
+   * with such operands.
+   * @param expr expression
+   * @return result of check
+   */
+  private static boolean operand(final Expr expr) {
+    if(expr instanceof ContextValue || expr instanceof Int || expr instanceof Dbl) return true;
+    return expr instanceof Arith && operand(((Arith) expr).exprs[0]) &&
+        operand(((Arith) expr).exprs[1]);
+  }
+
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    final Iter iter = exprs[0].iter(qc);
+    final Values values = values(iter.iterValue());
+    return values != null ? values.iter(qc) : iter(iter, qc);
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    final Iter iter = exprs[0].iter(qc);
+    final Values values = values(iter.iterValue());
+    return values != null ? values.value(qc) : iter(iter, qc).value(qc, this);
+  }
+
+  /**
+   * Returns an iterator that evaluates the expressions on single items.
+   * @param iter input iterator
+   * @param qc query context
+   * @return iterator
+   */
+  private Iter iter(final Iter iter, final QueryContext qc) {
+    return new Iter() {
+      private final QueryFocus focus = new QueryFocus();
+
+      @Override
+      public Item next() throws QueryException {
+        final QueryFocus qf = qc.focus;
+        qc.focus = focus;
+        try {
+          final int el = exprs.length;
+          for(Item item; (item = qc.next(iter)) != null;) {
+            for(int e = 1; e < el && item != Empty.VALUE; e++) {
+              focus.value = item;
+              item = exprs[e].item(qc, info);
+            }
+            if(item != Empty.VALUE) return item;
+          }
+          return null;
+        } finally {
+          qc.focus = qf;
+        }
+      }
+    };
+  }
+
+  /**
+   * Returns primitive values for the specified input.
+   * @param value input value (can be {@code null})
+   * @return values, or {@code null} if the input cannot be evaluated on primitive values
+   */
+  private Values values(final Value value) {
+    Type type = value instanceof RangeSeq || value instanceof IntSeq ? AtomType.ITR :
+      value instanceof DblSeq ? AtomType.DBL : null;
+    final int el = exprs.length;
+    for(int e = 1; e < el && type != null; e++) type = type(exprs[e], type);
+    return type != null ? new Values(value, type) : null;
+  }
+
+  /**
+   * Returns the type of the primitive results of an expression.
+   * @param expr expression
+   * @param type type of the context values
+   * @return {@link AtomType#ITR}, {@link AtomType#DBL}, or {@code null} if the results cannot
+   *   be represented as primitive values
+   */
+  private static Type type(final Expr expr, final Type type) {
+    if(expr instanceof ContextValue) return type;
+    if(expr instanceof Int) return AtomType.ITR;
+    if(expr instanceof Dbl) return AtomType.DBL;
+
+    final Arith arith = (Arith) expr;
+    final Type type1 = type(arith.exprs[0], type), type2 = type(arith.exprs[1], type);
+    if(type1 == null || type2 == null) return null;
+    // 'div' on integers yields decimals, 'idiv' on doubles yields integers
+    if(type1 == AtomType.ITR && type2 == AtomType.ITR) return arith.calc == Calc.DIV ? null : type1;
+    return arith.calc == Calc.IDIV ? null : AtomType.DBL;
+  }
+
+  /**
+   * Evaluates an expression on a block of primitive values.
+   * @param expr expression
+   * @param input context values ({@code long[]} or {@code double[]})
+   * @param n number of values
+   * @return results ({@code long[]} or {@code double[]})
+   * @throws QueryException query exception
+   */
+  private Object eval(final Expr expr, final Object input, final int n) throws QueryException {
+    if(expr instanceof ContextValue) return input;
+    if(expr instanceof Int) {
+      final long[] results = new long[n];
+      Arrays.fill(results, ((Int) expr).itr());
+      return results;
+    }
+    if(expr instanceof Dbl) {
+      final double[] results = new double[n];
+      Arrays.fill(results, ((Dbl) expr).dbl());
+      return results;
+    }
+
+    final Arith arith = (Arith) expr;
+    final Object values1 = eval(arith.exprs[0], input, n), values2 = eval(arith.exprs[1], input, n);
+    return values1 instanceof long[] && values2 instanceof long[] ?
+      eval(arith.calc, (long[]) values1, (long[]) values2, n) :
+      eval(arith.calc, doubles(values1, n), doubles(values2, n), n);
+  }
+
+  /**
+   * Performs a calculation on integers.
+   * @param calc calculation operator
+   * @param values1 first operands
+   * @param values2 second operands
+   * @param n number of values
+   * @return results
+   * @throws QueryException query exception
+   */
+  private long[] eval(final Calc calc, final long[] values1, final long[] values2, final int n)
+      throws QueryException {
+
+    final long[] results = new long[n];
+    try {
+      switch(calc) {
+        case PLUS:
+          for(int i = 0; i < n; i++) results[i] = Math.addExact(values1[i], values2[i]);
+          return results;
+        case MINUS:
+          for(int i = 0; i < n; i++) results[i] = Math.subtractExact(values1[i], values2[i]);
+          return results;
+        case MULT:
+          for(int i = 0; i < n; i++) results[i] = Math.multiplyExact(values1[i], values2[i]);
+          return results;
+        default:
+          break;
+      }
+    } catch(final ArithmeticException ex) {
+      // overflow: repeat calculation to raise the correct error
+      Util.debug(ex);
+    }
+    for(int i = 0; i < n; i++) results[i] = calc.eval(values1[i], values2[i], info);
+    return results;
+  }
+
+  /**
+   * Performs a calculation on doubles.
+   * @param calc calculation operator
+   * @param values1 first operands
+   * @param values2 second operands
+   * @param n number of values
+   * @return results
+   */
+  private static double[] eval(final Calc calc, final double[] values1, final double[] values2,
+      final int n) {
+
+    final double[] results = new double[n];
+    switch(calc) {
+      case PLUS:
+        for(int i = 0; i < n; i++) results[i] = values1[i] + values2[i];
+        break;
+      case MINUS:
+        for(int i = 0; i < n; i++) results[i] = values1[i] - values2[i];
+        break;
+      case MULT:
+        for(int i = 0; i < n; i++) results[i] = values1[i] * values2[i];
+        break;
+      case DIV:
+        for(int i = 0; i < n; i++) results[i] = values1[i] / values2[i];
+        break;
+      case MOD:
+        for(int i = 0; i < n; i++) results[i] = values1[i] % values2[i];
+        break;
+      default:
+        throw Util.notExpected(calc);
+    }
+    return results;
+  }
+
+  /**
+   * Returns primitive values as doubles.
+   * @param values values ({@code long[]} or {@code double[]})
+   * @param n number of values
+   * @return doubles
+   */
+  private static double[] doubles(final Object values, final int n) {
+    if(values instanceof double[]) return (double[]) values;
+    final long[] longs = (long[]) values;
+    final double[] doubles = new double[n];
+    for(int i = 0; i < n; i++) doubles[i] = longs[i];
+    return doubles;
+  }
+
+  @Override
+  public ArithMap copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return copyType(new ArithMap(info, Arr.copyAll(cc, vm, exprs)));
+  }
+
+  @Override
+  public String description() {
+    return "arithmetic " + super.description();
+  }
+
+  /** Primitive input values. */
+  private final class Values {
+    /** Input value (range, integer or double sequence). */
+    private final Value input;
+    /** Type of the results ({@link AtomType#ITR} or {@link AtomType#DBL}). */
+    private final Type type;
+
+    /**
+     * Constructor.
+     * @param input input value
+     * @param type type of the results
+     */
+    private Values(final Value input, final Type type) {
+      this.input = input;
+      this.type = type;
+    }
+
+    /**
+     * Returns an iterator that evaluates blocks of values.
+     * @param qc query context
+     * @return iterator
+     */
+    private Iter iter(final QueryContext qc) {
+      final long size = input.size();
+      return new Iter() {
+        /** Current block of results ({@code long[]} or {@code double[]}). */
+        private Object block;
+        /** Offset of the current block. */
+        private long offset;
+        /** Current position. */
+        private long pos;
+
+        @Override
+        public Item next() throws QueryException {
+          return pos < size ? get(pos++) : null;
+        }
+
+        @Override
+        public Item get(final long i) throws QueryException {
+          final long o = i - i % BLOCK;
+          if(block == null || o != offset) {
+            qc.checkStop();
+            block = eval(o, (int) Math.min(BLOCK, size - o));
+            offset = o;
+          }
+          final int b = (int) (i - o);
+          return block instanceof long[] ? Int.get(((long[]) block)[b]) :
+            Dbl.get(((double[]) block)[b]);
+        }
+
+        @Override
+        public long size() {
+          return size;
+        }
+      };
+    }
+
+    /**
+     * Evaluates all values.
+     * @param qc query context
+     * @return resulting sequence
+     * @throws QueryException query exception
+     */
+    private Value value(final QueryContext qc) throws QueryException {
+      final long size = input.size();
+      if(size > Integer.MAX_VALUE - BLOCK) return iter(qc).value(qc, ArithMap.this);
+
+      final int sz = (int) size;
+      final Object results = type == AtomType.ITR ? new long[sz] : new double[sz];
+      for(int o = 0; o < sz; o += BLOCK) {
+        qc.checkStop();
+        final int n = Math.min(BLOCK, sz - o);
+        System.arraycopy(eval(o, n), 0, results, o, n);
+      }
+      return results instanceof long[] ? IntSeq.get((long[]) results) :
+        DblSeq.get((double[]) results);
+    }
+
+    /**
+     * Evaluates a block of values.
+     * @param offset offset of the first value
+     * @param n number of values
+     * @return results ({@code long[]} or {@code double[]})
+     * @throws QueryException query exception
+     */
+    private Object eval(final long offset, final int n) throws QueryException {
+      Object values;
+      if(input instanceof RangeSeq) {
+        final RangeSeq seq = (RangeSeq) input;
+        final long start = seq.range(true)[0] + (seq.asc ? offset : -offset);
+        final long[] longs = new long[n];
+        for(int i = 0; i < n; i++) longs[i] = seq.asc ? start + i : start - i;
+        values = longs;
+      } else if(input instanceof IntSeq) {
+        values = Arrays.copyOfRange(((IntSeq) input).values(), (int) offset, (int) offset + n);
+      } else {
+        values = Arrays.copyOfRange(((DblSeq) input).values(), (int) offset, (int) offset + n);
+      }
+      final int el = exprs.length;
+      for(int e = 1; e < el; e++) values = ArithMap.this.eval(exprs[e], values, n);
+      return values;
+    }
+  }
+}
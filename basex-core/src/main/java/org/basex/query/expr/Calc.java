@@ -30,12 +30,7 @@ public enum Calc {
       if(num1) {
         // numbers or untyped values
         final Type type = numType(type1, type2);
-        if(type == ITR) {
-          final long itr1 = item1.itr(ii), itr2 = item2.itr(ii);
-          if(itr2 > 0 ? itr1 > Long.MAX_VALUE - itr2 : itr1 < Long.MIN_VALUE - itr2)
-            throw RANGE_X.get(ii, itr1 + " + " + itr2);
-          return Int.get(itr1 + itr2);
-        }
+        if(type == ITR) return Int.get(eval(item1.itr(ii), item2.itr(ii), ii));
         if(type == DBL) return Dbl.get(item1.dbl(ii) + item2.dbl(ii));
         if(type == FLT) return Flt.get(item1.flt(ii) + item2.flt(ii));
         return Dec.get(item1.dec(ii).add(item2.dec(ii)));
@@ -56,6 +51,13 @@ public enum Calc {
       throw typeError(ii, type1, type2);
     }
 
+    @Override
+    public long eval(final long itr1, final long itr2, final InputInfo ii) throws QueryException {
+      if(itr2 > 0 ? itr1 > Long.MAX_VALUE - itr2 : itr1 < Long.MIN_VALUE - itr2)
+        throw RANGE_X.get(ii, itr1 + " + " + itr2);
+      return itr1 + itr2;
+    }
+
     @Override
     public Expr optimize(final Expr ex1, final Expr ex2) {
       // check for neutral numbers
@@ -89,12 +91,7 @@ public enum Calc {
       if(num1) {
         // numbers or untyped values
         final Type type = numType(type1, type2);
-        if(type == ITR) {
-          final long itr1 = item1.itr(ii), itr2 = item2.itr(ii);
-          if(itr2 < 0 ? itr1 > Long.MAX_VALUE + itr2 : itr1 < Long.MIN_VALUE + itr2)
-            throw RANGE_X.get(ii, itr1 + " - " + itr2);
-          return Int.get(itr1 - itr2);
-        }
+        if(type == ITR) return Int.get(eval(item1.itr(ii), item2.itr(ii), ii));
         if(type == DBL) return Dbl.get(item1.dbl(ii) - item2.dbl(ii));
         if(type == FLT) return Flt.get(item1.flt(ii) - item2.flt(ii));
         return Dec.get(item1.dec(ii).subtract(item2.dec(ii)));
@@ -114,6 +111,13 @@ public enum Calc {
       throw typeError(ii, type1, type2);
     }
 
+    @Override
+    public long eval(final long itr1, final long itr2, final InputInfo ii) throws QueryException {
+      if(itr2 < 0 ? itr1 > Long.MAX_VALUE + itr2 : itr1 < Long.MIN_VALUE + itr2)
+        throw RANGE_X.get(ii, itr1 + " - " + itr2);
+      return itr1 - itr2;
+    }
+
     @Override
     public Expr optimize(final Expr ex1, final Expr ex2) {
       // check for neutral number and identical arguments
@@ -161,15 +165,7 @@ public enum Calc {
       if(num1 ^ num2) throw typeError(ii, type1, type2);
       if(num1) {
         final Type type = numType(type1, type2);
-        if(type == ITR) {
-          final long l1 = item1.itr(ii);
-          final long l2 = item2.itr(ii);
-          if(l2 > 0 ? l1 > Long.MAX_VALUE / l2 || l1 < Long.MIN_VALUE / l2
-                    : l2 < -1 ? l1 > Long.MIN_VALUE / l2 || l1 < Long.MAX_VALUE / l2
-                              : l2 == -1 && l1 == Long.MIN_VALUE)
-            throw RANGE_X.get(ii, l1 + " * " + l2);
-          return Int.get(l1 * l2);
-        }
+        if(type == ITR) return Int.get(eval(item1.itr(ii), item2.itr(ii), ii));
         if(type == DBL) return Dbl.get(item1.dbl(ii) * item2.dbl(ii));
         if(type == FLT) return Flt.get(item1.flt(ii) * item2.flt(ii));
         return Dec.get(item1.dec(ii).multiply(item2.dec(ii)));
@@ -177,6 +173,15 @@ public enum Calc {
       throw numberError(item1, ii);
     }
 
+    @Override
+    public long eval(final long l1, final long l2, final InputInfo ii) throws QueryException {
+      if(l2 > 0 ? l1 > Long.MAX_VALUE / l2 || l1 < Long.MIN_VALUE / l2
+                : l2 < -1 ? l1 > Long.MIN_VALUE / l2 || l1 < Long.MAX_VALUE / l2
+                          : l2 == -1 && l1 == Long.MIN_VALUE)
+        throw RANGE_X.get(ii, l1 + " * " + l2);
+      return l1 * l2;
+    }
+
     @Override
     public Expr optimize(final Expr ex1, final Expr ex2) {
       // check for absorbing and neutral numbers
@@ -270,12 +275,7 @@ public enum Calc {
         return Int.get((long) dbl);
       }
 
-      if(type == ITR) {
-        final long itr1 = item1.itr(ii), itr2 = item2.itr(ii);
-        if(itr2 == 0) throw zeroError(ii, item1);
-        if(itr1 == Integer.MIN_VALUE && itr2 == -1) throw RANGE_X.get(ii, itr1 + " idiv " + itr2);
-        return Int.get(itr1 / itr2);
-      }
+      if(type == ITR) return Int.get(eval(item1.itr(ii), item2.itr(ii), ii));
 
       final BigDecimal dec1 = item1.dec(ii), dec2 = item2.dec(ii);
       if(dec2.signum() == 0) throw zeroError(ii, item1);
@@ -285,6 +285,13 @@ public enum Calc {
       return Int.get(dec.longValueExact());
     }
 
+    @Override
+    public long eval(final long itr1, final long itr2, final InputInfo ii) throws QueryException {
+      if(itr2 == 0) throw zeroError(ii, Int.get(itr1));
+      if(itr1 == Long.MIN_VALUE && itr2 == -1) throw RANGE_X.get(ii, itr1 + " idiv " + itr2);
+      return itr1 / itr2;
+    }
+
     @Override
     public Expr optimize(final Expr ex1, final Expr ex2) {
       // check for neutral number and identical arguments
@@ -307,11 +314,7 @@ public enum Calc {
       final Type type = numType(item1.type, item2.type);
       if(type == DBL) return Dbl.get(item1.dbl(ii) % item2.dbl(ii));
       if(type == FLT) return Flt.get(item1.flt(ii) % item2.flt(ii));
-      if(type == ITR) {
-        final long itr1 = item1.itr(ii), itr2 = item2.itr(ii);
-        if(itr2 == 0) throw zeroError(ii, item1);
-        return Int.get(itr1 % itr2);
-      }
+      if(type == ITR) return Int.get(eval(item1.itr(ii), item2.itr(ii), ii));
 
       final BigDecimal dec1 = item1.dec(ii), dec2 = item2.dec(ii);
       if(dec2.signum() == 0) throw zeroError(ii, item1);
@@ -319,6 +322,12 @@ public enum Calc {
       return Dec.get(dec1.subtract(sub.multiply(dec2)));
     }
 
+    @Override
+    public long eval(final long itr1, final long itr2, final InputInfo ii) throws QueryException {
+      if(itr2 == 0) throw zeroError(ii, Int.get(itr1));
+      return itr1 % itr2;
+    }
+
     @Override
     public Expr optimize(final Expr ex1, final Expr ex2) {
       return null;
@@ -357,6 +366,18 @@ public enum Calc {
    */
   public abstract Item eval(Item item1, Item item2, InputInfo ii) throws QueryException;
 
+  /**
+   * Performs the calculation on two integers.
+   * @param itr1 first integer
+   * @param itr2 second integer
+   * @param ii input info
+   * @return result
+   * @throws QueryException query exception
+   */
+  public long eval(final long itr1, final long itr2, final InputInfo ii) throws QueryException {
+    throw Util.notExpected();
+  }
+
   /**
    * Optimizes the expressions.
    * @param ex1 first expression
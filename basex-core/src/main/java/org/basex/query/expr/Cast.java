@@ -84,7 +84,7 @@ public final class Cast extends Single {
 
   @Override
   public Cast copy(final CompileContext cc, final IntObjMap<Var> vs) {
-    return copyType(new Cast(sc, info, expr.copy(cc, vs), seqType));
+    return copyType(new Cast(cc.copy(sc), info, expr.copy(cc, vs), seqType));
   }
 
   @Override
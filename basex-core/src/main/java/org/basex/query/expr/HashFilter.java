@@ -0,0 +1,181 @@
+package org.basex.query.expr;
+
+import java.util.*;
+
+import org.basex.query.*;
+import org.basex.query.iter.*;
+import org.basex.query.util.*;
+import org.basex.query.util.hash.*;
+import org.basex.query.util.list.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * Filter expression with a single equality comparison, which is evaluated as hash join.
+ * One operand of the comparison (the key) depends on the items of the root value, the other
+ * one (the probe) is independent of the focus. When the filter is evaluated for the first time,
+ * the root items are indexed by their keys. Subsequent evaluations with the same root value
+ * will only look up the positions of the probed items.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class HashFilter extends Filter {
+  /** Position of the key operand. */
+  private final int key;
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param root root expression
+   * @param pred predicate expression
+   */
+  private HashFilter(final InputInfo info, final Expr root, final Expr pred) {
+    super(info, root, pred);
+    key = ((Cmp) pred).exprs[0].has(Flag.CTX) ? 0 : 1;
+  }
+
+  /**
+   * Creates a hash join filter.
+   * @param ii input info
+   * @param root root expression
+   * @param pred predicate (must have been checked by {@link #operands(Expr)})
+   * @return filter
+   */
+  public static HashFilter get(final InputInfo ii, final Expr root, final Expr pred) {
+    final HashFilter filter = new HashFilter(ii, root, pred);
+    final SeqType st = root.seqType();
+    filter.exprType.assign(st.type, st.occ.union(Occ.ZERO));
+    return filter;
+  }
+
+  /**
+   * Returns the operands of a predicate that can be evaluated by a hash join.
+   * The predicate must be a general equality comparison without collation. The key operand
+   * must depend on the context, the probe operand must be independent of the focus, and both
+   * operands must yield values that can be compared via hash codes.
+   * @param pred predicate
+   * @return key and probe operands, or {@code null}
+   */
+  public static Expr[] operands(final Expr pred) {
+    if(!(pred instanceof CmpG)) return null;
+    final CmpG cmp = (CmpG) pred;
+    if(cmp.op != CmpG.OpG.EQ || cmp.coll != null) return null;
+
+    final Expr[] ops = cmp.exprs;
+    final int k = ops[0].has(Flag.CTX) ? 0 : 1;
+    final Expr kex = ops[k], pex = ops[1 - k];
+    if(!kex.has(Flag.CTX) || kex.has(Flag.POS, Flag.NDT, Flag.CNS) ||
+        pex.has(Flag.CTX, Flag.NDT)) return null;
+
+    final SeqType st1 = kex.seqType(), st2 = pex.seqType();
+    if(st1.mayBeArray() || st2.mayBeArray()) return null;
+    final Type type1 = st1.type, type2 = st2.type;
+    return type1.isNumber() && type2.isNumber() ||
+      type1.isStringOrUntyped() && type2.isStringOrUntyped() ? new Expr[] { kex, pex } : null;
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    final Value value = root.value(qc);
+    final long size = value.size();
+    // large inputs and scored items: evaluate nested loop
+    if(size > Integer.MAX_VALUE || qc.scoring) {
+      final ValueBuilder vb = new ValueBuilder(qc);
+      for(final Item item : value) {
+        qc.checkStop();
+        if(match(item, qc)) vb.add(item);
+      }
+      return vb.value(this);
+    }
+
+    // probe keys, merge positions of the matching items
+    final JoinCache cache = cache(value, qc);
+    final Iter iter = ((Cmp) exprs[0]).exprs[1 - key].atomIter(qc, info);
+    IntList pos = null;
+    boolean merge = false;
+    for(Item item; (item = qc.next(iter)) != null;) {
+      final int id = cache.keys.id(item, info);
+      if(id == 0) continue;
+      final IntList list = cache.positions[id];
+      if(pos == null) {
+        pos = list;
+      } else {
+        if(!merge) pos = new IntList(pos.size() + list.size()).add(pos.toArray());
+        pos.add(list.toArray());
+        merge = true;
+      }
+    }
+    if(pos == null) return Empty.VALUE;
+    if(merge) pos.ddo();
+
+    final int ps = pos.size();
+    final ItemList items = new ItemList(ps);
+    for(int p = 0; p < ps; p++) items.add(value.itemAt(pos.get(p)));
+    return items.value(this);
+  }
+
+  /**
+   * Returns the hash table for the specified value. The table is created if it does not exist,
+   * or if it was created for a different value.
+   * @param value root value
+   * @param qc query context
+   * @return cache
+   * @throws QueryException query exception
+   */
+  private JoinCache cache(final Value value, final QueryContext qc) throws QueryException {
+    final JoinCache cache = qc.threads.get(this).get();
+    if(cache.value != value) {
+      cache.value = null;
+      final HashItemSet keys = new HashItemSet(true);
+      IntList[] positions = new IntList[Array.INITIAL_CAPACITY];
+
+      final Expr kex = ((Cmp) exprs[0]).exprs[key];
+      final QueryFocus qf = qc.focus, focus = new QueryFocus();
+      qc.focus = focus;
+      try {
+        final int vs = (int) value.size();
+        for(int v = 0; v < vs; v++) {
+          qc.checkStop();
+          focus.value = value.itemAt(v);
+          final Iter iter = kex.atomIter(qc, info);
+          for(Item item; (item = qc.next(iter)) != null;) {
+            final int id = keys.put(item, info);
+            if(id >= positions.length) {
+              positions = Arrays.copyOf(positions, Array.newCapacity(id));
+            }
+            IntList list = positions[id];
+            if(list == null) {
+              list = new IntList(1);
+              positions[id] = list;
+            }
+            // skip duplicate keys of the same item
+            if(list.isEmpty() || list.peek() != v) list.add(v);
+          }
+        }
+      } finally {
+        qc.focus = qf;
+      }
+      cache.keys = keys;
+      cache.positions = positions;
+      cache.value = value;
+    }
+    return cache;
+  }
+
+  @Override
+  public HashFilter copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return copyType(new HashFilter(info, root.copy(cc, vm), exprs[0].copy(cc, vm)));
+  }
+
+  @Override
+  public String description() {
+    return "hash join";
+  }
+}
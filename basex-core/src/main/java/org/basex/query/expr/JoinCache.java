@@ -0,0 +1,20 @@
+package org.basex.query.expr;
+
+import org.basex.query.util.hash.*;
+import org.basex.query.value.*;
+import org.basex.util.list.*;
+
+/**
+ * Hash table of a hash join.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class JoinCache {
+  /** Indexed value. */
+  Value value;
+  /** Keys. */
+  HashItemSet keys;
+  /** Positions of the items, indexed by the ids of their keys. */
+  IntList[] positions;
+}
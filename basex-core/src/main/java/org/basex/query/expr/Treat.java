@@ -31,7 +31,7 @@ public final class Treat extends TypeCheck {
   }
 
   @Override
-  public TypeCheck get(final Expr ex, final SeqType st) {
-    return new Treat(sc, info, ex, st);
+  public TypeCheck get(final StaticContext sctx, final Expr ex, final SeqType st) {
+    return new Treat(sctx, info, ex, st);
   }
 }
@@ -56,7 +56,7 @@ public class TypeCheck extends Single {
     if(expr instanceof TypeCheck) {
       final TypeCheck tc = (TypeCheck) expr;
       if(promote == tc.promote && st.instanceOf(at)) {
-        return cc.replaceWith(this, get(tc.expr, st).optimize(cc));
+        return cc.replaceWith(this, get(sc, tc.expr, st).optimize(cc));
       }
     }
 
@@ -157,7 +157,7 @@ public class TypeCheck extends Single {
    */
   public final Expr check(final Expr ex, final CompileContext cc) throws QueryException {
     final SeqType at = ex.seqType(), st = seqType();
-    return at.instanceOf(st) ? ex : get(ex, st).optimize(cc);
+    return at.instanceOf(st) ? ex : get(sc, ex, st).optimize(cc);
   }
 
   /**
@@ -170,17 +170,18 @@ public class TypeCheck extends Single {
 
   /**
    * Return a new instance of this class.
+   * @param sctx static context
    * @param ex expression
    * @param st sequence type
    * @return error code
    */
-  public TypeCheck get(final Expr ex, final SeqType st) {
-    return new TypeCheck(sc, info, ex, st, promote);
+  public TypeCheck get(final StaticContext sctx, final Expr ex, final SeqType st) {
+    return new TypeCheck(sctx, info, ex, st, promote);
   }
 
   @Override
   public final Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return get(expr.copy(cc, vm), seqType());
+    return get(cc.copy(sc), expr.copy(cc, vm), seqType());
   }
 
   @Override
@@ -71,7 +71,7 @@ public final class CTxt extends CNode {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    final CTxt ctxt = copyType(new CTxt(sc, info, computed, exprs[0].copy(cc, vm)));
+    final CTxt ctxt = copyType(new CTxt(cc.copy(sc), info, computed, exprs[0].copy(cc, vm)));
     ctxt.simple = simple;
     return ctxt;
   }
@@ -48,7 +48,7 @@ public final class FTAnd extends FTExpr {
   public FTNode item(final QueryContext qc, final InputInfo ii) throws QueryException {
     final FTNode item = exprs[0].item(qc, info);
     final int el = exprs.length;
-    for(int e = 1; e < el; e++) and(item, exprs[e].item(qc, info));
+    for(int e = 1; e < el; e++) and(item, exprs[e].item(qc, info), Integer.MAX_VALUE);
     return item;
   }
 
@@ -64,6 +64,9 @@ public final class FTAnd extends FTExpr {
     }
 
     return new FTIter() {
+      /** Maximum distance between the start positions of the tokens of a match. */
+      private int window = Integer.MAX_VALUE;
+
       @Override
       public FTNode next() throws QueryException {
         // find item with lowest pre value
@@ -71,10 +74,11 @@ public final class FTAnd extends FTExpr {
         for(int i = 0; i < il; ++i) {
           if(nodes[i] == null) return null;
 
-          final int d = nodes[0].pre() - nodes[i].pre();
+          // advance iterator with smaller pre value
+          final int p = nodes[0].pre(), d = p - nodes[i].pre();
           if(d != 0) {
-            if(d < 0) i = 0;
-            nodes[i] = iters[i].next();
+            if(d < 0) nodes[0] = iters[0].skip(nodes[i].pre());
+            else nodes[i] = iters[i].skip(p);
             i = -1;
           }
         }
@@ -82,12 +86,27 @@ public final class FTAnd extends FTExpr {
         // merge all matches
         final FTNode item = nodes[0];
         for(int i = 1; i < il; ++i) {
-          and(item, nodes[i]);
+          and(item, nodes[i], window);
           nodes[i] = iters[i].next();
         }
         nodes[0] = iters[0].next();
         return item;
       }
+
+      @Override
+      public FTNode skip(final int pre) throws QueryException {
+        final int il = nodes.length;
+        for(int i = 0; i < il; ++i) {
+          if(nodes[i] != null && nodes[i].pre() < pre) nodes[i] = iters[i].skip(pre);
+        }
+        return next();
+      }
+
+      @Override
+      public void window(final int max) {
+        window = max;
+        for(final FTIter iter : iters) iter.window(max);
+      }
     };
   }
 
@@ -95,11 +114,14 @@ public final class FTAnd extends FTExpr {
    * Merges two matches.
    * @param node1 first node
    * @param node2 second node
+   * @param window maximum distance between the start positions of the tokens of a match
    */
-  private static void and(final FTNode node1, final FTNode node2) {
+  private static void and(final FTNode node1, final FTNode node2, final int window) {
     final FTMatches all = new FTMatches((byte) Math.max(node1.matches().pos, node2.matches().pos));
     for(final FTMatch match1 : node1.matches()) {
       for(final FTMatch match2 : node2.matches()) {
+        // skip combinations that will be rejected by a window filter
+        if(window != Integer.MAX_VALUE && match1.span(match2) > window) continue;
         all.add(new FTMatch(match1.size() + match2.size()).add(match1).add(match2));
       }
     }
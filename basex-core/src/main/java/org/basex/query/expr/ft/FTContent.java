@@ -2,8 +2,11 @@ package org.basex.query.expr.ft;
 
 import static org.basex.query.QueryText.*;
 
+import org.basex.data.*;
+import org.basex.index.ft.*;
 import org.basex.query.*;
 import org.basex.query.util.ft.*;
+import org.basex.query.value.node.*;
 import org.basex.query.var.*;
 import org.basex.util.*;
 import org.basex.util.ft.*;
@@ -30,20 +33,47 @@ public final class FTContent extends FTFilter {
     this.content = content;
   }
 
+  @Override
+  boolean filter(final QueryContext qc, final FTNode node) throws QueryException {
+    if(content != FTContents.START) {
+      // check if the number of tokens is stored in the index
+      final Data data = node.data();
+      final int count = data.ftIndex instanceof FTIndex ?
+        ((FTIndex) data.ftIndex).tokens(node.pre()) : -1;
+      if(count != -1) {
+        final FTMatches all = node.matches();
+        for(int a = 0; a < all.size(); a++) {
+          if(!filter(all.list[a], count)) all.remove(a--);
+        }
+        return !all.isEmpty();
+      }
+    }
+    return super.filter(qc, node);
+  }
+
   @Override
   protected boolean filter(final QueryContext qc, final FTMatch match, final FTLexer lexer) {
+    return filter(match, content == FTContents.START ? 0 : lexer.count());
+  }
+
+  /**
+   * Evaluates the filter expression.
+   * @param match full-text match
+   * @param count number of tokens of the text (ignored if matches are checked at the start)
+   * @return result of check
+   */
+  private boolean filter(final FTMatch match, final int count) {
     if(content == FTContents.START) {
       for(final FTStringMatch sm : match) {
         if(sm.start == 0) return true;
       }
     } else if(content == FTContents.END) {
-      final int p = lexer.count() - 1;
+      final int p = count - 1;
       for(final FTStringMatch sm : match) {
         if(sm.end == p) return true;
       }
     } else {
-      final int s = lexer.count();
-      final boolean[] bl = new boolean[s];
+      final boolean[] bl = new boolean[count];
       for(final FTStringMatch sm : match) {
         if(sm.gaps) continue;
         for(int p = sm.start; p <= sm.end; ++p) bl[p] = true;
@@ -73,7 +73,7 @@ public final class FTDistance extends FTFilter {
         ftm.add(sm);
       } else {
         if(first == null) {
-          first = sm;
+          first = sm.copy();
         } else {
           final int d = pos(sm.start, lexer) - pos(last.end, lexer) - 1;
           if(d < mn || d > mx) return false;
@@ -49,19 +49,76 @@ public abstract class FTFilter extends FTExpr {
   public final FTIter iter(final QueryContext qc) throws QueryException {
     final FTIter iter = exprs[0].iter(qc);
     return new FTIter() {
+      /** Indicates if the iterator has been initialized. */
+      private boolean init;
+
       @Override
       public FTNode next() throws QueryException {
-        FTNode it;
-        while((it = iter.next()) != null) {
+        init();
+        return first(iter.next());
+      }
+
+      @Override
+      public FTNode skip(final int pre) throws QueryException {
+        init();
+        return first(iter.skip(pre));
+      }
+
+      @Override
+      public void minScore(final double min) {
+        // filtering never increases scores: the upper bounds of the input remain valid
+        iter.minScore(min);
+      }
+
+      /**
+       * Initializes the iterator of the filtered expression.
+       * @throws QueryException query exception
+       */
+      private void init() throws QueryException {
+        if(!init) {
+          prepare(qc, iter);
+          init = true;
+        }
+      }
+
+      /**
+       * Returns the first node that passes the filter.
+       * @param node first node to be checked (can be {@code null})
+       * @return node or {@code null}
+       * @throws QueryException query exception
+       */
+      private FTNode first(final FTNode node) throws QueryException {
+        for(FTNode nd = node; nd != null; nd = iter.next()) {
           qc.checkStop();
-          // only create lexer if content needs to be parsed
-          if(filter(qc, it, content() ? new FTLexer().init(it.string(info)) : null)) break;
+          if(filter(qc, nd)) return nd;
         }
-        return it;
+        return null;
       }
     };
   }
 
+  /**
+   * Prepares the iterator of the filtered expression before the first node is requested.
+   * Can be overwritten by filters that can restrict the combinations of matches.
+   * @param qc query context
+   * @param iter iterator
+   * @throws QueryException query exception
+   */
+  @SuppressWarnings("unused")
+  void prepare(final QueryContext qc, final FTIter iter) throws QueryException { }
+
+  /**
+   * Evaluates the position filters for a node that has been returned by the index.
+   * The text of the node will only be parsed if this is required by the filter.
+   * @param qc query context
+   * @param node index node
+   * @return result of check
+   * @throws QueryException query exception
+   */
+  boolean filter(final QueryContext qc, final FTNode node) throws QueryException {
+    return filter(qc, node, content() ? new FTLexer().init(node.string(info)) : null);
+  }
+
   /**
    * Evaluates the position filters.
    * @param qc query context
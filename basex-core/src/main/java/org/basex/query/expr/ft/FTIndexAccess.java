@@ -44,7 +44,16 @@ public final class FTIndexAccess extends Simple {
     return new NodeIter() {
       @Override
       public ANode next() throws QueryException {
-        final FTNode item = iter.next();
+        // skip nodes with small scores (reset minimum score for nested expressions)
+        final double min = qc.minScore;
+        final FTNode item;
+        qc.minScore = 0;
+        try {
+          if(min > 0) iter.minScore(min);
+          item = iter.next();
+        } finally {
+          qc.minScore = min;
+        }
         if(item != null) {
           // assign scoring
           if(qc.scoring) item.score();
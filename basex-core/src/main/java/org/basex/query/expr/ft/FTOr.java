@@ -64,8 +64,13 @@ public final class FTOr extends FTExpr {
     }
 
     return new FTIter() {
+      /** Index of the iterator that returned the last node ({@code -1}: none). */
+      private int last = -1;
+
       @Override
       public FTNode next() throws QueryException {
+        advance();
+
         // find item with smallest pre value
         int p = -1;
         for(int e = 0; e < el; ++e) {
@@ -82,9 +87,35 @@ public final class FTOr extends FTExpr {
             nodes[e] = iters[e].next();
           }
         }
-        nodes[p] = iters[p].next();
+        last = p;
         return item;
       }
+
+      @Override
+      public FTNode skip(final int pre) throws QueryException {
+        advance();
+        for(int e = 0; e < el; ++e) {
+          if(nodes[e] != null && nodes[e].pre() < pre) nodes[e] = iters[e].skip(pre);
+        }
+        return next();
+      }
+
+      @Override
+      public void window(final int max) {
+        for(final FTIter iter : iters) iter.window(max);
+      }
+
+      /**
+       * Advances the iterator of the last node. This is done as late as possible,
+       * as index iterators may reuse the matches of the returned nodes.
+       * @throws QueryException query exception
+       */
+      private void advance() throws QueryException {
+        if(last != -1) {
+          nodes[last] = iters[last].next();
+          last = -1;
+        }
+      }
     };
   }
 
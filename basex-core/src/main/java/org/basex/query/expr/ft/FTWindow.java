@@ -5,6 +5,7 @@ import static org.basex.query.QueryText.*;
 import org.basex.query.*;
 import org.basex.query.CompileContext.*;
 import org.basex.query.expr.*;
+import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.util.ft.*;
 import org.basex.query.var.*;
@@ -52,6 +53,12 @@ public final class FTWindow extends FTFilter {
     return this;
   }
 
+  @Override
+  void prepare(final QueryContext qc, final FTIter iter) throws QueryException {
+    // combinations of tokens that exceed the window will be skipped
+    if(unit == FTUnit.WORDS) iter.window((int) toLong(win, qc) - 1);
+  }
+
   @Override
   protected boolean filter(final QueryContext qc, final FTMatch match, final FTLexer lexer)
       throws QueryException {
@@ -62,7 +69,7 @@ public final class FTWindow extends FTFilter {
     FTStringMatch first = null;
     for(final FTStringMatch sm : match) {
       if(sm.exclude) continue;
-      if(first == null) first = sm;
+      if(first == null) first = sm.copy();
       first.gaps |= sm.end - first.end > 1;
       first.end = sm.end;
       if(pos(first.end, lexer) - pos(first.start, lexer) > n) return false;
@@ -144,21 +144,43 @@ public final class FTWords extends FTExpr {
     final Data data = db.data(qc, IndexType.FULLTEXT);
     return new FTIter() {
       FTIndexIterator ftiter;
-      int length;
+      int length, terms;
+      boolean bm25;
 
       @Override
       public FTNode next() throws QueryException {
+        return init() && ftiter.more() ? node() : null;
+      }
+
+      @Override
+      public FTNode skip(final int pre) throws QueryException {
+        return init() && ftiter.skip(pre) ? node() : null;
+      }
+
+      @Override
+      public void minScore(final double min) {
+        // BM25: the scores of the index iterators are summed up (tolerate rounding errors)
+        if(bm25 && ftiter != null) ftiter.minScore(min * terms * (1 - 1e-9));
+      }
+
+      /**
+       * Creates the index iterator.
+       * @return {@code true} if the iterator was created
+       * @throws QueryException query exception
+       */
+      private boolean init() throws QueryException {
         if(ftiter == null) {
           final FTTokenizer ftt = FTWords.this.get(qc);
           final FTLexer lexer = new FTLexer(ftOpt).
               lserror(qc.context.options.get(MainOptions.LSERROR));
+          bm25 = qc.context.options.get(MainOptions.SCORING) == FTScoring.BM25;
 
           // length distinct tokens
           int len = 0;
           // loop through unique tokens
           for(final byte[] input : unique(inputs != null ? inputs : inputs(qc))) {
             lexer.init(input);
-            if(!lexer.hasNext()) return null;
+            if(!lexer.hasNext()) return false;
 
             int d = 0;
             FTIndexIterator ii = null;
@@ -172,6 +194,7 @@ public final class FTWords extends FTExpr {
                 final FTIndexIterator iter = lexer.token().length > data.meta.maxlen ?
                   scan(lexer, ftt, data) : (FTIndexIterator) data.iter(lexer);
                 iter.pos(++qc.ftPos);
+                terms++;
                 if(ii == null) {
                   ii = iter;
                 } else {
@@ -187,7 +210,7 @@ public final class FTWords extends FTExpr {
                 length = len;
                 ftiter = ii;
               } else if(mode == FTMode.ALL || mode == FTMode.ALL_WORDS) {
-                if(ii.size() == 0) return null;
+                if(ii.size() == 0) return false;
                 length += len;
                 ftiter = FTIndexIterator.intersect(ftiter, ii, 0);
               } else {
@@ -198,8 +221,22 @@ public final class FTWords extends FTExpr {
             }
           }
         }
-        return ftiter == null || !ftiter.more() ? null :
-          new FTNode(ftiter.matches(), data, ftiter.pre(), length, ftiter.size());
+        return ftiter != null;
+      }
+
+      /**
+       * Returns a node for the current index result.
+       * @return node
+       */
+      private FTNode node() {
+        final FTNode node = new FTNode(ftiter.matches(), data, ftiter.pre(), length,
+            ftiter.size());
+        // BM25: average score of all index iterators (requires statistics)
+        if(bm25 && qc.scoring) {
+          final double score = ftiter.score();
+          if(score >= 0) node.score(score / terms);
+        }
+        return node;
       }
     };
   }
@@ -226,6 +263,11 @@ public final class FTWords extends FTExpr {
         return pre;
       }
       @Override
+      public boolean skip(final int p) {
+        pre = Math.max(pre, p - 1);
+        return more();
+      }
+      @Override
       public boolean more() {
         while(++pre < sz) {
           if(data.kind(pre) != Data.TEXT) continue;
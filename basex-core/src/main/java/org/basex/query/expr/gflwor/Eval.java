@@ -1,6 +1,7 @@
 package org.basex.query.expr.gflwor;
 
 import org.basex.query.*;
+import org.basex.query.var.*;
 
 /**
  * Evaluator for FLWOR clauses.
@@ -17,4 +18,14 @@ abstract class Eval {
    * @throws QueryException evaluation exception
    */
   abstract boolean next(QueryContext qc) throws QueryException;
+
+  /**
+   * Assigns a minimum score for the tuples that bind the specified score variable.
+   * Tuples with smaller scores may be skipped. This method is called by {@link OrderBy}
+   * clauses if only the tuples with the highest scores are requested.
+   * @param score score variable
+   * @param min minimum score
+   */
+  @SuppressWarnings("unused")
+  void minScore(final Var score, final double min) { }
 }
@@ -7,6 +7,9 @@ import java.util.List;
 
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.expr.ft.*;
+import org.basex.query.expr.path.*;
+import org.basex.query.func.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.value.item.*;
@@ -56,11 +59,19 @@ public final class For extends ForLet {
 
   @Override
   Eval eval(final Eval sub) {
+    final boolean ftindex = pos == null && ftIndex(expr);
     return new Eval() {
       /** Expression iterator. */
       private Iter iter;
       /** Current position. */
       private long p;
+      /** Minimum score of full-text index results. */
+      private double min;
+
+      @Override
+      void minScore(final Var sc, final double mn) {
+        if(sc == score && ftindex) min = mn;
+      }
 
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
@@ -70,11 +81,14 @@ public final class For extends ForLet {
           if(iter != null) {
             if(scoring) {
               final boolean s = qc.scoring;
+              final double m = qc.minScore;
               try {
                 qc.scoring = true;
+                qc.minScore = min;
                 item = qc.next(iter);
               } finally {
                 qc.scoring = s;
+                qc.minScore = m;
               }
             } else {
               item = qc.next(iter);
@@ -160,6 +174,24 @@ public final class For extends ForLet {
       scope == null ? new Var[] { var, pos } : new Var[] { var, pos, scope };
   }
 
+  /**
+   * Checks if the specified expression returns full-text index results, or nodes that have
+   * been filtered from these results. If only the results with the highest scores are
+   * requested, results with smaller scores can then be skipped by the index iterators.
+   * @param expr expression
+   * @return result of check
+   */
+  private static boolean ftIndex(final Expr expr) {
+    if(expr instanceof Path) {
+      final Path path = (Path) expr;
+      for(final Expr step : path.steps) {
+        if(!(step instanceof Step) || ((Step) step).axis != Axis.SELF) return false;
+      }
+      return path.root != null && ftIndex(path.root);
+    }
+    return expr instanceof FTIndexAccess || Function._FT_SEARCH.is(expr);
+  }
+
   /**
    * Tries to convert this for loop into a let binding.
    * @param clauses FLWOR clauses
@@ -0,0 +1,79 @@
+package org.basex.query.expr.gflwor;
+
+import java.util.List;
+
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+
+/**
+ * Evaluates a FLWOR expression for a partition of the items of its first {@code for} clause.
+ * The query context of the task gets a copy of the focus and the current stack frame.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class ForTask extends QueryTask {
+  /** First clause. */
+  private final For fr;
+  /** Remaining clauses. */
+  private final List<Clause> clauses;
+  /** Return expression. */
+  private final Expr rtrn;
+  /** Items of the first clause. */
+  private final Value value;
+  /** Position of the first item. */
+  private final long start;
+  /** Position after the last item. */
+  private final long end;
+
+  /**
+   * Constructor. Must be called by the thread that evaluates the FLWOR expression.
+   * @param clauses clauses
+   * @param rtrn return expression
+   * @param value items of the first clause
+   * @param start position of the first item
+   * @param end position after the last item
+   * @param qc query context (date/time values must have been assigned)
+   */
+  ForTask(final List<Clause> clauses, final Expr rtrn, final Value value, final long start,
+      final long end, final QueryContext qc) {
+    super(qc);
+    this.clauses = clauses.subList(1, clauses.size());
+    this.rtrn = rtrn;
+    this.value = value;
+    this.start = start;
+    this.end = end;
+    fr = (For) clauses.get(0);
+
+    this.qc.stack.enterFrame(qc.stack);
+    this.qc.focus = qc.focus.copy();
+    this.qc.dateTime = qc.dateTime;
+    this.qc.maxCalls = qc.maxCalls;
+    this.qc.ftLexer = qc.ftLexer;
+  }
+
+  @Override
+  public Value run() throws QueryException {
+    Eval eval = new Eval() {
+      /** Current position. */
+      private long p = start;
+
+      @Override
+      public boolean next(final QueryContext q) throws QueryException {
+        if(p == end) return false;
+        q.checkStop();
+        q.set(fr.var, value.itemAt(p));
+        if(fr.pos != null) q.set(fr.pos, Int.get(p + 1));
+        p++;
+        return true;
+      }
+    };
+    for(final Clause clause : clauses) eval = clause.eval(eval);
+
+    final ValueBuilder vb = new ValueBuilder(qc);
+    while(eval.next(qc)) vb.add(rtrn.value(qc));
+    return vb.value();
+  }
+}
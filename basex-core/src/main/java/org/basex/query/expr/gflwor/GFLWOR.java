@@ -3,12 +3,14 @@ package org.basex.query.expr.gflwor;
 import java.util.*;
 import java.util.function.*;
 
+import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.expr.List;
 import org.basex.query.expr.path.*;
 import org.basex.query.func.Function;
+import org.basex.query.func.StandardFunc;
 import org.basex.query.iter.*;
 import org.basex.query.util.*;
 import org.basex.query.util.list.*;
@@ -31,6 +33,10 @@ public final class GFLWOR extends ParseExpr {
   public final LinkedList<Clause> clauses;
   /** Return expression. */
   public Expr rtrn;
+  /** Number of threads for evaluating the first clause in parallel (0: sequential evaluation). */
+  private int threads;
+  /** Indicates if the first clause will be evaluated in parallel. */
+  private boolean parallel;
 
   /**
    * Constructor.
@@ -55,7 +61,8 @@ public final class GFLWOR extends ParseExpr {
   }
 
   @Override
-  public Iter iter(final QueryContext qc) {
+  public Iter iter(final QueryContext qc) throws QueryException {
+    if(parallel) return parallel(qc).iter();
     return new Iter() {
       private final Eval ev = newEval();
       private Iter iter = Empty.ITER;
@@ -77,6 +84,7 @@ public final class GFLWOR extends ParseExpr {
 
   @Override
   public Value value(final QueryContext qc) throws QueryException {
+    if(parallel) return parallel(qc);
     final Eval eval = newEval();
     final ValueBuilder vb = new ValueBuilder(qc);
     while(eval.next(qc)) vb.add(rtrn.value(qc));
@@ -107,9 +115,10 @@ public final class GFLWOR extends ParseExpr {
     // apply all optimizations in a row until nothing changes anymore
     while(flattenReturn(cc) | flattenFor(cc) | unnestFLWR(cc) | forToLet(cc) | inlineLets(cc) |
         slideLetsOut(cc) | unusedVars(cc) | cleanDeadVars() | optimizeWhere(cc) | optimizePos(cc) |
-        unnestLets(cc) | mergeReturn(cc) | ifToWhere(cc));
+        unnestLets(cc) | mergeReturn(cc) | ifToWhere(cc) | hashJoin(cc));
 
     mergeWheres();
+    aggregate(cc);
 
     // replace with expression of 'return' clause if all clauses were removed
     Expr expr;
@@ -129,9 +138,59 @@ public final class GFLWOR extends ParseExpr {
     }
 
     exprType.assign(rtrn.seqType().type, calcSize(true));
+
+    // evaluate first clause in parallel if requested, and if no side effects are to be expected
+    threads = Math.max(threads, cc.qc.context.options.get(MainOptions.PARALLELFOR));
+    final boolean par = parallel;
+    parallel = threads > 1 && parallelizable();
+    if(parallel && !par) cc.info(QueryText.OPTPARALLEL_X, (Supplier<?>) this::description);
     return expr;
   }
 
+  /**
+   * Checks if the first clause can be evaluated in parallel.
+   * The remaining clauses and the return expression must neither be nondeterministic nor
+   * updating, and they must not construct nodes (as node constructors temporarily modify the
+   * namespaces of the static context).
+   * @return result of check
+   */
+  private boolean parallelizable() {
+    final Clause first = clauses.getFirst();
+    if(!(first instanceof For)) return false;
+    final For fr = (For) first;
+    if(fr.score != null || fr.empty) return false;
+
+    final Flag[] flags = { Flag.NDT, Flag.UPD, Flag.CNS };
+    final ListIterator<Clause> iter = clauses.listIterator(1);
+    while(iter.hasNext()) {
+      final Clause clause = iter.next();
+      if(!(clause instanceof For || clause instanceof Let || clause instanceof Where) ||
+          clause.has(flags)) return false;
+    }
+    return !rtrn.has(flags);
+  }
+
+  /**
+   * Evaluates the items of the first clause in parallel. The items are split into partitions,
+   * which are evaluated by the worker pool. The results are returned in their original order.
+   * @param qc query context
+   * @return result
+   * @throws QueryException query exception
+   */
+  private Value parallel(final QueryContext qc) throws QueryException {
+    final Value value = ((For) clauses.getFirst()).expr.value(qc);
+    final long size = value.size();
+    final int tl = (int) Math.min(threads, size);
+
+    // create tasks (query contexts must be created by the current thread)
+    qc.dateTime();
+    final ArrayList<ForTask> tasks = new ArrayList<>(tl);
+    for(int t = 0; t < tl; t++) {
+      tasks.add(new ForTask(clauses, rtrn, value, size * t / tl, size * (t + 1) / tl, qc));
+    }
+    return QueryTask.invoke(tasks, qc, this);
+  }
+
   /**
    * Simplifies a FLWOR expression.
    * @param cc compilation context
@@ -608,6 +667,203 @@ public final class GFLWOR extends ParseExpr {
     return changed;
   }
 
+  /**
+   * Aggregates the values of non-grouping variables of group by clauses while the groups are
+   * built (see {@link GroupBy#aggregate(Expr[], CompileContext)}).
+   * @param cc compilation context
+   */
+  private void aggregate(final CompileContext cc) {
+    final int cs = clauses.size();
+    for(int c = 0; c < cs; c++) {
+      final Clause clause = clauses.get(c);
+      if(clause instanceof GroupBy) {
+        final ExprList list = new ExprList(cs - c);
+        for(final Clause cl : clauses.subList(c + 1, cs)) list.add(cl);
+        ((GroupBy) clause).aggregate(list.add(rtrn).finish(), cc);
+      }
+    }
+  }
+
+  /**
+   * Limits the number of tuples that will be returned by an {@code order by} clause if only
+   * the leading items of the result are requested. This is possible if the clause is only
+   * followed by {@code let} clauses, and if the return expression yields at least one item.
+   *
+   * Example: {@code (for $i in $I order by $i/@price return $i)[position() <= 10]}
+   * @param max maximum number of requested items
+   * @param cc compilation context
+   */
+  public void limit(final long max, final CompileContext cc) {
+    final long size = size();
+    if(size != -1 && max >= size || !rtrn.seqType().oneOrMore()) return;
+    for(final Iterator<Clause> iter = clauses.descendingIterator(); iter.hasNext();) {
+      final Clause clause = iter.next();
+      if(clause instanceof OrderBy) {
+        if(((OrderBy) clause).limit(max)) cc.info(QueryText.OPTLIMIT_X_X, max, clause);
+        return;
+      }
+      if(!(clause instanceof Let)) return;
+    }
+  }
+
+  /**
+   * Rewrites filters with a single equality comparison to hash joins if they are evaluated
+   * repeatedly. The input of the filter must be independent of the variables that are bound in
+   * the loop. If it is no variable reference or value, it will be bound by a new 'let' clause,
+   * which is placed before the loop.
+   *
+   * OLD: for $a in $A for $b in $B where $a/k = $b/k ...
+   *  ->  for $a in $A for $b in $B[k = $a/k] ...
+   * NEW: for $a in $A for $b in (hash join: $B[k = $a/k]) ...
+   *
+   * OLD: for $a in $A return db:open('b')//b[k = $a/k]
+   * NEW: let $join := db:open('b')//b for $a in $A return (hash join: $join[k = $a/k])
+   * @param cc compilation context
+   * @return change flag
+   * @throws QueryException query exception
+   */
+  private boolean hashJoin(final CompileContext cc) throws QueryException {
+    final long[] minMax = { 1, 1 };
+    final int cl = clauses.size();
+    int loop = -1;
+    for(int c = 0; c <= cl; c++) {
+      // skip expressions that are evaluated at most once
+      final long max = minMax[1];
+      if(max < 0 || max > 1) {
+        // remember the clause that starts the loop
+        if(loop == -1) loop = c - 1;
+        if(c == cl) {
+          final Expr expr = hashJoin(rtrn, loop, cc);
+          if(expr != null) {
+            rtrn = expr;
+            return true;
+          }
+        } else if(clauses.get(c) instanceof ForLet) {
+          final ForLet fl = (ForLet) clauses.get(c);
+          final Expr expr = hashJoin(fl.expr, loop, cc);
+          if(expr != null) {
+            fl.expr = expr;
+            return true;
+          }
+        }
+      }
+      if(c < cl) clauses.get(c).calcSize(minMax);
+    }
+    return false;
+  }
+
+  /**
+   * Tries to rewrite a filter or path expression, or one of its operands, to a hash join.
+   * Only operands are considered that are evaluated with the same focus and that are not
+   * located in the scope of other variables.
+   * @param expr expression
+   * @param loop index of the clause that starts the loop
+   * @param cc compilation context
+   * @return rewritten or modified expression, or {@code null}
+   * @throws QueryException query exception
+   */
+  private Expr hashJoin(final Expr expr, final int loop, final CompileContext cc)
+      throws QueryException {
+
+    final Expr join = join(expr, loop, cc);
+    if(join != null) return join;
+
+    if(expr instanceof Path || expr instanceof Filter) {
+      final boolean path = expr instanceof Path;
+      final Expr root = path ? ((Path) expr).root : ((Filter) expr).root;
+      final Expr ex = root != null ? hashJoin(root, loop, cc) : null;
+      if(ex == null) return null;
+      if(path) ((Path) expr).root = ex;
+      else ((Filter) expr).root = ex;
+      return expr;
+    }
+    if(expr instanceof StandardFunc || expr instanceof List || expr instanceof SimpleMap) {
+      final Expr[] exprs = ((Arr) expr).exprs;
+      final int el = expr instanceof SimpleMap ? 1 : exprs.length;
+      for(int e = 0; e < el; e++) {
+        final Expr ex = hashJoin(exprs[e], loop, cc);
+        if(ex != null) {
+          exprs[e] = ex;
+          return expr;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Tries to rewrite a filter with a single predicate, or a path with a step with a single
+   * predicate, to a hash join.
+   * @param expr expression
+   * @param loop index of the clause that starts the loop
+   * @param cc compilation context
+   * @return hash join or {@code null}
+   * @throws QueryException query exception
+   */
+  private Expr join(final Expr expr, final int loop, final CompileContext cc)
+      throws QueryException {
+
+    // find predicate, collect expressions that yield the input of the join
+    final ExprList inputs = new ExprList();
+    Expr pred = null, root = null;
+    int s = -1;
+    if(expr instanceof Filter && !(expr instanceof HashFilter)) {
+      final Filter filter = (Filter) expr;
+      if(filter.exprs.length == 1) {
+        pred = filter.exprs[0];
+        root = filter.root;
+        inputs.add(root);
+      }
+    } else if(expr instanceof Path) {
+      final Path path = (Path) expr;
+      final Expr[] steps = path.steps;
+      final int sl = steps.length;
+      for(s = 0; s < sl; s++) {
+        final Expr[] preds = steps[s] instanceof Step ? ((Step) steps[s]).exprs : null;
+        if(preds != null && preds.length == 1 && HashFilter.operands(preds[0]) != null) break;
+      }
+      if(s < sl) {
+        pred = ((Step) steps[s]).exprs[0];
+        if(path.root != null) inputs.add(path.root);
+        inputs.add(Arrays.copyOf(steps, s));
+      }
+    }
+    final Expr[] ops = pred != null ? HashFilter.operands(pred) : null;
+    if(ops == null || root != null && root.seqType().zeroOrOne()) return null;
+
+    // input and key must be deterministic and independent of the variables of the loop
+    inputs.add(ops[0]);
+    for(final Expr input : inputs) {
+      if(input.has(Flag.NDT, Flag.CNS)) return null;
+      for(final Clause clause : clauses.subList(loop, clauses.size())) {
+        for(final Var var : clause.vars()) {
+          if(input.count(var) != VarUsage.NEVER) return null;
+        }
+      }
+    }
+
+    // path: split path at the step with the predicate
+    final InputInfo ii = ((ParseExpr) expr).info;
+    Expr[] next = { };
+    if(root == null) {
+      final Path path = (Path) expr;
+      final Expr[] steps = Arrays.copyOf(path.steps, s + 1);
+      final Step step = (Step) steps[s];
+      steps[s] = Step.get(step.info, step.axis, step.test);
+      root = Path.get(cc, ii, path.root, steps);
+      next = Arrays.copyOfRange(path.steps, s + 1, path.steps.length);
+    }
+    // bind input to new variable
+    if(!(root instanceof VarRef || root instanceof Value)) {
+      final Var var = cc.vs().addNew(new QNm("join"), null, false, cc.qc, ii);
+      clauses.add(loop, new Let(var, root).optimize(cc));
+      root = new VarRef(ii, var).optimize(cc);
+    }
+    final Expr join = HashFilter.get(ii, root, pred);
+    cc.info(QueryText.OPTHASHJOIN_X, join);
+    return next.length == 0 ? join : Path.get(cc, ii, join, next);
+  }
+
   /**
    * Merge last 'for' or 'let' clause with 'return' clause.
    * @param cc compilation context
@@ -983,7 +1239,10 @@ public final class GFLWOR extends ParseExpr {
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
     final LinkedList<Clause> cls = new LinkedList<>();
     for(final Clause clause : clauses) cls.add(clause.copy(cc, vm));
-    return copyType(new GFLWOR(info, cls, rtrn.copy(cc, vm)));
+    final GFLWOR flwor = new GFLWOR(info, cls, rtrn.copy(cc, vm));
+    flwor.threads = threads;
+    flwor.parallel = parallel;
+    return copyType(flwor);
   }
 
   /**
@@ -1049,7 +1308,8 @@ public final class GFLWOR extends ParseExpr {
 
   @Override
   public void plan(final QueryPlan plan) {
-    plan.add(plan.create(this), clauses.toArray(new Clause[0]), rtrn);
+    plan.add(plan.create(this, QueryText.PARALLEL, parallel ? threads : null),
+      clauses.toArray(new Clause[0]), rtrn);
   }
 
   @Override
@@ -14,6 +14,10 @@ final class Group {
   final Item[] key;
   /** Non-grouping variables. */
   final ValueBuilder[] ngv;
+  /** Number of items of aggregated non-grouping variables. */
+  final long[] sizes;
+  /** Indicates if the items of aggregated non-grouping variables must not be reduced. */
+  final boolean[] raw;
   /** Overflow list. */
   Group next;
 
@@ -25,5 +29,7 @@ final class Group {
   Group(final Item[] k, final ValueBuilder[] ng) {
     key = k;
     ngv = ng;
+    sizes = new long[ng.length];
+    raw = new boolean[ng.length];
   }
 }
@@ -4,8 +4,10 @@ import static org.basex.query.QueryText.*;
 
 import java.util.*;
 
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
+import org.basex.query.func.*;
 import org.basex.query.util.*;
 import org.basex.query.util.collation.*;
 import org.basex.query.value.*;
@@ -23,6 +25,9 @@ import org.basex.util.hash.*;
  * @author Leo Woerteler
  */
 public final class GroupBy extends Clause {
+  /** Number of items after which aggregated values are reduced to an intermediate result. */
+  private static final int REDUCE = 256;
+
   /** Grouping specs. */
   private final GroupSpec[] specs;
   /** Non-grouping variable expressions. */
@@ -31,6 +36,10 @@ public final class GroupBy extends Clause {
   private Var[] post;
   /** Number of non-occluded grouping variables. */
   private final int nonOcc;
+  /** Collations of the non-occluded grouping variables. */
+  private final Collation[] colls;
+  /** Aggregate functions of non-grouping variables (entries can be {@code null}). */
+  private StandardFunc[] aggrs;
 
   /**
    * Constructor.
@@ -51,6 +60,8 @@ public final class GroupBy extends Clause {
       if(!spec.occluded) n++;
     }
     nonOcc = n;
+    colls = colls(specs, n);
+    aggrs = new StandardFunc[post.length];
   }
 
   /**
@@ -59,15 +70,33 @@ public final class GroupBy extends Clause {
    * @param pre pre-grouping expressions
    * @param post post-grouping variables
    * @param nonOcc number of non-occluded grouping variables
+   * @param aggrs aggregate functions of non-grouping variables
    * @param info input info
    */
   private GroupBy(final GroupSpec[] specs, final Expr[] pre, final Var[] post, final int nonOcc,
-      final InputInfo info) {
+      final StandardFunc[] aggrs, final InputInfo info) {
     super(info, SeqType.ITEM_ZM, vars(specs, post));
     this.specs = specs;
     preExpr = pre;
     this.post = post;
     this.nonOcc = nonOcc;
+    this.aggrs = aggrs;
+    colls = colls(specs, nonOcc);
+  }
+
+  /**
+   * Returns the collations of the non-occluded grouping variables.
+   * @param specs grouping specs
+   * @param nonOcc number of non-occluded grouping variables
+   * @return collations
+   */
+  private static Collation[] colls(final GroupSpec[] specs, final int nonOcc) {
+    final Collation[] colls = new Collation[nonOcc];
+    int c = 0;
+    for(final GroupSpec spec : specs) {
+      if(!spec.occluded) colls[c++] = spec.coll;
+    }
+    return colls;
   }
 
   /**
@@ -109,79 +138,235 @@ public final class GroupBy extends Clause {
           }
         }
         final int pl = post.length;
-        for(int i = 0; i < pl; i++) qc.set(post[i], curr.ngv[i].value());
+        for(int i = 0; i < pl; i++) qc.set(post[i], value(curr, i));
         return true;
       }
 
       /**
-       * Builds up the groups.
+       * Builds up the groups. If the maximum number of groups in main memory is exceeded,
+       * the groups are written to partitions on disk.
        * @param qc query context
        * @throws QueryException query exception
        */
       private Group[] init(final QueryContext qc) throws QueryException {
+        final long limit = qc.context.options.get(MainOptions.GROUPLIMIT);
         final ArrayList<Group> grps = new ArrayList<>();
-        final IntObjMap<Group> map = new IntObjMap<>();
-        final Collation[] colls = new Collation[nonOcc];
-        int c = 0;
-        for(final GroupSpec spec : specs) {
-          if(!spec.occluded) colls[c++] = spec.coll;
-        }
+        IntObjMap<Group> map = new IntObjMap<>();
+        GroupPartitions partitions = null;
 
         while(sub.next(qc)) {
           final Item[] key = new Item[nonOcc];
-          int p = 0, hash = 1;
+          int p = 0;
           for(final GroupSpec spec : specs) {
             final Item atom = spec.atomItem(qc, info);
-            if(!spec.occluded) {
-              key[p++] = atom;
-              // If the values are compared using a special collation, we let them collide
-              // here and let the comparison do all the work later.
-              // This enables other non-collation specs to avoid the collision.
-              hash = 31 * hash + (atom == Empty.VALUE || spec.coll != null ? 0 : atom.hash(info));
-            }
+            if(!spec.occluded) key[p++] = atom;
             qc.set(spec.var, atom);
           }
 
-          // find the group for this key
-          final Group fst;
-          Group grp = null;
-          // no collations, so we can use hashing
-          for(Group g = fst = map.get(hash); g != null; g = g.next) {
-            if(eq(key, g.key, colls)) {
-              grp = g;
-              break;
-            }
+          final int pl = preExpr.length;
+          final Value[] values = new Value[pl];
+          for(int g = 0; g < pl; g++) values[g] = preExpr[g].value(qc);
+          add(key, values, map, grps, qc);
+
+          if(limit > 0 && grps.size() > limit) {
+            // move groups to disk, continue with empty table
+            if(partitions == null) partitions = new GroupPartitions(GroupBy.this, nonOcc, pl, qc);
+            partitions.write(grps);
+            grps.clear();
+            map = new IntObjMap<>();
           }
+        }
+        if(partitions == null) {
+          // we're finished, copy the array so the list can be garbage-collected
+          return grps.toArray(new Group[0]);
+        }
+        partitions.write(grps);
+        return partitions.groups(qc);
+      }
+    };
+  }
 
-          final int pl = preExpr.length;
-          if(grp == null) {
-            // new group, add it to the list
-            final ValueBuilder[] ngs = new ValueBuilder[pl];
-            final int nl = ngs.length;
-            for(int n = 0; n < nl; n++) ngs[n] = new ValueBuilder(qc);
-            grp = new Group(key, ngs);
-            grps.add(grp);
-
-            // insert the group into the hash table
-            if(fst == null) {
-              map.put(hash, grp);
-            } else {
-              final Group nxt = fst.next;
-              fst.next = grp;
-              grp.next = nxt;
+  /**
+   * Adds values to the group with the specified key. A new group is created if no group exists.
+   * @param key grouping key
+   * @param values values of non-grouping variables
+   * @param map hash table with groups
+   * @param groups list of groups
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  void add(final Item[] key, final Value[] values, final IntObjMap<Group> map,
+      final ArrayList<Group> groups, final QueryContext qc) throws QueryException {
+
+    // find the group for this key
+    final int hash = hash(key);
+    final Group fst;
+    Group grp = null;
+    for(Group g = fst = map.get(hash); g != null; g = g.next) {
+      if(eq(key, g.key, colls)) {
+        grp = g;
+        break;
+      }
+    }
+
+    final int pl = values.length;
+    if(grp == null) {
+      // new group, add it to the list
+      final ValueBuilder[] ngs = new ValueBuilder[pl];
+      for(int n = 0; n < pl; n++) ngs[n] = new ValueBuilder(qc);
+      grp = new Group(key, ngs);
+      groups.add(grp);
+
+      // insert the group into the hash table
+      if(fst == null) {
+        map.put(hash, grp);
+      } else {
+        final Group nxt = fst.next;
+        fst.next = grp;
+        grp.next = nxt;
+      }
+    }
+
+    // add values of non-grouping variables to the group
+    for(int p = 0; p < pl; p++) {
+      final Value value = values[p];
+      final StandardFunc aggr = aggrs[p];
+      if(aggr == null) {
+        grp.ngv[p].add(value);
+      } else if(!value.isEmpty()) {
+        // only remember first item and number of items
+        if(Function.COUNT.is(aggr)) {
+          if(grp.sizes[p] == 0) grp.ngv[p].add(value.itemAt(0));
+          grp.sizes[p] += value.size();
+        } else {
+          grp.ngv[p].add(value);
+          grp.sizes[p] += value.size();
+          // replace items with intermediate result
+          if(grp.sizes[p] >= REDUCE && !grp.raw[p]) {
+            final Value vl = grp.ngv[p].value();
+            try {
+              final Item item = aggr.definition.get(aggr.sc, aggr.info, vl).item(qc, aggr.info);
+              grp.ngv[p] = new ValueBuilder(qc).add(item);
+              grp.sizes[p] = 1;
+            } catch(final QueryException ex) {
+              // keep items: the error will be raised when the function is evaluated
+              Util.debug(ex);
+              grp.raw[p] = true;
             }
           }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the value of a non-grouping variable.
+   * @param grp group
+   * @param p index of the variable
+   * @return value
+   */
+  Value value(final Group grp, final int p) {
+    final Value value = grp.ngv[p].value();
+    final StandardFunc aggr = aggrs[p];
+    return aggr != null && Function.COUNT.is(aggr) && !value.isEmpty() ?
+      SingletonSeq.get(value, grp.sizes[p]) : value;
+  }
+
+  /**
+   * Computes the hash value of a grouping key.
+   * @param key grouping key
+   * @return hash value
+   * @throws QueryException query exception
+   */
+  int hash(final Item[] key) throws QueryException {
+    int hash = 1;
+    final int kl = key.length;
+    for(int k = 0; k < kl; k++) {
+      // If the values are compared using a special collation, we let them collide
+      // here and let the comparison do all the work later.
+      // This enables other non-collation specs to avoid the collision.
+      final Item atom = key[k];
+      hash = 31 * hash + (atom == Empty.VALUE || colls[k] != null ? 0 : atom.hash(info));
+    }
+    return hash;
+  }
+
+  /**
+   * Indicates if groups can be built in parallel.
+   * @return result of check
+   */
+  boolean parallel() {
+    for(final Collation coll : colls) {
+      if(coll != null) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Assigns aggregate functions to non-grouping variables that are only referenced as
+   * arguments of {@code count}, {@code sum}, {@code min} or {@code max}. The values of these
+   * variables will be aggregated while the groups are built.
+   * @param exprs clauses and return expression that follow this clause
+   * @param cc compilation context
+   */
+  void aggregate(final Expr[] exprs, final CompileContext cc) {
+    final int pl = post.length;
+    final StandardFunc[] funcs = new StandardFunc[pl];
+    final int[] refs = new int[pl], args = new int[pl];
+    final ASTVisitor visitor = new ASTVisitor() {
+      @Override
+      public boolean used(final VarRef ref) {
+        final int p = index(ref.var);
+        if(p != -1) refs[p]++;
+        return true;
+      }
 
-          // add values of non-grouping variables to the group
-          for(int g = 0; g < pl; g++) {
-            grp.ngv[g].add(preExpr[g].value(qc));
+      @Override
+      public boolean func(final StandardFunc func) {
+        if(func.exprs.length == 1 && func.exprs[0] instanceof VarRef) {
+          final int p = index(((VarRef) func.exprs[0]).var);
+          if(p != -1 && aggregatable(func, preExpr[p]) &&
+              (funcs[p] == null || funcs[p].definition == func.definition)) {
+            funcs[p] = func;
+            args[p]++;
           }
         }
-
-        // we're finished, copy the array so the list can be garbage-collected
-        return grps.toArray(new Group[0]);
+        return true;
       }
     };
+    for(final Expr expr : exprs) expr.accept(visitor);
+
+    for(int p = 0; p < pl; p++) {
+      final StandardFunc func = refs[p] > 0 && refs[p] == args[p] ? funcs[p] : null;
+      if(func != null && aggrs[p] == null) cc.info(OPTAGGREGATE_X, func);
+      aggrs[p] = func;
+    }
+  }
+
+  /**
+   * Returns the index of a non-grouping variable.
+   * @param var variable
+   * @return index, or {@code -1}
+   */
+  private int index(final Var var) {
+    final int pl = post.length;
+    for(int p = 0; p < pl; p++) {
+      if(post[p].is(var)) return p;
+    }
+    return -1;
+  }
+
+  /**
+   * Checks if the values of a non-grouping variable can be aggregated by the specified function.
+   * @param func function
+   * @param expr pre-grouping expression
+   * @return result of check
+   */
+  private static boolean aggregatable(final StandardFunc func, final Expr expr) {
+    if(Function.COUNT.is(func)) return true;
+    return (Function.SUM.is(func) || Function.MIN.is(func) || Function.MAX.is(func)) &&
+      expr.seqType().type.oneOf(AtomType.ITR, AtomType.DEC, AtomType.DBL, AtomType.FLT,
+        AtomType.NUM);
   }
 
   /**
@@ -266,7 +451,7 @@ public final class GroupBy extends Clause {
     for(int p = 0; p < pl; p++) ps[p] = cc.copy(post[p], vm);
 
     // done
-    return new GroupBy(Arr.copyAll(cc, vm, specs), pEx, ps, nonOcc, info);
+    return new GroupBy(Arr.copyAll(cc, vm, specs), pEx, ps, nonOcc, aggrs.clone(), info);
   }
 
   @Override
@@ -288,6 +473,7 @@ public final class GroupBy extends Clause {
     for(int p = 0; p < post.length; p++) {
       if(!used.get(post[p].id)) {
         preExpr = Array.remove(preExpr, p);
+        aggrs = Array.remove(aggrs, p);
         post = Array.remove(post, p--);
       }
     }
@@ -329,7 +515,11 @@ public final class GroupBy extends Clause {
 
   @Override
   public void plan(final QueryPlan plan) {
-    plan.add(plan.create(this), specs);
+    int aggr = 0;
+    for(final StandardFunc func : aggrs) {
+      if(func != null) aggr++;
+    }
+    plan.add(plan.create(this, AGGREGATE, aggr > 0 ? aggr : null), specs);
   }
 
   @Override
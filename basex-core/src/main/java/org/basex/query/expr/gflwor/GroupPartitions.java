@@ -0,0 +1,160 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.core.jobs.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.util.hash.*;
+
+/**
+ * Partitions of a {@code group by} clause that have been written to temporary files.
+ * Groups are assigned to partitions by the hash values of their keys. Groups with the same key
+ * may be written several times; they will be merged when the partitions are read.
+ * If no collations are specified, the partitions are grouped in parallel.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class GroupPartitions {
+  /** Number of partitions (must be a power of two). */
+  private static final int PARTITIONS = 16;
+
+  /** Group by clause. */
+  private final GroupBy group;
+  /** Number of grouping keys. */
+  private final int kl;
+  /** Number of non-grouping variables. */
+  private final int vl;
+  /** Temporary files. */
+  private final TupleFiles files;
+  /** Partition files. */
+  private final IOFile[] file = new IOFile[PARTITIONS];
+  /** Output streams. */
+  private final DataOutput[] outs = new DataOutput[PARTITIONS];
+  /** Number of groups per partition. */
+  private final long[] sizes = new long[PARTITIONS];
+
+  /**
+   * Constructor.
+   * @param group group by clause
+   * @param kl number of grouping keys
+   * @param vl number of non-grouping variables
+   * @param qc query context
+   */
+  GroupPartitions(final GroupBy group, final int kl, final int vl, final QueryContext qc) {
+    this.group = group;
+    this.kl = kl;
+    this.vl = vl;
+    files = new TupleFiles(qc, group.info);
+  }
+
+  /**
+   * Writes groups to the partitions.
+   * @param groups groups
+   * @throws QueryException query exception
+   */
+  void write(final List<Group> groups) throws QueryException {
+    try {
+      for(final Group grp : groups) {
+        final int hash = group.hash(grp.key), p = (hash ^ hash >>> 16) & PARTITIONS - 1;
+        if(outs[p] == null) {
+          file[p] = files.create();
+          outs[p] = new DataOutput(file[p]);
+        }
+        final DataOutput out = outs[p];
+        for(final Item key : grp.key) files.write(key, out);
+        for(int v = 0; v < vl; v++) files.write(group.value(grp, v), out);
+        sizes[p]++;
+      }
+    } catch(final IOException ex) {
+      throw IOERR_X.get(group.info, ex);
+    }
+  }
+
+  /**
+   * Reads and merges the groups of all partitions.
+   * @param qc query context
+   * @return groups
+   * @throws QueryException query exception
+   */
+  Group[] groups(final QueryContext qc) throws QueryException {
+    final ArrayList<Task> tasks = new ArrayList<>(PARTITIONS);
+    try {
+      for(int p = 0; p < PARTITIONS; p++) {
+        if(outs[p] != null) {
+          outs[p].close();
+          outs[p] = null;
+          tasks.add(new Task(p, qc));
+        }
+      }
+    } catch(final IOException ex) {
+      throw IOERR_X.get(group.info, ex);
+    }
+
+    try {
+      final ArrayList<ArrayList<Group>> results;
+      if(group.parallel()) {
+        results = qc.context.workers.invoke(tasks, qc.workers);
+      } else {
+        results = new ArrayList<>(tasks.size());
+        for(final Task task : tasks) results.add(task.run());
+      }
+      final ArrayList<Group> groups = new ArrayList<>();
+      for(final ArrayList<Group> result : results) groups.addAll(result);
+      return groups.toArray(new Group[0]);
+    } finally {
+      for(int t = tasks.size() - 1; t >= 0; t--) tasks.get(t).qc.close();
+    }
+  }
+
+  /** Task for grouping a single partition. */
+  private final class Task implements WorkerTask<ArrayList<Group>, QueryException> {
+    /** Query context of the task. */
+    private final QueryContext qc;
+    /** Partition. */
+    private final int p;
+
+    /**
+     * Constructor. Must be called by the thread that evaluates the clause.
+     * @param p partition
+     * @param parent parent query context
+     */
+    private Task(final int p, final QueryContext parent) {
+      this.p = p;
+      qc = new QueryContext(parent);
+    }
+
+    @Override
+    public ArrayList<Group> run() throws QueryException {
+      final ArrayList<Group> groups = new ArrayList<>();
+      final IntObjMap<Group> map = new IntObjMap<>();
+      try(DataInput in = new DataInput(file[p])) {
+        for(long s = sizes[p]; s > 0; s--) {
+          qc.checkStop();
+          final Item[] key = new Item[kl];
+          for(int k = 0; k < kl; k++) key[k] = files.readItem(in, qc);
+          final Value[] values = new Value[vl];
+          for(int v = 0; v < vl; v++) values[v] = files.read(in, qc);
+          group.add(key, values, map, groups, qc);
+        }
+      } catch(final IOException ex) {
+        throw IOERR_X.get(group.info, ex);
+      }
+      files.delete(file[p]);
+      return groups;
+    }
+
+    @Override
+    public void stop() {
+      qc.stop();
+    }
+  }
+}
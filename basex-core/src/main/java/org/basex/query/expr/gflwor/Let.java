@@ -195,5 +195,10 @@ public final class Let extends ForLet {
       }
       return true;
     }
+
+    @Override
+    void minScore(final Var score, final double min) {
+      sub.minScore(score, min);
+    }
   }
 }
@@ -6,6 +6,7 @@ import static org.basex.query.QueryText.*;
 import java.util.*;
 import java.util.List;
 
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.util.*;
@@ -28,6 +29,8 @@ public final class OrderBy extends Clause {
   private VarRef[] refs;
   /** Sort keys. */
   private final OrderKey[] keys;
+  /** Maximum number of tuples to be returned. */
+  private long limit = Long.MAX_VALUE;
 
   /**
    * Constructor.
@@ -44,84 +47,244 @@ public final class OrderBy extends Clause {
   @Override
   Eval eval(final Eval sub) {
     return new Eval() {
+      /** Sorted tuples (if all tuples are kept in main memory). */
       private Value[][] tpls;
+      /** Order of the tuples. */
       private Integer[] perm;
+      /** Sorted runs (if tuples have been written to disk). */
+      private SortRuns runs;
+      /** Current position. */
       int pos;
 
       @Override
       public boolean next(final QueryContext qc) throws QueryException {
-        if(tpls == null) sort(qc);
-        if(pos == tpls.length) return false;
-        final int p = perm[pos++];
-        final Value[] tuple = tpls[p];
-        // free the space occupied by the tuple
-        tpls[p] = null;
+        if(tpls == null && runs == null) sort(qc);
+        final Value[] tuple;
+        if(runs != null) {
+          tuple = runs.next();
+          if(tuple == null) return false;
+        } else {
+          if(pos == tpls.length) return false;
+          final int p = perm[pos++];
+          tuple = tpls[p];
+          // free the space occupied by the tuple
+          tpls[p] = null;
+        }
         final int rl = refs.length;
         for(int r = 0; r < rl; r++) qc.set(refs[r].var, tuple[r]);
         return true;
       }
 
       /**
-       * Caches and sorts all incoming tuples.
+       * Caches and sorts all incoming tuples. If the maximum number of tuples to be sorted
+       * in main memory is exceeded, sorted runs are written to disk. If only the first tuples
+       * are requested, all other tuples will be discarded while sorting.
        * @param qc query context
        * @throws QueryException evaluation exception
        */
       private void sort(final QueryContext qc) throws QueryException {
-        // keys are stored at odd positions, values at even ones
-        List<Value[]> tuples = new ArrayList<>();
+        final long max = qc.scoring ? 0 : qc.context.options.get(MainOptions.SORTLIMIT);
+        if(limit < Integer.MAX_VALUE && (max == 0 || limit <= max)) {
+          top(qc);
+          return;
+        }
+
+        final ArrayList<Item[]> ks = new ArrayList<>();
+        final ArrayList<Value[]> vs = new ArrayList<>();
         while(sub.next(qc)) {
-          final int kl = keys.length;
-          final Item[] key = new Item[kl];
-          for(int k = 0; k < kl; k++) key[k] = keys[k].expr.atomItem(qc, keys[k].info);
-          tuples.add(key);
-
-          final int rl = refs.length;
-          final Value[] vals = new Value[rl];
-          for(int r = 0; r < rl; r++) vals[r] = refs[r].value(qc);
-          tuples.add(vals);
+          ks.add(keys(qc));
+          vs.add(values(qc));
+          if(max > 0 && ks.size() >= max) {
+            if(runs == null) runs = new SortRuns(OrderBy.this, keys.length, refs.length, qc);
+            write(ks, vs, qc);
+          }
         }
 
-        final int len = tuples.size() >>> 1;
-        final Item[][] ks = new Item[len][];
-        perm = new Integer[len];
-        tpls = new Value[len][];
-        for(int i = 0; i < len; i++) {
-          perm[i] = i;
-          tpls[i] = tuples.get(i << 1 | 1);
-          ks[i] = (Item[]) tuples.get(i << 1);
+        if(runs != null) {
+          if(!ks.isEmpty()) write(ks, vs, qc);
+        } else {
+          final Item[][] k = ks.toArray(new Item[0][]);
+          tpls = vs.toArray(new Value[0][]);
+          perm = OrderBy.this.sort(k, qc);
         }
-        // be nice to the garbage collector
-        tuples = null;
+      }
+
+      /**
+       * Caches the first tuples of the sort order in a bounded heap.
+       * The heap contains the tuple that will be dropped next at its top.
+       * @param qc query context
+       * @throws QueryException evaluation exception
+       */
+      private void top(final QueryContext qc) throws QueryException {
+        final MinHeap<Tuple, Value[]> heap = new MinHeap<>((tuple1, tuple2) -> {
+          try {
+            // tuples with equal keys are returned in their original order
+            final int c = compare(tuple2.keys, tuple1.keys);
+            return c != 0 ? c : Long.compare(tuple2.id, tuple1.id);
+          } catch(final QueryException ex) {
+            throw new QueryRTException(ex);
+          }
+        });
+        // scores in descending order: tuples with smaller scores than the dropped ones
+        // can be skipped
+        final OrderKey key = keys[0];
+        final Var score = key.desc && key.expr instanceof VarRef ? ((VarRef) key.expr).var : null;
         try {
-          Arrays.sort(perm, (x, y) -> {
-            try {
-              final Item[] a = ks[x], b = ks[y];
-              final int kl = keys.length;
-              for(int k = 0; k < kl; k++) {
-                final OrderKey key = keys[k];
-                Item m = a[k], n = b[k];
-                if(m == Dbl.NAN || m == Flt.NAN) m = Empty.VALUE;
-                if(n == Dbl.NAN || n == Flt.NAN) n = Empty.VALUE;
-                if(m != Empty.VALUE && n != Empty.VALUE && !m.comparable(n))
-                  throw typeError(n, m.type, key.info);
-
-                final int c = m == Empty.VALUE
-                    ? n == Empty.VALUE ? 0                 : key.least ? -1 : 1
-                    : n == Empty.VALUE ? key.least ? 1 : -1 : m.diff(n, key.coll, key.info);
-                if(c != 0) return key.desc ? -c : c;
+          for(long id = 0; sub.next(qc); id++) {
+            heap.insert(new Tuple(keys(qc), id), values(qc));
+            if(heap.size() > limit) {
+              heap.removeMin();
+              if(score != null) {
+                final Item item = heap.minKey().keys[0];
+                if(item instanceof Dbl) sub.minScore(score, ((Dbl) item).dbl());
               }
-              return 0;
-            } catch(final QueryException ex) {
-              throw new QueryRTException(ex);
             }
-          });
+          }
         } catch(final QueryRTException ex) {
           throw ex.getCause();
         }
+
+        final int hs = heap.size();
+        tpls = new Value[hs][];
+        perm = new Integer[hs];
+        for(int h = hs; --h >= 0;) {
+          tpls[h] = heap.removeMin();
+          perm[h] = h;
+        }
+      }
+
+      /**
+       * Returns the sort keys of the current tuple.
+       * @param qc query context
+       * @return keys
+       * @throws QueryException evaluation exception
+       */
+      private Item[] keys(final QueryContext qc) throws QueryException {
+        final int kl = keys.length;
+        final Item[] key = new Item[kl];
+        for(int k = 0; k < kl; k++) {
+          final Item item = keys[k].expr.atomItem(qc, keys[k].info);
+          key[k] = item == Dbl.NAN || item == Flt.NAN ? Empty.VALUE : item;
+        }
+        return key;
+      }
+
+      /**
+       * Returns the values of the current tuple.
+       * @param qc query context
+       * @return values
+       * @throws QueryException evaluation exception
+       */
+      private Value[] values(final QueryContext qc) throws QueryException {
+        final int rl = refs.length;
+        final Value[] vals = new Value[rl];
+        for(int r = 0; r < rl; r++) vals[r] = refs[r].value(qc);
+        return vals;
+      }
+
+      /**
+       * Sorts the cached tuples and writes them to a new run.
+       * @param ks sort keys
+       * @param vs tuple values
+       * @param qc query context
+       * @throws QueryException evaluation exception
+       */
+      private void write(final ArrayList<Item[]> ks, final ArrayList<Value[]> vs,
+          final QueryContext qc) throws QueryException {
+        final Item[][] k = ks.toArray(new Item[0][]);
+        final Value[][] v = vs.toArray(new Value[0][]);
+        ks.clear();
+        vs.clear();
+        runs.write(k, v, OrderBy.this.sort(k, qc));
       }
     };
   }
 
+  /**
+   * Limits the number of tuples to be returned.
+   * @param max maximum number of tuples
+   * @return {@code true} if the limit was lowered
+   */
+  boolean limit(final long max) {
+    if(max >= limit) return false;
+    limit = max;
+    return true;
+  }
+
+  /**
+   * Returns the order of the specified sort keys.
+   * The keys are sorted in parallel if the number of keys exceeds {@link MainOptions#PARALLELSORT}
+   * and if no collations are specified.
+   * @param ks sort keys
+   * @param qc query context
+   * @return order
+   * @throws QueryException query exception
+   */
+  private Integer[] sort(final Item[][] ks, final QueryContext qc) throws QueryException {
+    final int len = ks.length;
+    final Integer[] order = new Integer[len];
+    for(int o = 0; o < len; o++) order[o] = o;
+
+    final Comparator<Integer> comp = (x, y) -> {
+      try {
+        return compare(ks[x], ks[y]);
+      } catch(final QueryException ex) {
+        throw new QueryRTException(ex);
+      }
+    };
+    final long min = qc.context.options.get(MainOptions.PARALLELSORT);
+    boolean parallel = min > 0 && len >= min;
+    for(final OrderKey key : keys) parallel &= key.coll == null;
+    try {
+      if(parallel) Arrays.parallelSort(order, comp);
+      else Arrays.sort(order, comp);
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+    return order;
+  }
+
+  /**
+   * Compares two sort keys.
+   * @param a first key
+   * @param b second key
+   * @return result of comparison
+   * @throws QueryException query exception
+   */
+  int compare(final Item[] a, final Item[] b) throws QueryException {
+    final int kl = keys.length;
+    for(int k = 0; k < kl; k++) {
+      final OrderKey key = keys[k];
+      final Item m = a[k], n = b[k];
+      if(m != Empty.VALUE && n != Empty.VALUE && !m.comparable(n))
+        throw typeError(n, m.type, key.info);
+
+      final int c = m == Empty.VALUE
+          ? n == Empty.VALUE ? 0                 : key.least ? -1 : 1
+          : n == Empty.VALUE ? key.least ? 1 : -1 : m.diff(n, key.coll, key.info);
+      if(c != 0) return key.desc ? -c : c;
+    }
+    return 0;
+  }
+
+  /** Tuple with sort keys and a sequential id. */
+  private static final class Tuple {
+    /** Sort keys. */
+    private final Item[] keys;
+    /** Id (used to preserve the original order of tuples with equal keys). */
+    private final long id;
+
+    /**
+     * Constructor.
+     * @param keys sort keys
+     * @param id id
+     */
+    private Tuple(final Item[] keys, final long id) {
+      this.keys = keys;
+      this.id = id;
+    }
+  }
+
   @Override
   public boolean has(final Flag... flags) {
     for(final OrderKey key : keys) {
@@ -168,7 +331,9 @@ public final class OrderBy extends Clause {
 
   @Override
   public OrderBy copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return copyType(new OrderBy(Arr.copyAll(cc, vm, refs), Arr.copyAll(cc, vm, keys), info));
+    final OrderBy ob = new OrderBy(Arr.copyAll(cc, vm, refs), Arr.copyAll(cc, vm, keys), info);
+    ob.limit = limit;
+    return copyType(ob);
   }
 
   @Override
@@ -218,12 +383,12 @@ public final class OrderBy extends Clause {
     if(this == obj) return true;
     if(!(obj instanceof OrderBy)) return false;
     final OrderBy o = (OrderBy) obj;
-    return Array.equals(refs, o.refs) && Array.equals(keys, o.keys);
+    return Array.equals(refs, o.refs) && Array.equals(keys, o.keys) && limit == o.limit;
   }
 
   @Override
   public void plan(final QueryPlan plan) {
-    plan.add(plan.create(this), keys);
+    plan.add(plan.create(this, LIMIT, limit != Long.MAX_VALUE ? limit : null), keys);
   }
 
   @Override
@@ -0,0 +1,243 @@
+package org.basex.query.expr.gflwor;
+
+import static org.basex.query.QueryError.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.util.*;
+
+/**
+ * Sorted runs of an {@code order by} clause that have been written to temporary files.
+ * The runs are merged when the sorted tuples are requested.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class SortRuns {
+  /** Maximum number of runs that are merged at the same time. */
+  private static final int MERGE = 64;
+
+  /** Order by clause. */
+  private final OrderBy order;
+  /** Number of sort keys. */
+  private final int kl;
+  /** Number of tuple values. */
+  private final int vl;
+  /** Query context. */
+  private final QueryContext qc;
+  /** Temporary files. */
+  private final TupleFiles files;
+  /** Runs. */
+  private ArrayList<Run> runs = new ArrayList<>();
+  /** Heap with the current tuples of all runs (initialized when merging is started). */
+  private MinHeap<Run, Run> heap;
+
+  /**
+   * Constructor.
+   * @param order order by clause
+   * @param kl number of sort keys
+   * @param vl number of tuple values
+   * @param qc query context
+   */
+  SortRuns(final OrderBy order, final int kl, final int vl, final QueryContext qc) {
+    this.order = order;
+    this.kl = kl;
+    this.vl = vl;
+    this.qc = qc;
+    files = new TupleFiles(qc, order.info);
+  }
+
+  /**
+   * Writes sorted tuples to a new run.
+   * @param keys sort keys
+   * @param values tuple values
+   * @param perm order of the tuples
+   * @throws QueryException query exception
+   */
+  void write(final Item[][] keys, final Value[][] values, final Integer[] perm)
+      throws QueryException {
+    try {
+      final Run run = create(perm.length, runs.size());
+      runs.add(run);
+      write(keys, values, perm, run);
+    } catch(final IOException ex) {
+      throw IOERR_X.get(order.info, ex);
+    }
+  }
+
+  /**
+   * Writes sorted tuples to the specified run.
+   * @param keys sort keys
+   * @param values tuple values
+   * @param perm order of the tuples
+   * @param run run
+   * @throws QueryException query exception
+   * @throws IOException I/O exception
+   */
+  private void write(final Item[][] keys, final Value[][] values, final Integer[] perm,
+      final Run run) throws QueryException, IOException {
+    try(DataOutput out = new DataOutput(run.file)) {
+      for(final int p : perm) {
+        qc.checkStop();
+        for(final Item key : keys[p]) files.write(key, out);
+        for(final Value value : values[p]) files.write(value, out);
+        // free the space occupied by the tuple
+        keys[p] = null;
+        values[p] = null;
+      }
+    }
+  }
+
+  /**
+   * Returns the next tuple of the merged runs.
+   * @return tuple values, or {@code null} if all tuples have been returned
+   * @throws QueryException query exception
+   */
+  Value[] next() throws QueryException {
+    try {
+      if(heap == null) {
+        // reduce the number of runs that need to be opened at the same time
+        while(runs.size() > MERGE) {
+          final ArrayList<Run> merged = new ArrayList<>();
+          final int rs = runs.size();
+          for(int r = 0; r < rs; r += MERGE) {
+            merged.add(merge(runs.subList(r, Math.min(r + MERGE, rs)), merged.size()));
+          }
+          runs = merged;
+        }
+        heap = open(runs);
+      }
+      if(heap.isEmpty()) return null;
+
+      final Run run = heap.removeMin();
+      final Value[] values = run.values;
+      if(run.next()) heap.insert(run, run);
+      return values;
+    } catch(final IOException ex) {
+      throw IOERR_X.get(order.info, ex);
+    } catch(final QueryRTException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /**
+   * Merges the specified runs into a single run.
+   * @param list runs to be merged
+   * @param id id of the new run
+   * @return new run
+   * @throws QueryException query exception
+   * @throws IOException I/O exception
+   */
+  private Run merge(final List<Run> list, final int id) throws QueryException, IOException {
+    long size = 0;
+    for(final Run run : list) size += run.size;
+    final Run merged = create(size, id);
+
+    final MinHeap<Run, Run> hp = open(list);
+    try(DataOutput out = new DataOutput(merged.file)) {
+      while(!hp.isEmpty()) {
+        qc.checkStop();
+        final Run run = hp.removeMin();
+        for(final Item key : run.keys) files.write(key, out);
+        for(final Value value : run.values) files.write(value, out);
+        if(run.next()) hp.insert(run, run);
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * Opens the specified runs and returns a heap with their first tuples.
+   * @param list runs
+   * @return heap
+   * @throws QueryException query exception
+   * @throws IOException I/O exception
+   */
+  private MinHeap<Run, Run> open(final List<Run> list) throws QueryException, IOException {
+    // tuples with equal keys are returned in the order of their runs
+    final MinHeap<Run, Run> hp = new MinHeap<>((run1, run2) -> {
+      try {
+        final int c = order.compare(run1.keys, run2.keys);
+        return c != 0 ? c : run1.id - run2.id;
+      } catch(final QueryException ex) {
+        throw new QueryRTException(ex);
+      }
+    });
+    for(final Run run : list) {
+      run.in = new DataInput(run.file);
+      if(run.next()) hp.insert(run, run);
+    }
+    return hp;
+  }
+
+  /**
+   * Creates a new run.
+   * @param size number of tuples
+   * @param id run id
+   * @return run
+   * @throws IOException I/O exception
+   */
+  private Run create(final long size, final int id) throws IOException {
+    return new Run(files.create(), size, id);
+  }
+
+  /** Sorted run. */
+  private final class Run {
+    /** Temporary file. */
+    private final IOFile file;
+    /** Number of tuples. */
+    private final long size;
+    /** Run id (used to preserve the original order of tuples with equal keys). */
+    private final int id;
+    /** Input stream (assigned when the run is opened). */
+    private DataInput in;
+    /** Number of tuples that have been read. */
+    private long read;
+    /** Sort keys of the current tuple. */
+    private Item[] keys;
+    /** Values of the current tuple. */
+    private Value[] values;
+
+    /**
+     * Constructor.
+     * @param file temporary file
+     * @param size number of tuples
+     * @param id run id
+     */
+    private Run(final IOFile file, final long size, final int id) {
+      this.file = file;
+      this.size = size;
+      this.id = id;
+    }
+
+    /**
+     * Reads the next tuple. If no tuples are left, the run will be closed and deleted.
+     * @return {@code true} if a tuple was read
+     * @throws QueryException query exception
+     * @throws IOException I/O exception
+     */
+    private boolean next() throws QueryException, IOException {
+      if(read == size) {
+        in.close();
+        files.delete(file);
+        keys = null;
+        values = null;
+        return false;
+      }
+      read++;
+
+      keys = new Item[kl];
+      for(int k = 0; k < kl; k++) keys[k] = files.readItem(in, qc);
+      values = new Value[vl];
+      for(int v = 0; v < vl; v++) values[v] = files.read(in, qc);
+      return true;
+    }
+  }
+}
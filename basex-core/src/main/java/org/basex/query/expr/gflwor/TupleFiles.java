@@ -0,0 +1,264 @@
+package org.basex.query.expr.gflwor;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.query.*;
+import org.basex.query.util.*;
+import org.basex.query.util.list.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.seq.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+
+/**
+ * Temporary files with tuples of FLWOR clauses that exceed the available main memory.
+ *
+ * Atomic items and database nodes are serialized. All other items (fragments, functions, etc.)
+ * are kept in main memory and referenced by their position. Values can be read by multiple
+ * threads after all values have been written.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+final class TupleFiles {
+  /** Empty sequence. */
+  private static final int EMPTY = 0;
+  /** Sequence. */
+  private static final int SEQUENCE = 1;
+  /** Item that is kept in main memory. */
+  private static final int OBJECT = 2;
+  /** Database node. */
+  private static final int NODE = 3;
+  /** String. */
+  private static final int STRING = 4;
+  /** Untyped atomic value. */
+  private static final int UNTYPED = 5;
+  /** Integer. */
+  private static final int INTEGER = 6;
+  /** Double. */
+  private static final int DOUBLE = 7;
+  /** Float. */
+  private static final int FLOAT = 8;
+  /** Other atomic item, represented by its string value. */
+  private static final int ATOMIC = 9;
+  /** Repeated value. */
+  private static final int SINGLETON = 10;
+
+  /** Temporary files. */
+  private final TempFiles files;
+  /** Input info. */
+  private final InputInfo info;
+  /** Items that are kept in main memory. */
+  private final ArrayList<Value> objects = new ArrayList<>();
+  /** Referenced databases. */
+  private final ArrayList<Data> datas = new ArrayList<>();
+  /** Decoded types. */
+  private final Type[] types = new Type[256];
+
+  /**
+   * Constructor.
+   * @param qc query context
+   * @param info input info
+   */
+  TupleFiles(final QueryContext qc, final InputInfo info) {
+    this.info = info;
+    files = qc.resources.index(TempFiles.class);
+  }
+
+  /**
+   * Creates a new temporary file.
+   * @return file
+   * @throws IOException I/O exception
+   */
+  IOFile create() throws IOException {
+    return files.create();
+  }
+
+  /**
+   * Deletes a temporary file.
+   * @param file file
+   */
+  void delete(final IOFile file) {
+    files.delete(file);
+  }
+
+  /**
+   * Writes a value.
+   * @param value value
+   * @param out output stream
+   * @throws QueryException query exception
+   * @throws IOException I/O exception
+   */
+  void write(final Value value, final DataOutput out) throws QueryException, IOException {
+    final long size = value.size();
+    if(size == 0) {
+      out.write1(EMPTY);
+    } else if(size == 1) {
+      write((Item) value, out);
+    } else if(value instanceof SingletonSeq) {
+      final Value single = ((SingletonSeq) value).value;
+      out.write1(SINGLETON);
+      out.write8(size / single.size());
+      write(single, out);
+    } else if(size <= Integer.MAX_VALUE) {
+      out.write1(SEQUENCE);
+      out.writeNum((int) size);
+      for(final Item item : value) write(item, out);
+    } else {
+      object(value, out);
+    }
+  }
+
+  /**
+   * Writes an item.
+   * @param item item
+   * @param out output stream
+   * @throws QueryException query exception
+   * @throws IOException I/O exception
+   */
+  void write(final Item item, final DataOutput out) throws QueryException, IOException {
+    final Type type = item.type;
+    if(item == Empty.VALUE) {
+      out.write1(EMPTY);
+    } else if(item.getClass() == DBNode.class) {
+      final DBNode node = (DBNode) item;
+      int d = datas.indexOf(node.data());
+      if(d == -1) {
+        d = datas.size();
+        datas.add(node.data());
+      }
+      out.write1(NODE);
+      out.writeNum(d);
+      out.writeNum(node.pre());
+    } else if(item instanceof Int) {
+      out.write1(INTEGER);
+      out.write1(type.id().asByte());
+      out.write8(item.itr(null));
+    } else if(item instanceof Dbl) {
+      out.write1(DOUBLE);
+      out.write8(Double.doubleToRawLongBits(item.dbl(null)));
+    } else if(item instanceof Flt) {
+      out.write1(FLOAT);
+      out.writeNum(Float.floatToRawIntBits(item.flt(null)));
+    } else if(type == AtomType.STR && item instanceof AStr) {
+      out.write1(STRING);
+      out.writeToken(item.string(info));
+    } else if(item instanceof Atm) {
+      out.write1(UNTYPED);
+      out.writeToken(item.string(info));
+    } else if(item instanceof AStr || item instanceof ADateDur || item instanceof Dec ||
+        item instanceof Bln || item instanceof Uri || item instanceof Bin) {
+      out.write1(ATOMIC);
+      out.write1(type.id().asByte());
+      out.writeToken(item.string(info));
+    } else {
+      object(item, out);
+    }
+  }
+
+  /**
+   * Writes a reference to a value that is kept in main memory.
+   * @param value value
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  private void object(final Value value, final DataOutput out) throws IOException {
+    out.write1(OBJECT);
+    out.writeNum(objects.size());
+    objects.add(value);
+  }
+
+  /**
+   * Reads a value.
+   * @param in input stream
+   * @param qc query context
+   * @return value
+   * @throws QueryException query exception
+   * @throws IOException I/O exception
+   */
+  Value read(final DataInput in, final QueryContext qc) throws QueryException, IOException {
+    final int tag = in.read();
+    if(tag == SEQUENCE) {
+      final int size = in.readNum();
+      final ItemList items = new ItemList(size);
+      for(int s = 0; s < size; s++) items.add(readItem(in, qc));
+      return items.value();
+    }
+    if(tag == SINGLETON) {
+      final long count = in.read8();
+      return SingletonSeq.get(read(in, qc), count);
+    }
+    return read(tag, in, qc);
+  }
+
+  /**
+   * Reads an item or an empty sequence.
+   * @param in input stream
+   * @param qc query context
+   * @return item
+   * @throws QueryException query exception
+   * @throws IOException I/O exception
+   */
+  Item readItem(final DataInput in, final QueryContext qc) throws QueryException, IOException {
+    return (Item) read(in.read(), in, qc);
+  }
+
+  /**
+   * Reads a single item or an empty sequence.
+   * @param tag tag
+   * @param in input stream
+   * @param qc query context
+   * @return value
+   * @throws QueryException query exception
+   * @throws IOException I/O exception
+   */
+  private Value read(final int tag, final DataInput in, final QueryContext qc)
+      throws QueryException, IOException {
+    switch(tag) {
+      case EMPTY:
+        return Empty.VALUE;
+      case OBJECT:
+        return objects.get(in.readNum());
+      case NODE:
+        final Data data = datas.get(in.readNum());
+        return new DBNode(data, in.readNum());
+      case STRING:
+        return Str.get(in.readToken());
+      case UNTYPED:
+        return new Atm(in.readToken());
+      case INTEGER:
+        final Type itype = type(in.read());
+        return Int.get(in.read8(), itype);
+      case DOUBLE:
+        return Dbl.get(Double.longBitsToDouble(in.read8()));
+      case FLOAT:
+        return Flt.get(Float.intBitsToFloat(in.readNum()));
+      case ATOMIC:
+        final Type atype = type(in.read());
+        return atype.cast(Str.get(in.readToken()), qc, null, info);
+      default:
+        throw Util.notExpected("Unknown tag: %", tag);
+    }
+  }
+
+  /**
+   * Returns the type with the specified id.
+   * @param id type id
+   * @return type
+   */
+  private Type type(final int id) {
+    Type type = types[id];
+    if(type == null) {
+      type = Type.ID.getType((byte) id);
+      types[id] = type;
+    }
+    return type;
+  }
+}
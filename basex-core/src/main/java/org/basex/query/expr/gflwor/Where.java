@@ -43,6 +43,11 @@ public final class Where extends Clause {
         }
         return false;
       }
+
+      @Override
+      void minScore(final Var score, final double min) {
+        sub.minScore(score, min);
+      }
     };
   }
 
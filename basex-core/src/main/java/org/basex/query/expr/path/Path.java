@@ -121,6 +121,10 @@ public abstract class Path extends ParseExpr {
 
   @Override
   public final Expr compile(final CompileContext cc) throws QueryException {
+    // evaluate path while document is parsed (root must not be compiled, as it would be parsed)
+    final Expr stream = StreamPath.get(this, cc);
+    if(stream != null) return stream;
+
     final Expr rt;
     if(root != null) {
       root = root.compile(cc);
@@ -0,0 +1,444 @@
+package org.basex.query.expr.path;
+
+import static org.basex.query.QueryError.*;
+import static org.basex.query.QueryText.*;
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.build.*;
+import org.basex.build.xml.*;
+import org.basex.core.*;
+import org.basex.core.users.*;
+import org.basex.io.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.scope.*;
+import org.basex.query.util.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.query.var.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * Path expression that is evaluated while a document is parsed ({@link MainOptions#STREAM}).
+ * The root of the path is a call to {@code fn:doc} that points to a file.
+ * The steps must be child or descendant steps with element tests, optionally followed by an
+ * attribute step. The path must be the only expression that accesses the document.
+ * Only the subtrees of the resulting elements will be kept in main memory.
+ * The resulting nodes are the roots of new fragments; other parts of the document cannot be
+ * accessed from them. The document is parsed only once per query, and all evaluations of
+ * the path return the same nodes ({@link Streams}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class StreamPath extends Simple {
+  /** Root expression ({@code fn:doc} call). */
+  private final Expr root;
+  /** Steps. */
+  private final Step[] steps;
+  /** Input. */
+  private final IO input;
+
+  /**
+   * Constructor.
+   * @param info input info
+   * @param root root expression
+   * @param steps steps
+   * @param input input
+   */
+  private StreamPath(final InputInfo info, final Expr root, final Step[] steps, final IO input) {
+    super(info, steps[steps.length - 1].seqType().type.seqType(Occ.ZERO_MORE));
+    this.root = root;
+    this.steps = steps;
+    this.input = input;
+  }
+
+  /**
+   * Returns a streamable version of the specified path, or {@code null}.
+   * @param path path expression
+   * @param cc compilation context
+   * @return streaming path or {@code null}
+   */
+  static StreamPath get(final Path path, final CompileContext cc) {
+    final Context ctx = cc.qc.context;
+    final MainOptions options = ctx.options;
+    if(!options.get(MainOptions.STREAM) || !Function.DOC.is(path.root)) return null;
+
+    // check if the argument points to an existing file that is no database
+    final StandardFunc doc = (StandardFunc) path.root;
+    if(!(doc.exprs[0] instanceof Str)) return null;
+    final QueryInput qi = new QueryInput(string(((Str) doc.exprs[0]).string()), doc.sc);
+    if(!(qi.io instanceof IOFile) || !qi.io.exists() || qi.io.isDir() ||
+        options.get(MainOptions.WITHDB) && qi.dbName != null && ctx.soptions.dbExists(qi.dbName) ||
+        !single(qi.io, cc.qc)) return null;
+
+    // check if all steps can be evaluated while the document is parsed
+    final ArrayList<Step> list = new ArrayList<>();
+    final int sl = path.steps.length;
+    for(int s = 0; s < sl; s++) {
+      if(!(path.steps[s] instanceof Step)) return null;
+      final Step step = (Step) path.steps[s];
+      if(step.exprs.length != 0) return null;
+      final Axis axis = step.axis;
+      final Step next = s + 1 < sl && path.steps[s + 1] instanceof Step ?
+        (Step) path.steps[s + 1] : null;
+      if(axis == Axis.DESCENDANT_OR_SELF && step.test == KindTest.NOD && next != null) {
+        if(next.axis == Axis.CHILD && next.test.type == NodeType.ELM && next.exprs.length == 0) {
+          // merge steps: descendant-or-self::node()/child::X  ->  descendant::X
+          list.add(Step.get(next.info, Axis.DESCENDANT, next.test));
+          s++;
+        } else if(next.axis == Axis.ATTRIBUTE && s == 0) {
+          // rewrite steps: descendant-or-self::node()/@X  ->  descendant::*/@X
+          // (the document node has no attributes)
+          list.add(Step.get(step.info, Axis.DESCENDANT, KindTest.ELM));
+        } else {
+          return null;
+        }
+      } else if(axis == Axis.CHILD || axis == Axis.DESCENDANT) {
+        if(step.test.type != NodeType.ELM) return null;
+        list.add(step);
+      } else if(axis == Axis.ATTRIBUTE && s + 1 == sl && s > 0) {
+        list.add(step);
+      } else {
+        return null;
+      }
+    }
+    if(list.isEmpty() || list.size() > 63) return null;
+
+    final StreamPath stream = new StreamPath(path.info, doc, list.toArray(new Step[0]), qi.io);
+    cc.info(OPTSTREAM_X, stream);
+    return stream;
+  }
+
+  @Override
+  public Iter iter(final QueryContext qc) throws QueryException {
+    // do not check for existence of input if user has no read permissions
+    if(!qc.context.user().has(Perm.READ))
+      throw XQUERY_PERMISSION1_X.get(info, Util.info(Text.PERM_REQUIRED_X, Perm.READ));
+
+    return new Iter() {
+      private Streamer streamer;
+      private int n;
+
+      @Override
+      public Item next() throws QueryException {
+        try {
+          if(streamer == null) {
+            streamer = qc.resources.index(Streams.class).get(StreamPath.this, qc);
+          }
+          return streamer.node(n++, qc);
+        } catch(final IOException ex) {
+          throw IOERR_X.get(info, ex);
+        }
+      }
+    };
+  }
+
+  /**
+   * Returns a key for the parsed input and the steps.
+   * @return key
+   */
+  String key() {
+    return input.path() + '/' + new QueryString().tokens(steps, "/");
+  }
+
+  /**
+   * Creates a new parser for the input.
+   * @param qc query context
+   * @return parser
+   * @throws IOException I/O exception
+   */
+  Streamer streamer(final QueryContext qc) throws IOException {
+    return new Streamer(new MainOptions(qc.context.options, true));
+  }
+
+  /**
+   * Checks if the specified file is accessed by no other {@code fn:doc} call of the query,
+   * and if it has not been opened yet. Otherwise, the identity of the returned nodes would not
+   * be preserved.
+   * @param io file
+   * @param qc query context
+   * @return result of check
+   */
+  private static boolean single(final IO io, final QueryContext qc) {
+    if(qc.root == null || qc.resources.opened(io)) return false;
+
+    final ASTVisitor visitor = new ASTVisitor() {
+      /** Already visited scopes. */
+      private final IdentityHashMap<Scope, Object> scopes = new IdentityHashMap<>();
+      /** Number of calls. */
+      private int calls;
+
+      @Override
+      public boolean func(final StandardFunc func) {
+        if(!Function.DOC.is(func)) return true;
+        // reject calls with dynamic arguments
+        if(!(func.exprs[0] instanceof Str)) return false;
+        final QueryInput qi = new QueryInput(string(((Str) func.exprs[0]).string()), func.sc);
+        return !qi.io.eq(io) || ++calls == 1;
+      }
+
+      @Override
+      public boolean staticVar(final StaticVar var) {
+        return scope(var);
+      }
+
+      @Override
+      public boolean staticFuncCall(final StaticFuncCall call) {
+        return scope(call.func());
+      }
+
+      @Override
+      public boolean inlineFunc(final Scope scope) {
+        return scope(scope);
+      }
+
+      @Override
+      public boolean funcItem(final FuncItem func) {
+        return scope(func);
+      }
+
+      /**
+       * Visits a scope once.
+       * @param scope scope
+       * @return result of check
+       */
+      private boolean scope(final Scope scope) {
+        return scopes.put(scope, scope) != null || scope.visit(this);
+      }
+    };
+    return qc.root.visit(visitor) && (qc.ctxItem == null || qc.ctxItem.visit(visitor));
+  }
+
+  @Override
+  public Value value(final QueryContext qc) throws QueryException {
+    return iter(qc).value(qc, this);
+  }
+
+  @Override
+  public boolean has(final Flag... flags) {
+    return Flag.NDT.in(flags);
+  }
+
+  @Override
+  public Expr inline(final ExprInfo ei, final Expr ex, final CompileContext cc) {
+    return null;
+  }
+
+  @Override
+  public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
+    return copyType(new StreamPath(info, root.copy(cc, vm), steps, input));
+  }
+
+  @Override
+  public boolean accept(final ASTVisitor visitor) {
+    return root.accept(visitor);
+  }
+
+  @Override
+  public boolean ddo() {
+    return true;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if(this == obj) return true;
+    if(!(obj instanceof StreamPath)) return false;
+    final StreamPath s = (StreamPath) obj;
+    return root.equals(s.root) && Array.equals(steps, s.steps);
+  }
+
+  @Override
+  public void plan(final QueryPlan plan) {
+    plan.add(plan.create(this), root, steps);
+  }
+
+  @Override
+  public void plan(final QueryString qs) {
+    qs.token(root).token('/').tokens(steps, "/");
+  }
+
+  /** Parser that matches the steps against the parsed elements. */
+  final class Streamer extends XMLParser implements Closeable {
+    /** Resulting nodes. */
+    private final ArrayList<ANode> nodes = new ArrayList<>();
+    /** Resulting nodes of the current subtree. */
+    private final ArrayList<ANode> matches = new ArrayList<>();
+    /** Elements of the current subtree. */
+    private final ArrayList<FElem> elems = new ArrayList<>();
+    /** Matching states of the opened elements (bit {@code s}: step {@code s} is next). */
+    private final LongList states = new LongList();
+    /** Namespaces in scope. */
+    private final Atts scope = new Atts();
+    /** Number of namespaces in scope for each opened element. */
+    private final IntList scopes = new IntList();
+    /** Number of element steps. */
+    private final int es;
+    /** Indicates if the input has been completely parsed. */
+    private boolean parsed;
+
+    /**
+     * Constructor.
+     * @param options main options
+     * @throws IOException I/O exception
+     */
+    private Streamer(final MainOptions options) throws IOException {
+      super(input, options);
+      final int sl = steps.length;
+      es = steps[sl - 1].axis == Axis.ATTRIBUTE ? sl - 1 : sl;
+      // document node: first step is next
+      states.add(1);
+    }
+
+    /**
+     * Returns the resulting node at the specified position.
+     * Parses the input until the node is found.
+     * @param index index of the node
+     * @param qc query context
+     * @return node, or {@code null} if the input has been completely parsed
+     * @throws IOException I/O exception
+     */
+    synchronized ANode node(final int index, final QueryContext qc) throws IOException {
+      while(index >= nodes.size()) {
+        if(parsed) return null;
+        qc.checkStop();
+        if(!next()) {
+          finish();
+          parsed = true;
+        }
+      }
+      return nodes.get(index);
+    }
+
+    @Override
+    protected void openElem(final byte[] name, final Atts att, final Atts ns) throws IOException {
+      scopes.push(scope.size());
+      for(int n = 0; n < ns.size(); n++) scope.add(ns.name(n), ns.value(n));
+
+      final FElem elem = new FElem(new QNm(name, uri(prefix(name))));
+      final boolean capture = !elems.isEmpty();
+      if(capture) {
+        elems.get(elems.size() - 1).add(elem);
+        for(int n = 0; n < ns.size(); n++) elem.namespaces().add(ns.name(n), ns.value(n));
+      }
+
+      // compute new matching states
+      final long parent = states.peek();
+      long state = 0;
+      for(int s = 0; s < es; s++) {
+        if((parent & 1L << s) == 0) continue;
+        final Step step = steps[s];
+        if(step.axis == Axis.DESCENDANT) state |= 1L << s;
+        if(step.test.matches(elem)) state |= 1L << s + 1;
+      }
+      states.push(state);
+      final boolean match = (state & 1L << es) != 0;
+
+      if(es < steps.length) {
+        // attribute step: return matching attributes
+        if(match) {
+          final Test test = steps[es].test;
+          for(int a = 0; a < att.size(); a++) {
+            final FAttr attr = attribute(att.name(a), att.value(a));
+            if(test.matches(attr)) nodes.add(attr);
+          }
+        }
+        if(!capture) return;
+      } else if(match) {
+        matches.add(elem);
+      } else if(!capture) {
+        return;
+      }
+
+      // add attributes, start new subtree
+      for(int a = 0; a < att.size(); a++) elem.add(attribute(att.name(a), att.value(a)));
+      if(!capture || match) {
+        // root of subtree or result: declare all namespaces in scope
+        final Atts nsp = elem.namespaces();
+        for(int n = scope.size() - 1; n >= 0; n--) {
+          if(!nsp.contains(scope.name(n))) nsp.add(scope.name(n), scope.value(n));
+        }
+      }
+      elems.add(elem);
+    }
+
+    @Override
+    protected void emptyElem(final byte[] name, final Atts att, final Atts ns) throws IOException {
+      openElem(name, att, ns);
+      closeElem();
+    }
+
+    @Override
+    protected void closeElem() {
+      states.pop();
+      scope.size(scopes.pop());
+      final int el = elems.size();
+      if(el == 0) return;
+
+      // subtree is complete: return all results (nested results as copies without parent)
+      elems.remove(el - 1);
+      if(el == 1) {
+        for(final ANode match : matches) {
+          nodes.add(match.parent() == null ? match : match.materialize(null, true));
+        }
+        matches.clear();
+      }
+    }
+
+    @Override
+    protected void text(final byte[] value) {
+      if(!elems.isEmpty() && value.length != 0) elems.get(elems.size() - 1).add(new FTxt(value));
+    }
+
+    @Override
+    protected void comment(final byte[] value) {
+      if(!elems.isEmpty()) elems.get(elems.size() - 1).add(new FComm(value));
+    }
+
+    @Override
+    protected void pi(final byte[] value) {
+      if(!elems.isEmpty()) {
+        final int i = indexOf(value, ' ');
+        final byte[] name = i == -1 ? value : substring(value, 0, i);
+        final byte[] val = i == -1 ? EMPTY : substring(value, i + 1);
+        elems.get(elems.size() - 1).add(new FPI(new QNm(name), val));
+      }
+    }
+
+    /**
+     * Creates an attribute.
+     * @param name name
+     * @param value value
+     * @return attribute
+     * @throws IOException I/O exception
+     */
+    private FAttr attribute(final byte[] name, final byte[] value) throws IOException {
+      final byte[] prefix = prefix(name);
+      return new FAttr(new QNm(name, prefix.length == 0 ? EMPTY : uri(prefix)), value);
+    }
+
+    /**
+     * Returns the namespace URI for the specified prefix.
+     * @param prefix prefix
+     * @return URI
+     * @throws IOException I/O exception
+     */
+    private byte[] uri(final byte[] prefix) throws IOException {
+      if(eq(prefix, XML)) return XML_URI;
+      for(int n = scope.size() - 1; n >= 0; n--) {
+        if(eq(scope.name(n), prefix)) return scope.value(n);
+      }
+      if(prefix.length == 0) return EMPTY;
+      throw new BuildException(BuildText.WHICHNS, detailedInfo(), prefix);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package org.basex.query.expr.path;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.query.*;
+import org.basex.util.*;
+
+/**
+ * Parsers of documents that are streamed during query evaluation ({@link StreamPath}).
+ * A document is parsed only once for each path, and the parsers will be closed when the
+ * query is closed.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class Streams implements QueryResource {
+  /** Parsers, indexed by inputs and steps. */
+  private final HashMap<String, StreamPath.Streamer> streamers = new HashMap<>();
+
+  /**
+   * Returns the parser for the specified path, or creates a new one.
+   * @param path path
+   * @param qc query context
+   * @return parser
+   * @throws IOException I/O exception
+   */
+  synchronized StreamPath.Streamer get(final StreamPath path, final QueryContext qc)
+      throws IOException {
+    final String key = path.key();
+    StreamPath.Streamer streamer = streamers.get(key);
+    if(streamer == null) {
+      streamer = path.streamer(qc);
+      streamers.put(key, streamer);
+    }
+    return streamer;
+  }
+
+  @Override
+  public synchronized void close() {
+    for(final StreamPath.Streamer streamer : streamers.values()) {
+      try {
+        streamer.close();
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    }
+    streamers.clear();
+  }
+}
@@ -224,7 +224,7 @@ public final class Closure extends Single implements Scope, XQFunctionExpr {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    final VarScope innerScope = new VarScope(vs.sc);
+    final VarScope innerScope = new VarScope(cc.copy(vs.sc));
 
     final HashMap<Var, Expr> outer = new HashMap<>();
     global.forEach((key, value) -> outer.put(key, value.copy(cc, vm)));
@@ -79,7 +79,7 @@ public final class FuncLit extends Single implements Scope {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    final VarScope vsc = new VarScope(vs.sc);
+    final VarScope vsc = new VarScope(cc.copy(vs.sc));
     cc.pushScope(vsc);
     try {
       final int pl = params.length;
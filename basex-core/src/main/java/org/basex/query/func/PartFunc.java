@@ -107,7 +107,7 @@ public final class PartFunc extends Arr {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return copyType(new PartFunc(sc, info, body().copy(cc, vm),
+    return copyType(new PartFunc(cc.copy(sc), info, body().copy(cc, vm),
         copyAll(cc, vm, Arrays.copyOf(exprs, exprs.length - 1)), holes.clone()));
   }
 
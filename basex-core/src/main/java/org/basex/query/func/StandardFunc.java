@@ -125,7 +125,7 @@ public abstract class StandardFunc extends Arr {
     final int el = exprs.length;
     final Expr[] arg = new Expr[el];
     for(int e = 0; e < el; e++) arg[e] = exprs[e].copy(cc, vm);
-    return copyType(definition.get(sc, info, arg));
+    return copyType(definition.get(cc.copy(sc), info, arg));
   }
 
   /**
@@ -591,6 +591,11 @@ public abstract class StandardFunc extends Arr {
     return ((StandardFunc) func).exprs;
   }
 
+  @Override
+  public boolean accept(final ASTVisitor visitor) {
+    return visitor.func(this) && super.accept(visitor);
+  }
+
   @Override
   public boolean equals(final Object obj) {
     return this == obj || obj instanceof StandardFunc &&
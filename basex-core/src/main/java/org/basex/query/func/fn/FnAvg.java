@@ -28,6 +28,9 @@ public class FnAvg extends FnSum {
       if(item != null) return item;
     }
     final Iter iter = expr.atomIter(qc, info);
+    final Value value = iter.iterValue();
+    if(value instanceof RangeSeq) return range(value);
+    if(value instanceof IntSeq || value instanceof DblSeq) return sum(value, true);
     final Item item = iter.next();
     return item == null ? Empty.VALUE : sum(iter, item, true, qc);
   }
@@ -47,6 +47,10 @@ public class FnMin extends StandardFunc {
     }
 
     final Iter iter = expr.atomIter(qc, info);
+    final Value value = iter.iterValue();
+    if(value instanceof RangeSeq || value instanceof IntSeq || value instanceof DblSeq)
+      return value.itemAt(index(value, cmp));
+
     item1 = iter.next();
     if(item1 == null) return Empty.VALUE;
 
@@ -82,6 +86,35 @@ public class FnMin extends StandardFunc {
     return item1;
   }
 
+  /**
+   * Returns the position of the smallest or largest value of a range, integer or double sequence.
+   * @param value range, integer or double sequence
+   * @param cmp comparator
+   * @return position
+   */
+  private static long index(final Value value, final OpV cmp) {
+    final boolean max = cmp == OpV.LT;
+    if(value instanceof RangeSeq) return max == ((RangeSeq) value).asc ? value.size() - 1 : 0;
+
+    int index = 0;
+    if(value instanceof IntSeq) {
+      final long[] values = ((IntSeq) value).values();
+      final int vl = values.length;
+      for(int v = 1; v < vl; v++) {
+        if(max ? values[v] > values[index] : values[v] < values[index]) index = v;
+      }
+    } else {
+      // NaN is returned if a value is NaN
+      final double[] values = ((DblSeq) value).values();
+      final int vl = values.length;
+      for(int v = 1; v < vl; v++) {
+        final double d = values[v];
+        if((max ? d > values[index] : d < values[index]) || Double.isNaN(d)) index = v;
+      }
+    }
+    return index;
+  }
+
   /**
    * Returns the new target type, or {@code null} if conversion is not necessary.
    * @param item1 first item
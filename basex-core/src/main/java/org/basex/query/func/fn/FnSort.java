@@ -4,6 +4,7 @@ import static org.basex.query.QueryError.*;
 
 import java.util.*;
 
+import org.basex.core.*;
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.func.*;
@@ -67,6 +68,8 @@ public final class FnSort extends StandardFunc {
 
   /**
    * Sort the input data and returns integers representing the item order.
+   * The data is sorted in parallel if its size exceeds {@link MainOptions#PARALLELSORT}
+   * and if no collation is specified.
    * @param values value list
    * @param sf calling function
    * @param coll collation
@@ -80,28 +83,31 @@ public final class FnSort extends StandardFunc {
     final int al = values.size();
     final Integer[] order = new Integer[al];
     for(int o = 0; o < al; o++) order[o] = o;
-    try {
-      Arrays.sort(order, (i1, i2) -> {
-        qc.checkStop();
-        try {
-          final Value value1 = values.get(i1), value2 = values.get(i2);
-          final long size1 = value1.size(), size2 = value2.size(), il = Math.min(size1, size2);
-          for(int i = 0; i < il; i++) {
-            Item item1 = value1.itemAt(i), item2 = value2.itemAt(i);
-            if(item1 == Dbl.NAN || item1 == Flt.NAN) item1 = null;
-            if(item2 == Dbl.NAN || item2 == Flt.NAN) item2 = null;
-            if(item1 != null && item2 != null && !item1.comparable(item2))
-              throw diffError(item1, item2, sf.info);
+    final Comparator<Integer> comp = (i1, i2) -> {
+      qc.checkStop();
+      try {
+        final Value value1 = values.get(i1), value2 = values.get(i2);
+        final long size1 = value1.size(), size2 = value2.size(), il = Math.min(size1, size2);
+        for(int i = 0; i < il; i++) {
+          Item item1 = value1.itemAt(i), item2 = value2.itemAt(i);
+          if(item1 == Dbl.NAN || item1 == Flt.NAN) item1 = null;
+          if(item2 == Dbl.NAN || item2 == Flt.NAN) item2 = null;
+          if(item1 != null && item2 != null && !item1.comparable(item2))
+            throw diffError(item1, item2, sf.info);
 
-            final int diff = item1 == null ? item2 == null ? 0 : -1 : item2 == null ? 1 :
-              item1.diff(item2, coll, sf.info);
-            if(diff != 0 && diff != Item.UNDEF) return diff;
-          }
-          return (int) (size1 - size2);
-        } catch(final QueryException ex) {
-          throw new QueryRTException(ex);
+          final int diff = item1 == null ? item2 == null ? 0 : -1 : item2 == null ? 1 :
+            item1.diff(item2, coll, sf.info);
+          if(diff != 0 && diff != Item.UNDEF) return diff;
         }
-      });
+        return (int) (size1 - size2);
+      } catch(final QueryException ex) {
+        throw new QueryRTException(ex);
+      }
+    };
+    final long min = qc.context.options.get(MainOptions.PARALLELSORT);
+    try {
+      if(min > 0 && al >= min && coll == null) Arrays.parallelSort(order, comp);
+      else Arrays.sort(order, comp);
     } catch(final QueryRTException ex) {
       throw ex.getCause();
     }
@@ -35,6 +35,9 @@ public class FnSum extends StandardFunc {
         if(item != null) return item;
       }
       final Iter iter = exprs[0].atomIter(qc, info);
+      final Value value = iter.iterValue();
+      if(value instanceof RangeSeq) return range(value);
+      if(value instanceof IntSeq || value instanceof DblSeq) return sum(value, false);
       final Item item = iter.next();
       if(item != null) return sum(iter, item, false, qc);
     }
@@ -120,6 +123,28 @@ public class FnSum extends StandardFunc {
     return item.type.isNumber() ? Calc.MULT.eval(item, Int.get(seq.size()), info) : null;
   }
 
+  /**
+   * Sums up the values of an integer or double sequence.
+   * @param value integer or double sequence
+   * @param avg calculate average
+   * @return summed up item
+   * @throws QueryException query exception
+   */
+  final Item sum(final Value value, final boolean avg) throws QueryException {
+    if(value instanceof IntSeq) {
+      final long[] values = ((IntSeq) value).values();
+      final int vl = values.length;
+      long sum = values[0];
+      for(int v = 1; v < vl; v++) sum = Calc.PLUS.eval(sum, values[v], info);
+      return avg ? Calc.DIV.eval(Int.get(sum), Int.get(vl), info) : Int.get(sum);
+    }
+    final double[] values = ((DblSeq) value).values();
+    final int vl = values.length;
+    double sum = values[0];
+    for(int v = 1; v < vl; v++) sum += values[v];
+    return Dbl.get(avg ? sum / vl : sum);
+  }
+
   /**
    * Sums up the specified item(s).
    * @param iter iterator
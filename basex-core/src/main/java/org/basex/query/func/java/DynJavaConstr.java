@@ -85,7 +85,8 @@ final class DynJavaConstr extends DynJavaCall {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    final DynJavaConstr c = new DynJavaConstr(clazz, types, copyAll(cc, vm, exprs), sc, info);
+    final DynJavaConstr c = new DynJavaConstr(clazz, types, copyAll(cc, vm, exprs), cc.copy(sc),
+        info);
     c.constrs = constrs;
     return c;
   }
@@ -187,7 +187,8 @@ final class DynJavaFunc extends DynJavaCall {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    final DynJavaFunc f = new DynJavaFunc(clazz, name, types, copyAll(cc, vm, exprs), sc, info);
+    final DynJavaFunc f = new DynJavaFunc(clazz, name, types, copyAll(cc, vm, exprs),
+        cc.copy(sc), info);
     f.field = field;
     f.methods = methods;
     return f;
@@ -2,7 +2,7 @@ package org.basex.query.func.xquery;
 
 import static org.basex.query.QueryError.*;
 
-import java.util.concurrent.*;
+import java.util.*;
 
 import org.basex.core.jobs.*;
 import org.basex.query.*;
@@ -32,19 +32,17 @@ public final class XQueryForkJoin extends StandardFunc {
     // single function: invoke directly
     if(size == 1) return ((FItem) funcs).invokeValue(qc, info);
 
-    final ForkJoinPool pool = new ForkJoinPool();
-    final XQueryTask task = new XQueryTask(funcs, qc, info);
+    // evaluate functions in parallel (query contexts must be created by the current thread)
+    final ArrayList<XQueryTask> tasks = new ArrayList<>((int) size);
+    for(final Item func : funcs) tasks.add(new XQueryTask((FItem) func, qc, info));
     try {
-      return pool.invoke(task);
-    } catch(final Exception ex) {
-      // pass on query and job exceptions
-      final Throwable e = Util.rootException(ex);
-      if(e instanceof QueryException) throw (QueryException) e;
-      if(e instanceof JobException) throw (JobException) e;
-      throw XQUERY_UNEXPECTED_X.get(info, e);
-    } finally {
-      // required?
-      pool.shutdown();
+      return QueryTask.invoke(tasks, qc, this);
+    } catch(final JobException ex) {
+      // pass on job exceptions
+      throw ex;
+    } catch(final RuntimeException ex) {
+      Util.debug(ex);
+      throw XQUERY_UNEXPECTED_X.get(info, ex);
     }
   }
 }
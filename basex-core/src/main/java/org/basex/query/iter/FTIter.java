@@ -12,4 +12,35 @@ import org.basex.query.value.node.*;
 public abstract class FTIter extends Iter {
   @Override
   public abstract FTNode next() throws QueryException;
+
+  /**
+   * Skips all nodes with pre values smaller than the specified value and returns the next node.
+   * Can be overwritten by iterators that can skip nodes without evaluating them.
+   * @param pre minimum pre value
+   * @return node or {@code null}
+   * @throws QueryException query exception
+   */
+  public FTNode skip(final int pre) throws QueryException {
+    for(FTNode node; (node = next()) != null;) {
+      if(node.pre() >= pre) return node;
+    }
+    return null;
+  }
+
+  /**
+   * Assigns a minimum score. Subsequent nodes with smaller scores may be skipped.
+   * Can be overwritten by iterators that can compute upper bounds for the scores of nodes.
+   * @param min minimum score
+   */
+  @SuppressWarnings("unused")
+  public void minScore(final double min) { }
+
+  /**
+   * Assigns the maximum distance between the start positions of the tokens of a match.
+   * Combinations of matches with larger distances may be skipped.
+   * Can be overwritten by iterators that combine matches.
+   * @param max maximum distance
+   */
+  @SuppressWarnings("unused")
+  public void window(final int max) { }
 }
@@ -17,7 +17,7 @@ public abstract class AModule extends StaticScope {
   private final TokenObjMap<StaticFunc> funcs;
   /** Static variables. */
   private final TokenObjMap<StaticVar> vars;
-  /** Namespace URIs of imported modules (currently not used). */
+  /** Namespace URIs of imported modules. */
   protected final TokenSet imports;
 
   /**
@@ -54,4 +54,12 @@ public abstract class AModule extends StaticScope {
   public final TokenObjMap<StaticFunc> funcs() {
     return funcs;
   }
+
+  /**
+   * Return namespace URIs of imported modules.
+   * @return namespace URIs
+   */
+  public final TokenSet imports() {
+    return imports;
+  }
 }
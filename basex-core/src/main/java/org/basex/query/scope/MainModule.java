@@ -71,6 +71,29 @@ public final class MainModule extends AModule {
     this.declType = declType;
   }
 
+  /**
+   * Creates a copy of this module for another query.
+   * @param sctx static context of the copy
+   * @param vrs static variables of the copy
+   * @param qc query context of the copy
+   * @return copy
+   */
+  public MainModule copy(final StaticContext sctx, final Variables vrs, final QueryContext qc) {
+    final CompileContext cc = new CompileContext(qc);
+    cc.copy(sc, sctx, vrs);
+    final VarScope vsc = new VarScope(sctx);
+    cc.pushScope(vsc);
+    try {
+      final Expr ex = expr.copy(cc, new IntObjMap<>());
+      final TokenObjMap<StaticVar> map = new TokenObjMap<>();
+      for(final StaticVar sv : vrs) map.put(sv.id(), sv);
+      return new MainModule(vsc, ex, declType, doc != null ? Token.string(doc) : null, info,
+          funcs(), map, imports);
+    } finally {
+      cc.removeScope();
+    }
+  }
+
   @Override
   public void comp(final CompileContext cc) throws QueryException {
     if(compiled) return;
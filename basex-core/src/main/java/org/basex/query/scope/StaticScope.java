@@ -29,8 +29,8 @@ public abstract class StaticScope extends ExprInfo implements Scope {
   public Expr expr;
   /** Compilation flag. */
   protected boolean compiled;
-  /** Documentation. */
-  private final byte[] doc;
+  /** Documentation (can be {@code null}). */
+  protected final byte[] doc;
 
   /**
    * Constructor.
@@ -80,7 +80,7 @@ public final class Rename extends Update {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    return new Rename(sc, info, exprs[0].copy(cc, vm), exprs[1].copy(cc, vm));
+    return new Rename(cc.copy(sc), info, exprs[0].copy(cc, vm), exprs[1].copy(cc, vm));
   }
 
   @Override
@@ -73,6 +73,7 @@ public final class DBOptimize extends DBUpdate {
     options.assignIfAbsent(MainOptions.TOKENINCLUDE, meta.tokeninclude);
     options.assignIfAbsent(MainOptions.FTINCLUDE, meta.ftinclude);
     options.assignIfAbsent(MainOptions.SPLITSIZE, meta.splitsize);
+    options.assignIfAbsent(MainOptions.PARALLELINDEX, meta.parallelindex);
     options.assignIfAbsent(MainOptions.UPDINDEX, meta.updindex);
     options.assignIfAbsent(MainOptions.AUTOOPTIMIZE, meta.autooptimize);
     options.assignTo(opts);
@@ -86,6 +87,7 @@ public final class DBOptimize extends DBUpdate {
     meta.updindex = opts.get(MainOptions.UPDINDEX);
     meta.autooptimize = opts.get(MainOptions.AUTOOPTIMIZE);
     meta.splitsize = opts.get(MainOptions.SPLITSIZE);
+    meta.parallelindex = opts.get(MainOptions.PARALLELINDEX);
 
     // check if other indexing options have changed
     final int maxcats = opts.get(MainOptions.MAXCATS);
@@ -84,6 +84,16 @@ public abstract class ASTVisitor {
     return true;
   }
 
+  /**
+   * Notifies the visitor of a built-in function call.
+   * @param func function
+   * @return if more expressions should be visited ({@code true} by default)
+   */
+  @SuppressWarnings("unused")
+  public boolean func(final StandardFunc func) {
+    return true;
+  }
+
   /**
    * Notifies the visitor of a database lock. Overwritten by {@link MainModule}.
    * Returns {@code false} if the lock is not known statically.
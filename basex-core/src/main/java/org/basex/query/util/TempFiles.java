@@ -0,0 +1,46 @@
+package org.basex.query.util;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.query.*;
+import org.basex.util.*;
+
+/**
+ * Temporary files that are created during query evaluation.
+ * Remaining files will be deleted when the query is closed.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class TempFiles implements QueryResource {
+  /** Temporary files. */
+  private final ArrayList<IOFile> files = new ArrayList<>();
+
+  /**
+   * Creates a new temporary file.
+   * @return file
+   * @throws IOException I/O exception
+   */
+  public synchronized IOFile create() throws IOException {
+    final IOFile file = new IOFile(File.createTempFile(Prop.NAME + '-', IO.TMPSUFFIX));
+    files.add(file);
+    return file;
+  }
+
+  /**
+   * Deletes a temporary file.
+   * @param file file
+   */
+  public synchronized void delete(final IOFile file) {
+    file.delete();
+    files.remove(file);
+  }
+
+  @Override
+  public synchronized void close() {
+    for(final IOFile file : files) file.delete();
+    files.clear();
+  }
+}
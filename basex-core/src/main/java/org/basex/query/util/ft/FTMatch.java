@@ -51,6 +51,24 @@ public final class FTMatch extends ObjectList<FTStringMatch, FTMatch> {
     return true;
   }
 
+  /**
+   * Returns the distance between the smallest and the largest start position of the
+   * included string matches of this and the specified match.
+   * @param ftm match to be combined with this match
+   * @return distance, or {@code -1} if no string matches are included
+   */
+  public int span(final FTMatch ftm) {
+    int min = Integer.MAX_VALUE, max = -1;
+    for(final FTMatch m : new FTMatch[] { this, ftm }) {
+      for(final FTStringMatch sm : m) {
+        if(sm.exclude) continue;
+        min = Math.min(min, sm.start);
+        max = Math.max(max, sm.start);
+      }
+    }
+    return max == -1 ? -1 : max - min;
+  }
+
   /**
    * Sorts the matches by their start and end positions.
    */
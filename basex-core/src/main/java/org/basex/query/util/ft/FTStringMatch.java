@@ -30,6 +30,18 @@ public final class FTStringMatch implements Comparable<FTStringMatch> {
     this.pos = pos;
   }
 
+  /**
+   * Returns a copy of this match. Filters create copies before modifying matches, as the
+   * same instance may be referenced by several combined matches.
+   * @return copy
+   */
+  public FTStringMatch copy() {
+    final FTStringMatch sm = new FTStringMatch(start, end, pos);
+    sm.exclude = exclude;
+    sm.gaps = gaps;
+    return sm;
+  }
+
   /**
    * Checks if the match is included in the specified match.
    * @param mtc match to be compared
@@ -37,6 +37,17 @@ public final class HashItemSet extends ASet implements ItemSet {
     return index(item, ii) >= 0;
   }
 
+  /**
+   * Stores the specified item and returns its id.
+   * @param item item to look up
+   * @param ii input info (can be {@code null})
+   * @return id
+   * @throws QueryException query exception
+   */
+  public int put(final Item item, final InputInfo ii) throws QueryException {
+    return Math.abs(index(item, ii));
+  }
+
   /**
    * Checks if the specified item exists.
    * @param item item to look up
@@ -40,6 +40,14 @@ public final class DblSeq extends NativeSeq {
     return get(tmp);
   }
 
+  /**
+   * Returns the internal values.
+   * @return values
+   */
+  public double[] values() {
+    return values;
+  }
+
   @Override
   public boolean equals(final Object obj) {
     return this == obj || (obj instanceof DblSeq ? Arrays.equals(values, ((DblSeq) obj).values) :
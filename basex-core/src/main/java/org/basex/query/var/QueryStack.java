@@ -36,6 +36,18 @@ public final class QueryStack {
     return s;
   }
 
+  /**
+   * Enters a new stack frame and assigns the bindings of the current frame of another stack.
+   * @param qs query stack
+   * @return stack pointer of the old frame
+   */
+  public int enterFrame(final QueryStack qs) {
+    final int s = qs.start, size = qs.end - s, fp = enterFrame(size);
+    Array.copy(qs.stack, s, size, stack, start);
+    Array.copy(qs.vars, s, size, vars, start);
+    return fp;
+  }
+
   /**
    * Prepares the current stack frame to be reused.
    * @param size new frame size
@@ -45,6 +45,19 @@ public final class StaticVar extends StaticDecl {
     lazy = anns.contains(Annotation._BASEX_LAZY);
   }
 
+  /**
+   * Creates a copy of this variable declaration.
+   * The bound expression will be adopted; it must be a value or {@code null}.
+   * @param sc static context
+   * @param qc query context
+   * @return copy
+   */
+  StaticVar copy(final StaticContext sc, final QueryContext qc) {
+    final Var var = new Var(name, declType, false, qc, sc, info);
+    return new StaticVar(new VarScope(sc), anns, var, expr, external,
+        doc != null ? Token.string(doc) : null);
+  }
+
   @Override
   public void comp(final CompileContext cc) throws QueryException {
     if(expr == null) throw VAREMPTY_X.get(info, name());
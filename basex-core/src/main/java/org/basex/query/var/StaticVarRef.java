@@ -75,8 +75,8 @@ final class StaticVarRef extends ParseExpr {
 
   @Override
   public Expr copy(final CompileContext cc, final IntObjMap<Var> vm) {
-    final StaticVarRef ref = new StaticVarRef(info, name, sc);
-    ref.var = var;
+    final StaticVarRef ref = new StaticVarRef(info, name, cc.copy(sc));
+    ref.var = cc.copy(var);
     return ref;
   }
 
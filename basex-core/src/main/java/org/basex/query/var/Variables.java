@@ -40,6 +40,28 @@ public final class Variables extends ExprInfo implements Iterable<StaticVar> {
     return sv;
   }
 
+  /**
+   * Declares copies of the specified variables.
+   * @param vrs variables to be copied
+   * @param sc static context
+   * @param qc query context
+   * @throws QueryException query exception
+   */
+  public void copy(final Variables vrs, final StaticContext sc, final QueryContext qc)
+      throws QueryException {
+    for(final VarEntry ve : vrs.vars.values()) varEntry(ve.var.name).setVar(ve.var.copy(sc, qc));
+  }
+
+  /**
+   * Returns the declared variable with the specified name.
+   * @param name variable name
+   * @return variable or {@code null}
+   */
+  public StaticVar get(final QNm name) {
+    final VarEntry ve = vars.get(name);
+    return ve != null ? ve.var : null;
+  }
+
   /**
    * Ensures that none of the variable expressions is updating.
    * @throws QueryException query exception
@@ -0,0 +1,171 @@
+package org.basex.util;
+
+/**
+ * This class compresses and decompresses byte arrays. The output complies with the LZ4 block
+ * format: a compressed array consists of sequences, each starting with a token, which contains
+ * the number of literals (upper 4 bits) and the length of the subsequent match (lower 4 bits),
+ * followed by the literals and the 2-byte offset of the match.
+ * Compression is fast, and decompression is even faster, as no entropy coding is performed.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class LZ4 {
+  /** Minimum match length. */
+  private static final int MIN_MATCH = 4;
+  /** Number of trailing bytes that are always stored as literals. */
+  private static final int LAST_LITERALS = 5;
+  /** Number of trailing bytes in which no match may start. */
+  private static final int MF_LIMIT = 12;
+  /** Maximum match distance. */
+  private static final int MAX_DISTANCE = 0xFFFF;
+  /** Number of bits of hash values. */
+  private static final int HASH_BITS = 12;
+
+  /** Private constructor. */
+  private LZ4() { }
+
+  /**
+   * Returns the maximum size of a compressed array.
+   * @param length length of the input
+   * @return maximum size
+   */
+  public static int maxLength(final int length) {
+    return length + length / 255 + 16;
+  }
+
+  /**
+   * Compresses bytes.
+   * @param source bytes to be compressed
+   * @param length number of bytes to be compressed
+   * @param target target array (must provide at least {@link #maxLength(int)} bytes)
+   * @return length of the compressed bytes
+   */
+  public static int compress(final byte[] source, final int length, final byte[] target) {
+    final int[] table = new int[1 << HASH_BITS];
+    final int limit = length - MF_LIMIT, mlimit = length - LAST_LITERALS;
+    int s = 1, anchor = 0, t = 0;
+    while(s < limit) {
+      final int seq = int4(source, s), h = seq * -1640531535 >>> 32 - HASH_BITS;
+      final int ref = table[h];
+      table[h] = s;
+      if(s - ref > MAX_DISTANCE || int4(source, ref) != seq) {
+        // no match: skip bytes faster if data seems to be incompressible
+        s += 1 + (s - anchor >>> 6);
+        continue;
+      }
+      // extend match forward and backward
+      int m = s + MIN_MATCH, r = ref + MIN_MATCH;
+      while(m < mlimit && source[m] == source[r]) {
+        m++;
+        r++;
+      }
+      int st = s, rf = ref;
+      while(st > anchor && rf > 0 && source[st - 1] == source[rf - 1]) {
+        st--;
+        rf--;
+      }
+      t = sequence(source, anchor, st - anchor, st - rf, m - st - MIN_MATCH, target, t);
+      anchor = m;
+      s = m;
+    }
+    // add remaining bytes as literals
+    final int ll = length - anchor;
+    target[t++] = (byte) (Math.min(ll, 15) << 4);
+    if(ll >= 15) t = length(ll - 15, target, t);
+    Array.copy(source, anchor, ll, target, t);
+    return t + ll;
+  }
+
+  /**
+   * Decompresses bytes.
+   * @param source compressed bytes
+   * @param offset offset of the first compressed byte
+   * @param length number of compressed bytes
+   * @param target target array for the decompressed bytes
+   * @return number of decompressed bytes
+   */
+  public static int decompress(final byte[] source, final int offset, final int length,
+      final byte[] target) {
+
+    final int end = offset + length;
+    int s = offset, t = 0;
+    while(true) {
+      final int token = source[s++] & 0xFF;
+      // copy literals
+      int ll = token >>> 4;
+      if(ll == 15) {
+        for(int b = 255; b == 255; ll += b) b = source[s++] & 0xFF;
+      }
+      Array.copy(source, s, ll, target, t);
+      s += ll;
+      t += ll;
+      if(s >= end) return t;
+
+      // copy match
+      final int dist = source[s++] & 0xFF | (source[s++] & 0xFF) << 8;
+      int ml = token & 0x0F;
+      if(ml == 15) {
+        for(int b = 255; b == 255; ml += b) b = source[s++] & 0xFF;
+      }
+      ml += MIN_MATCH;
+      if(dist >= ml) {
+        Array.copy(target, t - dist, ml, target, t);
+        t += ml;
+      } else {
+        // overlapping match
+        for(final int e = t + ml; t < e; t++) target[t] = target[t - dist];
+      }
+    }
+  }
+
+  /**
+   * Writes a sequence.
+   * @param source source bytes
+   * @param lit offset to the literals
+   * @param ll number of literals
+   * @param dist distance of the match
+   * @param ml length of the match, minus the minimum match length
+   * @param target target array
+   * @param offset current offset in the target array
+   * @return new offset
+   */
+  private static int sequence(final byte[] source, final int lit, final int ll, final int dist,
+      final int ml, final byte[] target, final int offset) {
+
+    int t = offset;
+    target[t++] = (byte) (Math.min(ll, 15) << 4 | Math.min(ml, 15));
+    if(ll >= 15) t = length(ll - 15, target, t);
+    Array.copy(source, lit, ll, target, t);
+    t += ll;
+    target[t++] = (byte) dist;
+    target[t++] = (byte) (dist >>> 8);
+    if(ml >= 15) t = length(ml - 15, target, t);
+    return t;
+  }
+
+  /**
+   * Writes the remaining part of a literal or match length.
+   * @param length length
+   * @param target target array
+   * @param offset current offset in the target array
+   * @return new offset
+   */
+  private static int length(final int length, final byte[] target, final int offset) {
+    int t = offset, l = length;
+    for(; l >= 255; l -= 255) target[t++] = (byte) 255;
+    target[t++] = (byte) l;
+    return t;
+  }
+
+  /**
+   * Returns four bytes as integer.
+   * @param bytes bytes
+   * @param offset offset
+   * @return integer
+   */
+  private static int int4(final byte[] bytes, final int offset) {
+    return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16 |
+        (bytes[offset + 2] & 0xFF) << 8 | bytes[offset + 3] & 0xFF;
+  }
+}
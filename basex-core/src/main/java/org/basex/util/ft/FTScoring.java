@@ -0,0 +1,23 @@
+package org.basex.util.ft;
+
+import java.util.*;
+
+/**
+ * Full-text scoring models.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public enum FTScoring {
+  /** Default model. */ DEFAULT,
+  /** BM25.          */ BM25;
+
+  /**
+   * Returns a string representation.
+   * @return string representation
+   */
+  @Override
+  public String toString() {
+    return name().toLowerCase(Locale.ENGLISH);
+  }
+}
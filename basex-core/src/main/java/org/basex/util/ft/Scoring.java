@@ -3,7 +3,7 @@ package org.basex.util.ft;
 import static java.lang.StrictMath.*;
 
 /**
- * Default scoring model, assembling all score calculations.
+ * Scoring models, assembling all score calculations.
  *
  * @author BaseX Team 2005-20, BSD License
  * @author Christian Gruen
@@ -11,6 +11,10 @@ import static java.lang.StrictMath.*;
 public final class Scoring {
   /** Logarithmic base for calculating the score value. */
   private static final double LOG = Math.E - 1;
+  /** BM25: saturation of the token frequency. */
+  private static final double K1 = 1.2;
+  /** BM25: impact of the text length. */
+  private static final double B = 0.75;
 
   /** Private constructor. */
   private Scoring() { }
@@ -58,4 +62,32 @@ public final class Scoring {
       final int length) {
     return max((double) number / size, log(token * number + 1) / log(length + 1));
   }
+
+  /**
+   * Calculates the BM25 score of a token in a text. The inverse document frequency and
+   * the saturated token frequency are normalized, so the score is smaller than the value
+   * returned by {@link #idf(int, long)}.
+   * @param freq number of occurrences of the token in the text
+   * @param texts number of texts containing the token
+   * @param count total number of texts
+   * @param length number of tokens in the text
+   * @param avg average number of tokens in comparable texts
+   * @return score
+   */
+  public static double bm25(final int freq, final int texts, final long count,
+      final double length, final double avg) {
+    return idf(texts, count) * freq / (freq + K1 * (1 - B + B * length / avg));
+  }
+
+  /**
+   * Calculates the normalized BM25 inverse document frequency of a token.
+   * The result is an upper bound for all scores of this token.
+   * @param texts number of texts containing the token
+   * @param count total number of texts
+   * @return value between {@code 0} and {@code 1}
+   */
+  public static double idf(final int texts, final long count) {
+    final double n = min(texts, count);
+    return log(1 + (count - n + 0.5) / (n + 0.5)) / log(1 + (count + 0.5) / 0.5);
+  }
 }
@@ -16,8 +16,8 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public final class Levenshtein {
-  /** Maximum token size. */
-  private static final int MAX = 50;
+  /** Maximum token size (longer tokens are compared exactly). */
+  public static final int MAX = 50;
 
   /** Default number of allowed errors; dynamic calculation if value is 0. */
   private final int error;
@@ -1,6 +1,10 @@
 package org.basex;
 
+import java.io.*;
+
 import org.basex.core.*;
+import org.basex.io.*;
+import org.basex.util.*;
 import org.junit.jupiter.api.*;
 
 /**
@@ -23,4 +27,14 @@ public abstract class SandboxTest extends Sandbox {
   @AfterAll public static void finishTests() {
     finishSandbox();
   }
+
+  /**
+   * Returns the number of temporary files.
+   * @return number of files
+   */
+  protected static int tempFiles() {
+    final File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles((dir, name) ->
+      name.startsWith(Prop.NAME + '-') && name.endsWith(IO.TMPSUFFIX));
+    return files == null ? 0 : files.length;
+  }
 }
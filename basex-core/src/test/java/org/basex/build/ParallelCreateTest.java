@@ -0,0 +1,112 @@
+package org.basex.build;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for parsing files in parallel ({@link MainOptions#PARALLELCREATE}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class ParallelCreateTest extends SandboxTest {
+  /** Test folder. */
+  private static final String FLDR = "src/test/resources/dir";
+  /** Test ZIP file. */
+  private static final String ZIPFILE = "src/test/resources/xml.zip";
+  /** Directory with generated files. */
+  private static final IOFile INPUT = new IOFile(Prop.TEMPDIR, NAME + "-input/");
+  /** Query for serializing all documents. */
+  private static final String DOCS = "string-join(db:open('" + NAME + "') ! " +
+      "(db:path(.) || serialize(.)), ' ')";
+  /** Query for returning the database structure. */
+  private static final String FACETS = "serialize(index:facets('" + NAME + "'))";
+  /** Number of threads. */
+  private static final int THREADS = 4;
+
+  /**
+   * Resets the options and deletes the test files.
+   */
+  @AfterEach public void tearDown() {
+    set(MainOptions.PARALLELCREATE, 0);
+    set(MainOptions.SKIPCORRUPT, false);
+    execute(new DropDB(NAME));
+    INPUT.delete();
+  }
+
+  /**
+   * Creates databases from a folder and an archive.
+   */
+  @Test public void folder() {
+    compare(FLDR);
+    compare(ZIPFILE);
+  }
+
+  /**
+   * Creates a database from many files with namespaces, comments and processing instructions.
+   */
+  @Test public void generated() {
+    generate(200, 20);
+    compare(INPUT.path());
+    assertEquals("200", query("count(db:open('" + NAME + "'))"));
+  }
+
+  /**
+   * Creates a database from a folder with a corrupt file.
+   */
+  @Test public void corrupt() {
+    generate(50, 5);
+    write(new IOFile(INPUT, "corrupt.xml"), "<x");
+    set(MainOptions.PARALLELCREATE, THREADS);
+    assertThrows(BaseXException.class, () -> new CreateDB(NAME, INPUT.path()).execute(context));
+
+    set(MainOptions.SKIPCORRUPT, true);
+    compare(INPUT.path());
+    assertEquals("50", query("count(db:open('" + NAME + "'))"));
+  }
+
+  /**
+   * Creates databases with sequential and parallel parsing and compares the results.
+   * @param path input path
+   */
+  private static void compare(final String path) {
+    set(MainOptions.PARALLELCREATE, 0);
+    execute(new CreateDB(NAME, path));
+    final String docs = query(DOCS), facets = query(FACETS);
+
+    set(MainOptions.PARALLELCREATE, THREADS);
+    execute(new CreateDB(NAME, path));
+    assertEquals(docs, query(DOCS));
+    assertEquals(facets, query(FACETS));
+  }
+
+  /**
+   * Generates test files.
+   * @param files number of files
+   * @param items number of items per file
+   */
+  private static void generate(final int files, final int items) {
+    for(int d = 0; d < 10; d++) new IOFile(INPUT, "sub" + d).md();
+    for(int f = 0; f < files; f++) {
+      final StringBuilder sb = new StringBuilder("<?pi doc?><!--" + f + "-->");
+      sb.append("<doc xmlns='urn:doc' xmlns:x='urn:x' id='").append(f).append("'>");
+      for(int i = 0; i < items; i++) {
+        sb.append("<x:item n='").append(i).append("' x:mod='").append(i % 7).append("'>");
+        sb.append("<name>Item ").append(i).append("</name>");
+        if(i % 3 == 0) sb.append("<empty xmlns='urn:empty'/>");
+        if(i % 5 == 0) sb.append("<!--c ").append(i).append("--><?p ").append(i).append("?>");
+        sb.append("<text>").append(i % 11 == 0 ? "" : "Text " + f + ' ' + i).append("</text>");
+        sb.append("</x:item>");
+      }
+      sb.append("</doc>");
+      write(new IOFile(INPUT, "sub" + f % 10 + '/' + f + IO.XMLSUFFIX), sb.toString());
+    }
+  }
+}
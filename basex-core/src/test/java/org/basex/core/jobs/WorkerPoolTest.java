@@ -0,0 +1,242 @@
+package org.basex.core.jobs;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the worker pool.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class WorkerPoolTest extends SandboxTest {
+  /** Worker pool. */
+  private WorkerPool pool;
+
+  /** Creates a pool with two threads and a limit of two tasks per query. */
+  @BeforeEach public void init() {
+    final StaticOptions sopts = new StaticOptions(false);
+    sopts.set(StaticOptions.WORKERS, 2);
+    sopts.set(StaticOptions.WORKERLIMIT, 2);
+    pool = new WorkerPool(sopts);
+  }
+
+  /** Closes the pool. */
+  @AfterEach public void close() {
+    pool.close();
+  }
+
+  /**
+   * Results are returned in the order of the tasks.
+   * @throws IOException I/O exception
+   */
+  @Test public void order() throws IOException {
+    final ArrayList<Task> tasks = new ArrayList<>();
+    for(int t = 0; t < 100; t++) tasks.add(new Task(t, (100 - t) % 7, -1, null));
+    final ArrayList<Integer> results = pool.invoke(tasks);
+    for(int t = 0; t < 100; t++) assertEquals(t, results.get(t).intValue());
+
+    assertEquals(100, pool.completed());
+    assertEquals(0, pool.queued());
+    assertEquals(0, pool.running());
+    assertTrue(pool.threads() <= 2);
+    assertEquals(0, pool.invoke(new ArrayList<Task>()).size());
+  }
+
+  /**
+   * Number of concurrently running tasks.
+   * @throws IOException I/O exception
+   */
+  @Test public void limit() throws IOException {
+    final AtomicInteger running = new AtomicInteger(), max = new AtomicInteger();
+    final ArrayList<Task> tasks = new ArrayList<>();
+    for(int t = 0; t < 20; t++) {
+      tasks.add(new Task(t, 10, -1, null) {
+        @Override
+        public Integer run() throws IOException {
+          max.accumulateAndGet(running.incrementAndGet(), Math::max);
+          try {
+            return super.run();
+          } finally {
+            running.decrementAndGet();
+          }
+        }
+      });
+    }
+    pool.invoke(tasks);
+    // calling thread, two worker threads
+    assertTrue(max.get() <= 3, "Concurrent tasks: " + max);
+  }
+
+  /**
+   * Nested invocations.
+   * @throws IOException I/O exception
+   */
+  @Test public void nested() throws IOException {
+    final ArrayList<Task> tasks = new ArrayList<>();
+    for(int t = 0; t < 10; t++) {
+      tasks.add(new Task(t, 0, -1, null) {
+        @Override
+        public Integer run() throws IOException {
+          final ArrayList<Task> inner = new ArrayList<>();
+          for(int i = 0; i < 10; i++) inner.add(new Task(i, 1, -1, null));
+          int sum = 0;
+          for(final int i : pool.invoke(inner)) sum += i;
+          return sum;
+        }
+      });
+    }
+    for(final int result : pool.invoke(tasks)) assertEquals(45, result);
+  }
+
+  /**
+   * Number of concurrently running tasks of nested invocations that share their permits.
+   * @throws IOException I/O exception
+   */
+  @Test public void shared() throws IOException {
+    final StaticOptions sopts = new StaticOptions(false);
+    sopts.set(StaticOptions.WORKERS, 8);
+    sopts.set(StaticOptions.WORKERLIMIT, 2);
+    final WorkerPool wp = new WorkerPool(sopts);
+    try {
+      final Semaphore permits = wp.permits();
+      final AtomicInteger running = new AtomicInteger(), max = new AtomicInteger();
+      final ArrayList<Task> tasks = new ArrayList<>();
+      for(int t = 0; t < 8; t++) {
+        tasks.add(new Task(t, 0, -1, null) {
+          @Override
+          public Integer run() throws IOException {
+            final ArrayList<Task> inner = new ArrayList<>();
+            for(int i = 0; i < 8; i++) {
+              inner.add(new Task(i, 5, -1, null) {
+                @Override
+                public Integer run() throws IOException {
+                  max.accumulateAndGet(running.incrementAndGet(), Math::max);
+                  try {
+                    return super.run();
+                  } finally {
+                    running.decrementAndGet();
+                  }
+                }
+              });
+            }
+            int sum = 0;
+            for(final int i : wp.invoke(inner, permits)) sum += i;
+            return sum;
+          }
+        });
+      }
+      for(final int result : wp.invoke(tasks, permits)) assertEquals(28, result);
+      // calling thread, two worker threads
+      assertTrue(max.get() <= 3, "Concurrent tasks: " + max);
+      assertEquals(2, permits.availablePermits());
+    } finally {
+      wp.close();
+    }
+  }
+
+  /**
+   * Invocation from a thread of another fork/join pool.
+   * @throws Exception exception
+   */
+  @Test public void foreignPool() throws Exception {
+    final ForkJoinPool common = ForkJoinPool.commonPool();
+    final AtomicInteger foreign = new AtomicInteger();
+    final ArrayList<Task> tasks = new ArrayList<>();
+    for(int t = 0; t < 10; t++) {
+      tasks.add(new Task(t, 1, -1, null) {
+        @Override
+        public Integer run() throws IOException {
+          if(ForkJoinTask.getPool() == common) foreign.incrementAndGet();
+          return super.run();
+        }
+      });
+    }
+    common.submit(() -> pool.invoke(tasks)).get();
+    // only tasks evaluated by the calling thread are run in the foreign pool
+    assertTrue(foreign.get() < tasks.size(), "Tasks in foreign pool: " + foreign);
+    assertTrue(pool.threads() > 0);
+  }
+
+  /** Failing tasks stop all other tasks. */
+  @Test public void error() {
+    final AtomicInteger stopped = new AtomicInteger();
+    final ArrayList<Task> tasks = new ArrayList<>();
+    for(int t = 0; t < 50; t++) tasks.add(new Task(t, 5, 5, stopped));
+    try {
+      pool.invoke(tasks);
+      fail("Exception expected.");
+    } catch(final IOException ex) {
+      assertEquals("5", ex.getMessage());
+    }
+    assertEquals(0, pool.running());
+    assertEquals(0, pool.queued());
+    assertTrue(stopped.get() > 0);
+
+    tasks.clear();
+    for(int t = 0; t < 5; t++) tasks.add(new Task(t, 0, 3, null) {
+      @Override
+      public Integer run() throws IOException {
+        if(number == 3) throw new IllegalStateException();
+        return super.run();
+      }
+    });
+    assertThrows(IllegalStateException.class, () -> pool.invoke(tasks));
+  }
+
+  /** Pool statistics. */
+  @Test public void info() {
+    final String info = execute(new Info());
+    assertTrue(info.contains(Text.WORKER_POOL), info);
+    assertTrue(info.contains(Text.COMPLETED_TASKS), info);
+  }
+
+  /** Test task. */
+  private static class Task implements WorkerTask<Integer, IOException> {
+    /** Task number. */
+    final int number;
+    /** Milliseconds to sleep. */
+    private final int ms;
+    /** Number of the failing task. */
+    private final int error;
+    /** Counter for stopped tasks (can be {@code null}). */
+    private final AtomicInteger stopped;
+
+    /**
+     * Constructor.
+     * @param number task number
+     * @param ms milliseconds to sleep
+     * @param error number of the failing task
+     * @param stopped counter for stopped tasks (can be {@code null})
+     */
+    Task(final int number, final int ms, final int error, final AtomicInteger stopped) {
+      this.number = number;
+      this.ms = ms;
+      this.error = error;
+      this.stopped = stopped;
+    }
+
+    @Override
+    public Integer run() throws IOException {
+      Performance.sleep(ms);
+      if(number == error) throw new IOException(Integer.toString(number));
+      return number;
+    }
+
+    @Override
+    public void stop() {
+      if(stopped != null) stopped.incrementAndGet();
+    }
+  }
+}
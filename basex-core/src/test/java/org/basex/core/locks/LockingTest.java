@@ -4,9 +4,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.*;
 import org.basex.core.*;
+import org.basex.core.cmd.Info;
 import org.junit.jupiter.api.*;
 
 /**
@@ -529,6 +531,106 @@ public final class LockingTest extends SandboxTest {
       "Looks like thread is stuck in a deadlock.");
   }
 
+  /**
+   * Records contention statistics.
+   * @throws InterruptedException Got interrupted.
+   */
+  @Test
+  public void statsTest() throws InterruptedException {
+    final CountDownLatch sync = new CountDownLatch(1), test = new CountDownLatch(1);
+    final LockTester th1 = new LockTester(null, NONE, objects, sync);
+    final LockTester th2 = new LockTester(sync, objects, NONE, test);
+
+    th1.start();
+    th2.start();
+    assertFalse(test.await(WAIT, TimeUnit.MILLISECONDS),
+      "Thread 2 shouldn't be able to acquire lock yet.");
+    th1.release();
+    assertTrue(test.await(WAIT, TimeUnit.MILLISECONDS),
+      "Thread 2 should be able to acquire lock now.");
+    th2.release();
+    th1.join();
+    th2.join();
+
+    final LockStats stats = locking.stats().get(objects[0]);
+    assertEquals(2, stats.acquired());
+    assertEquals(1, stats.contended());
+    assertTrue(stats.waited() > 0);
+    assertEquals(2, locking.stats().get(Locking.GLOBAL).acquired());
+  }
+
+  /**
+   * Limits the number of statistics of discarded locks.
+   * @throws InterruptedException Got interrupted.
+   */
+  @Test
+  public void statsLimitTest() throws InterruptedException {
+    final int max = Locking.MAXSTATS * 2;
+    for(int l = 0; l < max; l++) {
+      final Locks locks = new Locks();
+      locks.reads.add("lock" + l);
+      locks.finish(context);
+      locking.acquire(locks);
+      locking.release();
+    }
+    assertTrue(locking.stats().size() <= Locking.MAXSTATS + 1, "Size: " + locking.stats().size());
+
+    final String info = execute(new Info());
+    assertTrue(info.contains(Text.LOCK_STATISTICS), info);
+  }
+
+  /**
+   * Acquires random locks with many threads and checks that write locks are exclusive.
+   * @throws InterruptedException Got interrupted.
+   */
+  @Test
+  public void stressTest() throws InterruptedException {
+    final StaticOptions sopts = new StaticOptions(false);
+    for(final boolean fair : new boolean[] { false, true }) {
+      sopts.set(StaticOptions.FAIRLOCK, fair);
+      final Locking lckng = new Locking(sopts);
+      // number of readers per object, or -1 for a writer
+      final int ol = objects.length;
+      final AtomicIntegerArray states = new AtomicIntegerArray(ol);
+      final AtomicInteger errors = new AtomicInteger();
+
+      final Thread[] threads = new Thread[16];
+      for(int t = 0; t < threads.length; t++) {
+        final long seed = t;
+        threads[t] = new Thread(() -> {
+          final Random rnd = new Random(seed);
+          for(int r = 0; r < 2000; r++) {
+            final Locks locks = new Locks();
+            final int o = rnd.nextInt(ol);
+            final boolean write = rnd.nextInt(10) == 0;
+            (write ? locks.writes : locks.reads).add(objects[o]);
+            locks.finish(context);
+            try {
+              lckng.acquire(locks);
+            } catch(final InterruptedException ex) {
+              throw new RuntimeException(ex);
+            }
+            if(write ? !states.compareAndSet(o, 0, -1) : states.getAndIncrement(o) < 0) {
+              errors.incrementAndGet();
+            }
+            Thread.yield();
+            if(write ? !states.compareAndSet(o, -1, 0) : states.getAndDecrement(o) <= 0) {
+              errors.incrementAndGet();
+            }
+            lckng.release();
+          }
+        });
+      }
+      for(final Thread thread : threads) thread.start();
+      for(final Thread thread : threads) thread.join();
+
+      assertEquals(0, errors.get(), "Fair: " + fair);
+      long acquired = 0;
+      for(final String object : objects) acquired += lckng.stats().get(object).acquired();
+      assertEquals(threads.length * 2000, acquired, "Fair: " + fair);
+    }
+  }
+
   /**
    * Default implementation for setting locks and latches.
    */
@@ -0,0 +1,85 @@
+package org.basex.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.index.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for databases with compressed texts and attribute values
+ * ({@link MainOptions#BLOCKCOMPRESS}) and compressed tables ({@link MainOptions#TABLECOMPRESS}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class BlockCompressTest extends IndexTestBase {
+  /**
+   * Resets the options.
+   */
+  @AfterEach public void tearDown() {
+    set(MainOptions.BLOCKCOMPRESS, false);
+    set(MainOptions.TABLECOMPRESS, false);
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Creates, queries and updates a database with compressed texts and attribute values.
+   */
+  @Test public void texts() {
+    run(true, false);
+  }
+
+  /**
+   * Creates, queries and updates a database with a compressed table.
+   */
+  @Test public void table() {
+    run(false, true);
+  }
+
+  /**
+   * Creates, queries and updates a compressed database.
+   * @param texts compress texts and attribute values
+   * @param table compress table
+   */
+  private static void run(final boolean texts, final boolean table) {
+    final String query = "sum(//item ! string-length()) + sum(//@name ! string-length())";
+    create(false, false, 20000);
+    final String expected = query(query);
+
+    create(texts, table, 20000);
+    final MetaData meta = context.data().meta;
+    assertEquals(texts, meta.blockcompress);
+    assertEquals(table, meta.tablecompress);
+    assertEquals(expected, query(query));
+
+    // updates
+    query("for $i in //item[@id mod 10 = 0] return replace value of node $i with 'updated'");
+    query("for $i in //item[@id mod 10 = 1] return delete node $i");
+    query("insert node <item id='x' name='x'>{ (1 to 1000) ! 'new' }</item> into /xml");
+    final String updated = query("string-join(//item[position() mod 100 = 0])");
+    execute(new Close());
+    execute(new Open(NAME));
+    assertEquals(updated, query("string-join(//item[position() mod 100 = 0])"));
+
+    // compression options are kept when database is optimized
+    execute(new OptimizeAll());
+    assertEquals(texts, context.data().meta.blockcompress);
+    assertEquals(table, context.data().meta.tablecompress);
+    assertEquals(updated, query("string-join(//item[position() mod 100 = 0])"));
+  }
+
+  /**
+   * Creates a test database.
+   * @param texts compress texts and attribute values
+   * @param table compress table
+   * @param items number of items
+   */
+  private static void create(final boolean texts, final boolean table, final int items) {
+    set(MainOptions.BLOCKCOMPRESS, texts);
+    set(MainOptions.TABLECOMPRESS, table);
+    create(items);
+  }
+}
@@ -0,0 +1,23 @@
+package org.basex.data;
+
+import java.io.*;
+
+import org.basex.io.random.*;
+
+/**
+ * This class tests the update functionality of the compressed block storage.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class CompressedTableTest extends DiskTableTest {
+  @Override
+  TableAccess open(final MetaData meta) throws IOException {
+    // compress table when it is opened for the first time
+    if(!meta.tablecompress) {
+      TableDiskAccess.compress(meta);
+      meta.tablecompress = true;
+    }
+    return new TableDiskAccess(meta, true);
+  }
+}
@@ -21,12 +21,12 @@ import org.junit.jupiter.api.Test;
  * @author BaseX Team 2005-20, BSD License
  * @author Tim Petrowsky
  */
-public final class DiskTableTest extends SandboxTest {
+public class DiskTableTest extends SandboxTest {
   /** Test file we do updates with. */
   private static final String TESTFILE = "src/test/resources/xmark.xml";
 
   /** BlockStorage. */
-  private TableDiskAccess tda;
+  private TableAccess tda;
   /** Data reference. */
   private Data data;
   /** Test file size. */
@@ -55,7 +55,7 @@ public final class DiskTableTest extends SandboxTest {
     data = new DiskBuilder(NAME, parser, context.soptions, context.options).build();
     size = data.meta.size;
     data.close();
-    tda = new TableDiskAccess(data.meta, true);
+    tda = open(data.meta);
 
     final int bc = size * (1 << IO.NODEPOWER);
     storage = new byte[bc];
@@ -66,6 +66,16 @@ public final class DiskTableTest extends SandboxTest {
     blocks = (int) Math.ceil((double) size / nodes);
   }
 
+  /**
+   * Opens the table.
+   * @param meta meta data
+   * @return table access
+   * @throws IOException I/O exception
+   */
+  TableAccess open(final MetaData meta) throws IOException {
+    return new TableDiskAccess(meta, true);
+  }
+
   /**
    * Drops the JUnitTest database.
    * @throws Exception exception
@@ -81,7 +91,7 @@ public final class DiskTableTest extends SandboxTest {
   private void closeAndReload() {
     try {
       tda.close();
-      tda = new TableDiskAccess(data.meta, true);
+      tda = open(data.meta);
     } catch(final IOException ex) {
       fail(Util.message(ex));
     }
@@ -0,0 +1,18 @@
+package org.basex.data;
+
+import java.io.*;
+
+import org.basex.io.random.*;
+
+/**
+ * This class tests the update functionality of the memory-mapped block storage.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class MappedTableTest extends DiskTableTest {
+  @Override
+  TableAccess open(final MetaData meta) throws IOException {
+    return new TableMappedAccess(meta, true);
+  }
+}
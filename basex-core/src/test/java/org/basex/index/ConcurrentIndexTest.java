@@ -0,0 +1,91 @@
+package org.basex.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for accessing index structures by concurrent readers.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class ConcurrentIndexTest extends IndexTestBase {
+  /** Index queries. */
+  private static final String[] QUERIES = {
+    "db:text('" + NAME + "', 'text 123 word1') ! db:node-pre(.)",
+    "db:attribute('" + NAME + "', ('5', '17', '999'), 'id') ! db:node-pre(.)",
+    "db:attribute-range('" + NAME + "', '990', '995', 'id') ! db:node-pre(.)",
+    "db:token('" + NAME + "', 'n5') ! db:node-pre(.)",
+    "count(index:attributes('" + NAME + "', '99'))",
+    "ft:search('" + NAME + "', 'word3 word4') ! db:node-pre(.)",
+    "ft:search('" + NAME + "', 'text 4999') ! db:node-pre(.)",
+    "ft:search('" + NAME + "', 'wort', map { 'fuzzy': true() }) => count()",
+    "ft:search('" + NAME + "', '49.9', map { 'wildcards': true() }) ! db:node-pre(.)",
+    "serialize(ft:tokens('" + NAME + "', 'word'))",
+  };
+
+  /** Creates the test database. */
+  @BeforeAll public static void init() {
+    set(MainOptions.TOKENINDEX, true);
+    set(MainOptions.FTINDEX, true);
+    create(20000);
+  }
+
+  /** Drops the test database. */
+  @AfterAll public static void finish() {
+    execute(new DropDB(NAME));
+    set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
+  }
+
+  /**
+   * Evaluates index queries concurrently.
+   * @throws Exception exception
+   */
+  @Test public void concurrent() throws Exception {
+    final ArrayList<String> expected = new ArrayList<>();
+    for(final String query : QUERIES) expected.add(run(query));
+
+    final ArrayList<Thread> threads = new ArrayList<>();
+    final ArrayList<Throwable> errors = new ArrayList<>();
+    for(int t = 0; t < 8; t++) {
+      final int n = t;
+      threads.add(new Thread(() -> {
+        try {
+          final int ql = QUERIES.length;
+          for(int i = 0; i < 50; i++) {
+            final int q = (n + i) % ql;
+            assertEquals(expected.get(q), run(QUERIES[q]), QUERIES[q]);
+          }
+        } catch(final Throwable th) {
+          synchronized(errors) {
+            errors.add(th);
+          }
+        }
+      }));
+    }
+    for(final Thread thread : threads) thread.start();
+    for(final Thread thread : threads) thread.join();
+    if(!errors.isEmpty()) throw new Exception(errors.get(0));
+  }
+
+  /**
+   * Evaluates a query.
+   * @param query query
+   * @return result
+   */
+  private static String run(final String query) {
+    try(QueryProcessor qp = new QueryProcessor(query, context)) {
+      return normNL(qp.value().serialize().toString());
+    } catch(final QueryException | QueryIOException ex) {
+      throw new AssertionError(ex);
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package org.basex.index;
+
+import static org.basex.data.DataText.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for fuzzy and wildcard searches on the dictionary of the full-text index.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class FTDictionaryTest extends SandboxTest {
+  /** Characters of the generated words. */
+  private static final String CHARS = "abcdeéöx";
+  /** Generated words. */
+  private static final ArrayList<String> WORDS = new ArrayList<>();
+
+  /** Generates the words. */
+  @BeforeAll public static void init() {
+    final Random rnd = new Random(42);
+    for(int w = 0; w < 5000; w++) {
+      final StringBuilder sb = new StringBuilder();
+      for(int l = rnd.nextInt(9); l >= 0; l--) sb.append(CHARS.charAt(rnd.nextInt(CHARS.length())));
+      WORDS.add(sb.toString());
+    }
+  }
+
+  /** Resets the options. */
+  @AfterEach public void tearDown() {
+    set(MainOptions.FTINDEX, false);
+    execute(new DropDB(NAME));
+  }
+
+  /** Fuzzy searches. */
+  @Test public void fuzzy() {
+    create(1000);
+    query(search("zyzyzq", "fuzzy"), "zyzyzy");
+    compare(queries("fuzzy"));
+  }
+
+  /** Wildcard searches. */
+  @Test public void wildcards() {
+    create(1000);
+    query(search("zyz.*", "wildcards"), "zyzyzy");
+    compare(queries("wildcards"));
+  }
+
+  /** Searches after the index has been incrementally optimized. */
+  @Test public void optimize() {
+    create(500);
+    query("insert node <t>wvwvwv</t> into db:open('" + NAME + "')/*");
+    query("delete node db:open('" + NAME + "')//t[1]");
+    execute(new Optimize());
+    query(search("wvwvwq", "fuzzy"), "wvwvwv");
+    compare(queries("fuzzy"));
+    compare(queries("wildcards"));
+  }
+
+  /**
+   * Creates a database with a full-text index.
+   * @param texts number of text nodes
+   */
+  private static void create(final int texts) {
+    final StringBuilder sb = new StringBuilder("<x><t>zyzyzy</t>");
+    final int ws = WORDS.size();
+    for(int t = 0; t < texts; t++) {
+      sb.append("<t>");
+      for(int w = 0; w < 5; w++) sb.append(WORDS.get((t * 5 + w) % ws)).append(' ');
+      sb.append("</t>");
+    }
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, sb.append("</x>").toString()));
+  }
+
+  /**
+   * Returns search queries.
+   * @param option search option
+   * @return queries
+   */
+  private static String[] queries(final String option) {
+    final ArrayList<String> queries = new ArrayList<>();
+    for(int w = 0; w < 200; w += 5) {
+      final String word = WORDS.get(w);
+      final String term = option.equals("fuzzy") ? word :
+        word.substring(0, Math.min(word.length(), 2)) + (w % 2 == 0 ? ".*" : ".?.");
+      queries.add(search(term, option));
+    }
+    if(option.equals("wildcards")) {
+      for(final String term : new String[] { ".*e", "é.{1,3}b", "x.+", "a.c.*" }) {
+        queries.add(search(term, option));
+      }
+    }
+    return queries.toArray(new String[0]);
+  }
+
+  /**
+   * Returns a search query.
+   * @param term search term
+   * @param option search option
+   * @return query
+   */
+  private static String search(final String term, final String option) {
+    return "string-join(ft:search('" + NAME + "', '" + term + "', map { '" + option +
+        "': true() }) ! string(), '|')";
+  }
+
+  /**
+   * Compares the query results with and without dictionary.
+   * @param queries queries
+   */
+  private static void compare(final String... queries) {
+    final ArrayList<String> results = new ArrayList<>();
+    for(final String query : queries) results.add(query(query));
+    drop();
+    final int ql = queries.length;
+    for(int q = 0; q < ql; q++) {
+      assertEquals(results.get(q), query(queries[q]), "\nQuery: " + queries[q] + '\n');
+    }
+  }
+
+  /**
+   * Drops the dictionary and reopens the database.
+   */
+  private static void drop() {
+    execute(new Close());
+    assertTrue(new IOFile(context.soptions.dbPath(NAME), DATAFTX + 't' + IO.BASEXSUFFIX).delete());
+    execute(new Open(NAME));
+  }
+}
@@ -0,0 +1,138 @@
+package org.basex.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for full-text postings that are stored in blocks and intersected via skip tables.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class FTPostingsTest extends IndexTestBase {
+  /** Full-text queries. */
+  private static final String[] QUERIES = {
+    "'w0' ftand 'w1'",
+    "'w0' ftand 'w37'",
+    "'w45' ftand 'w2' ftand 'w0'",
+    "('w40' ftor 'w44') ftand 'w1'",
+    "('w1' ftand 'w2') ftor ('w3' ftand 'w48')",
+    "{ 'w0', 'w41' } all",
+    "{ 'w0 w1', 'w43' } all words",
+    "{ 'w0', 'w49' } any",
+    "'w0 w1'",
+    "'w1 w0 w2'",
+    "'w0 w42'",
+    "'w0' ftand ftnot 'w1'",
+    "'w0' not in 'w0 w1'",
+    "'w0' ftand 'w1' window 3 words",
+    "'w1' ftand 'w2' distance at most 1 words",
+    "('w0' ftand 'w1' window 2 words) ftand 'w40'",
+    "('w1' ftor 'w2') ftand 'w0' window 2 words",
+    "'w0' ftand ('w1' ftor 'w2') ftand 'w3' window 4 words",
+    "('w3' ftor 'w1') ftand 'w0' distance at most 2 words",
+    "'w0 w1' at start",
+    "'w0' at end",
+    "'w1 w0' at end",
+    "{ 'w0', 'w1', 'w2' } all words entire content",
+  };
+
+  /** Full-text queries that check the lengths of the texts. */
+  private static final String[] LENGTHS = {
+    "'w0' at end",
+    "'w3' at end",
+    "'w1 w0' at end",
+    "'w0' ftand 'w1' at end",
+    "{ 'w0', 'w1', 'w2', 'w3' } any word at end",
+    "{ 'w0', 'w1', 'w2', 'w3', 'w4', 'w5' } any word entire content",
+  };
+
+  /** Resets the options. */
+  @AfterEach public void tearDown() {
+    set(MainOptions.FTINDEX, false);
+    set(MainOptions.SPLITSIZE, 0);
+    execute(new DropDB(NAME));
+  }
+
+  /** Compares the results of index-based and sequential queries. */
+  @Test public void queries() {
+    createTexts(3000, 6);
+    assertTrue(context.data().meta.ftblocks);
+    compare();
+  }
+
+  /** Compares the results after the index has been built in several steps. */
+  @Test public void splits() {
+    set(MainOptions.SPLITSIZE, 1);
+    createTexts(3000, 6);
+    compare();
+  }
+
+  /** Compares the results after the index has been incrementally optimized. */
+  @Test public void optimize() {
+    createTexts(2000, 6);
+    query("for $t in db:open('" + NAME + "')//t[position() mod 3 = 0] " +
+        "return replace value of node $t with 'w0 w1 w2 w48'");
+    query("delete node db:open('" + NAME + "')//t[position() mod 7 = 0]");
+    execute(new Optimize());
+    compare();
+  }
+
+  /** Checks that combined matches are not modified by window and distance filters. */
+  @Test public void filters() {
+    final String text = "'a c x x x x b' contains text ";
+    query(text + "('b' ftor 'c') ftand 'a' window 2 words", true);
+    query(text + "('c' ftor 'b') ftand 'a' window 2 words", true);
+    query(text + "('b' ftor 'c') ftand 'a' distance at most 0 words", true);
+    query(text + "('b' ftor 'c') ftand 'a' window 1 words", false);
+  }
+
+  /** Compares the results of queries on long texts, whose lengths are stored separately. */
+  @Test public void lengths() {
+    createTexts(2000, 400);
+    compare(LENGTHS);
+    createTexts(2000, 400);
+    query("for $t in db:open('" + NAME + "')//t[position() mod 3 = 0] " +
+        "return replace value of node $t with 'w0 w1 w2 w3 w4 w5 w0'");
+    query("delete node db:open('" + NAME + "')//t[position() mod 7 = 0]");
+    execute(new Optimize());
+    compare(LENGTHS);
+  }
+
+  /**
+   * Returns a query.
+   * @param ft full-text selection
+   * @return query
+   */
+  private static String search(final String ft) {
+    return "string-join(db:open('" + NAME + "')//t[text() contains text " + ft +
+        "] ! db:node-pre(.), ' ')";
+  }
+
+  /**
+   * Compares the query results with and without index.
+   */
+  private static void compare() {
+    compare(QUERIES);
+  }
+
+  /**
+   * Compares the query results with and without index.
+   * @param queries full-text queries
+   */
+  private static void compare(final String[] queries) {
+    final ArrayList<String> results = new ArrayList<>();
+    for(final String query : queries) results.add(query(search(query)));
+    execute(new DropIndex(IndexType.FULLTEXT));
+    final int ql = queries.length;
+    for(int q = 0; q < ql; q++) {
+      assertEquals(query(search(queries[q])), results.get(q), "\nQuery: " + queries[q] + '\n');
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package org.basex.index;
+
+import static org.basex.data.DataText.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.util.ft.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for BM25 scores and for the retrieval of the full-text results with the highest scores.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class FTScoringTest extends IndexTestBase {
+  /** Full-text searches. */
+  private static final String[] SEARCHES = {
+    "ft:search('" + NAME + "', 'w0')",
+    "ft:search('" + NAME + "', 'w17')",
+    "ft:search('" + NAME + "', ('w1', 'w30', 'w45'), map { 'mode': 'any word' })",
+    "ft:search('" + NAME + "', 'w0 w25 w40', map { 'mode': 'any word' })",
+    "ft:search('" + NAME + "', 'w1 w2 w47', map { 'mode': 'all words' })",
+    "ft:search('" + NAME + "', ('w40', 'w4 w8'), map { 'mode': 'any' })",
+    "ft:search('" + NAME + "', 'w0 w1', map { 'mode': 'phrase' })",
+    "ft:search('" + NAME + "', 'w4.', map { 'wildcards': true() })",
+    "ft:search('" + NAME + "', 'w44', map { 'fuzzy': true() })",
+    "db:open('" + NAME + "')//text()[. contains text { 'w3', 'w38' } any]",
+    "db:open('" + NAME + "')//t/text()[. contains text 'w2' ftor 'w49']",
+  };
+
+  /** Resets the options. */
+  @AfterEach public void tearDown() {
+    set(MainOptions.SCORING, FTScoring.DEFAULT);
+    set(MainOptions.FTINDEX, false);
+    execute(new DropDB(NAME));
+  }
+
+  /** Compares the best results with the first results of the complete result list. */
+  @Test public void top() {
+    createTexts(5000, 12);
+    set(MainOptions.SCORING, FTScoring.BM25);
+    for(final String search : SEARCHES) {
+      for(final int limit : new int[] { 1, 10, 100 }) compare(search, limit);
+    }
+    compare("(" + SEARCHES[0] + ")[ft:score(.) > 0.1]", 10);
+  }
+
+  /** Compares the best results with the default scoring model. */
+  @Test public void topDefault() {
+    createTexts(2000, 12);
+    for(final String search : SEARCHES) compare(search, 10);
+  }
+
+  /** Compares BM25 scores. */
+  @Test public void bm25() {
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, "<x><a>rare common</a><a>common common</a><a>common</a>" +
+        "<b>common x x x x x x x x</b><b>common</b></x>"));
+    final String common = "ft:search('" + NAME + "', 'common')";
+    final String scores = query("string-join(ft:score(" + common + "), ' ')");
+    set(MainOptions.SCORING, FTScoring.BM25);
+    assertNotEquals(scores, query("string-join(ft:score(" + common + "), ' ')"));
+
+    // rare tokens rank higher
+    final String score = "ft:score(" + common + ")";
+    query("ft:score(ft:search('" + NAME + "', 'rare common', map { 'mode': 'all words' })) gt " +
+        score + "[1]", true);
+    // frequent tokens and short texts rank higher
+    query(score + "[2] gt " + score + "[1]", true);
+    query(score + "[3] gt " + score + "[1]", true);
+    query(score + "[5] gt " + score + "[4]", true);
+    // text lengths are normalized by the average length of the texts with the same parent
+    query(score + "[5] gt " + score + "[3]", true);
+    query("every $s in " + score + " satisfies $s < 1", true);
+  }
+
+  /** Falls back to the default scoring model if no text lengths are available. */
+  @Test public void missing() {
+    createTexts(500, 12);
+    final String query = "string-join(ft:score(" + SEARCHES[2] + "), ' ')";
+    final String scores = query(query);
+    set(MainOptions.SCORING, FTScoring.BM25);
+    final String bm25 = query(query);
+    assertNotEquals(scores, bm25);
+
+    execute(new Close());
+    assertTrue(new IOFile(context.soptions.dbPath(NAME), DATAFTX + 'l' + IO.BASEXSUFFIX).
+        delete());
+    execute(new Open(NAME));
+    assertEquals(scores, query(query));
+    compare(SEARCHES[2], 10);
+  }
+
+  /** Compares the scores after the index has been incrementally optimized. */
+  @Test public void optimize() {
+    set(MainOptions.SCORING, FTScoring.BM25);
+    createTexts(2000, 12);
+    query("for $t in db:open('" + NAME + "')//t[position() mod 3 = 0] " +
+        "return replace value of node $t with 'w0 w1 w2 w48'");
+    query("delete node db:open('" + NAME + "')//t[position() mod 7 = 0]");
+    execute(new Optimize());
+    final ArrayList<String> results = new ArrayList<>();
+    for(final String search : SEARCHES) results.add(scores(search));
+    execute(new OptimizeAll());
+    final int sl = SEARCHES.length;
+    for(int s = 0; s < sl; s++) {
+      assertEquals(scores(SEARCHES[s]), results.get(s), "\nQuery: " + SEARCHES[s] + '\n');
+    }
+  }
+
+  /**
+   * Returns a query that orders the results of a full-text search by their scores.
+   * @param search search expression
+   * @return query
+   */
+  private static String flwor(final String search) {
+    return "for $n score $s in " + search + " order by $s descending " +
+        "return db:node-pre($n) || ':' || $s";
+  }
+
+  /**
+   * Returns the pre values and scores of a full-text search.
+   * @param search search expression
+   * @return result
+   */
+  private static String scores(final String search) {
+    return query("string-join(" + flwor(search) + ", ' ')");
+  }
+
+  /**
+   * Compares the results of a query that only requests the best results with the leading
+   * results of the complete result list.
+   * @param search search expression
+   * @param limit maximum number of results
+   */
+  private static void compare(final String search, final int limit) {
+    final String flwor = flwor(search);
+    final String top = query("string-join((" + flwor + ")[position() <= " + limit + "], ' ')");
+    final String all = query("string-join(array:subarray(array { " + flwor + " }, 1, min((" +
+        limit + ", count(" + search + "))))?*, ' ')");
+    assertEquals(all, top, "\nQuery: " + search + '\n');
+  }
+}
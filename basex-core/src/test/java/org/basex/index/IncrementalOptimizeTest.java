@@ -0,0 +1,221 @@
+package org.basex.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.util.list.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for updating outdated index structures incrementally ({@link DirtyRanges}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class IncrementalOptimizeTest extends IndexTestBase {
+  /** Queries for comparing index contents. */
+  private static final String[] QUERIES = {
+    "serialize(index:texts('" + NAME + "'))",
+    "serialize(index:attributes('" + NAME + "'))",
+    "serialize(index:tokens('" + NAME + "'))",
+    "serialize(ft:tokens('" + NAME + "'))",
+    "db:text('" + NAME + "', 'text 123 word1') ! db:node-pre(.)",
+    "db:text('" + NAME + "', 'new') ! db:node-pre(.)",
+    "db:attribute('" + NAME + "', 'n5') ! db:node-pre(.)",
+    "db:token('" + NAME + "', 'n5') ! db:node-pre(.)",
+    "ft:search('" + NAME + "', 'word3 word4') ! db:node-pre(.)",
+    "ft:search('" + NAME + "', 'new') ! db:node-pre(.)",
+  };
+  /** Updating queries. */
+  private static final String[] UPDATES = {
+    "for $i in //item[@id mod 10 = 0] return replace value of node $i with 'new " +
+      "text' || $i/@id",
+    "for $i in //item[@id mod 10 = 1] return delete node $i",
+    "for $i in //item[@id mod 100 = 2] return insert node <item id='1000' name='new'>new " +
+      "word3</item> after $i",
+    "for $i in //item[@id mod 100 = 3] return replace value of node $i/@name with 'new'",
+    "for $i in //item[@id mod 100 = 4] return rename node $i as 'renamed'",
+    "for $i in //item[@id mod 100 = 5] return replace node $i with <new>new new</new>",
+    "for $i in //item[@id mod 100 = 6] return insert node attribute new { 'n5' } into $i",
+  };
+
+  /**
+   * Initializes the test.
+   */
+  @BeforeAll public static void init() {
+    set(MainOptions.TOKENINDEX, true);
+    set(MainOptions.FTINDEX, true);
+  }
+
+  /**
+   * Resets the options.
+   */
+  @AfterEach public void tearDown() {
+    set(MainOptions.UPDINDEX, false);
+    set(MainOptions.AUTOOPTIMIZE, false);
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Finalizes the test.
+   */
+  @AfterAll public static void finish() {
+    set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
+  }
+
+  /**
+   * Updates index structures incrementally.
+   */
+  @Test public void optimize() {
+    create(20000);
+    for(final String update : UPDATES) {
+      query(update);
+      compare(false);
+    }
+  }
+
+  /**
+   * Updates index structures incrementally after the database has been reopened.
+   */
+  @Test public void reopen() {
+    create(20000);
+    query(UPDATES[0]);
+    query(UPDATES[1]);
+    execute(new Close());
+    execute(new Open(NAME));
+    query(UPDATES[2]);
+    execute(new Close());
+    execute(new Open(NAME));
+    compare(false);
+  }
+
+  /**
+   * Updates the full-text index incrementally if the value indexes are updatable.
+   */
+  @Test public void updindex() {
+    set(MainOptions.UPDINDEX, true);
+    create(20000);
+    for(final String update : UPDATES) {
+      query(update);
+      compare(false);
+    }
+  }
+
+  /**
+   * Updates index structures incrementally after each update.
+   */
+  @Test public void autooptimize() {
+    set(MainOptions.AUTOOPTIMIZE, true);
+    create(5000);
+    for(final String update : UPDATES) {
+      query(update);
+      final Data data = context.data();
+      assertTrue(data.meta.textindex && data.meta.ftindex);
+      final String[] results = results(QUERIES);
+      execute(new OptimizeAll());
+      assertArrayEquals(results(QUERIES), results);
+    }
+  }
+
+  /**
+   * Rebuilds index structures if too many nodes have been changed, or if an index was dropped.
+   */
+  @Test public void rebuild() {
+    create(1000);
+    query("replace node /xml with <xml>{ (1 to 1000) ! <item id='{ . }'>new { . }</item> }</xml>");
+    compare(true);
+
+    query(UPDATES[0]);
+    execute(new DropIndex(IndexType.TEXT));
+    execute(new CreateIndex(IndexType.TEXT));
+    final Data data = context.data();
+    assertFalse(data.ranges.incremental(IndexType.TEXT, data.meta));
+    assertTrue(data.ranges.incremental(IndexType.FULLTEXT, data.meta));
+    compare(false);
+  }
+
+  /**
+   * Deletes all indexed nodes.
+   */
+  @Test public void deleteAll() {
+    create(1000);
+    query("delete node /xml/*");
+    compare(false);
+  }
+
+  /**
+   * Compares the mapping of pre values with a simple reference implementation.
+   */
+  @Test public void ranges() {
+    final Random rnd = new Random(1);
+    for(int run = 0; run < 100; run++) {
+      final int size = rnd.nextInt(100);
+      final DirtyRanges ranges = new DirtyRanges(size);
+      // original pre values of the current nodes (-1: dirty node)
+      final IntList nodes = new IntList();
+      for(int n = 0; n < size; n++) nodes.add(n);
+
+      for(int op = 0; op < 50; op++) {
+        final int ns = nodes.size(), pre = rnd.nextInt(ns + 1);
+        final int count = Math.min(rnd.nextInt(5) + 1, ns - pre);
+        switch(rnd.nextInt(3)) {
+          case 0:
+            final int c = rnd.nextInt(5) + 1;
+            ranges.insert(pre, c);
+            for(int i = 0; i < c; i++) nodes.insert(pre, -1);
+            break;
+          case 1:
+            if(count == 0) continue;
+            ranges.delete(pre, count);
+            for(int i = 0; i < count; i++) nodes.remove(pre);
+            break;
+          default:
+            if(count == 0) continue;
+            ranges.update(pre, count);
+            for(int i = 0; i < count; i++) nodes.set(pre + i, -1);
+        }
+
+        // compare pre values
+        final int[] expected = new int[size];
+        Arrays.fill(expected, -1);
+        final IntList dirty = new IntList();
+        final int nl = nodes.size();
+        for(int n = 0; n < nl; n++) {
+          final int old = nodes.get(n);
+          if(old == -1) {
+            if(dirty.isEmpty() || dirty.peek() != n) dirty.add(n).add(n + 1);
+            else dirty.set(dirty.size() - 1, n + 1);
+          } else {
+            expected[old] = n;
+          }
+        }
+        for(int old = 0; old < size; old++) {
+          assertEquals(expected[old], ranges.pre(old), ranges.toString());
+        }
+        assertArrayEquals(dirty.finish(), ranges.dirty().finish(), ranges.toString());
+      }
+    }
+  }
+
+  /**
+   * Optimizes the database and compares the results with rebuilt index structures.
+   * @param rebuild index structures will be rebuilt from scratch
+   */
+  private static void compare(final boolean rebuild) {
+    final Data data = context.data();
+    assertEquals(!rebuild, data.ranges.incremental(IndexType.FULLTEXT, data.meta));
+    if(!data.meta.textindex) {
+      assertEquals(!rebuild, data.ranges.incremental(IndexType.TEXT, data.meta));
+    }
+    execute(new Optimize());
+    final String[] results = results(QUERIES);
+    execute(new OptimizeAll());
+    assertArrayEquals(results(QUERIES), results);
+  }
+}
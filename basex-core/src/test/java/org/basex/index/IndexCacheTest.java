@@ -69,6 +69,24 @@ public final class IndexCacheTest {
     assertNull(cache.get(key));
   }
 
+  /** Test for the bounded cache: entries are evicted, frequently accessed entries are kept. */
+  @Test public void testEviction() {
+    final int capacity = 1 << 10;
+    cache = new IndexCache(capacity);
+    final byte[] hot = token("keyHot");
+    cache.add(hot, 1, 1L);
+    for(int i = 0; i < 10000; ++i) {
+      cache.add(token("keyEvict" + i), i, i);
+      assertCacheEntry(hot, 1, 1L);
+    }
+    assertTrue(cache.size() <= capacity);
+    assertCacheEntry(token("keyEvict" + 9999), 9999, 9999L);
+
+    final long[] stats = cache.stats();
+    assertEquals(10001, stats[0]);
+    assertTrue(stats[2] >= 10001 - capacity);
+  }
+
   /**
    * Test that new records can be continuously added without hitting
    * {@link OutOfMemoryError}.
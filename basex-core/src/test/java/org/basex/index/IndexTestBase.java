@@ -0,0 +1,63 @@
+package org.basex.index;
+
+import java.util.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.util.*;
+
+/**
+ * Base class with common functionality for tests on index structures.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public abstract class IndexTestBase extends SandboxTest {
+  /** Query for creating a test document. */
+  protected static final String DOC = "<xml>{ for $i in 1 to % return " +
+      "<item id='{ $i mod 1000 }' name='n{ $i mod 77 }'>{ 'text ' || $i mod 5000 || ' ' || " +
+      "string-join((1 to $i mod 7) ! ('word' || .), ' ') }</item> }</xml>";
+
+  /**
+   * Creates a database with a test document and optimizes it.
+   * @param items number of items
+   */
+  protected static void create(final int items) {
+    execute(new CreateDB(NAME));
+    query("db:replace('" + NAME + "', 'doc.xml', " + Util.info(DOC, items) + ')');
+    execute(new OptimizeAll());
+  }
+
+  /**
+   * Creates a database with a full-text index. The frequencies of the tokens
+   * {@code w0 ... w49} decrease rapidly.
+   * @param texts number of text nodes
+   * @param max maximum number of tokens per text (if larger than {@code 6}, the number of
+   *   tokens will be randomly chosen)
+   */
+  protected static void createTexts(final int texts, final int max) {
+    final Random rnd = new Random(42);
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int t = 0; t < texts; t++) {
+      sb.append("<t>");
+      final int l = max > 6 ? rnd.nextInt(max) + 1 : max;
+      for(int w = 0; w < l; w++) sb.append(" w").append(rnd.nextInt(rnd.nextInt(50) + 1));
+      sb.append("</t>");
+    }
+    set(MainOptions.FTINDEX, true);
+    execute(new CreateDB(NAME, sb.append("</x>").toString()));
+  }
+
+  /**
+   * Returns the results of the specified queries.
+   * @param queries queries
+   * @return results
+   */
+  protected static String[] results(final String... queries) {
+    final int ql = queries.length;
+    final String[] results = new String[ql];
+    for(int q = 0; q < ql; q++) results[q] = query(queries[q]);
+    return results;
+  }
+}
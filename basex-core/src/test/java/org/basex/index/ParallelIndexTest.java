@@ -0,0 +1,90 @@
+package org.basex.index;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for building index structures in parallel ({@link MainOptions#PARALLELINDEX}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class ParallelIndexTest extends IndexTestBase {
+  /** Queries for comparing index contents. */
+  private static final String[] QUERIES = {
+    "serialize(index:texts('" + NAME + "'))",
+    "serialize(index:attributes('" + NAME + "'))",
+    "serialize(index:tokens('" + NAME + "'))",
+    "serialize(ft:tokens('" + NAME + "'))",
+    "db:text('" + NAME + "', 'text 123 word1') ! db:node-pre(.)",
+    "db:token('" + NAME + "', 'n5') ! db:node-pre(.)",
+    "ft:search('" + NAME + "', 'word3 word4') ! db:node-pre(.)",
+    "ft:search('" + NAME + "', 'text 4999') ! db:node-pre(.)",
+  };
+
+  /**
+   * Initializes the test.
+   */
+  @BeforeAll public static void init() {
+    set(MainOptions.TOKENINDEX, true);
+    set(MainOptions.FTINDEX, true);
+  }
+
+  /**
+   * Resets the options.
+   */
+  @AfterEach public void tearDown() {
+    set(MainOptions.PARALLELINDEX, 0);
+    set(MainOptions.SPLITSIZE, 0);
+    set(MainOptions.UPDINDEX, false);
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Finalizes the test.
+   */
+  @AfterAll public static void finish() {
+    set(MainOptions.TOKENINDEX, false);
+    set(MainOptions.FTINDEX, false);
+  }
+
+  /**
+   * Builds index structures in parallel.
+   */
+  @Test public void parallel() {
+    compare();
+  }
+
+  /**
+   * Builds index structures in parallel and writes multiple partial structures per partition.
+   */
+  @Test public void splits() {
+    set(MainOptions.SPLITSIZE, 1);
+    compare();
+  }
+
+  /**
+   * Builds updatable index structures in parallel.
+   */
+  @Test public void updindex() {
+    set(MainOptions.UPDINDEX, true);
+    compare();
+  }
+
+  /**
+   * Creates index structures sequentially and in parallel and compares the results.
+   */
+  private static void compare() {
+    create(100000);
+    final String[] expected = results(QUERIES);
+    for(final int threads : new int[] { 2, 4 }) {
+      set(MainOptions.PARALLELINDEX, threads);
+      execute(new OptimizeAll());
+      assertArrayEquals(expected, results(QUERIES));
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package org.basex.io.random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.io.*;
+import org.basex.util.*;
+import org.junit.jupiter.api.*;
+
+/**
+ * Tests for class {@link BufferPool}.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class BufferPoolTest {
+  /** Number of files. */
+  private static final int FILES = 4;
+  /** Number of blocks per file (exceeds the capacity of the pool). */
+  private static final int BLOCKS = 300;
+
+  /** Files. */
+  private final IOFile[] files = new IOFile[FILES];
+
+  /**
+   * Creates a shared pool with 1 MB.
+   */
+  @BeforeEach public void setUp() {
+    BufferPool.shared(1);
+    for(int f = 0; f < FILES; f++) files[f] = new IOFile(Prop.TEMPDIR, "pool" + f + IO.BASEXSUFFIX);
+  }
+
+  /**
+   * Removes the shared pool and deletes the test files.
+   */
+  @AfterEach public void tearDown() {
+    BufferPool.shared(0);
+    for(final IOFile file : files) file.delete();
+  }
+
+  /**
+   * Writes and reads blocks of several files.
+   * @throws Exception exception
+   */
+  @Test public void sharedPool() throws Exception {
+    final BufferPool pool = BufferPool.shared();
+    final DataAccess[] das = new DataAccess[FILES];
+    for(int f = 0; f < FILES; f++) das[f] = new DataAccess(files[f]);
+    try {
+      // interleaved writes: dirty buffers of other files must not be replaced
+      for(int b = 0; b < BLOCKS; b++) {
+        for(int f = 0; f < FILES; f++) das[f].write4((long) b * IO.BLOCKSIZE, f * BLOCKS + b);
+      }
+      for(final DataAccess da : das) da.flush();
+      // repeated reads
+      for(int r = 0; r < 2; r++) {
+        for(int f = 0; f < FILES; f++) {
+          for(int b = 0; b < BLOCKS; b++) {
+            assertEquals(f * BLOCKS + b, das[f].read4((long) b * IO.BLOCKSIZE));
+          }
+        }
+      }
+      assertTrue(pool.evictions() > 0);
+      assertTrue(pool.misses() > 0);
+      assertTrue(pool.size() <= pool.capacity());
+    } finally {
+      for(final DataAccess da : das) da.close();
+    }
+
+    // check persisted data
+    for(int f = 0; f < FILES; f++) {
+      try(DataAccess da = new DataAccess(files[f])) {
+        for(int b = 0; b < BLOCKS; b++) {
+          assertEquals(f * BLOCKS + b, da.read4((long) b * IO.BLOCKSIZE));
+        }
+      }
+    }
+  }
+
+  /**
+   * Checks that frequently accessed blocks survive a scan.
+   * @throws Exception exception
+   */
+  @Test public void scan() throws Exception {
+    final BufferPool pool = BufferPool.shared();
+    try(DataAccess da = new DataAccess(files[0])) {
+      for(int b = 0; b < BLOCKS * 2; b++) da.write4((long) b * IO.BLOCKSIZE, b);
+      da.flush();
+      // access first blocks twice
+      for(int r = 0; r < 2; r++) {
+        for(int b = 0; b < 16; b++) da.read4((long) b * IO.BLOCKSIZE);
+      }
+      // scan all remaining blocks
+      for(int b = 16; b < BLOCKS * 2; b++) da.read4((long) b * IO.BLOCKSIZE);
+      // first blocks must still be cached
+      final long misses = pool.misses();
+      for(int b = 0; b < 16; b++) assertEquals(b, da.read4((long) b * IO.BLOCKSIZE));
+      assertEquals(misses, pool.misses());
+    }
+  }
+}
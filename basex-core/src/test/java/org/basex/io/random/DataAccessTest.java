@@ -182,6 +182,45 @@ public class DataAccessTest {
     assertEquals(STR, Token.string(da.readToken()));
   }
 
+  /**
+   * Test method for {@link DataAccess#readTokenConcurrent(long)},
+   * {@link DataAccess#readNumConcurrent(long, int)} and
+   * {@link DataAccess#readBytesConcurrent(long, int)}.
+   * @throws Exception exception
+   */
+  @Test public final void testReadConcurrent() throws Exception {
+    final long big = da.length();
+    da.writeToken(big, Token.token(STR_LONG));
+    da.flush();
+
+    final long off = STR_BIN.length + BYTE_BIN.length + LONG_BIN.length + INT_BIN.length;
+    final Thread[] threads = new Thread[8];
+    final Throwable[] errors = new Throwable[1];
+    for(int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        try {
+          for(int i = 0; i < 2000; i++) {
+            assertEquals(STR, Token.string(da.readTokenConcurrent(0L)));
+            assertEquals(STR, Token.string(da.readTokenConcurrent(BLOCK_BOUNDARY_POS)));
+            assertEquals(STR_LONG, Token.string(da.readTokenConcurrent(big)));
+            assertEquals(CINT5, da.readNumConcurrent(off, 0));
+            assertEquals(CINT2, da.readNumConcurrent(off, 2));
+            assertEquals(STR, Token.string(da.readBytesConcurrent(1, STR.length())));
+            assertEquals(LONG, da.read5Concurrent(STR_BIN.length + BYTE_BIN.length));
+            assertEquals(INT, da.read4Concurrent(STR_BIN.length + BYTE_BIN.length +
+                LONG_BIN.length));
+            assertEquals(5, da.readBytesConcurrent(da.length() - 5, 10).length);
+          }
+        } catch(final Throwable th) {
+          errors[0] = th;
+        }
+      });
+      threads[t].start();
+    }
+    for(final Thread thread : threads) thread.join();
+    if(errors[0] != null) throw new AssertionError(errors[0]);
+  }
+
   /** Test method for {@link DataAccess#readBytes(long, int)}. */
   @Test public final void testReadBytesLongInt() {
     final byte[] bytes = Token.token(STR);
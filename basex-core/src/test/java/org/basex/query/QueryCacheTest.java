@@ -0,0 +1,141 @@
+package org.basex.query;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.seq.*;
+import org.junit.jupiter.api.*;
+
+/**
+ * Tests for the cache of parsed queries.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class QueryCacheTest extends SandboxTest {
+  /** Resets the cache. */
+  @BeforeEach public void init() {
+    context.queries.clear();
+  }
+
+  /** Cached queries with different bindings. */
+  @Test public void bindings() {
+    final String query = "declare variable $x external; $x * 2";
+    assertEquals("2", run(query, 1));
+    assertEquals(1, context.queries.size());
+    assertEquals("4", run(query, 2));
+    assertEquals("6", run(query, 3));
+    assertEquals(1, context.queries.size());
+
+    final String query2 = "declare variable $x as xs:integer external := 5; $x + 1";
+    assertEquals("6", run(query2, null));
+    assertEquals("6", run(query2, null));
+    assertEquals("8", run(query2, 7));
+    assertEquals(2, context.queries.size());
+  }
+
+  /** Cached queries with prolog declarations, local variables and closures. */
+  @Test public void prolog() {
+    final String query = "declare namespace p = 'U'; declare variable $x external; " +
+      "for $i in 1 to $x let $f := function($a) { $a * $i } " +
+      "return <p:a n='{ $f($x) }'>{ namespace-uri-from-QName(xs:QName('p:a')) }</p:a>";
+    final String result1 = "<p:a xmlns:p=\"U\" n=\"1\">U</p:a>";
+    final String result2 = "<p:a xmlns:p=\"U\" n=\"2\">U</p:a>\n<p:a xmlns:p=\"U\" n=\"4\">U</p:a>";
+    assertEquals(result1, run(query, 1));
+    assertEquals(result2, run(query, 2));
+    assertEquals(result1, run(query, 1));
+    assertEquals(1, context.queries.size());
+
+    // context value
+    assertEquals("3", run("count(.)", null, RangeSeq.get(1, 3, true)));
+    assertEquals("2", run("count(.)", null, RangeSeq.get(1, 2, true)));
+  }
+
+  /** Queries that are not cached. */
+  @Test public void notCached() {
+    query("declare function local:f() { 1 }; local:f()");
+    query("declare variable $x := 1; $x");
+    query("declare context item := 1; .");
+    query("declare option db:chop 'false'; 1");
+    query("declare option output:indent 'no'; 1");
+    assertEquals(0, context.queries.size());
+
+    // parse errors
+    error("1 +", QueryError.CALCEXPR);
+    assertEquals(0, context.queries.size());
+  }
+
+  /** Options that affect parsing are part of the cache key. */
+  @Test public void options() {
+    final String query = "delete node <a/>, 1";
+    error(query, QueryError.UPALL);
+    set(MainOptions.MIXUPDATES, true);
+    try {
+      query(query, 1);
+    } finally {
+      set(MainOptions.MIXUPDATES, false);
+    }
+    error(query, QueryError.UPALL);
+  }
+
+  /**
+   * Concurrent evaluation of a cached query.
+   * @throws Exception exception
+   */
+  @Test public void concurrent() throws Exception {
+    final String query = "declare variable $x external; sum(for $i in 1 to $x return $i)";
+    final ArrayList<Thread> threads = new ArrayList<>();
+    final ArrayList<Throwable> errors = new ArrayList<>();
+    for(int t = 0; t < 8; t++) {
+      final int n = t;
+      threads.add(new Thread(() -> {
+        try {
+          for(int i = 0; i < 100; i++) {
+            final int x = n * 100 + i;
+            assertEquals(Long.toString((long) x * (x + 1) / 2), run(query, x));
+          }
+        } catch(final Throwable th) {
+          synchronized(errors) {
+            errors.add(th);
+          }
+        }
+      }));
+    }
+    for(final Thread thread : threads) thread.start();
+    for(final Thread thread : threads) thread.join();
+    if(!errors.isEmpty()) throw new Exception(errors.get(0));
+    assertEquals(1, context.queries.size());
+  }
+
+  /**
+   * Evaluates a query with an external variable binding.
+   * @param query query
+   * @param x value to be bound to {@code $x} (can be {@code null})
+   * @return result
+   */
+  private static String run(final String query, final Integer x) {
+    return run(query, x, null);
+  }
+
+  /**
+   * Evaluates a query with an external variable binding and a context value.
+   * @param query query
+   * @param x value to be bound to {@code $x} (can be {@code null})
+   * @param value context value (can be {@code null})
+   * @return result
+   */
+  private static String run(final String query, final Integer x, final Value value) {
+    try(QueryProcessor qp = new QueryProcessor(query, context)) {
+      if(x != null) qp.bind("x", Int.get(x));
+      if(value != null) qp.context(value);
+      return normNL(qp.value().serialize().toString());
+    } catch(final QueryException | QueryIOException ex) {
+      throw new AssertionError(ex);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package org.basex.query.expr;
+
+import static org.basex.query.QueryError.*;
+
+import org.basex.query.ast.*;
+import org.junit.jupiter.api.*;
+
+/**
+ * Tests for evaluating arithmetic expressions and aggregations on primitive values.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class ArithMapTest extends QueryPlanTest {
+  /** Arithmetic map. */
+  private static final String ARITH = exists(ArithMap.class);
+
+  /** Integers. */
+  @Test public void integers() {
+    check("(1 to 6) ! (. * 2 + 1)", "3\n5\n7\n9\n11\n13", ARITH);
+    check("reverse(1 to 6) ! (. - 3)", "3\n2\n1\n0\n-1\n-2", ARITH);
+    check("(1 to 6) ! ((. + 1) idiv 2) ! (10 mod .)", "0\n0\n0\n0\n1\n1", ARITH);
+    check("(1 to 6) ! (. * .)", "1\n4\n9\n16\n25\n36", ARITH);
+    check("for $i in 1 to 3 return (1 to $i) ! (. + $i)", "2\n3\n4\n4\n5\n6",
+        empty(ArithMap.class));
+    check("((1 to 3000) ! (. mod 7))[2500]", 1, ARITH);
+    check("head((1 to 100000000) ! (. * 3))", 3, ARITH);
+    check("let $s := (1 to 2000) ! (. * 2) return $s[last()]", 4000, ARITH);
+    check("let $s := (1 to 6) ! (. * 2) return $s ! (. idiv 2)", "1\n2\n3\n4\n5\n6", ARITH);
+  }
+
+  /** Doubles and mixed operands. */
+  @Test public void doubles() {
+    check("(1 to 5) ! (. div 2)", "0.5\n1\n1.5\n2\n2.5", ARITH);
+    check("(1 to 5) ! (. * 1.5e0 - .)", "0.5\n1\n1.5\n2\n2.5", ARITH);
+    check("(1 to 3) ! (. * 2) ! (. div 4e0)", "0.5\n1\n1.5", ARITH);
+    check("let $d := (1 to 3) ! (. * 0.5e0) return $d ! (. mod 1)", "0.5\n0\n0.5", ARITH);
+    check("let $d := (1 to 3) ! (. div 0e0) return $d ! (. * -1)", "-INF\n-INF\n-INF", ARITH);
+    check("(1 to 3) ! (. * 2e0) ! (. idiv 2)", "1\n2\n3", ARITH);
+  }
+
+  /** Aggregations. */
+  @Test public void aggregate() {
+    final String ints = "let $s := (1 to 6) ! (. - 3) return ";
+    query(ints + "sum($s)", 3);
+    query(ints + "avg($s)", 0.5);
+    query(ints + "min($s)", -2);
+    query(ints + "max($s)", 3);
+
+    final String dbls = "let $s := (1 to 6) ! (. * 1.5e0) return ";
+    query(dbls + "sum($s)", 31.5);
+    query(dbls + "avg($s)", 5.25);
+    query(dbls + "min($s)", 1.5);
+    query(dbls + "max($s)", 9);
+    query("let $s := (1, 0, 2) ! (. div 0e0) return (min($s), max($s))", "NaN\nNaN");
+
+    final String range = "let $s := reverse(1 to 10) return ";
+    query(range + "sum($s)", 55);
+    query(range + "avg($s)", 5.5);
+    query(range + "min($s)", 1);
+    query(range + "max($s)", 10);
+  }
+
+  /** Errors. */
+  @Test public void errors() {
+    error("(1 to 3) ! (. idiv 0)", DIVZERO_X);
+    error("(1 to 3) ! (. mod (. - 2))", DIVZERO_X);
+    error("(9223372036854775800 to 9223372036854775806) ! (. + 5)", RANGE_X);
+    error("(1 to 3) ! (. * 9223372036854775807)", RANGE_X);
+    error("let $s := (1 to 3) ! (. * 4611686018427387904) return sum($s)", RANGE_X);
+  }
+}
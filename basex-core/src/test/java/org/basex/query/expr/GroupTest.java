@@ -0,0 +1,119 @@
+package org.basex.query.expr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.ast.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for aggregating values while grouping, and for grouping tuples on disk
+ * ({@link MainOptions#GROUPLIMIT}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class GroupTest extends QueryPlanTest {
+  /** Test for aggregated variables. */
+  private static final String AGGREGATE = "exists(//GroupBy[@aggregate])";
+  /** Test for variables that are not aggregated. */
+  private static final String MATERIALIZE = "empty(//GroupBy/@aggregate)";
+
+  /** Resets the options. */
+  @AfterEach public void tearDown() {
+    set(MainOptions.GROUPLIMIT, 0);
+  }
+
+  /** Aggregated values. */
+  @Test public void aggregate() {
+    check("for $i in 1 to 1000 group by $k := $i mod 3 order by $k return count($i)",
+        "333\n334\n333", AGGREGATE);
+    check("for $i in 1 to 1000 group by $k := $i mod 2 order by $k return sum($i)",
+        "250500\n250000", AGGREGATE);
+    check("for $i in 1 to 1000 let $j := $i * 2 group by $k := $i mod 2 order by $k " +
+        "return min($i) + max($j)", "2002\n1999", "exists(//GroupBy[@aggregate = 2])");
+    check("for $i in 1 to 1000 let $d := $i div 8 group by $k := $i mod 2 order by $k " +
+        "return sum($d)", "31312.5\n31250", AGGREGATE);
+    check("for $i in 1 to 1000 let $d := if($i = 500) then xs:double('NaN') else $i * 1e0 " +
+        "group by $k := $i mod 2 order by $k return max($d)", "NaN\n999", AGGREGATE);
+    check("for $i in 1 to 1000 let $n := (1 to $i mod 4) group by $k := $i mod 2 order by $k " +
+        "return count($n)", "500\n1000", AGGREGATE);
+    check("for $i in 1 to 1000 let $e := (1 to $i mod 4)[. > 5] group by $k := $i mod 2 " +
+        "order by $k return sum($e)", "0\n0", AGGREGATE);
+    check("for $i in 1 to 10 group by $k := $i mod 2 let $c := count($i) order by $k " +
+        "return $c * count($i)", "25\n25", AGGREGATE);
+
+    // errors are raised when the function is evaluated
+    check("for $i in (9223372036854775807, 1 to 600) group by $k := 1 " +
+        "return try { string(sum($i)) } catch * { $err:code }", "err:FOAR0002", AGGREGATE);
+    check("for $i in (9223372036854775807, 1 to 600) group by $k := 1 " +
+        "return count($i)", 601, AGGREGATE);
+  }
+
+  /** Values that are not aggregated. */
+  @Test public void materialize() {
+    check("for $i in 1 to 10 group by $k := $i mod 2 order by $k return (count($i), sum($i))",
+        "5\n30\n5\n25", MATERIALIZE);
+    check("for $i in 1 to 10 group by $k := $i mod 2 order by $k return count($i) + $i[1]",
+        "7\n6", MATERIALIZE);
+    check("for $i in 1 to 10 let $s := string($i) group by $k := $i mod 2 order by $k " +
+        "return max($s)", "8\n9", MATERIALIZE);
+    check("for $i in 1 to 10 group by $k := $i mod 2 order by $k " +
+        "return sum(($i, 1))", "31\n26", MATERIALIZE);
+    check("for $i in 1 to 10 group by $k := $i mod 2 order by $k " +
+        "return count($i) + count($i[. > 5])", "8\n7", MATERIALIZE);
+  }
+
+  /** Grouping on disk. */
+  @Test public void partitions() {
+    compare("for $i in 1 to 1000 group by $k := $i mod 37 order by $k return $k || ':' || sum($i)");
+    compare("for $i in 1 to 1000 group by $k := $i mod 37 order by $k " +
+        "return $k || ':' || string-join($i, ',')");
+    compare("for $i in 1 to 1000 group by $k := $i mod 37 order by $k return count($i)");
+    compare("for $i in 1 to 1000 let $d := $i * 1.5e0 group by $k := string($i mod 37) " +
+        "order by $k return $k || ':' || min($d) || ':' || max($d)");
+    compare("for $i in 1 to 1000 let $n := (1 to $i mod 4) group by $k := $i mod 37 " +
+        "order by $k return count($n) || ':' || sum($n)");
+    compare("for $i in 1 to 1000 let $e := <e>{ $i }</e> " +
+        "group by $a := $i mod 7, $b := xs:date('2000-01-01') + xs:dayTimeDuration('P1D') * " +
+        "($i mod 5) order by $a, $b return $a || ':' || $b || ':' || sum($e)");
+    compare("for $i in 1 to 1000 let $f := function() { $i } group by $k := $i mod 37 " +
+        "order by $k return sum($f ! .())");
+    compare("for $i in 1 to 1000 let $s := if($i mod 3 = 0) then () else $i mod 5 " +
+        "group by $s order by $s return count($i)");
+    // collations: groups will be built sequentially
+    compare("for $i in 1 to 1000 let $s := ('a', 'B', 'c')[$i mod 3 + 1] " +
+        "group by $k := $s collation '?lang=en;strength=primary' " +
+        "order by $k return count($i)");
+  }
+
+  /** Database nodes. */
+  @Test public void nodes() {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 1000; i++) sb.append("<a>").append(i % 31).append("</a>");
+    execute(new CreateDB(NAME, sb.append("</x>").toString()));
+    compare("for $a in //a group by $k := string($a) order by $k " +
+        "return $k || ':' || count($a) || ':' || sum($a/preceding-sibling::a[1])");
+    compare("for $a in //a group by $k := xs:integer($a) mod 7 order by $k " +
+        "return count($a[. = 3]) || ':' || ($a[1] is ($a/../a)[1])");
+    execute(new DropDB(NAME));
+  }
+
+  /**
+   * Compares the results of a query that is grouped in main memory and on disk.
+   * Checks if all temporary files have been deleted.
+   * @param query query
+   */
+  private static void compare(final String query) {
+    final int files = tempFiles();
+    final String result = query(query);
+    for(final int limit : new int[] { 1, 3, 100 }) {
+      set(MainOptions.GROUPLIMIT, limit);
+      assertEquals(result, query(query), "Group limit: " + limit);
+    }
+    set(MainOptions.GROUPLIMIT, 0);
+    assertEquals(files, tempFiles(), "Temporary files were not deleted.");
+  }
+}
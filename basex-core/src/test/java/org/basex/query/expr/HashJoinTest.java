@@ -0,0 +1,100 @@
+package org.basex.query.expr;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.ast.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for equi-joins that are evaluated as hash joins ({@link HashFilter}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class HashJoinTest extends QueryPlanTest {
+  /** Second database. */
+  private static final String NAME2 = NAME + '2';
+  /** Input sequences. */
+  private static final String INPUT =
+      "let $A := (1 to 100) ! <a><k>{ . mod 10 }</k></a> " +
+      "let $B := (1 to 20) ! <b id='{ . }'><k>{ . }</k></b> ";
+
+  /** In-memory fragments. */
+  @Test public void fragments() {
+    check(INPUT + "return count(for $a in $A for $b in $B where $a/k = $b/k return $b)",
+        90, exists(HashFilter.class));
+    check(INPUT + "for $a in $A[k < 3] for $b in $B where $b/k = $a/k return $b/@id/string()",
+        "1\n2\n1\n2\n1\n2\n1\n2\n1\n2\n1\n2\n1\n2\n1\n2\n1\n2\n1\n2",
+        exists(HashFilter.class));
+    check(INPUT + "for $a in $A[position() < 4] return $B[k = $a/k]/@id/string()",
+        "1\n2\n3", exists(HashFilter.class));
+    check(INPUT + "for $a in $A[position() < 4] let $b := $B[k = $a/k] " +
+        "return count($b) + count($b/k)", "2\n2\n2", exists(HashFilter.class));
+  }
+
+  /** Keys and probes with multiple items. */
+  @Test public void sequences() {
+    final String input =
+        "let $B := (1 to 20) ! <b id='{ . }'>{ (. mod 3, . mod 5) ! <k>{ . }</k> }</b> ";
+    // results are returned in their original order, and without duplicates
+    check(input + "for $i in (1 to 3) return string-join($B[k = ($i, 4) ! string()]/@id, ',')",
+        "1,4,6,7,9,10,11,13,14,16,19\n2,4,5,7,8,9,11,12,14,17,19,20\n3,4,8,9,13,14,18,19",
+        exists(HashFilter.class));
+    check(input + "for $i in (1 to 3) return count($B[k = ()])", "0\n0\n0");
+    check(input + "for $i in (1 to 3) return count($B[k = 99])", "0\n0\n0");
+  }
+
+  /** Atomic values. */
+  @Test public void atomic() {
+    // numbers of different types
+    check("let $n := (1 to 10) ! xs:double(.) for $i in (1, 2, 3, 11) " +
+        "return $n[. = $i]", "1\n2\n3", exists(HashFilter.class));
+    check("let $n := (1 to 10) ! (. * 2) for $i in 1 to 5 " +
+        "return $n[. div 2 = $i]", "2\n4\n6\n8\n10", exists(HashFilter.class));
+    // strings and untyped values
+    check("let $s := ('a', 'b', 'c', 'b') for $i in ('b', 'c') " +
+        "return count($s[. = <_>{ $i }</_>])", "2\n1", exists(HashFilter.class));
+    check("let $s := ('a', 'b', 'c') for $i in (1 to 3) " +
+        "return $s[string-length(.) = $i]", "a\nb\nc");
+  }
+
+  /** Joins between databases. */
+  @Test public void databases() {
+    final StringBuilder sa = new StringBuilder("<x>"), sb = new StringBuilder("<x>");
+    for(int i = 0; i < 100; i++) sa.append("<a><k>").append(i % 30).append("</k></a>");
+    for(int i = 0; i < 20; i++) sb.append("<b id='").append(i).append("'><k>").append(i).
+      append("</k></b>");
+    execute(new CreateDB(NAME, sa.append("</x>").toString()));
+    set(MainOptions.TEXTINDEX, false);
+    execute(new CreateDB(NAME2, sb.append("</x>").toString()));
+    set(MainOptions.TEXTINDEX, true);
+    try {
+      check("count(for $a in db:open('" + NAME + "')//a for $b in db:open('" + NAME2 + "')//b " +
+          "where $a/k = $b/k return $b)", 70, exists(HashFilter.class), exists("Let"));
+      check("sum(for $a in db:open('" + NAME + "')//a return " +
+          "db:open('" + NAME2 + "')//b[k = $a/k]/@id)", 615, exists(HashFilter.class));
+    } finally {
+      execute(new DropDB(NAME));
+      execute(new DropDB(NAME2));
+    }
+  }
+
+  /** Expressions that are not rewritten. */
+  @Test public void nestedLoops() {
+    // single iteration
+    check(INPUT + "for $a in $A[1] return $B[k = $a/k]/@id/string()", 1,
+        empty(HashFilter.class));
+    // positional predicate
+    check(INPUT + "for $a in $A[position() < 4] return $B[k = $a/k * last()]/@id/string()",
+        20, empty(HashFilter.class));
+    // input depends on variable of the loop
+    check(INPUT + "for $a in $A[position() < 4] return ($B, $a)[k = $a/k]/@id/string()",
+        "1\n2\n3", empty(HashFilter.class));
+    // input constructs nodes
+    check("for $i in 1 to 3 return count(((1 to 5) ! <b>{ . }</b>)[. = $i])", "1\n1\n1",
+        empty(HashFilter.class));
+    // incompatible types
+    check(INPUT + "for $i in 1 to 3 return $B[@id = $i]/k/string()", "1\n2\n3",
+        empty(HashFilter.class));
+  }
+}
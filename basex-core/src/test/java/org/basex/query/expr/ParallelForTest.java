@@ -0,0 +1,118 @@
+package org.basex.query.expr;
+
+import static org.basex.query.QueryError.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.ast.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for evaluating for clauses in parallel ({@link MainOptions#PARALLELFOR}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class ParallelForTest extends QueryPlanTest {
+  /** Test for a parallelized FLWOR expression. */
+  private static final String PARALLEL = "exists(//GFLWOR[@parallel = 4])";
+  /** Test for a sequential FLWOR expression. */
+  private static final String SEQUENTIAL = "empty(//GFLWOR[@parallel])";
+
+  /** Resets the options. */
+  @AfterEach public void tearDown() {
+    set(MainOptions.PARALLELFOR, 0);
+  }
+
+  /** Simple for clauses. */
+  @Test public void simple() {
+    compare("for $i in 1 to 100000 return $i * 2", PARALLEL);
+    compare("for $i in 1 to 3 return $i * 2", PARALLEL);
+    compare("for $i in (1 to 3)[. = 2] return $i * 2", PARALLEL);
+    compare("for $i in 1 to 100000 where $i > 100000 return $i * 2", PARALLEL);
+    compare("sum(for $i in 1 to 100000 return $i * $i)", PARALLEL);
+    compare("for $s in string-to-codepoints('abcdefg') return codepoints-to-string($s)",
+        PARALLEL);
+  }
+
+  /** Positional variables, subsequent clauses. */
+  @Test public void clauses() {
+    compare("for $i at $p in reverse(1 to 10000) return $p * 100000 + $i", PARALLEL);
+    compare("for $i in 1 to 10000 let $s := string($i) where contains($s, '7') " +
+        "for $c in string-to-codepoints($s) where $c > 52 return $i || ':' || $c", PARALLEL);
+    compare("for $i in 1 to 10000 for $j in $i to $i + 2 return $i * $j", PARALLEL);
+    compare("for $i in 1 to 10 count $c return $c * $i", PARALLEL);
+  }
+
+  /** Local variables, context value, functions. */
+  @Test public void scopes() {
+    compare("for $x in 3 to 4 return for $i in 1 to 1000 return $i mod $x = 0", PARALLEL);
+    compare("(1 to 10) ! (for $i in 1 to 1000 return $i * .)", PARALLEL);
+    compare("for $i in 1 to 1000 let $f := function($a) { $a + $i } return $f($i)", PARALLEL);
+    compare("declare function local:f($x) { for $i in 1 to $x return $i * $x }; " +
+        "for $i in 1 to 100 return local:f($i)", PARALLEL);
+    compare("declare function local:f($x) { if($x = 0) then 0 else $x + local:f($x - 1) }; " +
+        "for $i in 1 to 100 return local:f($i * 2)", PARALLEL);
+  }
+
+  /** Database nodes. */
+  @Test public void nodes() {
+    final StringBuilder sb = new StringBuilder("<xml>");
+    for(int i = 0; i < 1000; i++) sb.append("<a id='").append(i).append("'>").append(i % 7).
+      append("</a>");
+    execute(new CreateDB(NAME, sb.append("</xml>").toString()));
+    try {
+      compare("for $a in //a where $a = '3' return $a/@id/string()", PARALLEL);
+      compare("for $a in //a return ($a, $a/@id)", PARALLEL);
+    } finally {
+      execute(new DropDB(NAME));
+    }
+  }
+
+  /** Expressions that are evaluated sequentially. */
+  @Test public void sequential() {
+    // node constructors, nondeterministic and updating expressions
+    compare("for $i in 1 to 10 return <a>{ $i }</a>", SEQUENTIAL);
+    compare("for $i in 1 to 10 return element a { $i }", SEQUENTIAL);
+    compare("for $i in 1 to 10 return random:integer($i) < $i", SEQUENTIAL);
+    // clauses that depend on all items, score variables
+    compare("for $i in 1 to 10 order by $i descending return $i", SEQUENTIAL);
+    compare("for $i in 1 to 10 group by $m := $i mod 3 return sum($i)", SEQUENTIAL);
+    compare("for tumbling window $w in 1 to 10 start at $s when true() " +
+        "end at $e when $e - $s = 2 return sum($w)", SEQUENTIAL);
+    compare("for $i allowing empty in 1 to 10 return $i", SEQUENTIAL);
+    compare("let $i := 1 to 10 for $j in $i return $j", SEQUENTIAL);
+  }
+
+  /** Options and pragmas. */
+  @Test public void options() {
+    final String query = "for $i in 1 to 10 return $i * 2";
+    check(query, "2\n4\n6\n8\n10\n12\n14\n16\n18\n20", SEQUENTIAL);
+    check("declare option db:parallelfor '4'; " + query, null, PARALLEL);
+    check("(# db:parallelfor 4 #) { " + query + " }", null, PARALLEL);
+    set(MainOptions.PARALLELFOR, 1);
+    check(query, null, SEQUENTIAL);
+  }
+
+  /** Errors. */
+  @Test public void errors() {
+    set(MainOptions.PARALLELFOR, 4);
+    error("for $i in 1 to 100000 return $i idiv ($i - 77777)", DIVZERO_X);
+    error("for $i in 1 to 100000 return if($i = 3) then error() else $i", FUNERR1);
+    query("try { for $i in 1 to 1000 return 1 idiv (1000 - $i) } catch * { 'caught' }",
+        "caught");
+  }
+
+  /**
+   * Compares the results of the sequential and parallel evaluation of a query.
+   * @param query query
+   * @param test test on the query plan
+   */
+  private static void compare(final String query, final String test) {
+    set(MainOptions.PARALLELFOR, 0);
+    final String expected = query(query);
+    set(MainOptions.PARALLELFOR, 4);
+    check(query, expected, test);
+  }
+}
@@ -74,7 +74,7 @@ public final class SimpleMapTest extends QueryPlanTest {
 
   /** Flatten nested operators. */
   @Test public void flatten() {
-    check("(1, 2) ! ((. + .) ! (. * .))", "4\n16", count(IterMap.class, 1));
+    check("(1, 2) ! ((. + .) ! (. * .))", "4\n16", count(ArithMap.class, 1));
     // do not rewrite positional access
     check("(1, 2) ! ((1 to .) ! position())", "1\n1\n2", count(CachedMap.class, 1));
   }
@@ -0,0 +1,116 @@
+package org.basex.query.expr;
+
+import static org.basex.query.QueryError.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for sorting tuples on disk ({@link MainOptions#SORTLIMIT}) and in parallel
+ * ({@link MainOptions#PARALLELSORT}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class SortTest extends SandboxTest {
+  /** Resets the options. */
+  @AfterEach public void tearDown() {
+    set(MainOptions.SORTLIMIT, 0);
+    set(MainOptions.PARALLELSORT, 0);
+  }
+
+  /** Atomic sort keys. */
+  @Test public void atomic() {
+    compare("for $i in 1 to 1000 order by $i mod 7, $i descending return $i");
+    compare("for $i in 1 to 1000 order by -$i return $i");
+    compare("for $i in 1 to 1000 order by xs:byte($i mod 100) return $i");
+    compare("for $i in 1 to 1000 order by $i div 7 return $i");
+    compare("for $i in 1 to 1000 order by xs:double($i mod 13) descending return $i");
+    compare("for $i in 1 to 1000 order by xs:float($i mod 13) return $i");
+    compare("for $i in 1 to 1000 order by string($i) return $i");
+    compare("for $i in 1 to 1000 order by <_>{ $i mod 17 }</_>/text() return $i");
+    compare("for $i in 1 to 1000 order by xs:token($i mod 17) return $i");
+    compare("for $i in 1 to 1000 order by ($i mod 3 = 0) return $i");
+    compare("for $i in 1 to 1000 order by xs:date('2000-01-01') + " +
+        "xs:dayTimeDuration('P1D') * ($i mod 50) descending return $i");
+    compare("for $i in 1 to 1000 order by xs:dayTimeDuration('PT1S') * ($i mod 30) return $i");
+    compare("for $i in 1 to 1000 order by xs:hexBinary(string($i mod 10 + 10)) return $i");
+  }
+
+  /** Empty and NaN keys. */
+  @Test public void empty() {
+    compare("for $i in 1 to 1000 order by (if($i mod 3 = 0) then () else $i mod 5) return $i");
+    compare("for $i in 1 to 1000 order by (if($i mod 3 = 0) then () else $i mod 5) " +
+        "empty greatest return $i");
+    compare("for $i in 1 to 1000 order by (if($i mod 3 = 0) then xs:double('NaN') " +
+        "else $i mod 5) descending empty least return $i");
+  }
+
+  /** Tuples with different kinds of values. */
+  @Test public void values() {
+    compare("for $i in 1 to 1000 let $s := (1 to $i mod 4) order by $i mod 5 " +
+        "return count($s) || ':' || $i");
+    compare("for $i in 1 to 1000 let $e := <e>{ $i }</e> order by $i mod 5 " +
+        "return $e/text() || ':' || ($e is $e)");
+    compare("for $i in 1 to 1000 let $f := function() { $i } let $q := QName('u', 'p:l' || $i) " +
+        "let $m := map { $i: $i } order by $i mod 5 return $f() + $m($i) || prefix-from-QName($q)");
+    compare("for $i in 1 to 1000 let $d := xs:decimal($i) div 8 let $u := xs:anyURI('x' || $i) " +
+        "order by $i mod 5 return ($d, $u)");
+  }
+
+  /** Database nodes. */
+  @Test public void nodes() {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 1000; i++) sb.append("<a>").append(i % 31).append("</a>");
+    execute(new CreateDB(NAME, sb.append("</x>").toString()));
+    compare("for $a in //a order by xs:integer($a) return $a");
+    compare("for $a in //a order by xs:integer($a) descending return ($a, $a/..) ! name()");
+    compare("for $a in //a let $p := $a/preceding-sibling::a[1] " +
+        "order by string($a) return $p is $a/preceding-sibling::a[1]");
+    execute(new DropDB(NAME));
+  }
+
+  /** Errors, early termination. */
+  @Test public void errors() {
+    for(final int limit : new int[] { 0, 3 }) {
+      set(MainOptions.SORTLIMIT, limit);
+      error("for $i in 1 to 10 order by (if($i = 7) then 'a' else $i) return $i", INVTYPE_X_X_X);
+    }
+    compare("head(for $i in 1 to 1000 order by $i mod 13 return $i)");
+    compare("(for $i in 1 to 1000 order by $i mod 13 return $i)[position() < 10]");
+  }
+
+  /** Sorting in parallel. */
+  @Test public void parallel() {
+    compare("for $i in 1 to 10000 order by $i mod 97, $i descending return $i");
+    compare("sort(1 to 10000, (), function($i) { $i mod 97 })");
+    compare("sort((1 to 10000) ! string())");
+    compare("sort((1 to 10000) ! (. mod 13), 'http://www.w3.org/2005/xpath-functions/" +
+        "collation/codepoint')");
+    set(MainOptions.PARALLELSORT, 1);
+    error("sort((1 to 10000, 'a'))", CMPTYPES_X_X);
+  }
+
+  /**
+   * Compares the results of a query that is sorted in main memory, on disk, and in parallel.
+   * Checks if all temporary files have been deleted.
+   * @param query query
+   */
+  private static void compare(final String query) {
+    final int files = tempFiles();
+    final String result = query(query);
+    for(final int limit : new int[] { 1, 3, 100 }) {
+      set(MainOptions.SORTLIMIT, limit);
+      assertEquals(result, query(query), "Sort limit: " + limit);
+    }
+    set(MainOptions.SORTLIMIT, 0);
+    set(MainOptions.PARALLELSORT, 1);
+    assertEquals(result, query(query), "Parallel sort");
+    set(MainOptions.PARALLELSORT, 0);
+    assertEquals(files, tempFiles(), "Temporary files were not deleted.");
+  }
+}
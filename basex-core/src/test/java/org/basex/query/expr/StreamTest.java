@@ -0,0 +1,131 @@
+package org.basex.query.expr;
+
+import static org.basex.query.QueryError.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.basex.core.*;
+import org.basex.io.*;
+import org.basex.query.ast.*;
+import org.basex.query.expr.path.StreamPath;
+import org.junit.jupiter.api.*;
+
+/**
+ * Tests for evaluating paths while documents are parsed ({@link MainOptions#STREAM}).
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class StreamTest extends QueryPlanTest {
+  /** Test file. */
+  private static final IOFile FILE = new IOFile(sandbox(), "stream.xml");
+  /** Document. */
+  private static final String DOC = "doc('" + FILE.path() + "')";
+
+  /** Creates the test file. */
+  @BeforeAll public static void init() {
+    write(FILE, "<?xml version='1.0'?><!-- doc -->" +
+      "<root><a id='a1' n='1'>A1<!--c--><?pi x?></a><b><a id='a2' n='2'>A2<a n='3'>A3</a></a>" +
+      "</b><c xml:space='preserve'> <d id='d1'/> <d id='d2'><e/></d></c></root>");
+  }
+
+  /** Resets the options. */
+  @AfterEach public void tearDown() {
+    set(MainOptions.STREAM, false);
+  }
+
+  /** Streamed paths. */
+  @Test public void paths() {
+    compare(DOC + "/root/a");
+    compare(DOC + "//a ! string()");
+    compare(DOC + "//a/@n ! string()");
+    compare(DOC + "//a/@* ! name()");
+    compare(DOC + "/root/* ! name()");
+    compare(DOC + "/*/b//a/@id ! string()");
+    compare(DOC + "//d ! @id ! string()");
+    compare(DOC + "/root/c ! serialize(.)");
+    compare(DOC + "/root/a ! node() ! name()");
+    compare(DOC + "/root/b/descendant::a ! count(.//a)");
+    compare(DOC + "//x");
+  }
+
+  /** Aggregations and FLWOR expressions. */
+  @Test public void flwor() {
+    compare("count(" + DOC + "//a)");
+    compare("sum(" + DOC + "//@n)");
+    compare("max(" + DOC + "//a/@n)");
+    compare("head(" + DOC + "//a) ! @id ! string()");
+    compare("for $d in " + DOC + "//d where $d/e return string($d/@id)");
+    compare("for $a in " + DOC + "//a group by $k := count($a/a) order by $k " +
+        "return $k || ':' || count($a)");
+  }
+
+  /** Identity of streamed nodes. */
+  @Test public void identity() {
+    compare("count((1 to 2) ! " + DOC + "//a | ())");
+    compare("let $f := function() { " + DOC + "//a } return count($f() | $f())");
+    compare("let $a := " + DOC + "//a return $a[1] is $a[1]");
+
+    // nested results are roots of new fragments
+    set(MainOptions.STREAM, true);
+    check(DOC + "//a ! empty(..)", "true\ntrue\ntrue", exists(StreamPath.class));
+    check(DOC + "//a ! (root() is .)", "true\ntrue\ntrue", exists(StreamPath.class));
+    check("(" + DOC + "//a)[3] ! serialize(.)", "<a n=\"3\">A3</a>", exists(StreamPath.class));
+  }
+
+  /** Namespaces. */
+  @Test public void namespaces() {
+    final IOFile file = new IOFile(sandbox(), "ns.xml");
+    write(file, "<r xmlns='u' xmlns:p='p'><a p:x='1'><a/></a><p:a/><b xmlns=''><a/></b></r>");
+    final String doc = "doc('" + file.path() + "')";
+    compare(doc + "//*:a ! name()");
+    compare(doc + "//*:a ! namespace-uri()");
+    compare("(" + doc + "//*:a)[2] ! serialize(.)");
+    compare("declare namespace p = 'p'; " + doc + "//p:a ! name()");
+    compare("declare default element namespace 'u'; count(" + doc + "/r/a)");
+    compare("declare namespace p = 'p'; " + doc + "//@p:x ! name()");
+    compare(doc + "/*:r/*:a/@* ! namespace-uri()");
+    assertTrue(file.delete());
+  }
+
+  /** Paths that are not streamed. */
+  @Test public void noStream() {
+    set(MainOptions.STREAM, true);
+    check(DOC + "//a/..", null, empty(StreamPath.class));
+    check(DOC + "//a[1]", null, empty(StreamPath.class));
+    check(DOC + "//a/text()", null, empty(StreamPath.class));
+    check(DOC + "/root/following::a", null, empty(StreamPath.class));
+    check(DOC + "/root/b/a//@id ! string()", "a2", empty(StreamPath.class));
+    // document is accessed more than once
+    check("count(" + DOC + "//a | " + DOC + "//a)", 3, empty(StreamPath.class));
+    check("count(" + DOC + "//a) + count(" + DOC + "/root)", 4, empty(StreamPath.class));
+    check("for $f in '" + FILE.path() + "' return count(doc($f)//a | " + DOC + "//a)", 3,
+        empty(StreamPath.class));
+    check(DOC + "/root", null, exists(StreamPath.class));
+    error("doc('" + new IOFile(sandbox(), "unknown.xml").path() + "')//a", WHICHRES_X);
+  }
+
+  /** Errors. */
+  @Test public void errors() {
+    final IOFile file = new IOFile(sandbox(), "error.xml");
+    set(MainOptions.STREAM, true);
+    write(file, "<r><a/>");
+    error("count(doc('" + file.path() + "')//a)", IOERR_X);
+    write(file, "<r><a/></r><r/>");
+    error("count(doc('" + file.path() + "')//a)", IOERR_X);
+    write(file, "<r><p:a/></r>");
+    error("count(doc('" + file.path() + "')//a)", IOERR_X);
+    assertTrue(file.delete());
+  }
+
+  /**
+   * Compares the results of a query that is evaluated on a parsed and a streamed document.
+   * @param query query
+   */
+  private static void compare(final String query) {
+    final String result = query(query);
+    set(MainOptions.STREAM, true);
+    check(query, null, exists(StreamPath.class));
+    assertEquals(result, query(query), "\nQuery: " + query + '\n');
+    set(MainOptions.STREAM, false);
+  }
+}
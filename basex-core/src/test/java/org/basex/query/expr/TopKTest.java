@@ -0,0 +1,119 @@
+package org.basex.query.expr;
+
+import static org.basex.query.QueryError.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.query.ast.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for sorting the first tuples of {@code order by} clauses.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class TopKTest extends QueryPlanTest {
+  /** FLWOR expression. */
+  private static final String FLWOR = "for $i in 1 to 1000 order by $i mod 7 descending, " +
+      "$i mod 3 return $i";
+  /** Test for unlimited sorting. */
+  private static final String UNLIMITED = "empty(//OrderBy/@limit)";
+
+  /** Resets the options. */
+  @AfterEach public void tearDown() {
+    set(MainOptions.SORTLIMIT, 0);
+  }
+
+  /** Positional filters and functions. */
+  @Test public void positions() {
+    check("(" + FLWOR + ")[position() <= 10]", range(FLWOR, 0, 10), limit(10));
+    check("(" + FLWOR + ")[position() < 4]", range(FLWOR, 0, 3), limit(3));
+    check("(" + FLWOR + ")[position() = 3 to 8]", range(FLWOR, 2, 8), limit(8));
+    check("(" + FLWOR + ")[5]", range(FLWOR, 4, 5), limit(5));
+    check("head(" + FLWOR + ")", range(FLWOR, 0, 1), limit(1));
+    check("subsequence(" + FLWOR + ", 1, 10)", range(FLWOR, 0, 10), limit(10));
+    check("subsequence(" + FLWOR + ", 5, 3)", range(FLWOR, 4, 7), limit(7));
+    check("(" + FLWOR + ")[1]", range(FLWOR, 0, 1), limit(1));
+
+    // tuples with equal keys are returned in their original order
+    final String flwor = "for $i in 1 to 1000 order by $i mod 3 return $i";
+    check("(" + flwor + ")[position() <= 500]", range(flwor, 0, 500), limit(500));
+    check("(" + flwor + ")[position() <= 2000]", range(flwor, 0, 1000), UNLIMITED);
+  }
+
+  /** Clauses and return expressions. */
+  @Test public void clauses() {
+    String flwor = "for $i in 1 to 1000 let $s := string($i) order by $s " +
+        "let $l := string-length($s) return $l || ':' || $s";
+    check("(" + flwor + ")[position() <= 10]", range(flwor, 0, 10), limit(10));
+    flwor = "for $i in 1 to 100 order by -$i return ($i, $i * 2)";
+    check("(" + flwor + ")[position() <= 5]", range(flwor, 0, 5), limit(5));
+    flwor = "for $i in 1 to 100 order by (if($i mod 3 = 0) then () else $i mod 5) " +
+        "empty greatest return $i";
+    check("(" + flwor + ")[position() <= 50]", range(flwor, 0, 50), limit(50));
+
+    // return expression may yield no results
+    flwor = "for $i in 1 to 100 order by -$i return $i[. mod 2 = 0]";
+    check("(" + flwor + ")[position() <= 5]", range(flwor, 0, 5), UNLIMITED);
+    // where clauses are moved before the order by clause
+    flwor = "for $i in 1 to 100 order by -$i where $i mod 2 = 0 return $i";
+    check("(" + flwor + ")[position() <= 5]", range(flwor, 0, 5), limit(5));
+    // clauses may change the number of tuples
+    flwor = "for $i in 1 to 10 order by -$i for $j in 1 to $i mod 3 return $j";
+    check("(" + flwor + ")[position() <= 5]", range(flwor, 0, 5), UNLIMITED);
+    // all items are requested
+    check("(" + FLWOR + ")[position() > 995]", range(FLWOR, 995, 1000), UNLIMITED);
+  }
+
+  /** Database nodes, sort limit. */
+  @Test public void nodes() {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 1000; i++) sb.append("<a p='").append(i % 97).append("'/>");
+    execute(new CreateDB(NAME, sb.append("</x>").toString()));
+    final String flwor = "for $a in //a order by number($a/@p) descending return string($a/@p)";
+    check("(" + flwor + ")[position() <= 20]", range(flwor, 0, 20), limit(20));
+
+    // limit exceeds the maximum number of tuples that are sorted in main memory
+    set(MainOptions.SORTLIMIT, 10);
+    check("(" + flwor + ")[position() <= 20]", range(flwor, 0, 20), limit(20));
+    set(MainOptions.SORTLIMIT, 20);
+    check("(" + flwor + ")[position() <= 20]", range(flwor, 0, 20), limit(20));
+    execute(new DropDB(NAME));
+  }
+
+  /** Errors. */
+  @Test public void errors() {
+    error("(for $i in 1 to 10 order by (if($i = 7) then 'a' else $i) return $i)[1]",
+        INVTYPE_X_X_X);
+    error("(for $i in 1 to 10 order by (if($i = 1) then 'a' else $i) return $i)[1]",
+        INVTYPE_X_X_X);
+  }
+
+  /**
+   * Returns a test for the specified limit.
+   * @param limit limit
+   * @return test string
+   */
+  private static String limit(final long limit) {
+    return "//OrderBy/@limit = " + limit;
+  }
+
+  /**
+   * Returns a range of the unlimited result of a FLWOR expression.
+   * @param flwor FLWOR expression
+   * @param start start position (inclusive, starting from 0)
+   * @param end end position (exclusive)
+   * @return result
+   */
+  private static String range(final String flwor, final int start, final int end) {
+    final String[] items = query(flwor).split("\n");
+    final StringBuilder sb = new StringBuilder();
+    for(int i = start; i < Math.min(end, items.length); i++) {
+      if(sb.length() > 0) sb.append('\n');
+      sb.append(items[i]);
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,68 @@
+package org.basex.util;
+
+import static org.basex.util.Token.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+/**
+ * Class for testing the {@link LZ4} methods.
+ *
+ * @author BaseX Team 2005-20, BSD License
+ * @author Christian Gruen
+ */
+public final class LZ4Test {
+  /** Test. */
+  @Test public void empty() {
+    run(new byte[0]);
+    run(token("a"));
+    run(token("abcdefghijklm"));
+  }
+
+  /** Test. */
+  @Test public void text() {
+    final TokenBuilder tb = new TokenBuilder();
+    for(int i = 0; i < 1000; i++) tb.add("<name>Text " + i + "</name>");
+    final byte[] bytes = tb.finish();
+    assertTrue(run(bytes) < bytes.length / 4);
+  }
+
+  /** Test. */
+  @Test public void repeated() {
+    final byte[] bytes = new byte[100000];
+    Arrays.fill(bytes, (byte) 'x');
+    assertTrue(run(bytes) < 1000);
+    for(int b = 0; b < bytes.length; b++) bytes[b] = (byte) (b % 3);
+    assertTrue(run(bytes) < 1000);
+  }
+
+  /** Test. */
+  @Test public void random() {
+    final Random random = new Random(1);
+    for(final int length : new int[] { 15, 255, 4096, 70000 }) {
+      final byte[] bytes = new byte[length];
+      random.nextBytes(bytes);
+      assertTrue(run(bytes) <= LZ4.maxLength(length));
+      // small alphabet
+      for(int b = 0; b < length; b++) bytes[b] = (byte) ('a' + random.nextInt(4));
+      run(bytes);
+    }
+  }
+
+  /**
+   * Compresses and decompresses the specified bytes.
+   * @param bytes bytes
+   * @return size of compressed bytes
+   */
+  private static int run(final byte[] bytes) {
+    final int length = bytes.length;
+    final byte[] packed = new byte[LZ4.maxLength(length)];
+    final int size = LZ4.compress(bytes, length, packed);
+    final byte[] unpacked = new byte[length];
+    assertEquals(length, LZ4.decompress(packed, 0, size, unpacked));
+    assertArrayEquals(bytes, unpacked);
+    return size;
+  }
+}